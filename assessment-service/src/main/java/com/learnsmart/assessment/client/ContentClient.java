@@ -4,6 +4,9 @@ import com.learnsmart.assessment.dto.MasteryDtos;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import java.util.List;
 import java.util.UUID;
 
 @FeignClient(name = "content-service")
@@ -11,4 +14,8 @@ public interface ContentClient {
 
     @GetMapping("/skills/{id}")
     MasteryDtos.SkillInfo getSkill(@PathVariable("id") UUID id);
+
+    // Unknown ids are left out of the response
+    @PostMapping("/skills:batchGet")
+    List<MasteryDtos.SkillInfo> batchGetSkills(@RequestBody MasteryDtos.SkillBatchGetRequest request);
 }
@@ -5,6 +5,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
+import java.util.Map;
 import java.util.UUID;
 
 @FeignClient(name = "planning-service")
@@ -12,4 +13,8 @@ public interface PlanningClient {
 
     @PostMapping("/plans/{id}/replan")
     Object replan(@PathVariable("id") UUID id, @RequestParam("reason") String reason, @RequestBody String constraints);
+
+    // Queues the user's plans for replan trigger re-evaluation (returns immediately)
+    @PostMapping("/plans/replan-signals")
+    Object signalReplan(@RequestBody Map<String, Object> signal);
 }
@@ -0,0 +1,112 @@
+package com.learnsmart.assessment.client;
+
+import com.learnsmart.assessment.dto.MasteryDtos;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Skill names and domains from content-service, for enriching mastery.
+ *
+ * Skills missing from the cache are resolved with one
+ * POST /skills:batchGet per {@link #MAX_SKILLS_PER_CALL} ids. Results are
+ * cached, so repeated mastery reads for the same user cost no calls at all;
+ * "no such skill" is cached for a much shorter time, so a skill created
+ * after a lookup shows up soon.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SkillMetadataCache {
+
+    // Content-service rejects larger requests
+    static final int MAX_SKILLS_PER_CALL = 500;
+
+    private final ContentClient contentClient;
+
+    private final Map<UUID, CachedSkill> cache = new ConcurrentHashMap<>();
+
+    @Value("${assessment.skill-metadata.cache-seconds:3600}")
+    private long cacheSeconds = 3600;
+
+    @Value("${assessment.skill-metadata.miss-cache-seconds:60}")
+    private long missCacheSeconds = 60;
+
+    @Value("${assessment.skill-metadata.cache-max-entries:50000}")
+    private int maxEntries = 50000;
+
+    private record CachedSkill(Optional<MasteryDtos.SkillInfo> skill, long expiresAt) {
+    }
+
+    /**
+     * Metadata of each skill content-service knows. Skills that do not exist
+     * or could not be resolved (content-service unavailable) are absent.
+     */
+    public Map<UUID, MasteryDtos.SkillInfo> getSkills(Collection<UUID> skillIds) {
+        Map<UUID, MasteryDtos.SkillInfo> result = new HashMap<>();
+        if (skillIds == null || skillIds.isEmpty()) {
+            return result;
+        }
+
+        long now = System.nanoTime();
+        List<UUID> missing = new ArrayList<>();
+        for (UUID skillId : new LinkedHashSet<>(skillIds)) {
+            if (skillId == null) {
+                continue;
+            }
+            CachedSkill cached = cache.get(skillId);
+            if (cached != null && cached.expiresAt() - now > 0) {
+                cached.skill().ifPresent(skill -> result.put(skillId, skill));
+            } else {
+                missing.add(skillId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        long expiresAt = now + TimeUnit.SECONDS.toNanos(cacheSeconds);
+        long missExpiresAt = now + TimeUnit.SECONDS.toNanos(missCacheSeconds);
+        evictExpired(now);
+        for (int from = 0; from < missing.size(); from += MAX_SKILLS_PER_CALL) {
+            List<UUID> chunk = missing.subList(from, Math.min(missing.size(), from + MAX_SKILLS_PER_CALL));
+            try {
+                List<MasteryDtos.SkillInfo> response = contentClient
+                        .batchGetSkills(new MasteryDtos.SkillBatchGetRequest(new ArrayList<>(chunk)));
+
+                Map<UUID, MasteryDtos.SkillInfo> found = new HashMap<>();
+                if (response != null) {
+                    for (MasteryDtos.SkillInfo skill : response) {
+                        found.put(skill.getId(), skill);
+                    }
+                }
+                for (UUID skillId : chunk) {
+                    MasteryDtos.SkillInfo skill = found.get(skillId);
+                    if (skill != null) {
+                        result.put(skillId, skill);
+                    }
+                    cache.put(skillId, new CachedSkill(Optional.ofNullable(skill),
+                            skill != null ? expiresAt : missExpiresAt));
+                }
+            } catch (Exception e) {
+                log.warn("Failed to fetch {} skills from content-service: {}", chunk.size(), e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    private void evictExpired(long now) {
+        if (cache.size() < maxEntries) {
+            return;
+        }
+        cache.entrySet().removeIf(entry -> entry.getValue().expiresAt() - now <= 0);
+        if (cache.size() >= maxEntries) {
+            cache.clear();
+        }
+    }
+}
@@ -47,4 +47,10 @@ public class AssessmentController {
     public ResponseEntity<List<UserItemResponse>> getSessionResponses(@PathVariable UUID sessionId) {
         return ResponseEntity.ok(sessionService.getSessionResponses(sessionId));
     }
+
+    @GetMapping("/sessions/{sessionId}/responses/{responseId}/feedback")
+    public ResponseEntity<UserItemResponse> getResponseFeedback(@PathVariable UUID sessionId,
+            @PathVariable UUID responseId) {
+        return ResponseEntity.ok(sessionService.getResponseFeedback(sessionId, responseId));
+    }
 }
@@ -3,6 +3,7 @@ package com.learnsmart.assessment.dto;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import java.util.List;
 import java.util.UUID;
 import java.time.OffsetDateTime;
 
@@ -29,6 +30,13 @@ public class MasteryDtos {
         private DomainInfo domain;
     }
 
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SkillBatchGetRequest {
+        private List<UUID> ids;
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
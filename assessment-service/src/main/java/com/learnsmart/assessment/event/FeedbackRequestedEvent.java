@@ -0,0 +1,12 @@
+package com.learnsmart.assessment.event;
+
+import java.util.UUID;
+
+/**
+ * Published when an incorrect response was saved and AI feedback should be
+ * generated for it. Consumed after commit by
+ * {@link com.learnsmart.assessment.service.AiFeedbackGenerator}.
+ */
+public record FeedbackRequestedEvent(UUID responseId, UUID userId, UUID assessmentItemId, UUID domainId,
+        UUID selectedOptionId, String openAnswer) {
+}
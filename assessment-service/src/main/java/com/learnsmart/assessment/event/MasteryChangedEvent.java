@@ -0,0 +1,10 @@
+package com.learnsmart.assessment.event;
+
+import java.util.UUID;
+
+/**
+ * Published when a graded response changed a user's skill mastery. Consumed
+ * after commit by {@link com.learnsmart.assessment.service.ReplanSignalQueue}.
+ */
+public record MasteryChangedEvent(UUID userId, UUID planId) {
+}
@@ -17,7 +17,7 @@ import java.util.List;
 public class AssessmentItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(name = "domain_id", nullable = false)
@@ -35,6 +35,13 @@ public class AssessmentItem {
     @Column(precision = 3, scale = 2)
     private BigDecimal difficulty;
 
+    // IRT 2PL parameters once calibrated; null falls back to 1PL on difficulty
+    @Column(name = "irt_discrimination", precision = 6, scale = 3)
+    private BigDecimal irtDiscrimination;
+
+    @Column(name = "irt_difficulty", precision = 6, scale = 3)
+    private BigDecimal irtDifficulty;
+
     @Column(columnDefinition = "TEXT")
     private String metadata; // JSONB in Postgres, TEXT in H2
 
@@ -14,7 +14,7 @@ import java.util.UUID;
 public class AssessmentItemOption {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @com.fasterxml.jackson.annotation.JsonIgnore
@@ -5,8 +5,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import java.util.UUID;
-import java.util.List;
-import java.util.ArrayList;
 import java.time.OffsetDateTime;
 
 @Entity
@@ -17,7 +15,7 @@ import java.time.OffsetDateTime;
 public class AssessmentSession {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(name = "user_id", nullable = false)
@@ -44,11 +42,12 @@ public class AssessmentSession {
     @Column(name = "completed_at")
     private OffsetDateTime completedAt;
 
-    // US-0115: Deduplication
-    @ElementCollection
-    @CollectionTable(name = "assessment_session_presented_items", joinColumns = @JoinColumn(name = "session_id"))
-    @Column(name = "item_id")
-    private List<UUID> presentedItemIds = new ArrayList<>();
+    // Adaptive testing: ability (logits) and the information accumulated behind it
+    @Column(name = "ability_estimate")
+    private Double abilityEstimate;
+
+    @Column(name = "ability_information")
+    private Double abilityInformation;
 
     @PrePersist
     public void prePersist() {
@@ -0,0 +1,45 @@
+package com.learnsmart.assessment.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.io.Serializable;
+import java.util.UUID;
+import java.time.OffsetDateTime;
+
+// Generated feedback for choosing an incorrect option; shared by all learners
+@Entity
+@Table(name = "assessment_option_feedback")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OptionFeedback {
+
+    @EmbeddedId
+    private OptionFeedbackId id;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String feedback;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OptionFeedbackId implements Serializable {
+        @Column(name = "assessment_item_id")
+        private UUID assessmentItemId;
+
+        @Column(name = "selected_option_id")
+        private UUID selectedOptionId;
+    }
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null)
+            createdAt = OffsetDateTime.now();
+    }
+}
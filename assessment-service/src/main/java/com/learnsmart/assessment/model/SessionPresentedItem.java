@@ -0,0 +1,36 @@
+package com.learnsmart.assessment.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.io.Serializable;
+import java.util.UUID;
+import java.time.OffsetDateTime;
+
+// US-0115: An item shown in a session; rows are only ever inserted
+@Entity
+@Table(name = "assessment_session_presented_items")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionPresentedItem {
+
+    @EmbeddedId
+    private SessionPresentedItemId id;
+
+    @Column(name = "presented_at")
+    private OffsetDateTime presentedAt;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SessionPresentedItemId implements Serializable {
+        @Column(name = "session_id")
+        private UUID sessionId;
+
+        @Column(name = "item_id")
+        private UUID itemId;
+    }
+}
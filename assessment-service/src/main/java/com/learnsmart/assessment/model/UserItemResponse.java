@@ -15,7 +15,7 @@ import java.time.OffsetDateTime;
 public class UserItemResponse {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(name = "session_id", nullable = false)
@@ -39,6 +39,13 @@ public class UserItemResponse {
     @Column(name = "response_time_ms")
     private Integer responseTimeMs;
 
+    // AI feedback is generated after grading: pending, ready or failed (null when none was requested)
+    @Column(name = "feedback_status", length = 20)
+    private String feedbackStatus;
+
+    @Column(name = "ai_feedback", columnDefinition = "TEXT")
+    private String aiFeedback;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private OffsetDateTime createdAt;
 
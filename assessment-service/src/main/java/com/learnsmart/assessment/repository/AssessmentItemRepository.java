@@ -4,6 +4,10 @@ import com.learnsmart.assessment.model.AssessmentItem;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,4 +16,15 @@ public interface AssessmentItemRepository extends JpaRepository<AssessmentItem,
 
     @Query(value = "SELECT * FROM assessment_items WHERE is_active = true ORDER BY RANDOM() LIMIT 1", nativeQuery = true)
     Optional<AssessmentItem> findRandomActiveItem();
+
+    // Item bank index loading; options are fetched separately (two bags cannot be join-fetched together).
+    // Hibernate de-duplicates the fetch-joined roots, so no DISTINCT over the TEXT/JSON columns
+    @Query("SELECT i FROM AssessmentItem i LEFT JOIN FETCH i.skills WHERE i.isActive = true")
+    List<AssessmentItem> findActiveWithSkills();
+
+    @Query("SELECT i FROM AssessmentItem i LEFT JOIN FETCH i.skills WHERE i.updatedAt > :since")
+    List<AssessmentItem> findWithSkillsUpdatedAfter(@Param("since") OffsetDateTime since);
+
+    @Query("SELECT i FROM AssessmentItem i LEFT JOIN FETCH i.options WHERE i.id IN :ids")
+    List<AssessmentItem> fetchOptions(@Param("ids") Collection<UUID> ids);
 }
@@ -0,0 +1,45 @@
+package com.learnsmart.assessment.repository;
+
+import com.learnsmart.assessment.model.OptionFeedback;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface OptionFeedbackRepository extends JpaRepository<OptionFeedback, OptionFeedback.OptionFeedbackId> {
+
+    /**
+     * Incorrect option without generated feedback, with how often learners
+     * chose it
+     */
+    interface MissingFeedbackView {
+        UUID getAssessmentItemId();
+
+        UUID getSelectedOptionId();
+
+        UUID getDomainId();
+
+        long getTimesChosen();
+    }
+
+    // Most chosen distractors first
+    @Query("SELECT r.assessmentItemId AS assessmentItemId, r.selectedOptionId AS selectedOptionId, "
+            + "i.domainId AS domainId, COUNT(r) AS timesChosen "
+            + "FROM UserItemResponse r, AssessmentItem i "
+            + "WHERE i.id = r.assessmentItemId AND r.isCorrect = false AND r.selectedOptionId IS NOT NULL "
+            + "AND NOT EXISTS (SELECT f FROM OptionFeedback f WHERE f.id.assessmentItemId = r.assessmentItemId "
+            + "AND f.id.selectedOptionId = r.selectedOptionId) "
+            + "GROUP BY r.assessmentItemId, r.selectedOptionId, i.domainId "
+            + "ORDER BY COUNT(r) DESC")
+    List<MissingFeedbackView> findPopularWithoutFeedback(Pageable pageable);
+
+    @Query("SELECT i.id AS assessmentItemId, o.id AS selectedOptionId, i.domainId AS domainId, 0L AS timesChosen "
+            + "FROM AssessmentItemOption o JOIN o.assessmentItem i "
+            + "WHERE o.isCorrect = false AND i.isActive = true "
+            + "AND NOT EXISTS (SELECT f FROM OptionFeedback f WHERE f.id.assessmentItemId = i.id "
+            + "AND f.id.selectedOptionId = o.id) "
+            + "ORDER BY i.id, o.id")
+    List<MissingFeedbackView> findIncorrectOptionsWithoutFeedback(Pageable pageable);
+}
@@ -0,0 +1,15 @@
+package com.learnsmart.assessment.repository;
+
+import com.learnsmart.assessment.model.SessionPresentedItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.List;
+import java.util.UUID;
+
+public interface SessionPresentedItemRepository
+        extends JpaRepository<SessionPresentedItem, SessionPresentedItem.SessionPresentedItemId> {
+
+    @Query("SELECT p.id.itemId FROM SessionPresentedItem p WHERE p.id.sessionId = :sessionId")
+    List<UUID> findItemIdsBySessionId(@Param("sessionId") UUID sessionId);
+}
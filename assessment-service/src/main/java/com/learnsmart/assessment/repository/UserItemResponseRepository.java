@@ -2,9 +2,25 @@ package com.learnsmart.assessment.repository;
 
 import com.learnsmart.assessment.model.UserItemResponse;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.UUID;
 import java.util.List;
+import java.util.Optional;
 
 public interface UserItemResponseRepository extends JpaRepository<UserItemResponse, UUID> {
     List<UserItemResponse> findBySessionIdOrderByCreatedAtAsc(UUID sessionId);
+
+    Optional<UserItemResponse> findByIdAndSessionId(UUID id, UUID sessionId);
+
+    long countBySessionId(UUID sessionId);
+
+    long countBySessionIdAndIsCorrectTrue(UUID sessionId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserItemResponse r SET r.feedbackStatus = :status, r.aiFeedback = :feedback WHERE r.id = :id")
+    int updateFeedback(@Param("id") UUID id, @Param("status") String status, @Param("feedback") String feedback);
 }
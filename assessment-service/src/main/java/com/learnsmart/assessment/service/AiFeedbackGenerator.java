@@ -0,0 +1,104 @@
+package com.learnsmart.assessment.service;
+
+import com.learnsmart.assessment.client.AiClient;
+import com.learnsmart.assessment.dto.AiDtos;
+import com.learnsmart.assessment.event.FeedbackRequestedEvent;
+import com.learnsmart.assessment.repository.UserItemResponseRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Generates AI feedback for incorrect responses off the grading path.
+ *
+ * The response is graded and returned with the option's feedback template;
+ * once it is committed the AI call runs here, with the caller's security
+ * context so the user's token is still forwarded, and the result is stored
+ * on the response for the feedback endpoint to pick up. Feedback for a
+ * selected option is shared through the {@link FeedbackCache}, so the AI
+ * service is only asked once per distractor.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AiFeedbackGenerator {
+
+    public static final String PENDING = "pending";
+    public static final String READY = "ready";
+    public static final String FAILED = "failed";
+
+    private final AiClient aiClient;
+    private final UserItemResponseRepository responseRepository;
+    private final FeedbackCache feedbackCache;
+
+    private final ExecutorService executor = new DelegatingSecurityContextExecutorService(
+            Executors.newVirtualThreadPerTaskExecutor());
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFeedbackRequested(FeedbackRequestedEvent event) {
+        executor.submit(() -> generate(event));
+    }
+
+    void generate(FeedbackRequestedEvent event) {
+        try {
+            String feedback = feedbackFor(event.assessmentItemId(), event.domainId(), event.selectedOptionId(),
+                    event.openAnswer(), event.userId());
+            responseRepository.updateFeedback(event.responseId(), feedback != null ? READY : FAILED, feedback);
+        } catch (Exception e) {
+            log.warn("AI feedback for response {} failed: {}", event.responseId(), e.getMessage());
+            try {
+                responseRepository.updateFeedback(event.responseId(), FAILED, null);
+            } catch (Exception ignored) {
+                // The response stays pending; the template feedback was already returned
+            }
+        }
+    }
+
+    /**
+     * Feedback for the answer, from the cache for a selected option or else
+     * from the AI service (and then cached); null if the AI service had none
+     */
+    public String feedbackFor(UUID assessmentItemId, UUID domainId, UUID selectedOptionId, String openAnswer,
+            UUID userId) {
+        if (selectedOptionId != null) {
+            Optional<String> cached = feedbackCache.get(assessmentItemId, selectedOptionId);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+
+        // Avoid full item serialization to prevent loops
+        Map<String, Object> item = new HashMap<>();
+        item.put("id", assessmentItemId.toString());
+        item.put("stem", domainId != null ? "Question for domain " + domainId : "Question");
+        Map<String, Object> userResponse = new HashMap<>();
+        userResponse.put("selectedOptionId", selectedOptionId);
+        userResponse.put("openAnswer", openAnswer);
+
+        AiDtos.FeedbackResponse response = aiClient.getFeedback(AiDtos.FeedbackRequest.builder()
+                .userId(userId != null ? userId.toString() : null)
+                .item(item)
+                .userResponse(userResponse)
+                .build());
+        String feedback = response != null ? response.getFeedbackMessage() : null;
+        if (feedback != null && selectedOptionId != null) {
+            feedbackCache.put(assessmentItemId, selectedOptionId, feedback);
+        }
+        return feedback;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
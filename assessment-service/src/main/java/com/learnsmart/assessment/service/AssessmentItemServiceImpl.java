@@ -4,6 +4,8 @@ import com.learnsmart.assessment.model.AssessmentItem;
 import com.learnsmart.assessment.repository.AssessmentItemRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import lombok.RequiredArgsConstructor;
 import java.util.List;
 import java.util.Optional;
@@ -14,6 +16,7 @@ import java.util.UUID;
 public class AssessmentItemServiceImpl implements AssessmentItemService {
 
     private final AssessmentItemRepository assessmentItemRepository;
+    private final ItemBankIndex itemBankIndex;
 
     @Override
     @Transactional
@@ -25,7 +28,18 @@ public class AssessmentItemServiceImpl implements AssessmentItemService {
         if (item.getOptions() != null) {
             item.getOptions().forEach(o -> o.setAssessmentItem(item));
         }
-        return assessmentItemRepository.save(item);
+        AssessmentItem saved = assessmentItemRepository.save(item);
+
+        // Make the item selectable on this instance right away; others pick it up on their next refresh
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    itemBankIndex.refresh();
+                }
+            });
+        }
+        return saved;
     }
 
     @Override
@@ -25,6 +25,9 @@ public interface AssessmentSessionService {
 
     List<UserItemResponse> getSessionResponses(UUID sessionId);
 
+    // AI feedback for an incorrect response, generated after grading
+    UserItemResponse getResponseFeedback(UUID sessionId, UUID responseId);
+
     // Mastery Tracking
     List<UserSkillMastery> getUserSkillMastery(UUID userId);
 }
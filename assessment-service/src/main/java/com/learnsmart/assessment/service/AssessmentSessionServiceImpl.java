@@ -3,14 +3,18 @@ package com.learnsmart.assessment.service;
 import com.learnsmart.assessment.model.*;
 import com.learnsmart.assessment.repository.*;
 import lombok.RequiredArgsConstructor;
+import com.learnsmart.assessment.event.FeedbackRequestedEvent;
+import com.learnsmart.assessment.event.MasteryChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.UUID;
 import java.util.List;
 import java.time.OffsetDateTime;
-import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -19,10 +23,25 @@ public class AssessmentSessionServiceImpl implements AssessmentSessionService {
     private final AssessmentSessionRepository sessionRepository;
     private final AssessmentItemRepository itemRepository;
     private final UserItemResponseRepository responseRepository;
-    private final UserSkillMasteryRepository masteryRepository;
+    private final MasteryStore masteryStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FeedbackCache feedbackCache;
     private final com.learnsmart.assessment.client.PlanningClient planningClient;
     private final com.learnsmart.assessment.client.AiClient aiClient;
-    private final com.fasterxml.jackson.databind.ObjectMapper objectMapper;
+    private final ItemBankIndex itemBankIndex;
+    private final SessionStateCache sessionStateCache;
+
+    // Ask the AI service first; the item bank index is used when it is off or fails
+    @Value("${assessment.next-item.ai-enabled:false}")
+    private boolean aiNextItemEnabled;
+
+    // cat: maximum information at the session's ability; difficulty: nearest to the target difficulty
+    @Value("${assessment.next-item.selection:cat}")
+    private String selection = "cat";
+
+    // Generate AI feedback for incorrect answers after grading (US-084)
+    @Value("${assessment.feedback.ai-enabled:true}")
+    private boolean aiFeedbackEnabled = true;
 
     @Override
     @Transactional
@@ -48,34 +67,69 @@ public class AssessmentSessionServiceImpl implements AssessmentSessionService {
             // Adaptivity Loop: Notify Planning Service
             if (session.getPlanId() != null) {
                 try {
+                    SessionStateCache.SessionState state = sessionStateCache.get(sessionId);
                     planningClient.replan(session.getPlanId(), "Assessment Completed",
-                            "{\"score\": \"calculated_score_placeholder\"}");
+                            String.format(java.util.Locale.ROOT, "{\"score\": %s, \"answered\": %d}",
+                                    state.score(), state.getAnswered()));
                 } catch (Exception e) {
                     System.err.println("Failed to notify Planning Service: " + e.getMessage());
                     // Non-blocking for MVP
                 }
             }
         }
+        // Only in-progress sessions are served from the cache
+        sessionStateCache.evict(sessionId);
         return sessionRepository.save(session);
     }
 
     @Override
     public AssessmentItem getNextItem(UUID sessionId) {
-        AssessmentSession session = getSession(sessionId);
+        SessionStateCache.SessionState state = sessionStateCache.get(sessionId);
+
+        if (aiNextItemEnabled) {
+            AssessmentItem aiItem = nextItemFromAi(state);
+            if (aiItem != null) {
+                return aiItem;
+            }
+        }
+
+        // Local lookup in the item bank index, excluding what the session has already seen
+        SelectionTarget target = state.getSelectionTarget();
+        synchronized (state) {
+            Optional<AssessmentItem> indexed = "difficulty".equalsIgnoreCase(selection)
+                    ? itemBankIndex.select(target.domainId(), target.skillId(), target.difficulty(),
+                            state.getPresented())
+                    : itemBankIndex.selectByInformation(target.domainId(), target.skillId(),
+                            ability(state, target).theta(), state.getPresented());
+            if (indexed.isPresent()) {
+                sessionStateCache.markPresented(state, indexed.get().getId());
+                return indexed.get();
+            }
+        }
 
+        // Fallback: Random Active Item
+        return itemRepository.findRandomActiveItem()
+                .orElseThrow(() -> new RuntimeException("No active assessment items found"));
+    }
+
+    private AssessmentItem nextItemFromAi(SessionStateCache.SessionState state) {
         // 1. Prepare Context (History & Mastery)
         // For simplicity, we fetch mastery for user and recent history
         List<com.learnsmart.assessment.dto.AiDtos.NextItemRequest> skillState = new ArrayList<>(); // TODO: Map real
                                                                                                    // mastery
         List<java.util.Map<String, Object>> recentHistory = new ArrayList<>();
+        List<UUID> presentedItemIds;
+        synchronized (state) {
+            presentedItemIds = new ArrayList<>(state.getPresented());
+        }
 
         com.learnsmart.assessment.dto.AiDtos.NextItemRequest request = com.learnsmart.assessment.dto.AiDtos.NextItemRequest
                 .builder()
-                .userId(session.getUserId().toString())
+                .userId(state.getUserId().toString())
                 .domain("JAVA") // TODO: Get from Plan/Goal context
                 .skillState(new ArrayList<>())
                 .recentHistory(recentHistory)
-                .excludeItemIds(session.getPresentedItemIds()) // US-0115
+                .excludeItemIds(presentedItemIds) // US-0115
                 .build();
 
         try {
@@ -94,9 +148,8 @@ public class AssessmentSessionServiceImpl implements AssessmentSessionService {
                 if (itemIdStr != null) {
                     try {
                         UUID itemId = UUID.fromString(itemIdStr);
-                        if (!session.getPresentedItemIds().contains(itemId)) {
-                            session.getPresentedItemIds().add(itemId);
-                            sessionRepository.save(session);
+                        synchronized (state) {
+                            sessionStateCache.markPresented(state, itemId);
                         }
                         // Return the item found/created
                         return itemRepository.findById(itemId).orElse(null); // Simple lookup for now
@@ -108,16 +161,26 @@ public class AssessmentSessionServiceImpl implements AssessmentSessionService {
         } catch (Exception e) {
             System.err.println("AI Next Item failed: " + e.getMessage());
         }
+        return null;
+    }
 
-        // Fallback: Random Active Item
-        return itemRepository.findRandomActiveItem()
-                .orElseThrow(() -> new RuntimeException("No active assessment items found"));
+    /**
+     * The session's ability estimate; a new session starts at its target
+     * difficulty with prior information only
+     */
+    static CatEngine.Ability ability(SessionStateCache.SessionState state, SelectionTarget target) {
+        if (state.getAbilityEstimate() == null) {
+            return CatEngine.Ability.initial(CatEngine.difficultyToLogit(target.difficulty()));
+        }
+        return new CatEngine.Ability(state.getAbilityEstimate(),
+                state.getAbilityInformation() != null ? state.getAbilityInformation()
+                        : CatEngine.PRIOR_INFORMATION);
     }
 
     @Override
     @Transactional
     public UserItemResponseWithFeedback submitResponse(UUID sessionId, SubmitResponseRequest request) {
-        AssessmentSession session = getSession(sessionId);
+        SessionStateCache.SessionState state = sessionStateCache.get(sessionId);
         AssessmentItem item = itemRepository.findById(request.getAssessmentItemId())
                 .orElseThrow(() -> new RuntimeException("Item not found"));
 
@@ -142,79 +205,77 @@ public class AssessmentSessionServiceImpl implements AssessmentSessionService {
         // Save Response
         UserItemResponse response = new UserItemResponse();
         response.setSessionId(sessionId);
-        response.setUserId(session.getUserId());
+        response.setUserId(state.getUserId());
         response.setAssessmentItemId(item.getId());
         response.setSelectedOptionId(request.getSelectedOptionId());
         response.setResponsePayload(request.getResponsePayload());
         response.setIsCorrect(isCorrect);
         response.setResponseTimeMs(request.getResponseTimeMs());
+        boolean requestAiFeedback = aiFeedbackEnabled && !isCorrect;
+        if (requestAiFeedback) {
+            // Feedback for this distractor was generated before: serve it now, without the AI service
+            Optional<String> cached = feedbackCache.get(item.getId(), request.getSelectedOptionId());
+            if (cached.isPresent()) {
+                feedback = cached.get();
+                response.setAiFeedback(feedback);
+                response.setFeedbackStatus(AiFeedbackGenerator.READY);
+                requestAiFeedback = false;
+            } else {
+                response.setFeedbackStatus(AiFeedbackGenerator.PENDING);
+            }
+        }
 
         responseRepository.save(response);
 
-        // Update Mastery (Mock)
-        List<UserSkillMastery> masteryUpdates = new ArrayList<>();
+        // The template feedback is returned now; AI feedback follows via the feedback endpoint
+        if (requestAiFeedback) {
+            eventPublisher.publishEvent(new FeedbackRequestedEvent(response.getId(), state.getUserId(),
+                    item.getId(), item.getDomainId(), request.getSelectedOptionId(), request.getResponsePayload()));
+        }
+
+        // Only graded answers move the ability estimate; open text is not really scored yet
+        boolean current;
+        synchronized (state) {
+            CatEngine.Ability ability = request.getSelectedOptionId() == null ? null
+                    : CatEngine.update(ability(state, state.getSelectionTarget()),
+                            CatEngine.itemDiscrimination(item), CatEngine.itemDifficulty(item), isCorrect);
+            current = sessionStateCache.recordResponse(state, isCorrect, ability);
+        }
+        if (!current) {
+            // Another instance moved the ability first; apply this response on top of the stored estimate
+            SessionStateCache.SessionState reloaded = sessionStateCache.get(sessionId);
+            synchronized (reloaded) {
+                sessionStateCache.storeAbility(reloaded,
+                        CatEngine.update(ability(reloaded, reloaded.getSelectionTarget()),
+                                CatEngine.itemDiscrimination(item), CatEngine.itemDifficulty(item), isCorrect));
+            }
+        }
+
+        // Mastery is updated in memory and written behind in batches
+        List<UUID> skillIds = new ArrayList<>();
         if (item.getSkills() != null) {
             for (AssessmentItemSkill itemSkill : item.getSkills()) {
-                UserSkillMastery.UserSkillMasteryId masteryId = new UserSkillMastery.UserSkillMasteryId(
-                        session.getUserId(), itemSkill.getId().getSkillId());
-                UserSkillMastery mastery = masteryRepository.findById(masteryId)
-                        .orElse(new UserSkillMastery(masteryId, new BigDecimal("0.3"), 0, OffsetDateTime.now())); // Default
-                                                                                                                  // 0.3
-
-                mastery.setAttempts(mastery.getAttempts() + 1);
-                // Simple bump: +0.1 if correct, -0.05 if wrong
-                BigDecimal change = isCorrect ? new BigDecimal("0.1") : new BigDecimal("-0.05");
-                BigDecimal newMastery = mastery.getMastery().add(change);
-                if (newMastery.compareTo(BigDecimal.ONE) > 0)
-                    newMastery = BigDecimal.ONE;
-                if (newMastery.compareTo(BigDecimal.ZERO) < 0)
-                    newMastery = BigDecimal.ZERO;
-
-                mastery.setMastery(newMastery);
-                masteryRepository.save(mastery);
-                masteryUpdates.add(mastery);
+                skillIds.add(itemSkill.getId().getSkillId());
             }
         }
+        List<UserSkillMastery> masteryUpdates = masteryStore.record(state.getUserId(), skillIds, isCorrect,
+                CatEngine.itemDifficulty(item));
 
-        UserItemResponseWithFeedback res = new UserItemResponseWithFeedback();
-
-        // AI Feedback (US-084)
-        if (!isCorrect) {
-            try {
-                // Prepare request
-                java.util.Map<String, Object> itemMap = new java.util.HashMap<>();
-                itemMap.put("id", item.getId().toString());
-                itemMap.put("stem",
-                        item.getDomainId() != null ? "Question for domain " + item.getDomainId() : "Question");
-                // Avoid full serialization to prevent loops
-                // java.util.Map<String, Object> itemMap = objectMapper.convertValue(item,
-                // java.util.Map.class);
-                java.util.Map<String, Object> responseMap = new java.util.HashMap<>();
-                responseMap.put("selectedOptionId", request.getSelectedOptionId());
-                responseMap.put("openAnswer", request.getResponsePayload());
-
-                com.learnsmart.assessment.dto.AiDtos.FeedbackRequest feedbackReq = com.learnsmart.assessment.dto.AiDtos.FeedbackRequest
-                        .builder()
-                        .userId(session.getUserId().toString())
-                        .item(itemMap)
-                        .userResponse(responseMap)
-                        .build();
-
-                com.learnsmart.assessment.dto.AiDtos.FeedbackResponse aiFeedback = aiClient.getFeedback(feedbackReq);
-                if (aiFeedback != null && aiFeedback.getFeedbackMessage() != null) {
-                    feedback = aiFeedback.getFeedbackMessage();
-                }
-            } catch (Exception e) {
-                System.err.println("AI Feedback failed: " + e.getMessage());
-            }
+        if (!masteryUpdates.isEmpty()) {
+            // Sent to planning-service after commit, coalesced per user and plan
+            eventPublisher.publishEvent(new MasteryChangedEvent(state.getUserId(), state.getPlanId()));
         }
 
+        UserItemResponseWithFeedback res = new UserItemResponseWithFeedback();
+
         // Manually copy props (or use mapper)
         res.setId(response.getId());
         res.setSessionId(response.getSessionId());
         res.setUserId(response.getUserId());
         res.setAssessmentItemId(response.getAssessmentItemId());
         res.setIsCorrect(response.getIsCorrect());
+        res.setFeedbackStatus(response.getFeedbackStatus());
+        res.setAiFeedback(response.getAiFeedback());
         res.setCreatedAt(response.getCreatedAt());
         res.setFeedback(feedback);
         res.setMasteryUpdates(masteryUpdates);
@@ -227,8 +288,14 @@ public class AssessmentSessionServiceImpl implements AssessmentSessionService {
         return responseRepository.findBySessionIdOrderByCreatedAtAsc(sessionId);
     }
 
+    @Override
+    public UserItemResponse getResponseFeedback(UUID sessionId, UUID responseId) {
+        return responseRepository.findByIdAndSessionId(responseId, sessionId)
+                .orElseThrow(() -> new RuntimeException("Response not found: " + responseId));
+    }
+
     @Override
     public List<UserSkillMastery> getUserSkillMastery(UUID userId) {
-        return masteryRepository.findByIdUserId(userId);
+        return masteryStore.get(userId);
     }
 }
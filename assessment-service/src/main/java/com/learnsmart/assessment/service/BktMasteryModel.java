@@ -0,0 +1,48 @@
+package com.learnsmart.assessment.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bayesian knowledge tracing: mastery is the probability that the skill is
+ * known. A response updates it by Bayes' rule with the slip and guess
+ * probabilities, then the chance to learn from the practice is applied.
+ */
+@Component
+@ConditionalOnProperty(name = "assessment.mastery.model", havingValue = "bkt", matchIfMissing = true)
+public class BktMasteryModel implements MasteryModel {
+
+    // Never fully certain: at exactly 0 or 1 Bayes' rule could not move the estimate again
+    private static final double MIN_MASTERY = 0.001;
+    private static final double MAX_MASTERY = 0.999;
+
+    @Value("${assessment.mastery.bkt.initial:0.3}")
+    private double initial = 0.3;
+
+    @Value("${assessment.mastery.bkt.learn:0.1}")
+    private double learn = 0.1;
+
+    @Value("${assessment.mastery.bkt.slip:0.1}")
+    private double slip = 0.1;
+
+    @Value("${assessment.mastery.bkt.guess:0.2}")
+    private double guess = 0.2;
+
+    @Override
+    public double initial() {
+        return initial;
+    }
+
+    @Override
+    public double update(double mastery, int attempts, boolean correct, double itemDifficulty) {
+        double known = correct ? mastery * (1 - slip) : mastery * slip;
+        double unknown = correct ? (1 - mastery) * guess : (1 - mastery) * (1 - guess);
+        double posterior = known + unknown > 0 ? known / (known + unknown) : mastery;
+        return clamp(posterior + (1 - posterior) * learn);
+    }
+
+    private static double clamp(double value) {
+        return Math.min(MAX_MASTERY, Math.max(MIN_MASTERY, value));
+    }
+}
@@ -0,0 +1,206 @@
+package com.learnsmart.assessment.service;
+
+import com.learnsmart.assessment.model.AssessmentItem;
+
+import java.util.Arrays;
+
+/**
+ * Item response theory for computerized adaptive testing.
+ *
+ * Items follow the 2PL model, P(correct | theta) = 1 / (1 + e^(-a(theta - b))),
+ * with calibrated discrimination a and difficulty b when an item has them;
+ * otherwise a = 1 (1PL) and b is derived from {@code difficulty} (0..1 mapped
+ * linearly onto -3..3 logits). The next item is the one with maximum Fisher
+ * information at the current ability estimate; the estimate is updated after
+ * each response with one Fisher-scoring step, starting from unit prior
+ * information, so a session only has to keep theta and its accumulated
+ * information.
+ *
+ * Selection works on primitive arrays sorted by difficulty and allocates
+ * nothing: it walks outward from theta and stops as soon as no remaining item
+ * can beat the best information found.
+ */
+public final class CatEngine {
+
+    public static final double DEFAULT_DISCRIMINATION = 1.0;
+    public static final double PRIOR_INFORMATION = 1.0;
+    public static final double MAX_ABILITY = 4.0;
+
+    static final double DIFFICULTY_SCALE = 6.0;
+
+    // Discrimination is clamped so a badly calibrated item cannot dominate or invert
+    private static final double MIN_DISCRIMINATION = 0.05;
+    private static final double MAX_DISCRIMINATION = 4.0;
+
+    // a^2 P(1-P) grows with a while a*d stays below this, and peaks there at 0.4392/d^2
+    private static final double PEAK_SLOPE_DISTANCE = 2.3994;
+    private static final double PEAK_INFORMATION = 0.4392;
+
+    private CatEngine() {
+    }
+
+    /**
+     * Item parameters of a pool, sorted by difficulty; {@code ordinals} map
+     * each position back to the caller's item numbering
+     */
+    public static final class Pool {
+        final double[] difficulty;
+        final double[] discrimination;
+        final int[] ordinals;
+        final double maxDiscrimination;
+
+        public Pool(double[] difficulty, double[] discrimination, int[] ordinals) {
+            int n = difficulty.length;
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (x, y) -> Double.compare(difficulty[x], difficulty[y]));
+
+            this.difficulty = new double[n];
+            this.discrimination = new double[n];
+            this.ordinals = new int[n];
+            double maxA = MIN_DISCRIMINATION;
+            for (int i = 0; i < n; i++) {
+                this.difficulty[i] = difficulty[order[i]];
+                this.discrimination[i] = clampDiscrimination(discrimination[order[i]]);
+                this.ordinals[i] = ordinals[order[i]];
+                maxA = Math.max(maxA, this.discrimination[i]);
+            }
+            this.maxDiscrimination = maxA;
+        }
+
+        public int size() {
+            return ordinals.length;
+        }
+    }
+
+    /**
+     * Ability estimate and the information accumulated behind it (the
+     * standard error is 1 / sqrt(information))
+     */
+    public record Ability(double theta, double information) {
+
+        public static Ability initial(double theta) {
+            return new Ability(clampAbility(theta), PRIOR_INFORMATION);
+        }
+
+        public double standardError() {
+            return 1.0 / Math.sqrt(information);
+        }
+    }
+
+    public static double probability(double discrimination, double difficulty, double theta) {
+        return 1.0 / (1.0 + Math.exp(-discrimination * (theta - difficulty)));
+    }
+
+    public static double information(double discrimination, double difficulty, double theta) {
+        double p = probability(discrimination, difficulty, theta);
+        return discrimination * discrimination * p * (1.0 - p);
+    }
+
+    /**
+     * Ordinal of the non-excluded item with maximum information at theta, or
+     * -1 if every item is excluded. {@code excluded} is a bitset over
+     * ordinals (bit i of word i >> 6); it may be shorter than the ordinal
+     * range.
+     */
+    public static int selectMaxInformation(Pool pool, double theta, long[] excluded) {
+        double[] b = pool.difficulty;
+        int n = b.length;
+        int hi = lowerBound(b, theta);
+        int lo = hi - 1;
+
+        int best = -1;
+        double bestInformation = -1.0;
+        while (lo >= 0 || hi < n) {
+            // Closest remaining item first, so the bound below only ever decreases
+            boolean takeHigh = lo < 0 || (hi < n && b[hi] - theta <= theta - b[lo]);
+            int i = takeHigh ? hi++ : lo--;
+            double distance = Math.abs(b[i] - theta);
+            if (best >= 0 && informationBound(pool.maxDiscrimination, distance) <= bestInformation) {
+                break;
+            }
+            int ordinal = pool.ordinals[i];
+            if (isSet(excluded, ordinal)) {
+                continue;
+            }
+            double information = information(pool.discrimination[i], b[i], theta);
+            if (information > bestInformation) {
+                bestInformation = information;
+                best = ordinal;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Ability after one more response to an item
+     */
+    public static Ability update(Ability ability, double discrimination, double difficulty, boolean correct) {
+        double a = clampDiscrimination(discrimination);
+        double p = probability(a, difficulty, ability.theta());
+        double information = ability.information() + a * a * p * (1.0 - p);
+        // The prior is carried by the starting information, so each step only adds the item's score
+        double score = a * ((correct ? 1.0 : 0.0) - p);
+        return new Ability(clampAbility(ability.theta() + score / information), information);
+    }
+
+    public static double itemDifficulty(AssessmentItem item) {
+        if (item.getIrtDifficulty() != null) {
+            return item.getIrtDifficulty().doubleValue();
+        }
+        return difficultyToLogit(item.getDifficulty() != null ? item.getDifficulty().doubleValue() : 0.5);
+    }
+
+    public static double itemDiscrimination(AssessmentItem item) {
+        return item.getIrtDiscrimination() != null ? item.getIrtDiscrimination().doubleValue()
+                : DEFAULT_DISCRIMINATION;
+    }
+
+    /**
+     * Logit difficulty of a 0..1 difficulty (also used for a 0..1 target)
+     */
+    public static double difficultyToLogit(double difficulty) {
+        return (Math.min(1.0, Math.max(0.0, difficulty)) - 0.5) * DIFFICULTY_SCALE;
+    }
+
+    /**
+     * Upper bound of the information of any pool item at this distance from
+     * theta
+     */
+    private static double informationBound(double maxDiscrimination, double distance) {
+        if (maxDiscrimination * distance <= PEAK_SLOPE_DISTANCE) {
+            double p = 1.0 / (1.0 + Math.exp(-maxDiscrimination * distance));
+            return maxDiscrimination * maxDiscrimination * p * (1.0 - p);
+        }
+        return PEAK_INFORMATION / (distance * distance);
+    }
+
+    private static int lowerBound(double[] sorted, double value) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static boolean isSet(long[] bits, int index) {
+        int word = index >>> 6;
+        return word < bits.length && (bits[word] & (1L << index)) != 0;
+    }
+
+    private static double clampDiscrimination(double discrimination) {
+        return Math.min(MAX_DISCRIMINATION, Math.max(MIN_DISCRIMINATION, discrimination));
+    }
+
+    private static double clampAbility(double theta) {
+        return Math.min(MAX_ABILITY, Math.max(-MAX_ABILITY, theta));
+    }
+}
@@ -0,0 +1,50 @@
+package com.learnsmart.assessment.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Elo rating of the user against the items: mastery is the expected score on
+ * an item of average difficulty, i.e. the logistic of the rating. Each
+ * response moves the rating by K times the surprise against the item's
+ * difficulty; K shrinks with the number of attempts so ratings settle.
+ */
+@Component
+@ConditionalOnProperty(name = "assessment.mastery.model", havingValue = "elo")
+public class EloMasteryModel implements MasteryModel {
+
+    // Keeps the rating finite at mastery 0 or 1
+    private static final double MAX_RATING = 6.0;
+
+    @Value("${assessment.mastery.elo.initial:0.3}")
+    private double initial = 0.3;
+
+    @Value("${assessment.mastery.elo.k:0.8}")
+    private double k = 0.8;
+
+    @Value("${assessment.mastery.elo.k-decay:0.05}")
+    private double kDecay = 0.05;
+
+    @Override
+    public double initial() {
+        return initial;
+    }
+
+    @Override
+    public double update(double mastery, int attempts, boolean correct, double itemDifficulty) {
+        double rating = rating(mastery);
+        double expected = logistic(rating - itemDifficulty);
+        double step = k / (1 + kDecay * Math.max(0, attempts));
+        return logistic(rating + step * ((correct ? 1.0 : 0.0) - expected));
+    }
+
+    private static double rating(double mastery) {
+        double p = Math.min(1 - 1e-6, Math.max(1e-6, mastery));
+        return Math.min(MAX_RATING, Math.max(-MAX_RATING, Math.log(p / (1 - p))));
+    }
+
+    private static double logistic(double x) {
+        return 1.0 / (1.0 + Math.exp(-x));
+    }
+}
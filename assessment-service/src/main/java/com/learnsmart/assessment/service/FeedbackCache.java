@@ -0,0 +1,90 @@
+package com.learnsmart.assessment.service;
+
+import com.learnsmart.assessment.model.OptionFeedback;
+import com.learnsmart.assessment.repository.OptionFeedbackRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * AI feedback per (item, selected option).
+ *
+ * Feedback for a distractor does not depend on the learner, so it is
+ * generated once and reused: lookups go to a size-bounded LRU first and to
+ * the assessment_option_feedback table on a miss. Stored feedback is never
+ * regenerated; deleting the row (or the item) is how it is invalidated.
+ */
+@Component
+@Slf4j
+public class FeedbackCache {
+
+    private final OptionFeedbackRepository feedbackRepository;
+    private final int maxEntries;
+    private final Map<Key, String> lru;
+
+    record Key(UUID assessmentItemId, UUID selectedOptionId) {
+    }
+
+    public FeedbackCache(OptionFeedbackRepository feedbackRepository,
+            @Value("${assessment.feedback.cache-max-entries:20000}") int maxEntries) {
+        this.feedbackRepository = feedbackRepository;
+        this.maxEntries = maxEntries;
+        this.lru = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+                return size() > FeedbackCache.this.maxEntries;
+            }
+        };
+    }
+
+    public Optional<String> get(UUID assessmentItemId, UUID selectedOptionId) {
+        if (assessmentItemId == null || selectedOptionId == null) {
+            return Optional.empty();
+        }
+        Key key = new Key(assessmentItemId, selectedOptionId);
+        synchronized (lru) {
+            String cached = lru.get(key);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
+        Optional<String> stored = feedbackRepository
+                .findById(new OptionFeedback.OptionFeedbackId(assessmentItemId, selectedOptionId))
+                .map(OptionFeedback::getFeedback);
+        stored.ifPresent(feedback -> remember(key, feedback));
+        return stored;
+    }
+
+    public void put(UUID assessmentItemId, UUID selectedOptionId, String feedback) {
+        if (assessmentItemId == null || selectedOptionId == null || feedback == null) {
+            return;
+        }
+        remember(new Key(assessmentItemId, selectedOptionId), feedback);
+        try {
+            feedbackRepository.save(new OptionFeedback(
+                    new OptionFeedback.OptionFeedbackId(assessmentItemId, selectedOptionId), feedback,
+                    OffsetDateTime.now()));
+        } catch (Exception e) {
+            // Another instance may have stored it first; the in-memory entry still serves this one
+            log.debug("Storing feedback for option {} failed: {}", selectedOptionId, e.getMessage());
+        }
+    }
+
+    int size() {
+        synchronized (lru) {
+            return lru.size();
+        }
+    }
+
+    private void remember(Key key, String feedback) {
+        synchronized (lru) {
+            lru.put(key, feedback);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.learnsmart.assessment.service;
+
+import com.learnsmart.assessment.repository.OptionFeedbackRepository;
+import feign.FeignException;
+import feign.RetryableException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pre-generates the feedback of incorrect options so learners hit the
+ * {@link FeedbackCache} instead of waiting for the AI service.
+ *
+ * Each run fills up to {@code warmup-batch-size} options: first the
+ * distractors learners actually chose, most chosen first, then any other
+ * incorrect option of an active item. An option the AI service has no
+ * feedback for (or rejects) is remembered and left out of later runs, so it
+ * cannot hold up the options behind it; a run only stops early when the AI
+ * service itself is failing, and is simply retried by the next one.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FeedbackWarmup {
+
+    // Options skipped since startup; the oldest are retried once this is full
+    static final int MAX_SKIPPED = 10000;
+
+    private final OptionFeedbackRepository feedbackRepository;
+    private final AiFeedbackGenerator feedbackGenerator;
+
+    private final Set<String> skipped = Collections.newSetFromMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_SKIPPED;
+        }
+    });
+
+    @Value("${assessment.feedback.warmup-enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${assessment.feedback.warmup-batch-size:50}")
+    private int batchSize = 50;
+
+    /**
+     * Options tried by one pass, how many got feedback and whether it stopped
+     * because the AI service failed
+     */
+    private record Progress(int attempted, int generated, boolean stopped) {
+    }
+
+    @Scheduled(fixedDelayString = "${assessment.feedback.warmup-interval-ms:600000}",
+            initialDelayString = "${assessment.feedback.warmup-interval-ms:600000}")
+    public synchronized void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            // Ask for enough rows to still fill the batch after leaving out skipped options
+            Progress popular = generate(feedbackRepository
+                    .findPopularWithoutFeedback(PageRequest.of(0, batchSize + skipped.size())), batchSize);
+            int generated = popular.generated();
+            if (!popular.stopped() && popular.attempted() < batchSize) {
+                int remaining = batchSize - popular.attempted();
+                generated += generate(feedbackRepository.findIncorrectOptionsWithoutFeedback(
+                        PageRequest.of(0, remaining + skipped.size())), remaining).generated();
+            }
+            if (generated > 0) {
+                log.info("Feedback warm-up generated {} option feedbacks", generated);
+            }
+        } catch (Exception e) {
+            log.warn("Feedback warm-up failed: {}", e.getMessage());
+        }
+    }
+
+    int skippedCount() {
+        return skipped.size();
+    }
+
+    /**
+     * Generates the feedback of up to {@code limit} options not skipped
+     * before, in order; stops at the first failure of the AI service
+     */
+    private Progress generate(List<OptionFeedbackRepository.MissingFeedbackView> options, int limit) {
+        int attempted = 0;
+        int generated = 0;
+        List<String> newlySkipped = new ArrayList<>();
+        for (OptionFeedbackRepository.MissingFeedbackView option : options) {
+            if (attempted == limit) {
+                break;
+            }
+            String key = option.getAssessmentItemId() + ":" + option.getSelectedOptionId();
+            if (skipped.contains(key)) {
+                continue;
+            }
+            attempted++;
+            try {
+                if (feedbackGenerator.feedbackFor(option.getAssessmentItemId(), option.getDomainId(),
+                        option.getSelectedOptionId(), null, null) != null) {
+                    generated++;
+                } else {
+                    newlySkipped.add(key);
+                }
+            } catch (Exception e) {
+                if (isServiceFailure(e)) {
+                    log.warn("Feedback warm-up stopped after {} options: {}", generated, e.getMessage());
+                    skipped.addAll(newlySkipped);
+                    return new Progress(attempted, generated, true);
+                }
+                log.debug("Feedback warm-up skipping option {}: {}", key, e.getMessage());
+                newlySkipped.add(key);
+            }
+        }
+        skipped.addAll(newlySkipped);
+        return new Progress(attempted, generated, false);
+    }
+
+    /**
+     * Whether the AI service as a whole is failing, as opposed to rejecting
+     * this one option (a 4xx other than auth and rate limiting)
+     */
+    static boolean isServiceFailure(Exception e) {
+        if (e instanceof RetryableException || !(e instanceof FeignException feign)) {
+            return true;
+        }
+        int status = feign.status();
+        return status < 400 || status >= 500 || status == 401 || status == 403 || status == 429;
+    }
+}
@@ -0,0 +1,341 @@
+package com.learnsmart.assessment.service;
+
+import com.learnsmart.assessment.model.AssessmentItem;
+import com.learnsmart.assessment.model.AssessmentItemSkill;
+import com.learnsmart.assessment.repository.AssessmentItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * In-memory index of the active item bank for next-item selection.
+ *
+ * Items are loaded once with their skills and options and bucketed per
+ * domain by difficulty (tenths of 0..1), and again per skill. Selection
+ * marks the session's presented items in a bitset over the bank's item
+ * ordinals and walks outward from the target difficulty bucket, taking a
+ * random non-presented item from the first bucket that has one. Each bank
+ * also keeps the items' IRT parameters as {@link CatEngine} pools for
+ * maximum-information selection at a session's ability.
+ *
+ * The index is refreshed incrementally: items updated since the last
+ * refresh (by updated_at) are reloaded and only their domains rebuilt.
+ * Buckets are immutable snapshots swapped atomically, so reads never lock.
+ */
+@Component
+@Slf4j
+public class ItemBankIndex {
+
+    static final int BUCKETS = 10;
+    static final double DEFAULT_DIFFICULTY = 0.5;
+
+    // Re-read a margin before the watermark so slow commits are not missed
+    private static final long REFRESH_OVERLAP_SECONDS = 60;
+
+    private final AssessmentItemRepository itemRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    // Reused per thread so a selection allocates no bitset; cleared again after use
+    private static final ThreadLocal<long[]> PRESENTED_BITS = ThreadLocal.withInitial(() -> new long[0]);
+
+    private final Map<UUID, AssessmentItem> activeItems = new HashMap<>();
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Bank.EMPTY, false);
+    private OffsetDateTime watermark;
+
+    @Value("${assessment.item-bank.enabled:true}")
+    private boolean enabled = true;
+
+    public ItemBankIndex(AssessmentItemRepository itemRepository, PlatformTransactionManager transactionManager) {
+        this.itemRepository = itemRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    private record Snapshot(Map<UUID, Bank> byDomain, Bank all, boolean loaded) {
+    }
+
+    /**
+     * Active items of one domain (or of all domains) with their buckets
+     */
+    static final class Bank {
+        static final Bank EMPTY = new Bank(List.of());
+
+        final AssessmentItem[] items;
+        final Map<UUID, Integer> ordinals;
+        final int[][] byDifficulty;
+        final Map<UUID, int[][]> bySkill;
+        final CatEngine.Pool cat;
+        final Map<UUID, CatEngine.Pool> catBySkill;
+
+        Bank(Collection<AssessmentItem> source) {
+            // Sorted by id so a bank built from the same items is always laid out the same
+            items = source.stream().sorted(Comparator.comparing(AssessmentItem::getId))
+                    .toArray(AssessmentItem[]::new);
+            ordinals = new HashMap<>(items.length * 2);
+            List<List<Integer>> difficultyLists = newBuckets();
+            Map<UUID, List<List<Integer>>> skillLists = new HashMap<>();
+            Map<UUID, List<Integer>> skillOrdinals = new HashMap<>();
+            double[] irtDifficulty = new double[items.length];
+            double[] irtDiscrimination = new double[items.length];
+            for (int i = 0; i < items.length; i++) {
+                AssessmentItem item = items[i];
+                ordinals.put(item.getId(), i);
+                int bucket = bucketOf(item.getDifficulty());
+                difficultyLists.get(bucket).add(i);
+                irtDifficulty[i] = CatEngine.itemDifficulty(item);
+                irtDiscrimination[i] = CatEngine.itemDiscrimination(item);
+                if (item.getSkills() != null) {
+                    for (AssessmentItemSkill skill : item.getSkills()) {
+                        UUID skillId = skill.getId() != null ? skill.getId().getSkillId() : null;
+                        if (skillId != null) {
+                            skillLists.computeIfAbsent(skillId, s -> newBuckets()).get(bucket).add(i);
+                            skillOrdinals.computeIfAbsent(skillId, s -> new ArrayList<>()).add(i);
+                        }
+                    }
+                }
+            }
+            byDifficulty = toArrays(difficultyLists);
+            bySkill = new HashMap<>(skillLists.size() * 2);
+            skillLists.forEach((skillId, lists) -> bySkill.put(skillId, toArrays(lists)));
+
+            int[] all = new int[items.length];
+            Arrays.setAll(all, i -> i);
+            cat = pool(all, irtDifficulty, irtDiscrimination);
+            catBySkill = new HashMap<>(skillOrdinals.size() * 2);
+            skillOrdinals.forEach((skillId, ordinals) -> catBySkill.put(skillId,
+                    pool(ordinals.stream().mapToInt(Integer::intValue).toArray(), irtDifficulty, irtDiscrimination)));
+        }
+
+        private static CatEngine.Pool pool(int[] ordinals, double[] difficulty, double[] discrimination) {
+            double[] b = new double[ordinals.length];
+            double[] a = new double[ordinals.length];
+            for (int i = 0; i < ordinals.length; i++) {
+                b[i] = difficulty[ordinals[i]];
+                a[i] = discrimination[ordinals[i]];
+            }
+            return new CatEngine.Pool(b, a, ordinals);
+        }
+
+        private static List<List<Integer>> newBuckets() {
+            List<List<Integer>> buckets = new ArrayList<>(BUCKETS);
+            for (int b = 0; b < BUCKETS; b++) {
+                buckets.add(new ArrayList<>());
+            }
+            return buckets;
+        }
+
+        private static int[][] toArrays(List<List<Integer>> lists) {
+            int[][] arrays = new int[BUCKETS][];
+            for (int b = 0; b < BUCKETS; b++) {
+                arrays[b] = lists.get(b).stream().mapToInt(Integer::intValue).toArray();
+            }
+            return arrays;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (enabled) {
+            refresh();
+        }
+    }
+
+    /**
+     * Reloads the items changed since the last refresh (all items the first
+     * time) and rebuilds the affected domains
+     */
+    @Scheduled(fixedDelayString = "${assessment.item-bank.refresh-interval-ms:30000}",
+            initialDelayString = "${assessment.item-bank.refresh-interval-ms:30000}")
+    public synchronized void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            OffsetDateTime since = watermark != null ? watermark.minusSeconds(REFRESH_OVERLAP_SECONDS) : null;
+            List<AssessmentItem> changed = readOnlyTransaction.execute(status -> loadItems(since));
+            if (changed == null || (changed.isEmpty() && snapshot.loaded())) {
+                return;
+            }
+
+            Set<UUID> domains = new HashSet<>();
+            for (AssessmentItem item : changed) {
+                AssessmentItem previous = Boolean.TRUE.equals(item.getIsActive())
+                        ? activeItems.put(item.getId(), item)
+                        : activeItems.remove(item.getId());
+                if (previous != null) {
+                    domains.add(previous.getDomainId());
+                }
+                domains.add(item.getDomainId());
+                if (watermark == null || item.getUpdatedAt().isAfter(watermark)) {
+                    watermark = item.getUpdatedAt();
+                }
+            }
+            rebuild(domains);
+            log.debug("Item bank refreshed: changed={}, active={}", changed.size(), activeItems.size());
+        } catch (Exception e) {
+            log.warn("Item bank refresh failed, keeping the current index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * A random active item of the domain (any domain if null), for the skill
+     * if given, nearest to the target difficulty and not yet presented
+     */
+    public Optional<AssessmentItem> select(UUID domainId, UUID skillId, double targetDifficulty,
+            Collection<UUID> presentedItemIds) {
+        Snapshot current = snapshot;
+        Bank bank = domainId != null ? current.byDomain().get(domainId) : current.all();
+        if (bank == null || bank.items.length == 0) {
+            return Optional.empty();
+        }
+        int[][] buckets = skillId != null ? bank.bySkill.get(skillId) : bank.byDifficulty;
+        if (buckets == null) {
+            return Optional.empty();
+        }
+
+        BitSet presented = new BitSet(bank.items.length);
+        if (presentedItemIds != null) {
+            for (UUID id : presentedItemIds) {
+                Integer ordinal = bank.ordinals.get(id);
+                if (ordinal != null) {
+                    presented.set(ordinal);
+                }
+            }
+        }
+
+        int target = bucketOf(targetDifficulty);
+        for (int distance = 0; distance < BUCKETS; distance++) {
+            int above = target + distance;
+            int below = target - distance;
+            int pick = above < BUCKETS ? pick(buckets[above], presented) : -1;
+            if (pick < 0 && distance > 0 && below >= 0) {
+                pick = pick(buckets[below], presented);
+            }
+            if (pick >= 0) {
+                return Optional.of(bank.items[pick]);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * The active item of the domain (any domain if null), for the skill if
+     * given, with maximum information at the ability theta (logits) among
+     * those not yet presented
+     */
+    public Optional<AssessmentItem> selectByInformation(UUID domainId, UUID skillId, double theta,
+            Collection<UUID> presentedItemIds) {
+        Snapshot current = snapshot;
+        Bank bank = domainId != null ? current.byDomain().get(domainId) : current.all();
+        if (bank == null || bank.items.length == 0) {
+            return Optional.empty();
+        }
+        CatEngine.Pool pool = skillId != null ? bank.catBySkill.get(skillId) : bank.cat;
+        if (pool == null) {
+            return Optional.empty();
+        }
+
+        long[] presented = PRESENTED_BITS.get();
+        int words = (bank.items.length + 63) >>> 6;
+        if (presented.length < words) {
+            presented = new long[words];
+            PRESENTED_BITS.set(presented);
+        }
+        try {
+            markPresented(bank, presentedItemIds, presented, true);
+            int ordinal = CatEngine.selectMaxInformation(pool, theta, presented);
+            return ordinal >= 0 ? Optional.of(bank.items[ordinal]) : Optional.empty();
+        } finally {
+            markPresented(bank, presentedItemIds, presented, false);
+        }
+    }
+
+    private static void markPresented(Bank bank, Collection<UUID> presentedItemIds, long[] bits, boolean set) {
+        if (presentedItemIds == null) {
+            return;
+        }
+        for (UUID id : presentedItemIds) {
+            Integer ordinal = bank.ordinals.get(id);
+            if (ordinal != null) {
+                if (set) {
+                    bits[ordinal >>> 6] |= 1L << ordinal;
+                } else {
+                    bits[ordinal >>> 6] = 0L;
+                }
+            }
+        }
+    }
+
+    public boolean isLoaded() {
+        return snapshot.loaded();
+    }
+
+    public int size() {
+        return snapshot.all().items.length;
+    }
+
+    private List<AssessmentItem> loadItems(OffsetDateTime since) {
+        List<AssessmentItem> items = since == null
+                ? itemRepository.findActiveWithSkills()
+                : itemRepository.findWithSkillsUpdatedAfter(since);
+        if (!items.isEmpty()) {
+            // Second query fills the options of the same (managed) instances
+            itemRepository.fetchOptions(items.stream().map(AssessmentItem::getId).toList());
+        }
+        return items;
+    }
+
+    private void rebuild(Set<UUID> domains) {
+        Map<UUID, List<AssessmentItem>> byDomain = new HashMap<>();
+        for (AssessmentItem item : activeItems.values()) {
+            if (domains.contains(item.getDomainId())) {
+                byDomain.computeIfAbsent(item.getDomainId(), d -> new ArrayList<>()).add(item);
+            }
+        }
+        Map<UUID, Bank> banks = new HashMap<>(snapshot.byDomain());
+        for (UUID domainId : domains) {
+            List<AssessmentItem> items = byDomain.get(domainId);
+            if (items == null) {
+                banks.remove(domainId);
+            } else {
+                banks.put(domainId, new Bank(items));
+            }
+        }
+        snapshot = new Snapshot(Map.copyOf(banks), new Bank(activeItems.values()), true);
+    }
+
+    /**
+     * A random non-presented ordinal of the bucket, or -1
+     */
+    private static int pick(int[] bucket, BitSet presented) {
+        if (bucket.length == 0) {
+            return -1;
+        }
+        int start = ThreadLocalRandom.current().nextInt(bucket.length);
+        for (int i = 0; i < bucket.length; i++) {
+            int ordinal = bucket[(start + i) % bucket.length];
+            if (!presented.get(ordinal)) {
+                return ordinal;
+            }
+        }
+        return -1;
+    }
+
+    static int bucketOf(BigDecimal difficulty) {
+        return bucketOf(difficulty != null ? difficulty.doubleValue() : DEFAULT_DIFFICULTY);
+    }
+
+    static int bucketOf(double difficulty) {
+        return Math.min(BUCKETS - 1, Math.max(0, (int) (difficulty * BUCKETS)));
+    }
+}
@@ -0,0 +1,20 @@
+package com.learnsmart.assessment.service;
+
+/**
+ * How a skill's mastery (probability 0..1) moves with one graded response.
+ * Implementations work on plain doubles and are selected with
+ * {@code assessment.mastery.model}.
+ */
+public interface MasteryModel {
+
+    /**
+     * Mastery of a skill the user has never been graded on
+     */
+    double initial();
+
+    /**
+     * Mastery after one more response; {@code attempts} counts the earlier
+     * ones and {@code itemDifficulty} is the item's IRT difficulty in logits
+     */
+    double update(double mastery, int attempts, boolean correct, double itemDifficulty);
+}
@@ -0,0 +1,344 @@
+package com.learnsmart.assessment.service;
+
+import com.learnsmart.assessment.model.UserSkillMastery;
+import com.learnsmart.assessment.repository.UserSkillMasteryRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user skill mastery, kept in memory and written behind.
+ *
+ * A user's rows are loaded on first use; updates are applied to the cached
+ * doubles and only mark the row dirty. A scheduled flush writes the dirty
+ * rows of all users as one upsert batch per {@code flush-batch-size} rows,
+ * so grading a response never writes mastery itself. The cache is bounded
+ * by user count; only users without unflushed rows are evicted.
+ *
+ * Other instances (or any other writer) may change the same rows, so every
+ * cached skill remembers the attempts of the row it was computed from and
+ * the responses applied since. The upsert only updates a row whose attempts
+ * still match; when another writer got there first, the row is read again
+ * and the pending responses are replayed on top of it before the next
+ * flush. Clean users are reloaded after {@code cache-ttl-seconds}, which
+ * bounds how stale a read of another instance's changes can be.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MasteryStore {
+
+    // Portable upsert (standard MERGE, PostgreSQL 15+ and H2); a row changed by another writer is left alone
+    static final String UPSERT_SQL = "MERGE INTO user_skill_mastery m "
+            + "USING (VALUES (CAST(? AS UUID), CAST(? AS UUID), CAST(? AS NUMERIC(4,3)), CAST(? AS INT), "
+            + "CAST(? AS TIMESTAMP WITH TIME ZONE), CAST(? AS INT))) "
+            + "AS v(user_id, skill_id, mastery, attempts, last_update, base_attempts) "
+            + "ON m.user_id = v.user_id AND m.skill_id = v.skill_id "
+            + "WHEN MATCHED AND m.attempts = v.base_attempts THEN UPDATE SET mastery = v.mastery, attempts = v.attempts, last_update = v.last_update "
+            + "WHEN NOT MATCHED THEN INSERT (user_id, skill_id, mastery, attempts, last_update) "
+            + "VALUES (v.user_id, v.skill_id, v.mastery, v.attempts, v.last_update)";
+
+    private final UserSkillMasteryRepository masteryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final MasteryModel masteryModel;
+
+    private final Map<UUID, UserMastery> users = new ConcurrentHashMap<>();
+    private final Set<UUID> dirtyUsers = ConcurrentHashMap.newKeySet();
+
+    @Value("${assessment.mastery.cache-max-users:10000}")
+    private int maxUsers = 10000;
+
+    @Value("${assessment.mastery.flush-batch-size:500}")
+    private int flushBatchSize = 500;
+
+    @Value("${assessment.mastery.cache-ttl-seconds:300}")
+    private long cacheTtlSeconds = 300;
+
+    /**
+     * Skills of one user; guarded by its own monitor
+     */
+    static final class UserMastery {
+        private final Map<UUID, SkillState> skills = new HashMap<>();
+        private final long loadedAt = System.nanoTime();
+        private boolean evicted;
+
+        private boolean hasUnflushed() {
+            return skills.values().stream().anyMatch(state -> !state.pending.isEmpty());
+        }
+    }
+
+    private static final class SkillState {
+        double mastery;
+        int attempts;
+        OffsetDateTime lastUpdate;
+        // Attempts of the stored row the pending responses were applied to
+        int storedAttempts;
+        final List<Response> pending = new ArrayList<>();
+        boolean dirty;
+    }
+
+    private record Response(boolean correct, double itemDifficulty) {
+    }
+
+    private record DirtyRow(UUID userId, UUID skillId, double mastery, int attempts, OffsetDateTime lastUpdate,
+            int storedAttempts, int responses) {
+    }
+
+    /**
+     * Applies one graded response to each of the skills and returns their new
+     * mastery
+     */
+    public List<UserSkillMastery> record(UUID userId, Collection<UUID> skillIds, boolean correct,
+            double itemDifficulty) {
+        if (skillIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<UserSkillMastery> updated = new ArrayList<>(skillIds.size());
+        OffsetDateTime now = OffsetDateTime.now();
+        UserMastery user = user(userId);
+        synchronized (user) {
+            if (user.evicted) {
+                // Evicted between lookup and lock; the reloaded state has everything flushed
+                return record(userId, skillIds, correct, itemDifficulty);
+            }
+            for (UUID skillId : skillIds) {
+                SkillState state = user.skills.computeIfAbsent(skillId, s -> {
+                    SkillState fresh = new SkillState();
+                    fresh.mastery = masteryModel.initial();
+                    return fresh;
+                });
+                state.mastery = masteryModel.update(state.mastery, state.attempts, correct, itemDifficulty);
+                state.attempts++;
+                state.lastUpdate = now;
+                state.pending.add(new Response(correct, itemDifficulty));
+                state.dirty = true;
+                updated.add(toEntity(userId, skillId, state));
+            }
+            dirtyUsers.add(userId);
+        }
+        return updated;
+    }
+
+    /**
+     * The user's current mastery, including changes not flushed yet
+     */
+    public List<UserSkillMastery> get(UUID userId) {
+        UserMastery user = user(userId);
+        synchronized (user) {
+            List<UserSkillMastery> result = new ArrayList<>(user.skills.size());
+            user.skills.forEach((skillId, state) -> result.add(toEntity(userId, skillId, state)));
+            return result;
+        }
+    }
+
+    /**
+     * Writes every dirty row; rows of a failed batch stay dirty for the next
+     * flush
+     */
+    @Scheduled(fixedDelayString = "${assessment.mastery.flush-interval-ms:1000}")
+    public void flush() {
+        List<DirtyRow> rows = new ArrayList<>();
+        for (Iterator<UUID> it = dirtyUsers.iterator(); it.hasNext();) {
+            UUID userId = it.next();
+            it.remove();
+            UserMastery user = users.get(userId);
+            if (user == null) {
+                continue;
+            }
+            synchronized (user) {
+                user.skills.forEach((skillId, state) -> {
+                    if (state.dirty) {
+                        state.dirty = false;
+                        rows.add(new DirtyRow(userId, skillId, state.mastery, state.attempts, state.lastUpdate,
+                                state.storedAttempts, state.pending.size()));
+                    }
+                });
+            }
+        }
+
+        for (int from = 0; from < rows.size(); from += flushBatchSize) {
+            List<DirtyRow> batch = rows.subList(from, Math.min(rows.size(), from + flushBatchSize));
+            int[][] counts;
+            try {
+                counts = jdbcTemplate.batchUpdate(UPSERT_SQL, batch, batch.size(), (ps, row) -> {
+                    ps.setObject(1, row.userId());
+                    ps.setObject(2, row.skillId());
+                    ps.setBigDecimal(3, toDecimal(row.mastery()));
+                    ps.setInt(4, row.attempts());
+                    ps.setTimestamp(5, Timestamp.from(row.lastUpdate().toInstant()));
+                    ps.setInt(6, row.storedAttempts());
+                });
+            } catch (Exception e) {
+                log.warn("Mastery flush of {} rows failed, retrying later: {}", batch.size(), e.getMessage());
+                batch.forEach(this::markDirty);
+                continue;
+            }
+            int i = 0;
+            for (int[] chunk : counts != null ? counts : new int[0][]) {
+                for (int count : chunk) {
+                    DirtyRow row = batch.get(i++);
+                    if (count == 0) {
+                        rebase(row);
+                    } else {
+                        acknowledge(row);
+                    }
+                }
+            }
+            // Drivers that do not report counts wrote every row
+            batch.subList(i, batch.size()).forEach(this::acknowledge);
+        }
+        evictClean();
+    }
+
+    int cachedUsers() {
+        return users.size();
+    }
+
+    private UserMastery user(UUID userId) {
+        UserMastery cached = users.get(userId);
+        if (cached != null) {
+            if (System.nanoTime() - cached.loadedAt < cacheTtlSeconds * 1_000_000_000L) {
+                return cached;
+            }
+            synchronized (cached) {
+                if (cached.hasUnflushed()) {
+                    return cached; // Reloaded once its changes are stored
+                }
+                cached.evicted = true;
+                users.remove(userId, cached);
+            }
+        }
+        UserMastery loaded = new UserMastery();
+        for (UserSkillMastery row : masteryRepository.findByIdUserId(userId)) {
+            SkillState state = new SkillState();
+            applyStored(state, row);
+            loaded.skills.put(row.getId().getSkillId(), state);
+        }
+        // A concurrent first use may have won; keep its state
+        UserMastery existing = users.putIfAbsent(userId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private void applyStored(SkillState state, UserSkillMastery row) {
+        state.mastery = row != null && row.getMastery() != null ? row.getMastery().doubleValue()
+                : masteryModel.initial();
+        state.attempts = row != null && row.getAttempts() != null ? row.getAttempts() : 0;
+        state.storedAttempts = state.attempts;
+        if (row != null && row.getLastUpdate() != null) {
+            state.lastUpdate = row.getLastUpdate();
+        }
+    }
+
+    /**
+     * The row was written; responses that arrived after it was taken stay
+     * pending
+     */
+    private void acknowledge(DirtyRow row) {
+        UserMastery user = users.get(row.userId());
+        if (user == null) {
+            return;
+        }
+        synchronized (user) {
+            SkillState state = user.skills.get(row.skillId());
+            if (state != null) {
+                state.pending.subList(0, Math.min(row.responses(), state.pending.size())).clear();
+                state.storedAttempts = row.attempts();
+            }
+        }
+    }
+
+    /**
+     * Another writer changed the row: replays the pending responses on the
+     * stored row, to be written by the next flush
+     */
+    private void rebase(DirtyRow row) {
+        UserMastery user = users.get(row.userId());
+        if (user == null) {
+            return;
+        }
+        UserSkillMastery stored;
+        try {
+            stored = masteryRepository
+                    .findById(new UserSkillMastery.UserSkillMasteryId(row.userId(), row.skillId()))
+                    .orElse(null);
+        } catch (Exception e) {
+            log.warn("Reloading mastery of skill {} for user {} failed, retrying later: {}", row.skillId(),
+                    row.userId(), e.getMessage());
+            markDirty(row);
+            return;
+        }
+        synchronized (user) {
+            SkillState state = user.skills.get(row.skillId());
+            if (state == null) {
+                return;
+            }
+            OffsetDateTime lastUpdate = state.lastUpdate;
+            applyStored(state, stored);
+            for (Response response : state.pending) {
+                state.mastery = masteryModel.update(state.mastery, state.attempts, response.correct(),
+                        response.itemDifficulty());
+                state.attempts++;
+            }
+            state.lastUpdate = lastUpdate;
+            state.dirty = true;
+            dirtyUsers.add(row.userId());
+        }
+        log.debug("Mastery of skill {} for user {} was changed by another writer; replaying {} responses",
+                row.skillId(), row.userId(), row.responses());
+    }
+
+    private void markDirty(DirtyRow row) {
+        UserMastery user = users.get(row.userId());
+        if (user == null) {
+            return;
+        }
+        synchronized (user) {
+            SkillState state = user.skills.get(row.skillId());
+            if (state != null) {
+                state.dirty = true;
+                dirtyUsers.add(row.userId());
+            }
+        }
+    }
+
+    private void evictClean() {
+        if (users.size() <= maxUsers) {
+            return;
+        }
+        for (Iterator<Map.Entry<UUID, UserMastery>> it = users.entrySet().iterator(); it.hasNext()
+                && users.size() > maxUsers;) {
+            Map.Entry<UUID, UserMastery> entry = it.next();
+            synchronized (entry.getValue()) {
+                if (!dirtyUsers.contains(entry.getKey()) && !entry.getValue().hasUnflushed()) {
+                    entry.getValue().evicted = true;
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private static UserSkillMastery toEntity(UUID userId, UUID skillId, SkillState state) {
+        return new UserSkillMastery(new UserSkillMastery.UserSkillMasteryId(userId, skillId),
+                toDecimal(state.mastery), state.attempts, state.lastUpdate);
+    }
+
+    private static BigDecimal toDecimal(double mastery) {
+        return BigDecimal.valueOf(mastery).setScale(3, RoundingMode.HALF_UP);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,162 @@
+package com.learnsmart.assessment.service;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * Item ids presented in a session, as an open-addressing hash set over the
+ * two longs of each UUID.
+ *
+ * Membership is O(1) and an id costs 16 bytes in one array (HashSet&lt;UUID&gt;
+ * needs a node and a UUID object per id), so long sessions neither slow down
+ * nor bloat the session cache. Not thread-safe; ids are only ever added.
+ */
+public final class PresentedItemSet extends AbstractSet<UUID> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    // msb/lsb pairs; (0, 0) marks a free slot, so the nil UUID is tracked apart
+    private long[] slots;
+    private int size;
+    private boolean containsNil;
+
+    public PresentedItemSet() {
+        this(MIN_CAPACITY);
+    }
+
+    public PresentedItemSet(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 < expectedSize * 4) {
+            capacity <<= 1;
+        }
+        slots = new long[capacity * 2];
+    }
+
+    @Override
+    public boolean add(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        if (msb == 0L && lsb == 0L) {
+            if (containsNil) {
+                return false;
+            }
+            containsNil = true;
+            size++;
+            return true;
+        }
+        // Keep the load factor at or below 3/4
+        if ((size + 1) * 4 > capacity() * 3) {
+            resize();
+        }
+        if (!insert(slots, msb, lsb)) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof UUID id)) {
+            return false;
+        }
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        if (msb == 0L && lsb == 0L) {
+            return containsNil;
+        }
+        int mask = capacity() - 1;
+        for (int slot = hash(msb, lsb) & mask;; slot = (slot + 1) & mask) {
+            long slotMsb = slots[slot * 2];
+            long slotLsb = slots[slot * 2 + 1];
+            if (slotMsb == msb && slotLsb == lsb) {
+                return true;
+            }
+            if (slotMsb == 0L && slotLsb == 0L) {
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<UUID> iterator() {
+        return new Iterator<>() {
+            private int slot = -1;
+            private boolean nilPending = containsNil;
+            private UUID next = advance();
+
+            private UUID advance() {
+                if (nilPending) {
+                    nilPending = false;
+                    return new UUID(0L, 0L);
+                }
+                while (++slot < capacity()) {
+                    long msb = slots[slot * 2];
+                    long lsb = slots[slot * 2 + 1];
+                    if (msb != 0L || lsb != 0L) {
+                        return new UUID(msb, lsb);
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public UUID next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                UUID current = next;
+                next = advance();
+                return current;
+            }
+        };
+    }
+
+    private int capacity() {
+        return slots.length / 2;
+    }
+
+    private void resize() {
+        long[] old = slots;
+        slots = new long[old.length * 2];
+        for (int i = 0; i < old.length; i += 2) {
+            if (old[i] != 0L || old[i + 1] != 0L) {
+                insert(slots, old[i], old[i + 1]);
+            }
+        }
+    }
+
+    private static boolean insert(long[] table, long msb, long lsb) {
+        int mask = table.length / 2 - 1;
+        for (int slot = hash(msb, lsb) & mask;; slot = (slot + 1) & mask) {
+            long slotMsb = table[slot * 2];
+            long slotLsb = table[slot * 2 + 1];
+            if (slotMsb == msb && slotLsb == lsb) {
+                return false;
+            }
+            if (slotMsb == 0L && slotLsb == 0L) {
+                table[slot * 2] = msb;
+                table[slot * 2 + 1] = lsb;
+                return true;
+            }
+        }
+    }
+
+    private static int hash(long msb, long lsb) {
+        // UUIDv7 ids share their timestamp prefix, so mix both halves
+        long h = (msb ^ Long.rotateLeft(lsb, 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,105 @@
+package com.learnsmart.assessment.service;
+
+import com.learnsmart.assessment.client.PlanningClient;
+import com.learnsmart.assessment.event.MasteryChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tells planning-service, off the grading path, that a user's mastery
+ * changed so their plans are re-evaluated for replan triggers.
+ *
+ * Signals are coalesced per user and plan: the first one after commit
+ * schedules a send {@code delay-ms} later, and any further responses graded
+ * until then only refresh the token it is sent with. Each send runs on its
+ * own virtual thread with the latest caller's security context, so the
+ * user's token is forwarded as before. Failures are logged only; the
+ * nightly evaluation still covers the plans.
+ */
+@Component
+@Slf4j
+public class ReplanSignalQueue {
+
+    private final PlanningClient planningClient;
+    private final long delayMs;
+
+    private final Map<Key, Pending> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors
+            .newSingleThreadScheduledExecutor(Thread.ofVirtual().name("replan-signals").factory());
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private record Key(UUID userId, UUID planId) {
+    }
+
+    private record Pending(Authentication authentication) {
+    }
+
+    public ReplanSignalQueue(PlanningClient planningClient,
+            @Value("${assessment.replan-signals.delay-ms:5000}") long delayMs) {
+        this.planningClient = planningClient;
+        this.delayMs = delayMs;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMasteryChanged(MasteryChangedEvent event) {
+        enqueue(event.userId(), event.planId());
+    }
+
+    /**
+     * Queues a signal for the user and plan unless one is already waiting
+     */
+    public void enqueue(UUID userId, UUID planId) {
+        Key key = new Key(userId, planId);
+        Pending next = new Pending(SecurityContextHolder.getContext().getAuthentication());
+        if (pending.put(key, next) == null) {
+            scheduler.schedule(() -> executor.submit(() -> send(key)), delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    void send(Key key) {
+        Pending signal = pending.remove(key);
+        if (signal == null) {
+            return;
+        }
+        Map<String, Object> body = new HashMap<>();
+        body.put("userId", key.userId().toString());
+        body.put("planId", key.planId());
+        body.put("type", "MASTERY_CHANGE");
+
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(signal.authentication());
+        SecurityContextHolder.setContext(context);
+        try {
+            planningClient.signalReplan(body);
+        } catch (Exception e) {
+            log.warn("Replan signal for user {} failed: {}", key.userId(), e.getMessage());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+        executor.shutdown();
+    }
+}
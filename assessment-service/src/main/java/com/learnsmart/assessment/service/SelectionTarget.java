@@ -0,0 +1,50 @@
+package com.learnsmart.assessment.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.UUID;
+
+/**
+ * What to select items for: the session config may name a domainId, skillId
+ * and targetDifficulty (0..1); anything missing widens the search. Parsed
+ * once when a session's state is loaded.
+ */
+@Slf4j
+public record SelectionTarget(UUID domainId, UUID skillId, double difficulty) {
+
+    static final SelectionTarget ANY = new SelectionTarget(null, null, ItemBankIndex.DEFAULT_DIFFICULTY);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static SelectionTarget parse(UUID sessionId, String sessionConfig) {
+        if (sessionConfig == null || sessionConfig.isBlank()) {
+            return ANY;
+        }
+        try {
+            JsonNode config = MAPPER.readTree(sessionConfig);
+            if (config == null) {
+                return ANY;
+            }
+            double difficulty = config.hasNonNull("targetDifficulty")
+                    ? config.get("targetDifficulty").asDouble(ItemBankIndex.DEFAULT_DIFFICULTY)
+                    : ItemBankIndex.DEFAULT_DIFFICULTY;
+            return new SelectionTarget(uuidField(config, "domainId"), uuidField(config, "skillId"), difficulty);
+        } catch (Exception e) {
+            log.warn("Ignoring unreadable config of session {}: {}", sessionId, e.getMessage());
+            return ANY;
+        }
+    }
+
+    private static UUID uuidField(JsonNode node, String field) {
+        if (!node.hasNonNull(field)) {
+            return null;
+        }
+        try {
+            return UUID.fromString(node.get(field).asText());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
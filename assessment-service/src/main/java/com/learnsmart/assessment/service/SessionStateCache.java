@@ -0,0 +1,248 @@
+package com.learnsmart.assessment.service;
+
+import com.learnsmart.assessment.model.AssessmentSession;
+import com.learnsmart.assessment.repository.AssessmentSessionRepository;
+import com.learnsmart.assessment.repository.SessionPresentedItemRepository;
+import com.learnsmart.assessment.repository.UserItemResponseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * State of active assessment sessions: presented items, running score and
+ * ability estimate.
+ *
+ * A session is loaded once (its row, presented item ids and response counts)
+ * and then served from memory, so choosing the next item neither reads nor
+ * saves the session. Changes are written through as they happen: a newly
+ * presented item is one INSERT into assessment_session_presented_items and
+ * an ability change one UPDATE of its two columns, which keeps the cost per
+ * item constant however long the session runs. Because nothing is pending,
+ * any session can be evicted; the least recently used ones go first.
+ *
+ * A {@link SessionState} is guarded by its own monitor; callers hold it
+ * across selecting and recording an item so two concurrent requests for the
+ * same session cannot both get the same item.
+ *
+ * Each instance caches its own copy, so requests for one session spread
+ * over several instances see each other's changes only after a reload. The
+ * ability is only written over the value the state was loaded with; when
+ * another instance moved it first, the state is evicted and reloaded
+ * (presented items, counts and ability) for the next request. Until then an
+ * item presented by another instance may be presented again.
+ */
+@Component
+@Slf4j
+public class SessionStateCache {
+
+    static final String INSERT_PRESENTED_SQL = "INSERT INTO assessment_session_presented_items "
+            + "(session_id, item_id, presented_at) VALUES (?, ?, ?)";
+
+    static final String UPDATE_ABILITY_SQL = "UPDATE user_assessment_sessions_v2 "
+            + "SET ability_estimate = ?, ability_information = ? "
+            + "WHERE id = ? AND ability_estimate IS NOT DISTINCT FROM CAST(? AS DOUBLE PRECISION)";
+
+    private final AssessmentSessionRepository sessionRepository;
+    private final SessionPresentedItemRepository presentedItemRepository;
+    private final UserItemResponseRepository responseRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxSessions;
+    private final Map<UUID, SessionState> lru;
+
+    public static final class SessionState {
+        private final UUID sessionId;
+        private final UUID userId;
+        private final UUID planId;
+        private final String config;
+        private final SelectionTarget selectionTarget;
+        private final PresentedItemSet presented;
+        private Double abilityEstimate;
+        private Double abilityInformation;
+        private int answered;
+        private int correct;
+
+        SessionState(AssessmentSession session, List<UUID> presentedItemIds, int answered, int correct) {
+            this.sessionId = session.getId();
+            this.userId = session.getUserId();
+            this.planId = session.getPlanId();
+            this.config = session.getConfig();
+            this.selectionTarget = SelectionTarget.parse(session.getId(), session.getConfig());
+            this.presented = new PresentedItemSet(presentedItemIds.size());
+            this.presented.addAll(presentedItemIds);
+            this.abilityEstimate = session.getAbilityEstimate();
+            this.abilityInformation = session.getAbilityInformation();
+            this.answered = answered;
+            this.correct = correct;
+        }
+
+        public UUID getSessionId() {
+            return sessionId;
+        }
+
+        public UUID getUserId() {
+            return userId;
+        }
+
+        public UUID getPlanId() {
+            return planId;
+        }
+
+        public String getConfig() {
+            return config;
+        }
+
+        /**
+         * The session config parsed once at load
+         */
+        public SelectionTarget getSelectionTarget() {
+            return selectionTarget;
+        }
+
+        /**
+         * Live view; only read it while holding this state's monitor
+         */
+        public PresentedItemSet getPresented() {
+            return presented;
+        }
+
+        public Double getAbilityEstimate() {
+            return abilityEstimate;
+        }
+
+        public Double getAbilityInformation() {
+            return abilityInformation;
+        }
+
+        public int getAnswered() {
+            return answered;
+        }
+
+        public int getCorrect() {
+            return correct;
+        }
+
+        /**
+         * Share of correct responses, or null before the first one
+         */
+        public Double score() {
+            return answered == 0 ? null : (double) correct / answered;
+        }
+    }
+
+    public SessionStateCache(AssessmentSessionRepository sessionRepository,
+            SessionPresentedItemRepository presentedItemRepository, UserItemResponseRepository responseRepository,
+            JdbcTemplate jdbcTemplate,
+            @Value("${assessment.session-state.cache-max-sessions:10000}") int maxSessions) {
+        this.sessionRepository = sessionRepository;
+        this.presentedItemRepository = presentedItemRepository;
+        this.responseRepository = responseRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxSessions = maxSessions;
+        this.lru = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, SessionState> eldest) {
+                return size() > SessionStateCache.this.maxSessions;
+            }
+        };
+    }
+
+    /**
+     * The session's state, loaded on first use
+     */
+    public SessionState get(UUID sessionId) {
+        synchronized (lru) {
+            SessionState cached = lru.get(sessionId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        AssessmentSession session = sessionRepository.findById(sessionId)
+                .orElseThrow(() -> new RuntimeException("Session not found: " + sessionId));
+        SessionState loaded = new SessionState(session, presentedItemRepository.findItemIdsBySessionId(sessionId),
+                (int) responseRepository.countBySessionId(sessionId),
+                (int) responseRepository.countBySessionIdAndIsCorrectTrue(sessionId));
+        synchronized (lru) {
+            // A concurrent first use may have won; keep its state
+            SessionState existing = lru.putIfAbsent(sessionId, loaded);
+            return existing != null ? existing : loaded;
+        }
+    }
+
+    /**
+     * Records an item as presented; returns false if it already was. The
+     * caller holds the state's monitor.
+     */
+    public boolean markPresented(SessionState state, UUID itemId) {
+        if (state.presented.contains(itemId)) {
+            return false;
+        }
+        try {
+            jdbcTemplate.update(INSERT_PRESENTED_SQL, state.sessionId, itemId,
+                    Timestamp.from(OffsetDateTime.now().toInstant()));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance serving the session stored it first
+            log.debug("Item {} of session {} was already stored as presented", itemId, state.sessionId);
+        }
+        state.presented.add(itemId);
+        return true;
+    }
+
+    /**
+     * Counts one graded response and, if given, stores the new ability
+     * estimate. Returns false when another instance changed the stored
+     * ability since this state was loaded; the state is then evicted and the
+     * ability left as the other instance wrote it.
+     */
+    public boolean recordResponse(SessionState state, boolean correct, CatEngine.Ability ability) {
+        synchronized (state) {
+            state.answered++;
+            if (correct) {
+                state.correct++;
+            }
+            return ability == null || storeAbility(state, ability);
+        }
+    }
+
+    /**
+     * Stores a new ability estimate unless another instance changed it since
+     * this state was loaded, in which case the state is evicted and false is
+     * returned
+     */
+    public boolean storeAbility(SessionState state, CatEngine.Ability ability) {
+        synchronized (state) {
+            if (jdbcTemplate.update(UPDATE_ABILITY_SQL, ability.theta(), ability.information(), state.sessionId,
+                    state.abilityEstimate) == 0) {
+                log.debug("Ability of session {} was changed elsewhere; reloading its state", state.sessionId);
+                evict(state.sessionId);
+                return false;
+            }
+            state.abilityEstimate = ability.theta();
+            state.abilityInformation = ability.information();
+            return true;
+        }
+    }
+
+    /**
+     * Drops a session that is no longer active (or was changed elsewhere)
+     */
+    public void evict(UUID sessionId) {
+        synchronized (lru) {
+            lru.remove(sessionId);
+        }
+    }
+
+    int size() {
+        synchronized (lru) {
+            return lru.size();
+        }
+    }
+}
@@ -5,6 +5,7 @@ CREATE EXTENSION IF NOT EXISTS "uuid-ossp";
 -- 0) Limpieza (Solo desarrollo)
 --------------------------------------------------
 DROP TABLE IF EXISTS user_skill_mastery CASCADE;
+DROP TABLE IF EXISTS assessment_option_feedback CASCADE;
 DROP TABLE IF EXISTS user_item_responses CASCADE;
 DROP TABLE IF EXISTS user_assessment_sessions CASCADE;
 DROP TABLE IF EXISTS assessment_item_options CASCADE;
@@ -22,6 +23,8 @@ CREATE TABLE IF NOT EXISTS assessment_items (
     type            VARCHAR(30) NOT NULL,
     stem            TEXT NOT NULL,
     difficulty      NUMERIC(3,2),
+    irt_discrimination NUMERIC(6,3),
+    irt_difficulty  NUMERIC(6,3),
     metadata        TEXT,
     is_active       BOOLEAN NOT NULL DEFAULT TRUE,
     created_at      TIMESTAMPTZ NOT NULL DEFAULT now(),
@@ -76,6 +79,8 @@ CREATE TABLE IF NOT EXISTS user_assessment_sessions_v2 (
     config          TEXT,
     started_at      TIMESTAMPTZ NOT NULL DEFAULT now(),
     completed_at    TIMESTAMPTZ,
+    ability_estimate    DOUBLE PRECISION,
+    ability_information DOUBLE PRECISION,
     CONSTRAINT chk_session_status CHECK (status IN ('in_progress','completed','cancelled'))
 );
 
@@ -83,6 +88,14 @@ CREATE INDEX IF NOT EXISTS idx_sessions_user          ON user_assessment_session
 CREATE INDEX IF NOT EXISTS idx_sessions_status        ON user_assessment_sessions_v2(status);
 CREATE INDEX IF NOT EXISTS idx_sessions_plan_module   ON user_assessment_sessions_v2(plan_id, module_id);
 
+-- Ítems ya presentados en una sesión (solo inserciones)
+CREATE TABLE IF NOT EXISTS assessment_session_presented_items (
+    session_id      UUID NOT NULL REFERENCES user_assessment_sessions_v2(id) ON DELETE CASCADE,
+    item_id         UUID NOT NULL,
+    presented_at    TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (session_id, item_id)
+);
+
 --------------------------------------------------
 -- 5) Respuestas a ítems
 --------------------------------------------------
@@ -96,6 +109,8 @@ CREATE TABLE IF NOT EXISTS user_item_responses (
     response_payload    TEXT,
     is_correct          BOOLEAN,
     response_time_ms    INT,
+    feedback_status     VARCHAR(20),
+    ai_feedback         TEXT,
     created_at          TIMESTAMPTZ NOT NULL DEFAULT now()
 );
 
@@ -103,6 +118,15 @@ CREATE INDEX IF NOT EXISTS idx_responses_session ON user_item_responses(session_
 CREATE INDEX IF NOT EXISTS idx_responses_user    ON user_item_responses(user_id);
 CREATE INDEX IF NOT EXISTS idx_responses_item    ON user_item_responses(assessment_item_id);
 
+-- Feedback generada por opción incorrecta, compartida entre usuarios
+CREATE TABLE IF NOT EXISTS assessment_option_feedback (
+    assessment_item_id  UUID NOT NULL REFERENCES assessment_items(id) ON DELETE CASCADE,
+    selected_option_id  UUID NOT NULL,
+    feedback            TEXT NOT NULL,
+    created_at          TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (assessment_item_id, selected_option_id)
+);
+
 --------------------------------------------------
 -- 6) Estado de dominio por skill (knowledge state)
 --------------------------------------------------
@@ -6,6 +6,7 @@ import com.learnsmart.assessment.repository.*;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +26,14 @@ class AssessmentServiceIntegrationTests {
     private AssessmentItemRepository itemRepository;
     @Autowired
     private UserSkillMasteryRepository masteryRepository;
+    @Autowired
+    private ItemBankIndex itemBankIndex;
+    @Autowired
+    private MasteryStore masteryStore;
+    @Autowired
+    private OptionFeedbackRepository feedbackRepository;
+    @Autowired
+    private SessionPresentedItemRepository presentedItemRepository;
 
     @Test
     @Transactional
@@ -72,9 +81,15 @@ class AssessmentServiceIntegrationTests {
         AssessmentSession created = sessionService.createSession(session);
         assertEquals("in_progress", created.getStatus());
 
-        // 3. Get Next Item
+        // 3. Get Next Item (from the item bank index, with its skills and options loaded)
+        itemBankIndex.refresh();
         AssessmentItem next = sessionService.getNextItem(created.getId());
         assertEquals(item.getId(), next.getId());
+        assertEquals(2, itemBankIndex.select(item.getDomainId(), skillId, 0.5, List.of())
+                .orElseThrow().getOptions().size());
+        List<UUID> presented = presentedItemRepository.findItemIdsBySessionId(created.getId());
+        assertEquals(List.of(item.getId()), presented);
+        assertTrue(itemBankIndex.select(item.getDomainId(), null, 0.5, presented).isEmpty());
 
         // 4. Submit Correct Response
         SubmitResponseRequest req = new SubmitResponseRequest();
@@ -86,12 +101,28 @@ class AssessmentServiceIntegrationTests {
         assertTrue(res.getIsCorrect());
         assertEquals("Correct!", res.getFeedback());
 
-        // 5. Verify Mastery Update
+        // 5. Verify Mastery Update (written behind)
+        assertEquals(0, new BigDecimal("0.693").compareTo(res.getMasteryUpdates().get(0).getMastery()));
+        masteryStore.flush();
         List<UserSkillMastery> masteries = masteryRepository.findByIdUserId(session.getUserId());
         assertFalse(masteries.isEmpty());
         UserSkillMastery m = masteries.get(0);
         assertEquals(skillId, m.getId().getSkillId());
-        // Default 0.3 + 0.1 = 0.4
-        assertEquals(0, new BigDecimal("0.4").compareTo(m.getMastery()));
+        // BKT from 0.3: posterior 0.659 after a correct answer, then the learning step
+        assertEquals(0, new BigDecimal("0.693").compareTo(m.getMastery()));
+        assertEquals(1, m.getAttempts());
+
+        // 6. Feedback warm-up candidates: the item's incorrect option, until feedback is stored for it
+        UUID itemId = item.getId();
+        UUID wrongOptionId = opt2.getId();
+        assertTrue(feedbackRepository.findIncorrectOptionsWithoutFeedback(PageRequest.of(0, 100)).stream()
+                .anyMatch(v -> v.getSelectedOptionId().equals(wrongOptionId)
+                        && v.getAssessmentItemId().equals(itemId)));
+        assertTrue(feedbackRepository.findPopularWithoutFeedback(PageRequest.of(0, 100)).isEmpty());
+        feedbackRepository.save(new OptionFeedback(new OptionFeedback.OptionFeedbackId(itemId, wrongOptionId),
+                "Count again", null));
+        feedbackRepository.flush();
+        assertTrue(feedbackRepository.findIncorrectOptionsWithoutFeedback(PageRequest.of(0, 100)).stream()
+                .noneMatch(v -> v.getSelectedOptionId().equals(wrongOptionId)));
     }
 }
@@ -0,0 +1,100 @@
+package com.learnsmart.assessment.benchmark;
+
+import com.learnsmart.assessment.service.CatEngine;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maximum-information item selection on a synthetic item bank.
+ *
+ * Difficulties are uniform over the -3..3 logit range. With {@code 1PL}
+ * every item has discrimination 1 (uncalibrated items); with {@code 2PL}
+ * discriminations are log-normal around 1. The presented-items variant
+ * excludes the items closest to theta, as a long session would, so the
+ * search has to walk past them.
+ *
+ * Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.learnsmart.assessment.benchmark.NextItemSelectionBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NextItemSelectionBenchmark {
+
+    @Param({ "100000" })
+    private int items;
+
+    @Param({ "1PL", "2PL" })
+    private String model;
+
+    @Param({ "50" })
+    private int presented;
+
+    private CatEngine.Pool pool;
+    private double[] thetas;
+    private long[][] presentedBits;
+    private long[] noneBits;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        double[] difficulty = new double[items];
+        double[] discrimination = new double[items];
+        int[] ordinals = new int[items];
+        for (int i = 0; i < items; i++) {
+            difficulty[i] = random.nextDouble() * 6.0 - 3.0;
+            discrimination[i] = "2PL".equals(model) ? Math.exp(random.nextGaussian() * 0.4) : 1.0;
+            ordinals[i] = i;
+        }
+        pool = new CatEngine.Pool(difficulty, discrimination, ordinals);
+
+        thetas = new double[1024];
+        presentedBits = new long[thetas.length][];
+        for (int t = 0; t < thetas.length; t++) {
+            thetas[t] = random.nextGaussian();
+            presentedBits[t] = new long[(items + 63) >>> 6];
+            // Exclude the items the selection would otherwise pick first
+            for (int p = 0; p < presented; p++) {
+                int ordinal = CatEngine.selectMaxInformation(pool, thetas[t], presentedBits[t]);
+                presentedBits[t][ordinal >>> 6] |= 1L << ordinal;
+            }
+        }
+        noneBits = new long[0];
+    }
+
+    @Benchmark
+    public int selectFresh() {
+        int t = next++ & (thetas.length - 1);
+        return CatEngine.selectMaxInformation(pool, thetas[t], noneBits);
+    }
+
+    @Benchmark
+    public int selectWithPresented() {
+        int t = next++ & (thetas.length - 1);
+        return CatEngine.selectMaxInformation(pool, thetas[t], presentedBits[t]);
+    }
+
+    @Benchmark
+    public CatEngine.Ability updateAbility() {
+        int t = next++ & (thetas.length - 1);
+        return CatEngine.update(CatEngine.Ability.initial(thetas[t]), 1.2, 0.3, (t & 1) == 0);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(NextItemSelectionBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,99 @@
+package com.learnsmart.assessment.client;
+
+import com.learnsmart.assessment.dto.MasteryDtos;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SkillMetadataCacheTest {
+
+    @Mock
+    private ContentClient contentClient;
+
+    @InjectMocks
+    private SkillMetadataCache cache;
+
+    @Test
+    void testGetSkills_FetchesMissingOnceAndCachesNotFound() {
+        UUID known = UUID.randomUUID();
+        UUID unknown = UUID.randomUUID();
+        when(contentClient.batchGetSkills(any())).thenReturn(List.of(skill(known, "Recursion")));
+
+        Map<UUID, MasteryDtos.SkillInfo> first = cache.getSkills(List.of(known, unknown));
+        Map<UUID, MasteryDtos.SkillInfo> second = cache.getSkills(List.of(unknown, known));
+
+        assertEquals("Recursion", first.get(known).getName());
+        assertFalse(first.containsKey(unknown));
+        assertEquals(first, second);
+        verify(contentClient, times(1)).batchGetSkills(any());
+    }
+
+    @Test
+    void testGetSkills_MissesExpireBeforeHits() {
+        ReflectionTestUtils.setField(cache, "missCacheSeconds", 0L);
+        UUID known = UUID.randomUUID();
+        UUID created = UUID.randomUUID();
+        when(contentClient.batchGetSkills(any()))
+                .thenReturn(List.of(skill(known, "Recursion")))
+                .thenReturn(List.of(skill(created, "Graphs")));
+
+        assertFalse(cache.getSkills(List.of(known, created)).containsKey(created));
+        Map<UUID, MasteryDtos.SkillInfo> second = cache.getSkills(List.of(known, created));
+
+        assertEquals("Recursion", second.get(known).getName());
+        assertEquals("Graphs", second.get(created).getName());
+        ArgumentCaptor<MasteryDtos.SkillBatchGetRequest> requests = ArgumentCaptor
+                .forClass(MasteryDtos.SkillBatchGetRequest.class);
+        verify(contentClient, times(2)).batchGetSkills(requests.capture());
+        assertEquals(List.of(created), requests.getAllValues().get(1).getIds());
+    }
+
+    @Test
+    void testGetSkills_ChunksLargeRequests() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < SkillMetadataCache.MAX_SKILLS_PER_CALL + 1; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        when(contentClient.batchGetSkills(any())).thenReturn(List.of());
+
+        cache.getSkills(ids);
+
+        ArgumentCaptor<MasteryDtos.SkillBatchGetRequest> requests = ArgumentCaptor
+                .forClass(MasteryDtos.SkillBatchGetRequest.class);
+        verify(contentClient, times(2)).batchGetSkills(requests.capture());
+        assertEquals(SkillMetadataCache.MAX_SKILLS_PER_CALL, requests.getAllValues().get(0).getIds().size());
+        assertEquals(1, requests.getAllValues().get(1).getIds().size());
+    }
+
+    @Test
+    void testGetSkills_FailureIsNotCached() {
+        UUID skillId = UUID.randomUUID();
+        when(contentClient.batchGetSkills(any()))
+                .thenThrow(new RuntimeException("Service unavailable"))
+                .thenReturn(List.of(skill(skillId, "Sorting")));
+
+        assertTrue(cache.getSkills(List.of(skillId)).isEmpty());
+        assertEquals("Sorting", cache.getSkills(List.of(skillId)).get(skillId).getName());
+    }
+
+    private static MasteryDtos.SkillInfo skill(UUID id, String name) {
+        MasteryDtos.SkillInfo skill = new MasteryDtos.SkillInfo();
+        skill.setId(id);
+        skill.setName(name);
+        return skill;
+    }
+}
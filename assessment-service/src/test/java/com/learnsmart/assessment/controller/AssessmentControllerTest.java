@@ -101,4 +101,19 @@ class AssessmentControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().isEmpty());
     }
+
+    @Test
+    void testGetResponseFeedback() {
+        UUID sessionId = UUID.randomUUID();
+        UUID responseId = UUID.randomUUID();
+        UserItemResponse itemResponse = new UserItemResponse();
+        itemResponse.setId(responseId);
+        itemResponse.setFeedbackStatus("ready");
+        itemResponse.setAiFeedback("Check the operator precedence");
+        when(sessionService.getResponseFeedback(sessionId, responseId)).thenReturn(itemResponse);
+
+        ResponseEntity<UserItemResponse> response = controller.getResponseFeedback(sessionId, responseId);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Check the operator precedence", response.getBody().getAiFeedback());
+    }
 }
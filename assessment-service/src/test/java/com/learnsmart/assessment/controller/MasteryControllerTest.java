@@ -1,6 +1,6 @@
 package com.learnsmart.assessment.controller;
 
-import com.learnsmart.assessment.client.ContentClient;
+import com.learnsmart.assessment.client.SkillMetadataCache;
 import com.learnsmart.assessment.dto.MasteryDtos;
 import com.learnsmart.assessment.model.UserSkillMastery;
 import com.learnsmart.assessment.service.AssessmentSessionService;
@@ -16,6 +16,7 @@ import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -27,7 +28,7 @@ class MasteryControllerTest {
     @Mock
     private AssessmentSessionService sessionService;
     @Mock
-    private ContentClient contentClient;
+    private SkillMetadataCache skillMetadataCache;
 
     @InjectMocks
     private MasteryController controller;
@@ -46,7 +47,7 @@ class MasteryControllerTest {
         skillInfo.setDomain(domainInfo);
 
         when(sessionService.getUserSkillMastery(userId)).thenReturn(List.of(mastery));
-        when(contentClient.getSkill(skillId)).thenReturn(skillInfo);
+        when(skillMetadataCache.getSkills(List.of(skillId))).thenReturn(Map.of(skillId, skillInfo));
 
         ResponseEntity<List<MasteryDtos.SkillMasteryEnriched>> response = controller.getUserSkillMastery(userId);
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -60,14 +61,14 @@ class MasteryControllerTest {
     }
 
     @Test
-    void testGetUserSkillMastery_ContentClientFailure() {
+    void testGetUserSkillMastery_UnknownSkillFallsBackToId() {
         UUID userId = UUID.randomUUID();
         UUID skillId = UUID.randomUUID();
         UserSkillMastery.UserSkillMasteryId id = new UserSkillMastery.UserSkillMasteryId(userId, skillId);
         UserSkillMastery mastery = new UserSkillMastery(id, new BigDecimal("0.8"), 5, OffsetDateTime.now());
 
         when(sessionService.getUserSkillMastery(userId)).thenReturn(List.of(mastery));
-        when(contentClient.getSkill(skillId)).thenThrow(new RuntimeException("Service unavailable"));
+        when(skillMetadataCache.getSkills(List.of(skillId))).thenReturn(Collections.emptyMap());
 
         ResponseEntity<List<MasteryDtos.SkillMasteryEnriched>> response = controller.getUserSkillMastery(userId);
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -75,4 +76,30 @@ class MasteryControllerTest {
         MasteryDtos.SkillMasteryEnriched enriched = response.getBody().get(0);
         assertEquals("Skill " + skillId, enriched.getSkillName()); // Fallback
     }
+
+    @Test
+    void testGetUserSkillMastery_OneLookupForAllSkills() {
+        UUID userId = UUID.randomUUID();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        List<UserSkillMastery> masteryList = List.of(
+                new UserSkillMastery(new UserSkillMastery.UserSkillMasteryId(userId, first), new BigDecimal("0.4"), 2,
+                        OffsetDateTime.now()),
+                new UserSkillMastery(new UserSkillMastery.UserSkillMasteryId(userId, second), new BigDecimal("0.6"), 3,
+                        OffsetDateTime.now()));
+
+        MasteryDtos.SkillInfo firstInfo = new MasteryDtos.SkillInfo();
+        firstInfo.setName("Loops");
+
+        when(sessionService.getUserSkillMastery(userId)).thenReturn(masteryList);
+        when(skillMetadataCache.getSkills(List.of(first, second))).thenReturn(Map.of(first, firstInfo));
+
+        ResponseEntity<List<MasteryDtos.SkillMasteryEnriched>> response = controller.getUserSkillMastery(userId);
+
+        assertEquals(2, response.getBody().size());
+        assertEquals("Loops", response.getBody().get(0).getSkillName());
+        assertNull(response.getBody().get(0).getDomainName());
+        assertEquals("Skill " + second, response.getBody().get(1).getSkillName());
+        verify(skillMetadataCache, times(1)).getSkills(any());
+    }
 }
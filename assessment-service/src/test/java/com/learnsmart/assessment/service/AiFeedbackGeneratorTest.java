@@ -0,0 +1,80 @@
+package com.learnsmart.assessment.service;
+
+import com.learnsmart.assessment.client.AiClient;
+import com.learnsmart.assessment.dto.AiDtos;
+import com.learnsmart.assessment.event.FeedbackRequestedEvent;
+import com.learnsmart.assessment.repository.UserItemResponseRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AiFeedbackGeneratorTest {
+
+    @Mock
+    private AiClient aiClient;
+
+    @Mock
+    private UserItemResponseRepository responseRepository;
+
+    @Mock
+    private FeedbackCache feedbackCache;
+
+    @InjectMocks
+    private AiFeedbackGenerator generator;
+
+    private final FeedbackRequestedEvent event = new FeedbackRequestedEvent(UUID.randomUUID(), UUID.randomUUID(),
+            UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), null);
+
+    @Test
+    void testGenerate_StoresFeedback() {
+        when(aiClient.getFeedback(any())).thenReturn(
+                new AiDtos.FeedbackResponse(false, "Remember that 2 + 2 is 4", null));
+
+        generator.generate(event);
+
+        verify(responseRepository).updateFeedback(event.responseId(), AiFeedbackGenerator.READY,
+                "Remember that 2 + 2 is 4");
+        verify(feedbackCache).put(event.assessmentItemId(), event.selectedOptionId(), "Remember that 2 + 2 is 4");
+    }
+
+    @Test
+    void testGenerate_CacheHitSkipsAi() {
+        when(feedbackCache.get(event.assessmentItemId(), event.selectedOptionId()))
+                .thenReturn(Optional.of("Cached hint"));
+
+        generator.generate(event);
+
+        verify(responseRepository).updateFeedback(event.responseId(), AiFeedbackGenerator.READY, "Cached hint");
+        verifyNoInteractions(aiClient);
+    }
+
+    @Test
+    void testGenerate_MarksFailedWhenAiFails() {
+        when(aiClient.getFeedback(any())).thenThrow(new RuntimeException("timeout"));
+
+        generator.generate(event);
+
+        verify(responseRepository).updateFeedback(eq(event.responseId()), eq(AiFeedbackGenerator.FAILED), isNull());
+    }
+
+    @Test
+    void testOnFeedbackRequested_RunsInBackground() {
+        when(aiClient.getFeedback(any())).thenReturn(new AiDtos.FeedbackResponse(false, "Hint", null));
+
+        generator.onFeedbackRequested(event);
+
+        verify(responseRepository, timeout(2000)).updateFeedback(event.responseId(), AiFeedbackGenerator.READY,
+                "Hint");
+    }
+}
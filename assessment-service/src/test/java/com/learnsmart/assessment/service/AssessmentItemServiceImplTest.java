@@ -25,6 +25,9 @@ class AssessmentItemServiceImplTest {
     @Mock
     private AssessmentItemRepository assessmentItemRepository;
 
+    @Mock
+    private ItemBankIndex itemBankIndex;
+
     @InjectMocks
     private AssessmentItemServiceImpl assessmentItemService;
 
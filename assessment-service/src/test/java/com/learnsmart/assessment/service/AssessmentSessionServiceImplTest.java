@@ -1,12 +1,17 @@
 package com.learnsmart.assessment.service;
 
+import com.learnsmart.assessment.event.FeedbackRequestedEvent;
+import com.learnsmart.assessment.event.MasteryChangedEvent;
 import com.learnsmart.assessment.model.*;
 import com.learnsmart.assessment.repository.*;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
@@ -17,6 +22,8 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,7 +36,17 @@ class AssessmentSessionServiceImplTest {
     @Mock
     private UserItemResponseRepository responseRepository;
     @Mock
-    private UserSkillMasteryRepository masteryRepository;
+    private MasteryStore masteryStore;
+    @Mock
+    private com.learnsmart.assessment.client.PlanningClient planningClient;
+    @Mock
+    private ItemBankIndex itemBankIndex;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private FeedbackCache feedbackCache;
+    @Mock
+    private SessionStateCache sessionStateCache;
 
     @InjectMocks
     private AssessmentSessionServiceImpl sessionService;
@@ -76,22 +93,105 @@ class AssessmentSessionServiceImplTest {
         AssessmentSession result = sessionService.updateStatus(id, "completed");
         assertEquals("completed", result.getStatus());
         assertNotNull(result.getCompletedAt());
+        verify(sessionStateCache).evict(id);
+    }
+
+    @Test
+    void testUpdateStatus_CompletedSendsRunningScore() {
+        UUID id = UUID.randomUUID();
+        UUID planId = UUID.randomUUID();
+        AssessmentSession session = new AssessmentSession();
+        session.setId(id);
+        session.setPlanId(planId);
+        when(sessionRepository.findById(id)).thenReturn(Optional.of(session));
+        when(sessionRepository.save(any(AssessmentSession.class))).thenAnswer(i -> i.getArgument(0));
+        when(sessionStateCache.get(id)).thenReturn(new SessionStateCache.SessionState(session, List.of(), 4, 3));
+
+        sessionService.updateStatus(id, "completed");
+
+        verify(planningClient).replan(planId, "Assessment Completed", "{\"score\": 0.75, \"answered\": 4}");
+    }
+
+    @Test
+    void testGetNextItem_FromItemBankIndex() {
+        UUID sessionId = UUID.randomUUID();
+        UUID presented = UUID.randomUUID();
+        AssessmentSession session = new AssessmentSession();
+        session.setId(sessionId);
+        AssessmentItem item = new AssessmentItem();
+        item.setId(UUID.randomUUID());
+        SessionStateCache.SessionState state = new SessionStateCache.SessionState(session, List.of(presented), 1,
+                1);
+
+        when(sessionStateCache.get(sessionId)).thenReturn(state);
+        // No ability yet: starts at the default target difficulty, 0 logits
+        when(itemBankIndex.selectByInformation(null, null, 0.0, state.getPresented()))
+                .thenReturn(Optional.of(item));
+
+        AssessmentItem result = sessionService.getNextItem(sessionId);
+
+        assertSame(item, result);
+        assertTrue(state.getPresented().contains(presented));
+        // Served from the session cache: one append for the new item, no session read or save
+        verify(sessionStateCache).markPresented(state, item.getId());
+        verifyNoInteractions(sessionRepository);
+        verify(itemRepository, never()).findRandomActiveItem();
+    }
+
+    @Test
+    void testGetNextItem_AtSessionAbility() {
+        UUID sessionId = UUID.randomUUID();
+        AssessmentSession session = new AssessmentSession();
+        session.setId(sessionId);
+        session.setAbilityEstimate(1.25);
+        session.setAbilityInformation(3.0);
+        AssessmentItem item = new AssessmentItem();
+        item.setId(UUID.randomUUID());
+
+        when(sessionStateCache.get(sessionId)).thenReturn(state(session));
+        when(itemBankIndex.selectByInformation(eq(null), eq(null), eq(1.25), any()))
+                .thenReturn(Optional.of(item));
+
+        assertSame(item, sessionService.getNextItem(sessionId));
+        verify(itemBankIndex, never()).select(any(), any(), anyDouble(), any());
+    }
+
+    @Test
+    void testGetNextItem_DifficultySelection() {
+        ReflectionTestUtils.setField(sessionService, "selection", "difficulty");
+        UUID sessionId = UUID.randomUUID();
+        AssessmentSession session = new AssessmentSession();
+        session.setId(sessionId);
+        AssessmentItem item = new AssessmentItem();
+        item.setId(UUID.randomUUID());
+
+        when(sessionStateCache.get(sessionId)).thenReturn(state(session));
+        when(itemBankIndex.select(eq(null), eq(null), eq(ItemBankIndex.DEFAULT_DIFFICULTY), any()))
+                .thenReturn(Optional.of(item));
+
+        assertSame(item, sessionService.getNextItem(sessionId));
     }
 
     @Test
     void testGetNextItem_Found() {
+        UUID sessionId = UUID.randomUUID();
         AssessmentItem item = new AssessmentItem();
+        when(sessionStateCache.get(sessionId)).thenReturn(state(new AssessmentSession()));
+        when(itemBankIndex.selectByInformation(any(), any(), anyDouble(), any())).thenReturn(Optional.empty());
         when(itemRepository.findRandomActiveItem()).thenReturn(Optional.of(item));
 
-        AssessmentItem result = sessionService.getNextItem(UUID.randomUUID());
+        AssessmentItem result = sessionService.getNextItem(sessionId);
         assertNotNull(result);
     }
 
     @Test
     void testGetNextItem_NotFound() {
+        UUID sessionId = UUID.randomUUID();
+        when(sessionStateCache.get(sessionId)).thenReturn(state(new AssessmentSession()));
+        when(itemBankIndex.selectByInformation(any(), any(), anyDouble(), any())).thenReturn(Optional.empty());
         when(itemRepository.findRandomActiveItem()).thenReturn(Optional.empty());
 
-        assertThrows(RuntimeException.class, () -> sessionService.getNextItem(UUID.randomUUID()));
+        assertThrows(RuntimeException.class, () -> sessionService.getNextItem(sessionId));
     }
 
     @Test
@@ -124,7 +224,9 @@ class AssessmentSessionServiceImplTest {
         request.setSelectedOptionId(optionId);
         request.setResponseTimeMs(1000);
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
+        SessionStateCache.SessionState state = state(session);
+        when(sessionStateCache.get(sessionId)).thenReturn(state);
+        when(sessionStateCache.recordResponse(eq(state), anyBoolean(), any())).thenReturn(true);
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         when(responseRepository.save(any(UserItemResponse.class))).thenAnswer(i -> {
             UserItemResponse r = i.getArgument(0);
@@ -133,9 +235,9 @@ class AssessmentSessionServiceImplTest {
             return r;
         });
 
-        // Mock mastery finding - not present initially
-        when(masteryRepository.findById(any(UserSkillMastery.UserSkillMasteryId.class))).thenReturn(Optional.empty());
-        when(masteryRepository.save(any(UserSkillMastery.class))).thenAnswer(i -> i.getArgument(0));
+        UserSkillMastery updated = new UserSkillMastery(new UserSkillMastery.UserSkillMasteryId(userId, skillId),
+                new BigDecimal("0.693"), 1, OffsetDateTime.now());
+        when(masteryStore.record(userId, List.of(skillId), true, 0.0)).thenReturn(List.of(updated));
 
         UserItemResponseWithFeedback result = sessionService.submitResponse(sessionId, request);
 
@@ -143,9 +245,16 @@ class AssessmentSessionServiceImplTest {
         assertEquals("Correct!", result.getFeedback());
         assertEquals(1, result.getMasteryUpdates().size());
         UserSkillMastery update = result.getMasteryUpdates().get(0);
-        assertEquals(1, update.getAttempts());
-        // Initial 0.3 + 0.1 = 0.4
-        assertEquals(0, new BigDecimal("0.4").compareTo(update.getMastery()));
+        assertSame(updated, update);
+        // Planning is signalled after commit, off the request thread
+        verify(eventPublisher).publishEvent(new MasteryChangedEvent(userId, null));
+        verifyNoInteractions(planningClient);
+        // Correct on an average item from the starting ability: estimate moves up
+        CatEngine.Ability ability = recordedAbility(state, true);
+        assertTrue(ability.theta() > 0.0);
+        assertTrue(ability.information() > CatEngine.PRIOR_INFORMATION);
+        assertNull(result.getFeedbackStatus());
+        verify(eventPublisher, never()).publishEvent(any(FeedbackRequestedEvent.class));
     }
 
     @Test
@@ -171,7 +280,9 @@ class AssessmentSessionServiceImplTest {
         request.setAssessmentItemId(itemId);
         request.setSelectedOptionId(optionId);
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
+        SessionStateCache.SessionState state = state(session);
+        when(sessionStateCache.get(sessionId)).thenReturn(state);
+        when(sessionStateCache.recordResponse(eq(state), anyBoolean(), any())).thenReturn(true);
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         when(responseRepository.save(any(UserItemResponse.class))).thenAnswer(i -> {
             UserItemResponse r = i.getArgument(0);
@@ -183,7 +294,83 @@ class AssessmentSessionServiceImplTest {
         UserItemResponseWithFeedback result = sessionService.submitResponse(sessionId, request);
 
         assertFalse(result.getIsCorrect());
+        // Graded with the template right away; AI feedback is requested for after commit
         assertEquals("Wrong answer", result.getFeedback());
+        assertEquals(AiFeedbackGenerator.PENDING, result.getFeedbackStatus());
+        verify(eventPublisher).publishEvent(argThat((Object e) -> e instanceof FeedbackRequestedEvent f
+                && f.responseId().equals(result.getId()) && f.selectedOptionId().equals(optionId)));
+        assertTrue(recordedAbility(state, false).theta() < 0.0);
+    }
+
+    @Test
+    void testSubmitResponse_IncorrectWithCachedFeedback() {
+        UUID sessionId = UUID.randomUUID();
+        UUID itemId = UUID.randomUUID();
+        UUID optionId = UUID.randomUUID();
+        AssessmentSession session = new AssessmentSession();
+        session.setId(sessionId);
+        session.setUserId(UUID.randomUUID());
+        AssessmentItem item = new AssessmentItem();
+        item.setId(itemId);
+        AssessmentItemOption option = new AssessmentItemOption();
+        option.setId(optionId);
+        option.setIsCorrect(false);
+        item.setOptions(List.of(option));
+        SubmitResponseRequest request = new SubmitResponseRequest();
+        request.setAssessmentItemId(itemId);
+        request.setSelectedOptionId(optionId);
+
+        SessionStateCache.SessionState state = state(session);
+        when(sessionStateCache.get(sessionId)).thenReturn(state);
+        when(sessionStateCache.recordResponse(eq(state), anyBoolean(), any())).thenReturn(true);
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(feedbackCache.get(itemId, optionId)).thenReturn(Optional.of("Generated earlier"));
+
+        UserItemResponseWithFeedback result = sessionService.submitResponse(sessionId, request);
+
+        assertEquals("Generated earlier", result.getFeedback());
+        assertEquals(AiFeedbackGenerator.READY, result.getFeedbackStatus());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testSubmitResponse_AbilityChangedElsewhereIsAppliedToReloadedState() {
+        UUID sessionId = UUID.randomUUID();
+        UUID itemId = UUID.randomUUID();
+        UUID optionId = UUID.randomUUID();
+
+        AssessmentSession session = new AssessmentSession();
+        session.setId(sessionId);
+        session.setUserId(UUID.randomUUID());
+        AssessmentItem item = new AssessmentItem();
+        item.setId(itemId);
+        AssessmentItemOption option = new AssessmentItemOption();
+        option.setId(optionId);
+        option.setIsCorrect(true);
+        item.setOptions(List.of(option));
+        SubmitResponseRequest request = new SubmitResponseRequest();
+        request.setAssessmentItemId(itemId);
+        request.setSelectedOptionId(optionId);
+
+        SessionStateCache.SessionState stale = state(session);
+        AssessmentSession stored = new AssessmentSession();
+        stored.setId(sessionId);
+        stored.setUserId(session.getUserId());
+        stored.setAbilityEstimate(1.0);
+        stored.setAbilityInformation(2.0);
+        SessionStateCache.SessionState reloaded = new SessionStateCache.SessionState(stored, List.of(), 3, 2);
+        when(sessionStateCache.get(sessionId)).thenReturn(stale, reloaded);
+        when(sessionStateCache.recordResponse(eq(stale), eq(true), any())).thenReturn(false);
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(responseRepository.save(any(UserItemResponse.class))).thenAnswer(i -> i.getArgument(0));
+
+        sessionService.submitResponse(sessionId, request);
+
+        // The response moves the estimate the other instance stored, not the stale one
+        ArgumentCaptor<CatEngine.Ability> ability = ArgumentCaptor.forClass(CatEngine.Ability.class);
+        verify(sessionStateCache).storeAbility(eq(reloaded), ability.capture());
+        assertTrue(ability.getValue().theta() > 1.0);
+        assertTrue(ability.getValue().information() > 2.0);
     }
 
     @Test
@@ -199,10 +386,20 @@ class AssessmentSessionServiceImplTest {
     @Test
     void testGetUserSkillMastery() {
         UUID userId = UUID.randomUUID();
-        when(masteryRepository.findByIdUserId(userId)).thenReturn(Collections.emptyList());
+        when(masteryStore.get(userId)).thenReturn(Collections.emptyList());
 
         List<UserSkillMastery> result = sessionService.getUserSkillMastery(userId);
         assertTrue(result.isEmpty());
-        verify(masteryRepository).findByIdUserId(userId);
+        verify(masteryStore).get(userId);
+    }
+
+    private static SessionStateCache.SessionState state(AssessmentSession session) {
+        return new SessionStateCache.SessionState(session, List.of(), 0, 0);
+    }
+
+    private CatEngine.Ability recordedAbility(SessionStateCache.SessionState state, boolean correct) {
+        ArgumentCaptor<CatEngine.Ability> ability = ArgumentCaptor.forClass(CatEngine.Ability.class);
+        verify(sessionStateCache).recordResponse(eq(state), eq(correct), ability.capture());
+        return ability.getValue();
     }
 }
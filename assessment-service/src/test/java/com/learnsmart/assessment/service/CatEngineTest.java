@@ -0,0 +1,115 @@
+package com.learnsmart.assessment.service;
+
+import com.learnsmart.assessment.model.AssessmentItem;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatEngineTest {
+
+    @Test
+    void testSelectMaxInformation_MatchesExhaustiveSearch() {
+        Random random = new Random(7);
+        int n = 5000;
+        double[] b = new double[n];
+        double[] a = new double[n];
+        int[] ordinals = new int[n];
+        for (int i = 0; i < n; i++) {
+            b[i] = random.nextDouble() * 8.0 - 4.0;
+            a[i] = Math.min(3.5, Math.exp(random.nextGaussian() * 0.5));
+            ordinals[i] = i;
+        }
+        CatEngine.Pool pool = new CatEngine.Pool(b, a, ordinals);
+        long[] excluded = new long[(n + 63) >>> 6];
+        for (int i = 0; i < n; i += 3) {
+            excluded[i >>> 6] |= 1L << i;
+        }
+
+        for (int t = 0; t < 200; t++) {
+            double theta = random.nextGaussian() * 1.5;
+            double best = -1.0;
+            for (int i = 0; i < n; i++) {
+                if (i % 3 != 0) {
+                    best = Math.max(best, CatEngine.information(a[i], b[i], theta));
+                }
+            }
+            int selected = CatEngine.selectMaxInformation(pool, theta, excluded);
+            assertNotEquals(0, selected % 3);
+            assertEquals(best, CatEngine.information(a[selected], b[selected], theta), 1e-12);
+        }
+    }
+
+    @Test
+    void testSelectMaxInformation_NearestDifficultyFor1PL() {
+        CatEngine.Pool pool = new CatEngine.Pool(new double[] { -2.0, -0.5, 0.4, 2.0 },
+                new double[] { 1, 1, 1, 1 }, new int[] { 10, 11, 12, 13 });
+
+        assertEquals(12, CatEngine.selectMaxInformation(pool, 0.2, new long[0]));
+        assertEquals(13, CatEngine.selectMaxInformation(pool, 9.0, new long[0]));
+
+        long[] excluded = new long[1];
+        excluded[0] |= 1L << 12;
+        assertEquals(11, CatEngine.selectMaxInformation(pool, 0.2, excluded));
+        excluded[0] |= (1L << 10) | (1L << 11) | (1L << 13);
+        assertEquals(-1, CatEngine.selectMaxInformation(pool, 0.2, excluded));
+    }
+
+    @Test
+    void testUpdate_MovesTowardsResponsesAndGainsInformation() {
+        CatEngine.Ability start = CatEngine.Ability.initial(0.0);
+
+        CatEngine.Ability afterCorrect = CatEngine.update(start, 1.0, 0.0, true);
+        CatEngine.Ability afterWrong = CatEngine.update(start, 1.0, 0.0, false);
+
+        assertEquals(0.4, afterCorrect.theta(), 1e-9);
+        assertEquals(-0.4, afterWrong.theta(), 1e-9);
+        assertEquals(1.25, afterCorrect.information(), 1e-9);
+        assertTrue(afterCorrect.standardError() < start.standardError());
+    }
+
+    @Test
+    void testUpdate_ConvergesOnSimulatedExaminee() {
+        Random random = new Random(11);
+        double trueTheta = 1.2;
+        int n = 2000;
+        double[] b = new double[n];
+        double[] a = new double[n];
+        int[] ordinals = new int[n];
+        for (int i = 0; i < n; i++) {
+            b[i] = random.nextDouble() * 6.0 - 3.0;
+            a[i] = 1.0;
+            ordinals[i] = i;
+        }
+        CatEngine.Pool pool = new CatEngine.Pool(b, a, ordinals);
+        long[] presented = new long[(n + 63) >>> 6];
+
+        CatEngine.Ability ability = CatEngine.Ability.initial(0.0);
+        for (int step = 0; step < 60; step++) {
+            int item = CatEngine.selectMaxInformation(pool, ability.theta(), presented);
+            presented[item >>> 6] |= 1L << item;
+            boolean correct = random.nextDouble() < CatEngine.probability(1.0, b[item], trueTheta);
+            ability = CatEngine.update(ability, 1.0, b[item], correct);
+        }
+
+        assertEquals(trueTheta, ability.theta(), 3 * ability.standardError());
+        assertTrue(ability.standardError() < 0.35);
+    }
+
+    @Test
+    void testItemParameters_CalibratedOrFromDifficulty() {
+        AssessmentItem item = new AssessmentItem();
+        assertEquals(0.0, CatEngine.itemDifficulty(item));
+        assertEquals(CatEngine.DEFAULT_DISCRIMINATION, CatEngine.itemDiscrimination(item));
+
+        item.setDifficulty(new BigDecimal("0.75"));
+        assertEquals(1.5, CatEngine.itemDifficulty(item), 1e-9);
+
+        item.setIrtDifficulty(new BigDecimal("-0.8"));
+        item.setIrtDiscrimination(new BigDecimal("1.7"));
+        assertEquals(-0.8, CatEngine.itemDifficulty(item), 1e-9);
+        assertEquals(1.7, CatEngine.itemDiscrimination(item), 1e-9);
+    }
+}
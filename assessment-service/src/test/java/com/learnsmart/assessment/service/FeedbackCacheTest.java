@@ -0,0 +1,71 @@
+package com.learnsmart.assessment.service;
+
+import com.learnsmart.assessment.model.OptionFeedback;
+import com.learnsmart.assessment.repository.OptionFeedbackRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FeedbackCacheTest {
+
+    @Mock
+    private OptionFeedbackRepository feedbackRepository;
+
+    private FeedbackCache cache;
+
+    private final UUID item = UUID.randomUUID();
+    private final UUID option = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        cache = new FeedbackCache(feedbackRepository, 2);
+    }
+
+    @Test
+    void testGet_FromTableOnceThenFromMemory() {
+        OptionFeedback.OptionFeedbackId id = new OptionFeedback.OptionFeedbackId(item, option);
+        when(feedbackRepository.findById(id))
+                .thenReturn(Optional.of(new OptionFeedback(id, "Stored", OffsetDateTime.now())));
+
+        assertEquals("Stored", cache.get(item, option).orElseThrow());
+        assertEquals("Stored", cache.get(item, option).orElseThrow());
+        verify(feedbackRepository, times(1)).findById(id);
+    }
+
+    @Test
+    void testPut_StoresAndServesFromMemory() {
+        cache.put(item, option, "Generated");
+
+        assertEquals("Generated", cache.get(item, option).orElseThrow());
+        verify(feedbackRepository).save(any(OptionFeedback.class));
+        verify(feedbackRepository, never()).findById(any());
+        assertTrue(cache.get(item, null).isEmpty());
+    }
+
+    @Test
+    void testPut_EvictsLeastRecentlyUsed() {
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        cache.put(item, option, "first");
+        cache.put(item, second, "second");
+        cache.get(item, option);
+        cache.put(item, third, "third");
+
+        assertEquals(2, cache.size());
+        assertEquals("first", cache.get(item, option).orElseThrow());
+        // The evicted entry falls back to the table
+        assertTrue(cache.get(item, second).isEmpty());
+        verify(feedbackRepository).findById(new OptionFeedback.OptionFeedbackId(item, second));
+    }
+}
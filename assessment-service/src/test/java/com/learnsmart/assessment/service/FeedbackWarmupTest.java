@@ -0,0 +1,121 @@
+package com.learnsmart.assessment.service;
+
+import com.learnsmart.assessment.repository.OptionFeedbackRepository;
+import feign.FeignException;
+import feign.Request;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FeedbackWarmupTest {
+
+    @Mock
+    private OptionFeedbackRepository feedbackRepository;
+
+    @Mock
+    private AiFeedbackGenerator feedbackGenerator;
+
+    @InjectMocks
+    private FeedbackWarmup warmup;
+
+    @Test
+    void testWarmUp_PopularFirstThenOtherOptions() {
+        OptionFeedbackRepository.MissingFeedbackView popular = view();
+        OptionFeedbackRepository.MissingFeedbackView other = view();
+        when(feedbackRepository.findPopularWithoutFeedback(PageRequest.of(0, 50))).thenReturn(List.of(popular));
+        when(feedbackRepository.findIncorrectOptionsWithoutFeedback(PageRequest.of(0, 49))).thenReturn(List.of(other));
+        when(feedbackGenerator.feedbackFor(any(), any(), any(), any(), any())).thenReturn("feedback");
+
+        warmup.warmUp();
+
+        verify(feedbackGenerator).feedbackFor(popular.getAssessmentItemId(), popular.getDomainId(),
+                popular.getSelectedOptionId(), null, null);
+        verify(feedbackGenerator).feedbackFor(other.getAssessmentItemId(), other.getDomainId(),
+                other.getSelectedOptionId(), null, null);
+    }
+
+    @Test
+    void testWarmUp_StopsAtFirstFailure() {
+        when(feedbackRepository.findPopularWithoutFeedback(any())).thenReturn(List.of(view(), view()));
+        when(feedbackGenerator.feedbackFor(any(), any(), any(), any(), any()))
+                .thenThrow(new RuntimeException("AI unavailable"));
+
+        warmup.warmUp();
+
+        verify(feedbackGenerator, times(1)).feedbackFor(any(), any(), any(), any(), any());
+        verify(feedbackRepository, never()).findIncorrectOptionsWithoutFeedback(any());
+    }
+
+    @Test
+    void testWarmUp_SkipsOptionWithoutFeedbackInLaterRuns() {
+        OptionFeedbackRepository.MissingFeedbackView failing = view();
+        OptionFeedbackRepository.MissingFeedbackView next = view();
+        when(feedbackRepository.findPopularWithoutFeedback(any())).thenReturn(List.of(failing, next));
+        when(feedbackGenerator.feedbackFor(eq(failing.getAssessmentItemId()), any(), any(), any(), any()))
+                .thenReturn(null);
+        when(feedbackGenerator.feedbackFor(eq(next.getAssessmentItemId()), any(), any(), any(), any()))
+                .thenReturn("feedback");
+
+        warmup.warmUp();
+        warmup.warmUp();
+
+        // The failing option does not block the one behind it and is not tried again
+        verify(feedbackGenerator, times(1)).feedbackFor(eq(failing.getAssessmentItemId()), any(), any(), any(),
+                any());
+        verify(feedbackGenerator, times(2)).feedbackFor(eq(next.getAssessmentItemId()), any(), any(), any(),
+                any());
+        verify(feedbackRepository).findPopularWithoutFeedback(PageRequest.of(0, 51));
+        assertEquals(1, warmup.skippedCount());
+    }
+
+    @Test
+    void testIsServiceFailure() {
+        Request request = Request.create(Request.HttpMethod.POST, "/ai/feedback", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+
+        assertFalse(FeedbackWarmup.isServiceFailure(
+                new FeignException.NotFound("no such item", request, null, null)));
+        assertTrue(FeedbackWarmup.isServiceFailure(
+                new FeignException.ServiceUnavailable("down", request, null, null)));
+        assertTrue(FeedbackWarmup.isServiceFailure(
+                new FeignException.TooManyRequests("slow down", request, null, null)));
+        assertTrue(FeedbackWarmup.isServiceFailure(new RuntimeException("AI unavailable")));
+    }
+
+    private static OptionFeedbackRepository.MissingFeedbackView view() {
+        UUID item = UUID.randomUUID();
+        UUID option = UUID.randomUUID();
+        UUID domain = UUID.randomUUID();
+        return new OptionFeedbackRepository.MissingFeedbackView() {
+            public UUID getAssessmentItemId() {
+                return item;
+            }
+
+            public UUID getSelectedOptionId() {
+                return option;
+            }
+
+            public UUID getDomainId() {
+                return domain;
+            }
+
+            public long getTimesChosen() {
+                return 1;
+            }
+        };
+    }
+}
@@ -0,0 +1,133 @@
+package com.learnsmart.assessment.service;
+
+import com.learnsmart.assessment.model.AssessmentItem;
+import com.learnsmart.assessment.model.AssessmentItemSkill;
+import com.learnsmart.assessment.repository.AssessmentItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemBankIndexTest {
+
+    @Mock
+    private AssessmentItemRepository itemRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ItemBankIndex index;
+
+    private final UUID domain = UUID.randomUUID();
+    private final UUID otherDomain = UUID.randomUUID();
+    private final UUID skill = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        index = new ItemBankIndex(itemRepository, transactionManager);
+    }
+
+    @Test
+    void testSelect_NearestDifficultyNotPresented() {
+        AssessmentItem easy = item(domain, "0.15", null);
+        AssessmentItem medium = item(domain, "0.55", null);
+        AssessmentItem hard = item(domain, "0.95", null);
+        load(easy, medium, hard, item(otherDomain, "0.55", null));
+
+        assertEquals(medium.getId(), index.select(domain, null, 0.5, List.of()).orElseThrow().getId());
+        // Medium already presented: the nearer bucket wins (0.15 is closer to 0.3 than 0.95)
+        assertEquals(easy.getId(), index.select(domain, null, 0.3, List.of(medium.getId())).orElseThrow().getId());
+        assertTrue(index.select(domain, null, 0.5, List.of(easy.getId(), medium.getId(), hard.getId())).isEmpty());
+    }
+
+    @Test
+    void testSelect_BySkillAndAcrossDomains() {
+        AssessmentItem withSkill = item(domain, "0.5", skill);
+        load(withSkill, item(domain, "0.5", null), item(otherDomain, "0.5", null));
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(withSkill.getId(), index.select(domain, skill, 0.5, List.of()).orElseThrow().getId());
+        }
+        assertTrue(index.select(domain, UUID.randomUUID(), 0.5, List.of()).isEmpty());
+        assertTrue(index.select(UUID.randomUUID(), null, 0.5, List.of()).isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void testRefresh_AppliesChangedItemsOnly() {
+        AssessmentItem first = item(domain, "0.5", null);
+        load(first);
+
+        AssessmentItem added = item(otherDomain, "0.5", null);
+        AssessmentItem deactivated = item(domain, "0.5", null);
+        deactivated.setId(first.getId());
+        deactivated.setIsActive(false);
+        when(itemRepository.findWithSkillsUpdatedAfter(any())).thenReturn(List.of(added, deactivated));
+
+        index.refresh();
+
+        verify(itemRepository, times(1)).findActiveWithSkills();
+        assertTrue(index.select(domain, null, 0.5, List.of()).isEmpty());
+        assertEquals(added.getId(), index.select(null, null, 0.5, List.of()).orElseThrow().getId());
+    }
+
+    @Test
+    void testSelectByInformation_AtAbilityPerSkill() {
+        AssessmentItem easy = item(domain, "0.2", skill);
+        AssessmentItem medium = item(domain, "0.5", null);
+        AssessmentItem hard = item(domain, "0.8", skill);
+        // Calibrated as much harder than its difficulty says
+        hard.setIrtDifficulty(new BigDecimal("2.500"));
+        hard.setIrtDiscrimination(new BigDecimal("2.000"));
+        load(easy, medium, hard);
+
+        assertEquals(medium.getId(), index.selectByInformation(domain, null, 0.0, List.of()).orElseThrow().getId());
+        assertEquals(hard.getId(), index.selectByInformation(domain, null, 2.5, List.of()).orElseThrow().getId());
+        assertEquals(easy.getId(), index.selectByInformation(domain, skill, 0.0, List.of()).orElseThrow().getId());
+        assertEquals(hard.getId(),
+                index.selectByInformation(domain, skill, 0.0, List.of(easy.getId())).orElseThrow().getId());
+        assertTrue(index.selectByInformation(domain, skill, 0.0, List.of(easy.getId(), hard.getId())).isEmpty());
+        // Presented bits are cleared again after each selection
+        assertEquals(easy.getId(), index.selectByInformation(domain, skill, 0.0, List.of()).orElseThrow().getId());
+    }
+
+    @Test
+    void testBucketOf_ClampsToRange() {
+        assertEquals(0, ItemBankIndex.bucketOf(-1.0));
+        assertEquals(5, ItemBankIndex.bucketOf((BigDecimal) null));
+        assertEquals(9, ItemBankIndex.bucketOf(1.0));
+    }
+
+    private void load(AssessmentItem... items) {
+        when(itemRepository.findActiveWithSkills()).thenReturn(List.of(items));
+        lenient().when(itemRepository.fetchOptions(anyCollection())).thenReturn(List.of());
+        index.load();
+        assertTrue(index.isLoaded());
+    }
+
+    private static AssessmentItem item(UUID domainId, String difficulty, UUID skillId) {
+        AssessmentItem item = new AssessmentItem();
+        item.setId(UUID.randomUUID());
+        item.setDomainId(domainId);
+        item.setDifficulty(new BigDecimal(difficulty));
+        item.setUpdatedAt(OffsetDateTime.now());
+        if (skillId != null) {
+            AssessmentItemSkill skill = new AssessmentItemSkill();
+            skill.setId(new AssessmentItemSkill.AssessmentItemSkillId(item.getId(), skillId));
+            item.setSkills(List.of(skill));
+        }
+        return item;
+    }
+}
@@ -0,0 +1,51 @@
+package com.learnsmart.assessment.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MasteryModelTest {
+
+    private final BktMasteryModel bkt = new BktMasteryModel();
+    private final EloMasteryModel elo = new EloMasteryModel();
+
+    @Test
+    void testBkt_BayesUpdateThenLearning() {
+        assertEquals(0.3, bkt.initial());
+        // 0.3 * 0.9 / (0.3 * 0.9 + 0.7 * 0.2) = 0.6585, then + 0.3415 * 0.1
+        assertEquals(0.6927, bkt.update(0.3, 0, true, 0.0), 1e-4);
+        // 0.3 * 0.1 / (0.3 * 0.1 + 0.7 * 0.8) = 0.0508, then + 0.9492 * 0.1
+        assertEquals(0.1458, bkt.update(0.3, 0, false, 0.0), 1e-4);
+    }
+
+    @Test
+    void testBkt_StaysWithinBounds() {
+        double mastery = bkt.initial();
+        for (int i = 0; i < 50; i++) {
+            mastery = bkt.update(mastery, i, true, 0.0);
+        }
+        assertTrue(mastery <= 1.0 && mastery > 0.99);
+        for (int i = 0; i < 50; i++) {
+            mastery = bkt.update(mastery, 50 + i, false, 0.0);
+        }
+        assertTrue(mastery >= 0.0 && mastery < 0.2);
+    }
+
+    @Test
+    void testElo_SurpriseMovesFurther() {
+        double easyCorrect = elo.update(0.5, 0, true, -2.0);
+        double hardCorrect = elo.update(0.5, 0, true, 2.0);
+        double hardWrong = elo.update(0.5, 0, false, 2.0);
+
+        assertTrue(hardCorrect > easyCorrect && easyCorrect > 0.5);
+        assertTrue(hardWrong < 0.5 && hardWrong > 0.45);
+    }
+
+    @Test
+    void testElo_StepShrinksWithAttempts() {
+        double first = elo.update(0.5, 0, true, 0.0) - 0.5;
+        double later = elo.update(0.5, 40, true, 0.0) - 0.5;
+        assertTrue(later > 0 && later < first);
+        assertEquals(1.0, elo.update(1.0, 0, true, 0.0), 1e-2);
+    }
+}
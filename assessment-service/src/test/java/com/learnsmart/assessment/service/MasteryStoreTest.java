@@ -0,0 +1,153 @@
+package com.learnsmart.assessment.service;
+
+import com.learnsmart.assessment.model.UserSkillMastery;
+import com.learnsmart.assessment.repository.UserSkillMasteryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MasteryStoreTest {
+
+    @Mock
+    private UserSkillMasteryRepository masteryRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private MasteryStore store;
+
+    private final UUID user = UUID.randomUUID();
+    private final UUID skillA = UUID.randomUUID();
+    private final UUID skillB = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        store = new MasteryStore(masteryRepository, jdbcTemplate, new BktMasteryModel());
+    }
+
+    @Test
+    void testRecord_UpdatesInMemoryWithoutWriting() {
+        UserSkillMastery stored = new UserSkillMastery(new UserSkillMastery.UserSkillMasteryId(user, skillA),
+                new BigDecimal("0.500"), 3, OffsetDateTime.now());
+        when(masteryRepository.findByIdUserId(user)).thenReturn(List.of(stored));
+
+        List<UserSkillMastery> first = store.record(user, List.of(skillA, skillB), true, 0.0);
+        store.record(user, List.of(skillA), false, 0.0);
+
+        assertEquals(4, first.get(0).getAttempts());
+        assertEquals(1, first.get(1).getAttempts());
+        assertEquals(0, new BigDecimal("0.693").compareTo(first.get(1).getMastery()));
+        List<UserSkillMastery> current = store.get(user);
+        assertEquals(2, current.size());
+        assertEquals(5, current.stream().filter(m -> m.getId().getSkillId().equals(skillA))
+                .findFirst().orElseThrow().getAttempts());
+        verify(masteryRepository, times(1)).findByIdUserId(user);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_OneBatchForAllDirtyRows() {
+        UUID otherUser = UUID.randomUUID();
+        store.record(user, List.of(skillA, skillB), true, 0.0);
+        store.record(otherUser, List.of(skillA), false, 0.0);
+
+        store.flush();
+        store.flush();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(MasteryStore.UPSERT_SQL),
+                (Collection<Object>) argThat(rows -> ((Collection<?>) rows).size() == 3), eq(3),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_FailedBatchIsRetried() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new RuntimeException("db down"))
+                .thenReturn(new int[][] { { 1 } });
+        store.record(user, List.of(skillA), true, 0.0);
+
+        store.flush();
+        store.flush();
+        store.flush();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_RowChangedByAnotherWriterIsReplayed() {
+        BktMasteryModel model = new BktMasteryModel();
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][] { { 0 } })
+                .thenReturn(new int[][] { { 1 } });
+        // Another instance stored 7 attempts while this one only knew of none
+        UserSkillMastery stored = new UserSkillMastery(new UserSkillMastery.UserSkillMasteryId(user, skillA),
+                new BigDecimal("0.800"), 7, OffsetDateTime.now());
+        when(masteryRepository.findById(stored.getId())).thenReturn(Optional.of(stored));
+        store.record(user, List.of(skillA), true, 0.0);
+
+        store.flush();
+
+        UserSkillMastery current = store.get(user).get(0);
+        assertEquals(8, current.getAttempts());
+        assertEquals(0, BigDecimal.valueOf(model.update(0.8, 7, true, 0.0)).setScale(3, RoundingMode.HALF_UP)
+                .compareTo(current.getMastery()));
+
+        store.flush();
+        store.flush();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void testGet_ReloadsCleanUserAfterTtl() {
+        ReflectionTestUtils.setField(store, "cacheTtlSeconds", 0L);
+        when(masteryRepository.findByIdUserId(user)).thenReturn(List.of());
+
+        store.get(user);
+        store.record(user, List.of(skillA), true, 0.0);
+        // Not reloaded while a change is waiting to be flushed
+        assertEquals(1, store.get(user).size());
+        store.flush();
+        store.get(user);
+
+        verify(masteryRepository, times(3)).findByIdUserId(user);
+    }
+
+    @Test
+    void testFlush_EvictsCleanUsersOverLimit() {
+        ReflectionTestUtils.setField(store, "maxUsers", 2);
+        for (int i = 0; i < 5; i++) {
+            store.record(UUID.randomUUID(), List.of(skillA), true, 0.0);
+        }
+        assertEquals(5, store.cachedUsers());
+
+        store.flush();
+
+        assertEquals(2, store.cachedUsers());
+    }
+}
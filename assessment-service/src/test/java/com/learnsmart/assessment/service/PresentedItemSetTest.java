@@ -0,0 +1,45 @@
+package com.learnsmart.assessment.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PresentedItemSetTest {
+
+    @Test
+    void testAddAndContains_AcrossResizes() {
+        PresentedItemSet set = new PresentedItemSet();
+        Set<UUID> expected = new HashSet<>();
+        for (int i = 0; i < 5000; i++) {
+            UUID id = UUID.randomUUID();
+            assertTrue(set.add(id));
+            expected.add(id);
+        }
+        for (UUID id : expected) {
+            assertFalse(set.add(id));
+            assertTrue(set.contains(id));
+        }
+
+        assertEquals(5000, set.size());
+        assertFalse(set.contains(UUID.randomUUID()));
+        assertEquals(expected, new HashSet<>(set));
+    }
+
+    @Test
+    void testNilUuid() {
+        PresentedItemSet set = new PresentedItemSet(2);
+        UUID nil = new UUID(0L, 0L);
+        assertFalse(set.contains(nil));
+
+        assertTrue(set.add(nil));
+        assertFalse(set.add(nil));
+
+        assertTrue(set.contains(nil));
+        assertEquals(1, set.size());
+        assertEquals(Set.of(nil), new HashSet<>(set));
+    }
+}
@@ -0,0 +1,74 @@
+package com.learnsmart.assessment.service;
+
+import com.learnsmart.assessment.client.PlanningClient;
+import com.learnsmart.assessment.event.MasteryChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplanSignalQueueTest {
+
+    @Mock
+    private PlanningClient planningClient;
+
+    private ReplanSignalQueue queue;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSignals_CoalescedPerUserAndPlanWithLatestToken() {
+        queue = new ReplanSignalQueue(planningClient, 200);
+        UUID userId = UUID.randomUUID();
+        UUID planId = UUID.randomUUID();
+        List<Authentication> sentWith = new CopyOnWriteArrayList<>();
+        when(planningClient.signalReplan(any())).thenAnswer(i -> {
+            sentWith.add(SecurityContextHolder.getContext().getAuthentication());
+            return null;
+        });
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("first", null));
+        queue.onMasteryChanged(new MasteryChangedEvent(userId, planId));
+        Authentication latest = new TestingAuthenticationToken("second", null);
+        SecurityContextHolder.getContext().setAuthentication(latest);
+        queue.onMasteryChanged(new MasteryChangedEvent(userId, planId));
+        assertEquals(1, queue.pendingCount());
+
+        verify(planningClient, timeout(2000).times(1)).signalReplan(argThat((Map<String, Object> signal) ->
+                userId.toString().equals(signal.get("userId")) && planId.equals(signal.get("planId"))
+                        && "MASTERY_CHANGE".equals(signal.get("type"))));
+        assertEquals(List.of(latest), sentWith);
+        assertEquals(0, queue.pendingCount());
+    }
+
+    @Test
+    void testSignals_FailureIsNotPropagated() {
+        queue = new ReplanSignalQueue(planningClient, 0);
+        when(planningClient.signalReplan(any())).thenThrow(new RuntimeException("planning down"));
+
+        assertDoesNotThrow(() -> queue.onMasteryChanged(new MasteryChangedEvent(UUID.randomUUID(), null)));
+
+        verify(planningClient, timeout(2000).times(1)).signalReplan(any());
+    }
+}
@@ -0,0 +1,31 @@
+package com.learnsmart.assessment.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SelectionTargetTest {
+
+    @Test
+    void testParse_ReadsDomainSkillAndDifficulty() {
+        UUID domainId = UUID.randomUUID();
+        UUID skillId = UUID.randomUUID();
+
+        SelectionTarget target = SelectionTarget.parse(UUID.randomUUID(),
+                "{\"domainId\":\"" + domainId + "\",\"skillId\":\"" + skillId + "\",\"targetDifficulty\":0.8}");
+
+        assertEquals(new SelectionTarget(domainId, skillId, 0.8), target);
+    }
+
+    @Test
+    void testParse_MissingOrUnreadableConfigWidensSearch() {
+        UUID sessionId = UUID.randomUUID();
+
+        assertSame(SelectionTarget.ANY, SelectionTarget.parse(sessionId, null));
+        assertSame(SelectionTarget.ANY, SelectionTarget.parse(sessionId, "not json"));
+        assertEquals(new SelectionTarget(null, null, ItemBankIndex.DEFAULT_DIFFICULTY),
+                SelectionTarget.parse(sessionId, "{\"skillId\":\"not-a-uuid\"}"));
+    }
+}
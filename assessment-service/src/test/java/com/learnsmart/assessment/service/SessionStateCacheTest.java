@@ -0,0 +1,180 @@
+package com.learnsmart.assessment.service;
+
+import com.learnsmart.assessment.model.AssessmentSession;
+import com.learnsmart.assessment.repository.AssessmentSessionRepository;
+import com.learnsmart.assessment.repository.SessionPresentedItemRepository;
+import com.learnsmart.assessment.repository.UserItemResponseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SessionStateCacheTest {
+
+    @Mock
+    private AssessmentSessionRepository sessionRepository;
+    @Mock
+    private SessionPresentedItemRepository presentedItemRepository;
+    @Mock
+    private UserItemResponseRepository responseRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SessionStateCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SessionStateCache(sessionRepository, presentedItemRepository, responseRepository, jdbcTemplate,
+                2);
+    }
+
+    @Test
+    void testGet_LoadsOnceWithPresentedItemsAndScore() {
+        UUID presented = UUID.randomUUID();
+        AssessmentSession session = session();
+        session.setAbilityEstimate(0.5);
+        stubLoad(session, List.of(presented), 4, 3);
+
+        SessionStateCache.SessionState state = cache.get(session.getId());
+
+        assertSame(state, cache.get(session.getId()));
+        assertTrue(state.getPresented().contains(presented));
+        assertEquals(0.75, state.score());
+        assertEquals(0.5, state.getAbilityEstimate());
+        verify(sessionRepository, times(1)).findById(session.getId());
+    }
+
+    @Test
+    void testGet_UnknownSession() {
+        UUID sessionId = UUID.randomUUID();
+        when(sessionRepository.findById(sessionId)).thenReturn(Optional.empty());
+
+        assertThrows(RuntimeException.class, () -> cache.get(sessionId));
+    }
+
+    @Test
+    void testMarkPresented_AppendsOnlyNewItems() {
+        AssessmentSession session = session();
+        stubLoad(session, List.of(), 0, 0);
+        SessionStateCache.SessionState state = cache.get(session.getId());
+        UUID itemId = UUID.randomUUID();
+
+        assertTrue(cache.markPresented(state, itemId));
+        assertFalse(cache.markPresented(state, itemId));
+
+        assertTrue(state.getPresented().contains(itemId));
+        verify(jdbcTemplate, times(1)).update(eq(SessionStateCache.INSERT_PRESENTED_SQL), eq(session.getId()),
+                eq(itemId), any());
+    }
+
+    @Test
+    void testRecordResponse_UpdatesScoreAndAbility() {
+        AssessmentSession session = session();
+        stubLoad(session, List.of(), 0, 0);
+        SessionStateCache.SessionState state = cache.get(session.getId());
+
+        when(jdbcTemplate.update(SessionStateCache.UPDATE_ABILITY_SQL, 0.4, 1.25, session.getId(), null))
+                .thenReturn(1);
+
+        assertTrue(cache.recordResponse(state, true, new CatEngine.Ability(0.4, 1.25)));
+        assertTrue(cache.recordResponse(state, false, null));
+
+        assertEquals(0.5, state.score());
+        assertEquals(0.4, state.getAbilityEstimate());
+        assertEquals(1.25, state.getAbilityInformation());
+        verify(jdbcTemplate, times(1)).update(eq(SessionStateCache.UPDATE_ABILITY_SQL), any(), any(), any(),
+                any());
+    }
+
+    @Test
+    void testRecordResponse_AbilityChangedElsewhereEvictsState() {
+        AssessmentSession session = session();
+        session.setAbilityEstimate(0.2);
+        stubLoad(session, List.of(), 0, 0);
+        SessionStateCache.SessionState state = cache.get(session.getId());
+        // Another instance already moved the stored ability away from 0.2
+        when(jdbcTemplate.update(SessionStateCache.UPDATE_ABILITY_SQL, 0.4, 1.25, session.getId(), 0.2))
+                .thenReturn(0);
+
+        assertFalse(cache.recordResponse(state, true, new CatEngine.Ability(0.4, 1.25)));
+
+        assertEquals(0.2, state.getAbilityEstimate());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testMarkPresented_AlreadyStoredByAnotherInstance() {
+        AssessmentSession session = session();
+        stubLoad(session, List.of(), 0, 0);
+        SessionStateCache.SessionState state = cache.get(session.getId());
+        UUID itemId = UUID.randomUUID();
+        when(jdbcTemplate.update(eq(SessionStateCache.INSERT_PRESENTED_SQL), eq(session.getId()), eq(itemId), any()))
+                .thenThrow(new DuplicateKeyException("duplicate"));
+
+        assertTrue(cache.markPresented(state, itemId));
+
+        assertTrue(state.getPresented().contains(itemId));
+    }
+
+    @Test
+    void testMarkPresented_StoreFailurePropagates() {
+        AssessmentSession session = session();
+        stubLoad(session, List.of(), 0, 0);
+        SessionStateCache.SessionState state = cache.get(session.getId());
+        UUID itemId = UUID.randomUUID();
+        when(jdbcTemplate.update(eq(SessionStateCache.INSERT_PRESENTED_SQL), eq(session.getId()), eq(itemId), any()))
+                .thenThrow(new DataAccessResourceFailureException("db down"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> cache.markPresented(state, itemId));
+
+        assertFalse(state.getPresented().contains(itemId));
+    }
+
+    @Test
+    void testGet_EvictsLeastRecentlyUsedBeyondMax() {
+        AssessmentSession first = session();
+        AssessmentSession second = session();
+        AssessmentSession third = session();
+        for (AssessmentSession session : List.of(first, second, third)) {
+            stubLoad(session, List.of(), 0, 0);
+        }
+
+        cache.get(first.getId());
+        cache.get(second.getId());
+        cache.get(first.getId());
+        cache.get(third.getId());
+
+        assertEquals(2, cache.size());
+        cache.get(first.getId());
+        verify(sessionRepository, times(1)).findById(first.getId());
+        cache.get(second.getId());
+        verify(sessionRepository, times(2)).findById(second.getId());
+    }
+
+    private static AssessmentSession session() {
+        AssessmentSession session = new AssessmentSession();
+        session.setId(UUID.randomUUID());
+        session.setUserId(UUID.randomUUID());
+        return session;
+    }
+
+    private void stubLoad(AssessmentSession session, List<UUID> presented, long answered, long correct) {
+        when(sessionRepository.findById(session.getId())).thenReturn(Optional.of(session));
+        when(presentedItemRepository.findItemIdsBySessionId(session.getId())).thenReturn(presented);
+        when(responseRepository.countBySessionId(session.getId())).thenReturn(answered);
+        when(responseRepository.countBySessionIdAndIsCorrectTrue(session.getId())).thenReturn(correct);
+    }
+}
@@ -0,0 +1,35 @@
+package com.learnsmart.content.controller;
+
+import com.learnsmart.content.dto.ContentDtos;
+import com.learnsmart.content.service.SkillService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Batch skill lookup, so callers enriching many skills (e.g. a user's
+ * mastery list) make one request instead of one per skill. Kept out of
+ * {@link SkillController} because its class-level /skills mapping would
+ * turn the custom method into /skills/:batchGet.
+ */
+@RestController
+@RequiredArgsConstructor
+public class SkillBatchController {
+
+    static final int MAX_BATCH_SIZE = 500;
+
+    private final SkillService skillService;
+
+    @PostMapping("/skills:batchGet")
+    public ResponseEntity<List<ContentDtos.SkillSummary>> batchGet(
+            @RequestBody ContentDtos.SkillBatchGetRequest request) {
+        if (request.getIds() != null && request.getIds().size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(skillService.findSummaries(request.getIds()));
+    }
+}
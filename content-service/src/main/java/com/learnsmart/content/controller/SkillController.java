@@ -87,6 +87,17 @@ public class SkillController {
         return ResponseEntity.ok(dtos);
     }
 
+    /**
+     * Prerequisite closure of a skill with the content items teaching it, in
+     * one response (used by planning-service to build plans locally)
+     */
+    @GetMapping("/{id}/learning-path")
+    public ResponseEntity<ContentDtos.LearningPathResponse> getLearningPath(@PathVariable UUID id) {
+        return skillService.getLearningPath(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PutMapping("/{id}/prerequisites")
     @org.springframework.security.access.prepost.PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> updatePrerequisites(@PathVariable UUID id, @RequestBody List<UUID> prerequisiteIds) {
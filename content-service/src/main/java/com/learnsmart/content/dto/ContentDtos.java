@@ -76,6 +76,56 @@ public class ContentDtos {
         private List<String> tags;
     }
 
+    @Data
+    public static class SkillBatchGetRequest {
+        private List<UUID> ids;
+    }
+
+    // Skill with its domain, as returned by the batch lookup
+    @Data
+    public static class SkillSummary {
+        private UUID id;
+        private String code;
+        private String name;
+        private String level;
+        private DomainRef domain;
+    }
+
+    @Data
+    public static class DomainRef {
+        private UUID id;
+        private String code;
+        private String name;
+    }
+
+    // Everything needed to plan toward a skill: its prerequisite closure and the
+    // active content items teaching those skills
+    @Data
+    public static class LearningPathResponse {
+        private UUID goalSkillId;
+        private List<LearningPathSkill> skills;
+        private List<LearningPathItem> items;
+    }
+
+    @Data
+    public static class LearningPathSkill {
+        private UUID id;
+        private String code;
+        private String name;
+        private String level;
+        private List<UUID> prerequisiteIds;
+    }
+
+    @Data
+    public static class LearningPathItem {
+        private UUID id;
+        private String title;
+        private String type;
+        private Integer estimatedMinutes;
+        private BigDecimal difficulty;
+        private List<UUID> skillIds;
+    }
+
     @Data
     public static class GenerateSkillsInput {
         private String topic;
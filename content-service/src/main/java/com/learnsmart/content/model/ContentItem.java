@@ -17,7 +17,7 @@ import java.math.BigDecimal; // Using BigDecimal for NUMERIC consistency or Doub
 public class ContentItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -19,7 +19,7 @@ import java.time.OffsetDateTime;
 public class Skill {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -3,8 +3,18 @@ package com.learnsmart.content.repository;
 import com.learnsmart.content.model.ContentItemSkill;
 import com.learnsmart.content.model.ContentItemSkill.ContentItemSkillId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
 @Repository
 public interface ContentItemSkillRepository extends JpaRepository<ContentItemSkill, ContentItemSkillId> {
+
+    @Query("SELECT cis FROM ContentItemSkill cis JOIN FETCH cis.contentItem ci "
+            + "WHERE cis.id.skillId IN :skillIds AND ci.isActive = true")
+    List<ContentItemSkill> findActiveBySkillIds(@Param("skillIds") Collection<UUID> skillIds);
 }
@@ -2,6 +2,9 @@ package com.learnsmart.content.repository;
 
 import com.learnsmart.content.model.Skill;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.UUID;
 import java.util.List;
 
@@ -9,4 +12,36 @@ public interface SkillRepository extends JpaRepository<Skill, UUID> {
     List<Skill> findByDomainId(UUID domainId);
 
     List<Skill> findByCodeContaining(String code);
+
+    interface PrerequisiteEdge {
+        UUID getSkillId();
+
+        UUID getPrerequisiteId();
+    }
+
+    interface SkillSummaryView {
+        UUID getId();
+
+        String getCode();
+
+        String getName();
+
+        String getLevel();
+
+        UUID getDomainId();
+
+        String getDomainCode();
+
+        String getDomainName();
+    }
+
+    // Scalar projection: loading the entities would also load every skill's tags
+    @Query("SELECT s.id AS id, s.code AS code, s.name AS name, s.level AS level, "
+            + "d.id AS domainId, d.code AS domainCode, d.name AS domainName "
+            + "FROM Skill s JOIN s.domain d WHERE s.id IN :ids")
+    List<SkillSummaryView> findSummariesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT s.id AS skillId, p.id AS prerequisiteId FROM Skill s JOIN s.prerequisites p "
+            + "WHERE s.id IN :skillIds")
+    List<PrerequisiteEdge> findPrerequisiteEdges(@Param("skillIds") Collection<UUID> skillIds);
 }
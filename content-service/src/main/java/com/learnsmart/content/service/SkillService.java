@@ -1,6 +1,7 @@
 package com.learnsmart.content.service;
 
 import com.learnsmart.content.model.Skill;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import java.util.Optional;
@@ -18,8 +19,19 @@ public interface SkillService {
 
     List<Skill> getPrerequisites(UUID id);
 
+    /**
+     * Skills with their domain, in one query; unknown ids are left out
+     */
+    List<com.learnsmart.content.dto.ContentDtos.SkillSummary> findSummaries(Collection<UUID> ids);
+
     void updatePrerequisites(UUID id, List<UUID> prerequisiteIds);
 
+    /**
+     * Transitive prerequisites of a skill with the content teaching them;
+     * empty if the skill does not exist
+     */
+    Optional<com.learnsmart.content.dto.ContentDtos.LearningPathResponse> getLearningPath(UUID id);
+
     // US-10-06: AI Skill Discovery
     List<Skill> generateSkills(UUID domainId, String topic);
 
@@ -2,20 +2,29 @@ package com.learnsmart.content.service;
 
 import com.learnsmart.content.model.Skill;
 import com.learnsmart.content.model.Domain;
+import com.learnsmart.content.model.ContentItem;
+import com.learnsmart.content.model.ContentItemSkill;
+import com.learnsmart.content.repository.ContentItemSkillRepository;
 import com.learnsmart.content.repository.SkillRepository;
+import com.learnsmart.content.dto.ContentDtos;
 import com.learnsmart.content.client.AiServiceClient;
 import com.learnsmart.content.dto.AiDtos;
 import com.learnsmart.content.exception.DomainNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.HashMap;
 import java.util.Collections;
 import java.util.Map;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 
 @Service
 @RequiredArgsConstructor
@@ -24,6 +33,7 @@ public class SkillServiceImpl implements SkillService {
     private final SkillRepository skillRepository;
     private final DomainService domainService;
     private final AiServiceClient aiServiceClient;
+    private final ContentItemSkillRepository contentItemSkillRepository;
 
     @Override
     public List<Skill> findAll(UUID domainId, String search, Integer page, Integer size) {
@@ -70,6 +80,93 @@ public class SkillServiceImpl implements SkillService {
                 .orElse(Collections.emptyList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ContentDtos.SkillSummary> findSummaries(Collection<UUID> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return skillRepository.findSummariesByIdIn(new LinkedHashSet<>(ids)).stream().map(view -> {
+            ContentDtos.DomainRef domain = new ContentDtos.DomainRef();
+            domain.setId(view.getDomainId());
+            domain.setCode(view.getDomainCode());
+            domain.setName(view.getDomainName());
+
+            ContentDtos.SkillSummary summary = new ContentDtos.SkillSummary();
+            summary.setId(view.getId());
+            summary.setCode(view.getCode());
+            summary.setName(view.getName());
+            summary.setLevel(view.getLevel());
+            summary.setDomain(domain);
+            return summary;
+        }).toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ContentDtos.LearningPathResponse> getLearningPath(UUID id) {
+        if (!skillRepository.existsById(id)) {
+            return Optional.empty();
+        }
+
+        // Walk the prerequisite graph one level per query
+        Map<UUID, List<UUID>> prerequisites = new LinkedHashMap<>();
+        prerequisites.put(id, new ArrayList<>());
+        Set<UUID> frontier = Set.of(id);
+        while (!frontier.isEmpty()) {
+            Set<UUID> next = new LinkedHashSet<>();
+            for (SkillRepository.PrerequisiteEdge edge : skillRepository.findPrerequisiteEdges(frontier)) {
+                prerequisites.get(edge.getSkillId()).add(edge.getPrerequisiteId());
+                if (!prerequisites.containsKey(edge.getPrerequisiteId())) {
+                    prerequisites.put(edge.getPrerequisiteId(), new ArrayList<>());
+                    next.add(edge.getPrerequisiteId());
+                }
+            }
+            frontier = next;
+        }
+
+        // findAllById does not keep the order of its argument; list skills in walk order (goal first)
+        Map<UUID, Skill> loaded = new HashMap<>();
+        for (Skill skill : skillRepository.findAllById(prerequisites.keySet())) {
+            loaded.put(skill.getId(), skill);
+        }
+        List<ContentDtos.LearningPathSkill> skills = new ArrayList<>();
+        for (UUID skillId : prerequisites.keySet()) {
+            Skill skill = loaded.get(skillId);
+            if (skill == null) {
+                continue; // Deleted while walking
+            }
+            ContentDtos.LearningPathSkill dto = new ContentDtos.LearningPathSkill();
+            dto.setId(skill.getId());
+            dto.setCode(skill.getCode());
+            dto.setName(skill.getName());
+            dto.setLevel(skill.getLevel());
+            dto.setPrerequisiteIds(prerequisites.get(skill.getId()));
+            skills.add(dto);
+        }
+
+        Map<UUID, ContentDtos.LearningPathItem> items = new LinkedHashMap<>();
+        for (ContentItemSkill link : contentItemSkillRepository.findActiveBySkillIds(prerequisites.keySet())) {
+            ContentItem item = link.getContentItem();
+            items.computeIfAbsent(item.getId(), itemId -> {
+                ContentDtos.LearningPathItem dto = new ContentDtos.LearningPathItem();
+                dto.setId(itemId);
+                dto.setTitle(item.getTitle());
+                dto.setType(item.getType());
+                dto.setEstimatedMinutes(item.getEstimatedMinutes());
+                dto.setDifficulty(item.getDifficulty());
+                dto.setSkillIds(new ArrayList<>());
+                return dto;
+            }).getSkillIds().add(link.getId().getSkillId());
+        }
+
+        ContentDtos.LearningPathResponse response = new ContentDtos.LearningPathResponse();
+        response.setGoalSkillId(id);
+        response.setSkills(skills);
+        response.setItems(new ArrayList<>(items.values()));
+        return Optional.of(response);
+    }
+
     @Override
     @Transactional
     public void updatePrerequisites(UUID id, List<UUID> prerequisiteIds) {
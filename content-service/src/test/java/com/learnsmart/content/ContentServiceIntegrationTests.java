@@ -62,12 +62,26 @@ class ContentServiceIntegrationTests {
                 skillInput.setLevel("A1");
                 skillInput.setTags(List.of("basic", "math"));
 
-                mockMvc.perform(post("/skills")
+                MvcResult skillResult = mockMvc.perform(post("/skills")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(objectMapper.writeValueAsString(skillInput)))
                                 .andExpect(status().isCreated())
                                 .andExpect(jsonPath("$.id").exists())
-                                .andExpect(jsonPath("$.code").value("algebra-1"));
+                                .andExpect(jsonPath("$.code").value("algebra-1"))
+                                .andReturn();
+                UUID skillId = UUID.fromString(objectMapper.readTree(skillResult.getResponse().getContentAsString())
+                                .get("id").asText());
+
+                // Batch lookup: unknown ids are left out
+                ContentDtos.SkillBatchGetRequest batchRequest = new ContentDtos.SkillBatchGetRequest();
+                batchRequest.setIds(List.of(skillId, UUID.randomUUID()));
+                mockMvc.perform(post("/skills:batchGet")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(batchRequest)))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.length()").value(1))
+                                .andExpect(jsonPath("$[0].name").value("Algebra I"))
+                                .andExpect(jsonPath("$[0].domain.name").value("Mathematics"));
 
                 // 3. Create ContentItem
                 ContentDtos.ContentItemInput contentInput = new ContentDtos.ContentItemInput();
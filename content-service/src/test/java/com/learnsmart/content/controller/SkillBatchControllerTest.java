@@ -0,0 +1,57 @@
+package com.learnsmart.content.controller;
+
+import com.learnsmart.content.dto.ContentDtos;
+import com.learnsmart.content.service.SkillService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SkillBatchControllerTest {
+
+    @Mock
+    private SkillService skillService;
+
+    @InjectMocks
+    private SkillBatchController controller;
+
+    @Test
+    void testBatchGet() {
+        UUID id = UUID.randomUUID();
+        ContentDtos.SkillSummary summary = new ContentDtos.SkillSummary();
+        summary.setId(id);
+        when(skillService.findSummaries(List.of(id))).thenReturn(List.of(summary));
+
+        ContentDtos.SkillBatchGetRequest request = new ContentDtos.SkillBatchGetRequest();
+        request.setIds(List.of(id));
+        ResponseEntity<List<ContentDtos.SkillSummary>> response = controller.batchGet(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(id, response.getBody().get(0).getId());
+    }
+
+    @Test
+    void testBatchGet_TooManyIds() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i <= SkillBatchController.MAX_BATCH_SIZE; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        ContentDtos.SkillBatchGetRequest request = new ContentDtos.SkillBatchGetRequest();
+        request.setIds(ids);
+
+        assertEquals(HttpStatus.BAD_REQUEST, controller.batchGet(request).getStatusCode());
+        verify(skillService, never()).findSummaries(any());
+    }
+}
@@ -1,6 +1,10 @@
 package com.learnsmart.content.service;
 
 import com.learnsmart.content.model.Skill;
+import com.learnsmart.content.dto.ContentDtos;
+import com.learnsmart.content.model.ContentItem;
+import com.learnsmart.content.model.ContentItemSkill;
+import com.learnsmart.content.repository.ContentItemSkillRepository;
 import com.learnsmart.content.repository.SkillRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -25,6 +29,9 @@ class SkillServiceImplTest {
     @Mock
     private SkillRepository skillRepository;
 
+    @Mock
+    private ContentItemSkillRepository contentItemSkillRepository;
+
     @InjectMocks
     private SkillServiceImpl skillService;
 
@@ -38,6 +45,27 @@ class SkillServiceImplTest {
         verify(skillRepository).findByDomainId(domainId);
     }
 
+    @Test
+    void testFindSummaries_OneQueryWithDomain() {
+        UUID skillId = UUID.randomUUID();
+        UUID domainId = UUID.randomUUID();
+        SkillRepository.SkillSummaryView view = mock(SkillRepository.SkillSummaryView.class);
+        when(view.getId()).thenReturn(skillId);
+        when(view.getName()).thenReturn("Loops");
+        when(view.getDomainId()).thenReturn(domainId);
+        when(view.getDomainName()).thenReturn("Java");
+        when(skillRepository.findSummariesByIdIn(Set.of(skillId))).thenReturn(List.of(view));
+
+        List<ContentDtos.SkillSummary> result = skillService.findSummaries(List.of(skillId, skillId));
+
+        assertEquals(1, result.size());
+        assertEquals("Loops", result.get(0).getName());
+        assertEquals(domainId, result.get(0).getDomain().getId());
+        assertEquals("Java", result.get(0).getDomain().getName());
+        assertTrue(skillService.findSummaries(List.of()).isEmpty());
+        verify(skillRepository, times(1)).findSummariesByIdIn(any());
+    }
+
     @Test
     void testFindAll_NoFilters() {
         when(skillRepository.findAll()).thenReturn(Collections.emptyList());
@@ -158,4 +186,72 @@ class SkillServiceImplTest {
         // This is a placeholder to document the expected behavior.
         assertTrue(true, "Domain validation is enforced at controller level via DomainNotFoundException");
     }
+
+    @Test
+    void testGetLearningPath_WalksPrerequisiteClosure() {
+        UUID goal = UUID.randomUUID();
+        UUID middle = UUID.randomUUID();
+        UUID basics = UUID.randomUUID();
+        when(skillRepository.existsById(goal)).thenReturn(true);
+        when(skillRepository.findPrerequisiteEdges(Set.of(goal))).thenReturn(List.of(edge(goal, middle)));
+        when(skillRepository.findPrerequisiteEdges(Set.of(middle)))
+                .thenReturn(List.of(edge(middle, basics), edge(middle, goal)));
+        when(skillRepository.findPrerequisiteEdges(Set.of(basics))).thenReturn(List.of());
+        // The database returns rows in no particular order
+        when(skillRepository.findAllById(any())).thenReturn(List.of(skill(basics), skill(goal), skill(middle)));
+
+        ContentItem lesson = new ContentItem();
+        lesson.setId(UUID.randomUUID());
+        lesson.setType("lesson");
+        lesson.setEstimatedMinutes(30);
+        when(contentItemSkillRepository.findActiveBySkillIds(any())).thenReturn(List.of(
+                link(lesson, basics), link(lesson, middle)));
+
+        ContentDtos.LearningPathResponse path = skillService.getLearningPath(goal).orElseThrow();
+
+        assertEquals(goal, path.getGoalSkillId());
+        assertEquals(List.of(goal, middle, basics),
+                path.getSkills().stream().map(ContentDtos.LearningPathSkill::getId).toList());
+        assertEquals(List.of(middle), path.getSkills().get(0).getPrerequisiteIds());
+        // The cycle back to the goal is reported but not walked again
+        assertEquals(List.of(basics, goal), path.getSkills().get(1).getPrerequisiteIds());
+        assertEquals(1, path.getItems().size());
+        assertEquals(List.of(basics, middle), path.getItems().get(0).getSkillIds());
+        assertEquals(30, path.getItems().get(0).getEstimatedMinutes());
+    }
+
+    @Test
+    void testGetLearningPath_UnknownSkill() {
+        UUID id = UUID.randomUUID();
+        when(skillRepository.existsById(id)).thenReturn(false);
+
+        assertTrue(skillService.getLearningPath(id).isEmpty());
+        verifyNoInteractions(contentItemSkillRepository);
+    }
+
+    private static SkillRepository.PrerequisiteEdge edge(UUID skillId, UUID prerequisiteId) {
+        return new SkillRepository.PrerequisiteEdge() {
+            public UUID getSkillId() {
+                return skillId;
+            }
+
+            public UUID getPrerequisiteId() {
+                return prerequisiteId;
+            }
+        };
+    }
+
+    private static Skill skill(UUID id) {
+        Skill skill = new Skill();
+        skill.setId(id);
+        skill.setName("skill-" + id);
+        return skill;
+    }
+
+    private static ContentItemSkill link(ContentItem item, UUID skillId) {
+        ContentItemSkill link = new ContentItemSkill();
+        link.setId(new ContentItemSkill.ContentItemSkillId(item.getId(), skillId));
+        link.setContentItem(item);
+        return link;
+    }
 }
@@ -20,12 +20,18 @@ public interface Clients {
         // Sometimes valid to search by userId String
         @GetMapping("/profiles/uid/{userId}")
         ExternalDtos.UserProfile getProfileByUserId(@PathVariable("userId") String userId);
+
+        @GetMapping("/profiles/me/goals")
+        List<ExternalDtos.UserGoal> getMyGoals();
     }
 
     @FeignClient(name = "content-service")
     public interface ContentClient {
         @GetMapping("/content-items")
         List<ExternalDtos.ContentItemDto> getContentItems(@RequestParam(value = "size", defaultValue = "100") int size);
+
+        @GetMapping("/skills/{id}/learning-path")
+        ExternalDtos.LearningPath getLearningPath(@PathVariable("id") UUID skillId);
     }
 
     @FeignClient(name = "ai-service", path = "/v1")
@@ -0,0 +1,136 @@
+package com.learnsmart.planning.client;
+
+import com.learnsmart.planning.dto.ExternalDtos;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batched last-activity lookups against tracking-service, used for
+ * inactivity detection. Callers are scheduled jobs, so requests are made as
+ * the planning-service account rather than with a forwarded user token.
+ *
+ * One POST /analytics/users/last-activity call resolves a whole evaluation
+ * batch; results (including "no events yet") are cached for a short time so
+ * users with several active plans, or plans re-evaluated from events, do not
+ * trigger new calls.
+ */
+@Component
+@Slf4j
+public class TrackingActivityClient {
+
+    // Tracking-service rejects larger requests
+    static final int MAX_USERS_PER_CALL = 500;
+
+    private final RestTemplate restTemplate;
+
+    private final Map<String, CachedActivity> cache = new ConcurrentHashMap<>();
+
+    @Value("${tracking-service.url:http://tracking-service}")
+    private String trackingServiceUrl;
+
+    @Value("${planning.tracking.last-activity-cache-seconds:300}")
+    private long cacheSeconds;
+
+    @Value("${planning.tracking.last-activity-cache-max-entries:50000}")
+    private int maxEntries;
+
+    public TrackingActivityClient(@Qualifier("serviceRestTemplate") RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
+    private record CachedActivity(Optional<OffsetDateTime> lastActivity, long expiresAt) {
+    }
+
+    /**
+     * Last tracked activity of each user.
+     *
+     * Users whose lookup succeeded are always present; an empty Optional
+     * means tracking-service has no events for them. Users that could not be
+     * resolved (tracking-service unavailable) are absent, so callers can tell
+     * "inactive" from "unknown".
+     */
+    public Map<String, Optional<OffsetDateTime>> getLastActivity(Collection<String> userIds) {
+        Map<String, Optional<OffsetDateTime>> result = new HashMap<>();
+        if (userIds == null || userIds.isEmpty()) {
+            return result;
+        }
+
+        long now = System.nanoTime();
+        Map<UUID, String> missing = new LinkedHashMap<>();
+        for (String userId : new LinkedHashSet<>(userIds)) {
+            if (userId == null) {
+                continue;
+            }
+            CachedActivity cached = cache.get(userId);
+            if (cached != null && cached.expiresAt() - now > 0) {
+                result.put(userId, cached.lastActivity());
+                continue;
+            }
+            UUID trackedId = parseUuid(userId);
+            if (trackedId == null) {
+                // Tracking-service keys events by UUID, so it cannot know this user
+                result.put(userId, Optional.empty());
+            } else {
+                missing.put(trackedId, userId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        List<UUID> ids = new ArrayList<>(missing.keySet());
+        long expiresAt = now + TimeUnit.SECONDS.toNanos(cacheSeconds);
+        evictExpired(now);
+        for (int from = 0; from < ids.size(); from += MAX_USERS_PER_CALL) {
+            List<UUID> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_USERS_PER_CALL));
+            try {
+                ExternalDtos.LastActivityResponse[] response = restTemplate.postForObject(
+                        trackingServiceUrl + "/analytics/users/last-activity",
+                        new ExternalDtos.LastActivityRequest(chunk),
+                        ExternalDtos.LastActivityResponse[].class);
+
+                Map<UUID, OffsetDateTime> found = new HashMap<>();
+                if (response != null) {
+                    for (ExternalDtos.LastActivityResponse row : response) {
+                        found.put(row.getUserId(), row.getLastOccurredAt());
+                    }
+                }
+                for (UUID id : chunk) {
+                    Optional<OffsetDateTime> lastActivity = Optional.ofNullable(found.get(id));
+                    String userId = missing.get(id);
+                    result.put(userId, lastActivity);
+                    cache.put(userId, new CachedActivity(lastActivity, expiresAt));
+                }
+            } catch (Exception e) {
+                log.warn("Failed to fetch last activity for {} users: {}", chunk.size(), e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    private void evictExpired(long now) {
+        if (cache.size() < maxEntries) {
+            return;
+        }
+        cache.entrySet().removeIf(entry -> entry.getValue().expiresAt() - now <= 0);
+        if (cache.size() >= maxEntries) {
+            cache.clear();
+        }
+    }
+
+    private static UUID parseUuid(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -4,19 +4,30 @@ import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProviderBuilder;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
 @Configuration
 public class RestTemplateConfig {
 
+    // Client registration (spring.security.oauth2.client.registration.*) of the service account
+    public static final String SERVICE_REGISTRATION_ID = "planning-service";
+
     @Bean
+    @Primary
     @LoadBalanced
     public RestTemplate restTemplate(RestTemplateBuilder builder) {
         RestTemplate restTemplate = builder.build();
@@ -37,4 +48,37 @@ public class RestTemplateConfig {
         restTemplate.setInterceptors(interceptors);
         return restTemplate;
     }
+
+    /**
+     * For calls made outside a user request (scheduled jobs, queues): always
+     * authenticates as the planning-service account with a client_credentials
+     * token, never with a forwarded user token
+     */
+    @Bean
+    @LoadBalanced
+    public RestTemplate serviceRestTemplate(RestTemplateBuilder builder,
+            OAuth2AuthorizedClientManager serviceAuthorizedClientManager) {
+        return builder
+                .connectTimeout(Duration.ofSeconds(5))
+                .readTimeout(Duration.ofSeconds(30))
+                .additionalInterceptors(new ServiceTokenInterceptor(serviceAuthorizedClientManager,
+                        SERVICE_REGISTRATION_ID))
+                .build();
+    }
+
+    /**
+     * Obtains and caches client_credentials tokens without an HTTP request in
+     * scope; an expired token is fetched again on next use
+     */
+    @Bean
+    public OAuth2AuthorizedClientManager serviceAuthorizedClientManager(
+            ClientRegistrationRepository clientRegistrationRepository,
+            OAuth2AuthorizedClientService authorizedClientService) {
+        AuthorizedClientServiceOAuth2AuthorizedClientManager manager = new AuthorizedClientServiceOAuth2AuthorizedClientManager(
+                clientRegistrationRepository, authorizedClientService);
+        manager.setAuthorizedClientProvider(OAuth2AuthorizedClientProviderBuilder.builder()
+                .clientCredentials()
+                .build());
+        return manager;
+    }
 }
@@ -0,0 +1,44 @@
+package com.learnsmart.planning.config;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.core.OAuth2AuthorizationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+
+import java.io.IOException;
+
+/**
+ * Adds the service account's bearer token to every request. A token that
+ * cannot be obtained fails the request with an
+ * {@link OAuth2AuthorizationException} rather than sending it anonymously.
+ */
+public class ServiceTokenInterceptor implements ClientHttpRequestInterceptor {
+
+    private final OAuth2AuthorizedClientManager authorizedClientManager;
+    private final String registrationId;
+
+    public ServiceTokenInterceptor(OAuth2AuthorizedClientManager authorizedClientManager, String registrationId) {
+        this.authorizedClientManager = authorizedClientManager;
+        this.registrationId = registrationId;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        OAuth2AuthorizedClient client = authorizedClientManager.authorize(OAuth2AuthorizeRequest
+                .withClientRegistrationId(registrationId)
+                .principal(registrationId)
+                .build());
+        if (client == null || client.getAccessToken() == null) {
+            throw new OAuth2AuthorizationException(new OAuth2Error("unauthorized_client",
+                    "No access token for client registration " + registrationId, null));
+        }
+        request.getHeaders().setBearerAuth(client.getAccessToken().getTokenValue());
+        return execution.execute(request, body);
+    }
+}
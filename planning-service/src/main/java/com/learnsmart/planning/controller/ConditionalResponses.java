@@ -0,0 +1,37 @@
+package com.learnsmart.planning.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET for the plan read endpoints.
+ *
+ * The ETag is looked up before the body is built, so a client that is
+ * current gets a 304 without the plan being loaded. Reading the ETag first
+ * also means a concurrent write can only make the body newer than its ETag,
+ * which costs the client one extra 200 but never hides a change.
+ */
+final class ConditionalResponses {
+
+    private ConditionalResponses() {
+    }
+
+    static <T> ResponseEntity<T> withEtag(Optional<String> etag, WebRequest request, Supplier<T> body) {
+        if (etag.isEmpty()) {
+            return ResponseEntity.ok(body.get());
+        }
+        if (request.checkNotModified(etag.get())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag.get()).build();
+        }
+        // Revalidate on every use; plans are per-user data
+        return ResponseEntity.ok()
+                .eTag(etag.get())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(body.get());
+    }
+}
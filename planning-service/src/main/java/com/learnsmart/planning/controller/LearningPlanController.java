@@ -5,6 +5,8 @@ import com.learnsmart.planning.service.LearningPlanService;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.context.request.WebRequest;
 import lombok.RequiredArgsConstructor;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
@@ -20,6 +22,7 @@ public class LearningPlanController {
 
     private final LearningPlanService planService;
     private final com.learnsmart.planning.service.ReplanTriggerService triggerService;
+    private final com.learnsmart.planning.service.ReplanEvaluationQueue evaluationQueue;
 
     @PostMapping("/diagnostics")
     public ResponseEntity<ExternalDtos.GenerateDiagnosticTestResponse> generateDiagnosticTest(
@@ -35,9 +38,18 @@ public class LearningPlanController {
         return new ResponseEntity<>(planService.createPlan(plan), HttpStatus.CREATED);
     }
 
+    /**
+     * Plan with modules and activities. Replan history and the raw AI payload
+     * are only loaded when asked for: include=replans,rawPlanAi. Supports
+     * If-None-Match.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<LearningPlan> getPlan(@PathVariable UUID id) {
-        return new ResponseEntity<>(planService.findById(id), HttpStatus.OK);
+    public ResponseEntity<com.learnsmart.planning.dto.PlanDtos.PlanDetailResponse> getPlan(@PathVariable UUID id,
+            @RequestParam(required = false) List<String> include, WebRequest webRequest) {
+        boolean includeReplans = include != null && include.contains("replans");
+        boolean includeRawPlan = include != null && include.contains("rawPlanAi");
+        return ConditionalResponses.withEtag(planService.findPlanEtag(id), webRequest,
+                () -> planService.getPlanDetail(id, includeReplans, includeRawPlan));
     }
 
     @GetMapping
@@ -52,6 +64,18 @@ public class LearningPlanController {
         return new ResponseEntity<>(planService.findAll(status, page, size), HttpStatus.OK);
     }
 
+    /**
+     * Lightweight listing: summary rows with completion counts, newest first
+     */
+    @GetMapping("/summaries")
+    public ResponseEntity<Page<com.learnsmart.planning.dto.PlanDtos.PlanSummaryResponse>> getPlanSummaries(
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return new ResponseEntity<>(planService.findSummaries(userId, status, page, size), HttpStatus.OK);
+    }
+
     @PatchMapping("/{id}")
     public ResponseEntity<LearningPlan> updatePlan(@PathVariable UUID id, @RequestBody LearningPlan planUpdates) {
         return new ResponseEntity<>(planService.updatePlan(id, planUpdates), HttpStatus.OK);
@@ -71,6 +95,36 @@ public class LearningPlanController {
                 .collect(java.util.stream.Collectors.toList()));
     }
 
+    /**
+     * Signals from other services (assessment mastery changes, tracking
+     * inactivity) that a user's plans should be re-evaluated for triggers.
+     * Requests forwarding a user's token may only signal that user's plans;
+     * service accounts and admins may signal any.
+     */
+    @PostMapping("/replan-signals")
+    public ResponseEntity<com.learnsmart.planning.dto.PlanDtos.ReplanSignalResponse> signalReplan(
+            @RequestBody com.learnsmart.planning.dto.PlanDtos.ReplanSignalRequest request,
+            Authentication authentication) {
+        boolean privileged = authentication.getAuthorities().stream()
+                .anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()) || "ROLE_SERVICE".equals(a.getAuthority()));
+        String subject = authentication.getName();
+        com.learnsmart.planning.dto.PlanDtos.ReplanSignalResponse res = new com.learnsmart.planning.dto.PlanDtos.ReplanSignalResponse();
+        if (request.getPlanId() != null) {
+            if (privileged) {
+                evaluationQueue.enqueue(request.getPlanId());
+            } else if (!evaluationQueue.enqueueUserPlan(subject, request.getPlanId())) {
+                return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+            }
+            res.setPlansQueued(1);
+        } else if (request.getUserId() != null) {
+            if (!privileged && !request.getUserId().equals(subject)) {
+                return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+            }
+            res.setPlansQueued(evaluationQueue.enqueueUser(request.getUserId()));
+        }
+        return new ResponseEntity<>(res, HttpStatus.ACCEPTED);
+    }
+
     private com.learnsmart.planning.dto.PlanDtos.ReplanTriggerResponse mapToTriggerResponse(
             com.learnsmart.planning.model.ReplanTrigger trigger) {
         com.learnsmart.planning.dto.PlanDtos.ReplanTriggerResponse res = new com.learnsmart.planning.dto.PlanDtos.ReplanTriggerResponse();
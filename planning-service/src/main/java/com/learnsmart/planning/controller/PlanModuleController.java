@@ -3,11 +3,13 @@ package com.learnsmart.planning.controller;
 import com.learnsmart.planning.dto.PlanDtos.*;
 import com.learnsmart.planning.model.PlanActivity;
 import com.learnsmart.planning.model.PlanModule;
+import com.learnsmart.planning.service.LearningPlanService;
 import com.learnsmart.planning.service.PlanActivityService;
 import com.learnsmart.planning.service.PlanModuleService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -20,11 +22,16 @@ public class PlanModuleController {
 
     private final PlanModuleService moduleService;
     private final PlanActivityService activityService;
+    private final LearningPlanService planService;
+
+    private static final int MAX_OPTIMISTIC_ATTEMPTS = 3;
 
     @GetMapping("/{planId}/modules")
-    public ResponseEntity<List<ModuleResponse>> getPlanModules(@PathVariable UUID planId) {
-        List<PlanModule> modules = moduleService.getModulesByPlan(planId);
-        return ResponseEntity.ok(modules.stream().map(this::toModuleResponse).collect(Collectors.toList()));
+    public ResponseEntity<List<ModuleResponse>> getPlanModules(@PathVariable UUID planId, WebRequest webRequest) {
+        return ConditionalResponses.withEtag(planService.findPlanEtag(planId), webRequest,
+                () -> moduleService.getModulesByPlan(planId).stream()
+                        .map(this::toModuleResponse)
+                        .collect(Collectors.toList()));
     }
 
     @PatchMapping("/{planId}/modules/{moduleId}")
@@ -47,17 +54,19 @@ public class PlanModuleController {
 
     @GetMapping("/{planId}/activities")
     public ResponseEntity<List<ActivityResponse>> getPlanActivities(@PathVariable UUID planId,
-            @RequestParam(required = false) UUID moduleId) {
-        List<PlanActivity> activities;
-        if (moduleId != null) {
-            activities = activityService.getActivitiesByModule(moduleId);
-        } else {
-            // Flatten activities from all modules of the plan
-            activities = moduleService.getModulesByPlan(planId).stream()
-                    .flatMap(m -> m.getActivities().stream())
-                    .collect(Collectors.toList());
-        }
-        return ResponseEntity.ok(activities.stream().map(this::toActivityResponse).collect(Collectors.toList()));
+            @RequestParam(required = false) UUID moduleId, WebRequest webRequest) {
+        return ConditionalResponses.withEtag(planService.findPlanEtag(planId), webRequest, () -> {
+            List<PlanActivity> activities;
+            if (moduleId != null) {
+                activities = activityService.getActivitiesByModule(moduleId);
+            } else {
+                // Flatten activities from all modules of the plan
+                activities = moduleService.getModulesByPlan(planId).stream()
+                        .flatMap(m -> m.getActivities().stream())
+                        .collect(Collectors.toList());
+            }
+            return activities.stream().map(this::toActivityResponse).collect(Collectors.toList());
+        });
     }
 
     @PatchMapping("/{planId}/activities/{activityId}")
@@ -65,11 +74,40 @@ public class PlanModuleController {
             @PathVariable UUID planId,
             @PathVariable UUID activityId,
             @RequestBody UpdateActivityRequest request) {
-        PlanActivity updated = activityService.updateActivityStatus(planId, activityId, request.getStatus(),
-                request.getOverrideEstimatedMinutes());
+        PlanActivity updated = withOptimisticRetry(() -> activityService.updateActivityStatus(planId, activityId,
+                request.getStatus(), request.getOverrideEstimatedMinutes()));
         return ResponseEntity.ok(toActivityResponse(updated));
     }
 
+    /**
+     * Applies many activity status changes of a plan in one transaction
+     */
+    @PatchMapping("/{planId}/activities")
+    public ResponseEntity<List<ActivityResponse>> updateActivities(
+            @PathVariable UUID planId,
+            @RequestBody BulkActivityUpdateRequest request) {
+        List<PlanActivity> updated = withOptimisticRetry(
+                () -> activityService.updateActivityStatuses(planId, request.getUpdates()));
+        return ResponseEntity.ok(updated.stream().map(this::toActivityResponse).collect(Collectors.toList()));
+    }
+
+    /**
+     * Activity updates bump the versioned progress counters of the module and
+     * plan; a concurrent update of the same plan is retried in a fresh
+     * transaction
+     */
+    private <T> T withOptimisticRetry(java.util.function.Supplier<T> update) {
+        for (int attempt = 1;; attempt++) {
+            try {
+                return update.get();
+            } catch (org.springframework.orm.ObjectOptimisticLockingFailureException e) {
+                if (attempt >= MAX_OPTIMISTIC_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
     private ModuleResponse toModuleResponse(PlanModule module) {
         ModuleResponse res = new ModuleResponse();
         res.setId(module.getId());
@@ -22,6 +22,43 @@ public class ExternalDtos {
         private String learningStyle;
     }
 
+    @Data
+    public static class UserGoal {
+        private UUID id;
+        private String title;
+        private UUID domainId;
+        private UUID skillId;
+        private String targetLevel;
+        private java.time.LocalDate dueDate;
+    }
+
+    // content-service GET /skills/{id}/learning-path
+    @Data
+    public static class LearningPath {
+        private UUID goalSkillId;
+        private List<LearningPathSkill> skills;
+        private List<LearningPathItem> items;
+    }
+
+    @Data
+    public static class LearningPathSkill {
+        private UUID id;
+        private String code;
+        private String name;
+        private String level;
+        private List<UUID> prerequisiteIds;
+    }
+
+    @Data
+    public static class LearningPathItem {
+        private UUID id;
+        private String title;
+        private String type;
+        private Integer estimatedMinutes;
+        private java.math.BigDecimal difficulty;
+        private List<UUID> skillIds;
+    }
+
     @Data
     public static class ContentItemDto {
         private String id; // UUID as String for AI
@@ -113,4 +150,20 @@ public class ExternalDtos {
         private PlanDraft plan;
         private String changeSummary;
     }
+
+    // Tracking Service DTOs
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LastActivityRequest {
+        private List<UUID> userIds;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LastActivityResponse {
+        private UUID userId;
+        private java.time.OffsetDateTime lastOccurredAt;
+    }
 }
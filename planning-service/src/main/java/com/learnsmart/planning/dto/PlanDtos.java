@@ -17,6 +17,18 @@ public class PlanDtos {
         private Integer overrideEstimatedMinutes;
     }
 
+    @Data
+    public static class BulkActivityUpdateRequest {
+        private List<ActivityStatusChange> updates;
+    }
+
+    @Data
+    public static class ActivityStatusChange {
+        private UUID activityId;
+        private String status;
+        private Integer overrideEstimatedMinutes;
+    }
+
     @Data
     public static class ModuleResponse {
         private UUID id;
@@ -61,4 +73,96 @@ public class PlanDtos {
         private String status;
         private String metadata;
     }
+
+    @Data
+    public static class ReplanSignalRequest {
+        private String userId;
+        private UUID planId; // optional, all active plans of the user when absent
+        private String type; // MASTERY_CHANGE, INACTIVITY
+    }
+
+    @Data
+    public static class ReplanSignalResponse {
+        private int plansQueued;
+    }
+
+    /**
+     * Read model of GET /plans/{id}: plan, modules and activities without the
+     * replan history and raw AI payload unless requested with include=
+     */
+    @Data
+    public static class PlanDetailResponse {
+        private UUID id;
+        private String userId;
+        private String goalId;
+        private String status;
+        private java.time.LocalDate startDate;
+        private java.time.LocalDate endDate;
+        private java.math.BigDecimal hoursPerWeek;
+        private String generatedBy;
+        private java.time.OffsetDateTime createdAt;
+        private java.time.OffsetDateTime updatedAt;
+        private List<PlanDetailModule> modules = new java.util.ArrayList<>();
+        @com.fasterxml.jackson.annotation.JsonInclude(com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL)
+        private String rawPlanAi;
+        @com.fasterxml.jackson.annotation.JsonInclude(com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL)
+        private List<ReplanHistoryResponse> replans;
+    }
+
+    @Data
+    public static class PlanDetailModule {
+        private UUID id;
+        private Integer position;
+        private String title;
+        private String description;
+        private java.math.BigDecimal estimatedHours;
+        private String status;
+        private List<String> targetSkills;
+        private List<PlanDetailActivity> activities = new java.util.ArrayList<>();
+    }
+
+    @Data
+    public static class PlanDetailActivity {
+        private UUID id;
+        private Integer position;
+        private String activityType;
+        private String status;
+        private String contentRef;
+        private Integer estimatedMinutes;
+        private Integer overrideEstimatedMinutes;
+        private java.time.OffsetDateTime startedAt;
+        private java.time.OffsetDateTime completedAt;
+        private Integer actualMinutesSpent;
+    }
+
+    @Data
+    public static class ReplanHistoryResponse {
+        private UUID id;
+        private String reason;
+        private String requestPayload;
+        private String responsePayload;
+        // Set instead of the payloads once they are past retention
+        private String payloadSummary;
+        private UUID triggerId;
+        private java.time.OffsetDateTime createdAt;
+    }
+
+    @Data
+    public static class PlanSummaryResponse {
+        private UUID id;
+        private String userId;
+        private String goalId;
+        private String status;
+        private java.time.LocalDate startDate;
+        private java.time.LocalDate endDate;
+        private java.math.BigDecimal hoursPerWeek;
+        private String generatedBy;
+        private java.time.OffsetDateTime createdAt;
+        private java.time.OffsetDateTime updatedAt;
+        private long totalModules;
+        private long completedModules;
+        private long totalActivities;
+        private long completedActivities;
+        private double progressPercentage; // completed / total activities
+    }
 }
@@ -0,0 +1,11 @@
+package com.learnsmart.planning.event;
+
+import java.util.UUID;
+
+/**
+ * Published when a plan's completion counters change in a way that may have
+ * completed it. Consumed after commit by
+ * {@link com.learnsmart.planning.service.CertificateIssuanceQueue}.
+ */
+public record PlanCompletionCandidateEvent(UUID planId) {
+}
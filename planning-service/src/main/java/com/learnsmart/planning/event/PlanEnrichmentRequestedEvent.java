@@ -0,0 +1,11 @@
+package com.learnsmart.planning.event;
+
+import java.util.UUID;
+
+/**
+ * Published when a plan was built by the local plan builder and should be
+ * enriched by the AI service. Consumed after commit by
+ * {@link com.learnsmart.planning.service.AiPlanEnricher}.
+ */
+public record PlanEnrichmentRequestedEvent(UUID planId) {
+}
@@ -0,0 +1,15 @@
+package com.learnsmart.planning.event;
+
+import java.util.UUID;
+
+/**
+ * Published when something that feeds replan triggers changes for a plan
+ * (activity status, mastery, tracking signals). Consumed after commit by
+ * {@link com.learnsmart.planning.service.ReplanEvaluationQueue}.
+ */
+public record PlanProgressChangedEvent(UUID planId, String source) {
+
+    public static final String SOURCE_ACTIVITY = "ACTIVITY";
+    public static final String SOURCE_MASTERY = "MASTERY_CHANGE";
+    public static final String SOURCE_INACTIVITY = "INACTIVITY";
+}
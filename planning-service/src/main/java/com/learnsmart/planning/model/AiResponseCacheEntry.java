@@ -0,0 +1,52 @@
+package com.learnsmart.planning.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.OffsetDateTime;
+
+/**
+ * Memoized AI-service response, shared by every planning-service instance.
+ * The payload is the same JSON stored in {@link LearningPlan#getRawPlanAi()}
+ * and is used as a template for new plans with an equivalent request.
+ */
+@Entity
+@Table(name = "ai_response_cache", indexes = {
+        @Index(name = "idx_ai_cache_expires", columnList = "expires_at")
+})
+@Getter
+@Setter
+@ToString(exclude = "payload")
+@NoArgsConstructor
+@AllArgsConstructor
+public class AiResponseCacheEntry {
+
+    @Id
+    @Column(name = "cache_key", length = 80)
+    private String cacheKey; // "<operation>:<sha-256 of the normalized request>"
+
+    @Column(nullable = false, length = 20)
+    private String operation; // PLAN, REPLAN
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "hit_count", nullable = false)
+    private Long hitCount = 0L;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null) {
+            createdAt = OffsetDateTime.now();
+        }
+    }
+}
@@ -8,14 +8,18 @@ import java.util.UUID;
 import java.time.OffsetDateTime;
 
 @Entity
-@Table(name = "certificates")
+@Table(name = "certificates", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_certificates_plan_id", columnNames = "plan_id")
+}, indexes = {
+        @Index(name = "idx_certificates_user_id", columnList = "user_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Certificate {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(name = "user_id", nullable = false)
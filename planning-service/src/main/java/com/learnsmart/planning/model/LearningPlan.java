@@ -1,5 +1,6 @@
 package com.learnsmart.planning.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -14,17 +15,20 @@ import java.math.BigDecimal;
 import java.util.List;
 
 @Entity
-@Table(name = "learning_plans")
+@Table(name = "learning_plans", indexes = {
+        @Index(name = "idx_plans_status_id", columnList = "status, id"),
+        @Index(name = "idx_plans_user_created", columnList = "user_id, created_at")
+})
 @Getter
 @Setter
-@ToString(exclude = { "modules", "replans" })
-@EqualsAndHashCode(exclude = { "modules", "replans" })
+@ToString(exclude = { "modules", "replans", "rawPlanAi" })
+@EqualsAndHashCode(exclude = { "modules", "replans", "rawPlanAi" })
 @NoArgsConstructor
 @AllArgsConstructor
 public class LearningPlan {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(name = "user_id", nullable = false)
@@ -33,6 +37,17 @@ public class LearningPlan {
     @Column(name = "goal_id")
     private String goalId;
 
+    // Target of the goal (skill, domain, level), sent with the create request;
+    // AI plan responses are cached on these rather than on the per-user goal id
+    @Column(name = "goal_skill_id", length = 50)
+    private String goalSkillId;
+
+    @Column(name = "goal_domain_id", length = 50)
+    private String goalDomainId;
+
+    @Column(name = "goal_level", length = 20)
+    private String goalLevel;
+
     @Column(nullable = false, length = 20)
     private String status = "active";
 
@@ -48,8 +63,12 @@ public class LearningPlan {
     @Column(name = "generated_by", nullable = false, length = 20)
     private String generatedBy = "ai";
 
-    @Column(name = "raw_plan_ai", columnDefinition = "TEXT")
-    private String rawPlanAi; // H2 compatible text, for postgres use Cast if needed or string is fine.
+    // Compressed and lazily loaded; read through GET /plans/{id}?include=rawPlanAi
+    @JsonIgnore
+    @Basic(fetch = FetchType.LAZY)
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "raw_plan_ai", columnDefinition = "BYTEA")
+    private String rawPlanAi;
 
     @Column(name = "created_at", nullable = false, updatable = false)
     private OffsetDateTime createdAt;
@@ -57,12 +76,63 @@ public class LearningPlan {
     @Column(name = "updated_at", nullable = false)
     private OffsetDateTime updatedAt;
 
+    // Progress counters, maintained on every activity/module status change
+    @Column(name = "total_activities", nullable = false)
+    private int totalActivities;
+
+    @Column(name = "completed_activities", nullable = false)
+    private int completedActivities;
+
+    @Column(name = "total_modules", nullable = false)
+    private int totalModules;
+
+    @Column(name = "completed_modules", nullable = false)
+    private int completedModules;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // Bumped in SQL on every module/activity write; with version it makes the ETag
+    @Column(nullable = false, updatable = false)
+    private long revision;
+
     @OneToMany(mappedBy = "plan", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<PlanModule> modules;
 
     @OneToMany(mappedBy = "plan", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<PlanReplanHistory> replans;
 
+    /**
+     * Recompute all progress counters from the loaded modules and activities
+     * (after the module tree is built or replaced)
+     */
+    public void recountProgress() {
+        int moduleCount = 0;
+        int completedModuleCount = 0;
+        int activityCount = 0;
+        int completedActivityCount = 0;
+        if (modules != null) {
+            for (PlanModule module : modules) {
+                module.recountProgress();
+                moduleCount++;
+                if ("completed".equals(module.getStatus())) {
+                    completedModuleCount++;
+                }
+                activityCount += module.getTotalActivities();
+                completedActivityCount += module.getCompletedActivities();
+            }
+        }
+        totalModules = moduleCount;
+        completedModules = completedModuleCount;
+        totalActivities = activityCount;
+        completedActivities = completedActivityCount;
+    }
+
+    public boolean allModulesCompleted() {
+        return completedModules >= totalModules;
+    }
+
     @PrePersist
     public void prePersist() {
         OffsetDateTime now = OffsetDateTime.now();
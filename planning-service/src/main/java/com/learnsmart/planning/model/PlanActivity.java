@@ -24,7 +24,7 @@ import java.time.temporal.ChronoUnit;
 public class PlanActivity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
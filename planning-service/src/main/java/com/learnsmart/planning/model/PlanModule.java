@@ -25,7 +25,7 @@ import java.util.List;
 public class PlanModule {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -58,9 +58,34 @@ public class PlanModule {
     @Column(name = "updated_at", nullable = false)
     private OffsetDateTime updatedAt;
 
+    // Progress counters, maintained on every activity status change
+    @Column(name = "total_activities", nullable = false)
+    private int totalActivities;
+
+    @Column(name = "completed_activities", nullable = false)
+    private int completedActivities;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "module", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<PlanActivity> activities;
 
+    /**
+     * Recompute the counters from the loaded activities
+     */
+    public void recountProgress() {
+        totalActivities = activities != null ? activities.size() : 0;
+        completedActivities = activities != null
+                ? (int) activities.stream().filter(a -> "completed".equals(a.getStatus())).count()
+                : 0;
+    }
+
+    public boolean allActivitiesCompleted() {
+        return completedActivities >= totalActivities;
+    }
+
     @PrePersist
     public void prePersist() {
         OffsetDateTime now = OffsetDateTime.now();
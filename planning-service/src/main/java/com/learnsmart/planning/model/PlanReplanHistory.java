@@ -1,6 +1,7 @@
 package com.learnsmart.planning.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.LazyGroup;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -11,17 +12,19 @@ import java.util.UUID;
 import java.time.OffsetDateTime;
 
 @Entity
-@Table(name = "plan_replans_history")
+@Table(name = "plan_replans_history", indexes = {
+        @Index(name = "idx_replans_plan_created", columnList = "plan_id, created_at DESC")
+})
 @Getter
 @Setter
-@ToString(exclude = "plan")
-@EqualsAndHashCode(exclude = "plan")
+@ToString(exclude = { "plan", "requestPayload", "responsePayload" })
+@EqualsAndHashCode(exclude = { "plan", "requestPayload", "responsePayload" })
 @NoArgsConstructor
 @AllArgsConstructor
 public class PlanReplanHistory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -31,12 +34,26 @@ public class PlanReplanHistory {
     @Column(columnDefinition = "TEXT")
     private String reason;
 
-    @Column(name = "request_payload", columnDefinition = "TEXT") // JSON mapped as TEXT for compatibility
+    // Compressed and lazily loaded: only the history detail reads them
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("payloads")
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "request_payload", columnDefinition = "BYTEA")
     private String requestPayload;
 
-    @Column(name = "response_payload", columnDefinition = "TEXT") // JSON mapped as TEXT for compatibility
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("payloads")
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "response_payload", columnDefinition = "BYTEA")
     private String responsePayload;
 
+    // Short summary kept once the retention job has dropped the payloads
+    @Column(name = "payload_summary", length = 500)
+    private String payloadSummary;
+
+    @Column(name = "payloads_pruned_at")
+    private OffsetDateTime payloadsPrunedAt;
+
     @Column(name = "trigger_id")
     private UUID triggerId; // US-107: Link to ReplanTrigger if auto-triggered
 
@@ -0,0 +1,71 @@
+package com.learnsmart.planning.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Work unit of a sharded replan evaluation run. Each row covers the plan ID
+ * range (lowerBound, upperBound] and is claimed by one replica at a time.
+ */
+@Entity
+@Table(name = "replan_evaluation_leases", uniqueConstraints = {
+        @UniqueConstraint(columnNames = { "run_key", "shard_index" })
+}, indexes = {
+        @Index(name = "idx_lease_run_status", columnList = "run_key, status")
+})
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplanEvaluationLease {
+
+    @Id
+    @UuidV7
+    private UUID id;
+
+    @Column(name = "run_key", nullable = false, length = 20)
+    private String runKey; // One run per day, e.g. 2025-01-31
+
+    @Column(name = "shard_index", nullable = false)
+    private Integer shardIndex;
+
+    @Column(name = "lower_bound", nullable = false)
+    private UUID lowerBound; // exclusive
+
+    @Column(name = "upper_bound")
+    private UUID upperBound; // inclusive, null for the last shard
+
+    @Column(nullable = false, length = 20)
+    private String status = "PENDING"; // PENDING, CLAIMED, DONE
+
+    @Column(length = 100)
+    private String owner;
+
+    @Column(name = "lease_expires_at")
+    private OffsetDateTime leaseExpiresAt;
+
+    @Column(name = "last_plan_id")
+    private UUID lastPlanId; // Keyset checkpoint, lets a reclaimed shard resume
+
+    @Column(name = "plans_evaluated", nullable = false)
+    private Integer plansEvaluated = 0;
+
+    @Column(name = "triggers_created", nullable = false)
+    private Integer triggersCreated = 0;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    public void touch() {
+        updatedAt = OffsetDateTime.now();
+    }
+}
@@ -0,0 +1,78 @@
+package com.learnsmart.planning.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Tracking event written in the same transaction as the plan change that
+ * produced it and relayed to tracking-service afterwards. The identity key
+ * gives the relay a stable per-plan delivery order.
+ */
+@Entity
+@Table(name = "tracking_outbox", indexes = {
+        @Index(name = "idx_outbox_plan_id", columnList = "plan_id, id"),
+        @Index(name = "idx_outbox_pending", columnList = "next_attempt_at, id")
+})
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrackingOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "plan_id", nullable = false)
+    private UUID planId;
+
+    @Column(name = "user_id", nullable = false, length = 50)
+    private String userId;
+
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+
+    @Column(name = "entity_type", length = 50)
+    private String entityType;
+
+    @Column(name = "entity_id")
+    private UUID entityId;
+
+    @Column(columnDefinition = "TEXT")
+    private String payload; // JSON
+
+    @Column(name = "occurred_at", nullable = false)
+    private OffsetDateTime occurredAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private OffsetDateTime nextAttemptAt;
+
+    @Column(name = "sent_at")
+    private OffsetDateTime sentAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @PrePersist
+    public void prePersist() {
+        if (createdAt == null)
+            createdAt = OffsetDateTime.now();
+        if (occurredAt == null)
+            occurredAt = createdAt;
+        if (nextAttemptAt == null)
+            nextAttemptAt = createdAt;
+    }
+}
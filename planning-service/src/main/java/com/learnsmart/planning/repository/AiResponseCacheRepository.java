@@ -0,0 +1,34 @@
+package com.learnsmart.planning.repository;
+
+import com.learnsmart.planning.model.AiResponseCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+@Repository
+public interface AiResponseCacheRepository extends JpaRepository<AiResponseCacheEntry, String> {
+
+    /**
+     * Find a cached response that has not expired yet
+     */
+    Optional<AiResponseCacheEntry> findByCacheKeyAndExpiresAtAfter(String cacheKey, OffsetDateTime now);
+
+    /**
+     * Count a hit without loading the payload
+     */
+    @Modifying
+    @Query("UPDATE AiResponseCacheEntry e SET e.hitCount = e.hitCount + 1 WHERE e.cacheKey = :cacheKey")
+    int incrementHitCount(@Param("cacheKey") String cacheKey);
+
+    /**
+     * Remove expired responses
+     */
+    @Modifying
+    @Query("DELETE FROM AiResponseCacheEntry e WHERE e.expiresAt < :now")
+    int deleteExpired(@Param("now") OffsetDateTime now);
+}
@@ -2,8 +2,17 @@ package com.learnsmart.planning.repository;
 
 import com.learnsmart.planning.model.LearningPlan;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface LearningPlanRepository extends JpaRepository<LearningPlan, UUID> {
@@ -12,4 +21,196 @@ public interface LearningPlanRepository extends JpaRepository<LearningPlan, UUID
     Page<LearningPlan> findByUserId(String userId, Pageable pageable); // Assuming security context filtering
 
     Page<LearningPlan> findByUserIdAndStatus(String userId, String status, Pageable pageable);
+
+    // Keyset iteration over plan IDs in (after, upper]; pass PageRequest.of(0, n) as the limit
+    @Query("SELECT p.id FROM LearningPlan p WHERE p.status = :status AND p.id > :after AND p.id <= :upper ORDER BY p.id")
+    List<UUID> findIdsByStatusInRange(@Param("status") String status, @Param("after") UUID after,
+            @Param("upper") UUID upper, Pageable limit);
+
+    @Query("SELECT p.id FROM LearningPlan p WHERE p.status = :status AND p.id > :after ORDER BY p.id")
+    List<UUID> findIdsByStatusAfter(@Param("status") String status, @Param("after") UUID after, Pageable limit);
+
+    @Query("SELECT p.id FROM LearningPlan p WHERE p.userId = :userId AND p.status = :status")
+    List<UUID> findIdsByUserIdAndStatus(@Param("userId") String userId, @Param("status") String status);
+
+    boolean existsByIdAndUserId(UUID id, String userId);
+
+    /**
+     * One row per activity (or per module without activities) of a plan,
+     * with the plan and module columns repeated
+     */
+    interface PlanTreeRow {
+        UUID getPlanId();
+
+        String getUserId();
+
+        String getGoalId();
+
+        String getPlanStatus();
+
+        LocalDate getStartDate();
+
+        LocalDate getEndDate();
+
+        BigDecimal getHoursPerWeek();
+
+        String getGeneratedBy();
+
+        OffsetDateTime getPlanCreatedAt();
+
+        OffsetDateTime getPlanUpdatedAt();
+
+        UUID getModuleId();
+
+        Integer getModulePosition();
+
+        String getModuleTitle();
+
+        String getModuleDescription();
+
+        BigDecimal getModuleEstimatedHours();
+
+        String getModuleStatus();
+
+        List<String> getModuleTargetSkills();
+
+        UUID getActivityId();
+
+        Integer getActivityPosition();
+
+        String getActivityType();
+
+        String getActivityStatus();
+
+        String getContentRef();
+
+        Integer getEstimatedMinutes();
+
+        Integer getOverrideEstimatedMinutes();
+
+        OffsetDateTime getStartedAt();
+
+        OffsetDateTime getCompletedAt();
+
+        Integer getActualMinutesSpent();
+    }
+
+    /**
+     * Plan -> modules -> activities in a single query; raw_plan_ai and the
+     * replan history are not read
+     */
+    @Query("SELECT p.id AS planId, p.userId AS userId, p.goalId AS goalId, p.status AS planStatus, "
+            + "p.startDate AS startDate, p.endDate AS endDate, p.hoursPerWeek AS hoursPerWeek, "
+            + "p.generatedBy AS generatedBy, p.createdAt AS planCreatedAt, p.updatedAt AS planUpdatedAt, "
+            + "m.id AS moduleId, m.position AS modulePosition, m.title AS moduleTitle, "
+            + "m.description AS moduleDescription, m.estimatedHours AS moduleEstimatedHours, "
+            + "m.status AS moduleStatus, m.targetSkills AS moduleTargetSkills, "
+            + "a.id AS activityId, a.position AS activityPosition, a.activityType AS activityType, "
+            + "a.status AS activityStatus, a.contentRef AS contentRef, a.estimatedMinutes AS estimatedMinutes, "
+            + "a.overrideEstimatedMinutes AS overrideEstimatedMinutes, a.startedAt AS startedAt, "
+            + "a.completedAt AS completedAt, a.actualMinutesSpent AS actualMinutesSpent "
+            + "FROM LearningPlan p LEFT JOIN p.modules m LEFT JOIN m.activities a "
+            + "WHERE p.id = :planId "
+            + "ORDER BY m.position, a.position")
+    List<PlanTreeRow> findPlanTree(@Param("planId") UUID planId);
+
+    @Query("SELECT p.rawPlanAi FROM LearningPlan p WHERE p.id = :planId")
+    Optional<String> findRawPlanAiById(@Param("planId") UUID planId);
+
+    /**
+     * What the ETag of a plan's read endpoints is derived from: version
+     * changes with the plan row, revision with its modules and activities
+     */
+    interface PlanRevisionView {
+        Long getVersion();
+
+        Long getRevision();
+    }
+
+    @Query("SELECT p.version AS version, p.revision AS revision FROM LearningPlan p WHERE p.id = :planId")
+    Optional<PlanRevisionView> findRevisionById(@Param("planId") UUID planId);
+
+    /**
+     * Marks a module/activity change of the plan; does not touch the
+     * optimistic lock version
+     */
+    @Modifying
+    @Query("UPDATE LearningPlan p SET p.revision = p.revision + 1 WHERE p.id = :planId")
+    int bumpRevision(@Param("planId") UUID planId);
+
+    /**
+     * A plan whose modules are all completed and that has no certificate yet
+     */
+    interface CompletedPlanView {
+        UUID getId();
+
+        String getUserId();
+
+        String getGoalId();
+    }
+
+    @Query("SELECT p.id AS id, p.userId AS userId, p.goalId AS goalId FROM LearningPlan p "
+            + "WHERE p.id IN :planIds AND p.totalModules > 0 AND p.completedModules >= p.totalModules "
+            + "AND NOT EXISTS (SELECT c.id FROM Certificate c WHERE c.planId = p.id)")
+    List<CompletedPlanView> findCompletedWithoutCertificate(@Param("planIds") Collection<UUID> planIds);
+
+    @Query("SELECT p.id FROM LearningPlan p "
+            + "WHERE p.totalModules > 0 AND p.completedModules >= p.totalModules "
+            + "AND NOT EXISTS (SELECT c.id FROM Certificate c WHERE c.planId = p.id) ORDER BY p.id")
+    List<UUID> findCompletedIdsWithoutCertificate(Pageable limit);
+
+    @Modifying
+    @Query("UPDATE LearningPlan p SET p.status = 'completed', p.version = p.version + 1 "
+            + "WHERE p.id IN :planIds AND p.status <> 'completed'")
+    int markCompleted(@Param("planIds") Collection<UUID> planIds);
+
+    /**
+     * Listing row of a plan with completion counts; no TEXT columns
+     */
+    interface PlanSummaryView {
+        UUID getId();
+
+        String getUserId();
+
+        String getGoalId();
+
+        String getStatus();
+
+        LocalDate getStartDate();
+
+        LocalDate getEndDate();
+
+        BigDecimal getHoursPerWeek();
+
+        String getGeneratedBy();
+
+        OffsetDateTime getCreatedAt();
+
+        OffsetDateTime getUpdatedAt();
+
+        Integer getTotalModules();
+
+        Integer getCompletedModules();
+
+        Integer getTotalActivities();
+
+        Integer getCompletedActivities();
+    }
+
+    /**
+     * Plan listing with the plan's module/activity progress counters, newest
+     * plans first
+     */
+    @Query(value = "SELECT p.id AS id, p.userId AS userId, p.goalId AS goalId, p.status AS status, "
+            + "p.startDate AS startDate, p.endDate AS endDate, p.hoursPerWeek AS hoursPerWeek, "
+            + "p.generatedBy AS generatedBy, p.createdAt AS createdAt, p.updatedAt AS updatedAt, "
+            + "p.totalModules AS totalModules, p.completedModules AS completedModules, "
+            + "p.totalActivities AS totalActivities, p.completedActivities AS completedActivities "
+            + "FROM LearningPlan p "
+            + "WHERE (:userId IS NULL OR p.userId = :userId) AND (:status IS NULL OR p.status = :status) "
+            + "ORDER BY p.createdAt DESC, p.id",
+            countQuery = "SELECT COUNT(p) FROM LearningPlan p "
+                    + "WHERE (:userId IS NULL OR p.userId = :userId) AND (:status IS NULL OR p.status = :status)")
+    Page<PlanSummaryView> findSummaries(@Param("userId") String userId, @Param("status") String status,
+            Pageable pageable);
 }
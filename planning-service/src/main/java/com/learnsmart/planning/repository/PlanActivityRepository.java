@@ -2,9 +2,19 @@ package com.learnsmart.planning.repository;
 
 import com.learnsmart.planning.model.PlanActivity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.UUID;
 import java.util.List;
 
 public interface PlanActivityRepository extends JpaRepository<PlanActivity, UUID> {
     List<PlanActivity> findByModuleIdOrderByPositionAsc(UUID moduleId);
+
+    /**
+     * Activities of a plan with their module and plan, in one query
+     */
+    @Query("SELECT a FROM PlanActivity a JOIN FETCH a.module m JOIN FETCH m.plan p "
+            + "WHERE p.id = :planId AND a.id IN :ids")
+    List<PlanActivity> findByPlanIdAndIdIn(@Param("planId") UUID planId, @Param("ids") Collection<UUID> ids);
 }
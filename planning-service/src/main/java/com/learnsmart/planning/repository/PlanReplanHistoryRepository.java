@@ -1,10 +1,58 @@
 package com.learnsmart.planning.repository;
 
 import com.learnsmart.planning.model.PlanReplanHistory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
 import java.util.UUID;
 import java.util.List;
 
 public interface PlanReplanHistoryRepository extends JpaRepository<PlanReplanHistory, UUID> {
     List<PlanReplanHistory> findByPlanIdOrderByCreatedAtDesc(UUID planId);
+
+    /**
+     * Replan history of a plan with its payloads, in one query (the payload
+     * columns are lazy on the entity)
+     */
+    interface ReplanHistoryView {
+        UUID getId();
+
+        String getReason();
+
+        String getRequestPayload();
+
+        String getResponsePayload();
+
+        String getPayloadSummary();
+
+        UUID getTriggerId();
+
+        OffsetDateTime getCreatedAt();
+    }
+
+    @Query("SELECT h.id AS id, h.reason AS reason, h.requestPayload AS requestPayload, "
+            + "h.responsePayload AS responsePayload, h.payloadSummary AS payloadSummary, "
+            + "h.triggerId AS triggerId, h.createdAt AS createdAt "
+            + "FROM PlanReplanHistory h WHERE h.plan.id = :planId ORDER BY h.createdAt DESC")
+    List<ReplanHistoryView> findViewsByPlanId(@Param("planId") UUID planId);
+
+    @Query("SELECT h.id AS id, h.reason AS reason, h.requestPayload AS requestPayload, "
+            + "h.responsePayload AS responsePayload, h.payloadSummary AS payloadSummary, "
+            + "h.triggerId AS triggerId, h.createdAt AS createdAt "
+            + "FROM PlanReplanHistory h WHERE h.id IN :ids")
+    List<ReplanHistoryView> findViewsByIdIn(@Param("ids") List<UUID> ids);
+
+    /**
+     * Entries that still carry payloads but are older than the newest
+     * {@code keep} entries of their plan
+     */
+    @Query("SELECT r.id FROM ("
+            + "SELECT h.id AS id, h.payloadsPrunedAt AS prunedAt, "
+            + "ROW_NUMBER() OVER (PARTITION BY h.plan.id ORDER BY h.createdAt DESC, h.id DESC) AS rn "
+            + "FROM PlanReplanHistory h) r "
+            + "WHERE r.rn > :keep AND r.prunedAt IS NULL")
+    List<UUID> findIdsBeyondNewest(@Param("keep") int keep, Pageable limit);
 }
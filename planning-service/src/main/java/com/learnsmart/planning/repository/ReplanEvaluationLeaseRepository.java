@@ -0,0 +1,56 @@
+package com.learnsmart.planning.repository;
+
+import com.learnsmart.planning.model.ReplanEvaluationLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ReplanEvaluationLeaseRepository extends JpaRepository<ReplanEvaluationLease, UUID> {
+
+    /**
+     * Register a shard for a run; replicas racing on the same run insert the
+     * same rows and all but the first insert are ignored
+     */
+    @Modifying
+    @Query(value = "INSERT INTO replan_evaluation_leases "
+            + "(id, run_key, shard_index, lower_bound, upper_bound, status, plans_evaluated, triggers_created, updated_at) "
+            + "VALUES (:id, :runKey, :shardIndex, :lowerBound, :upperBound, 'PENDING', 0, 0, :now) "
+            + "ON CONFLICT (run_key, shard_index) DO NOTHING", nativeQuery = true)
+    int insertShardIfAbsent(@Param("id") UUID id,
+            @Param("runKey") String runKey,
+            @Param("shardIndex") int shardIndex,
+            @Param("lowerBound") UUID lowerBound,
+            @Param("upperBound") UUID upperBound,
+            @Param("now") OffsetDateTime now);
+
+    /**
+     * Lock the next unclaimed (or abandoned) shard of a run. Rows locked by
+     * other replicas are skipped instead of waited on.
+     */
+    @Query(value = "SELECT * FROM replan_evaluation_leases "
+            + "WHERE run_key = :runKey "
+            + "AND (status = 'PENDING' OR (status = 'CLAIMED' AND lease_expires_at < :now)) "
+            + "ORDER BY shard_index LIMIT 1 "
+            + "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<ReplanEvaluationLease> lockNextAvailable(@Param("runKey") String runKey,
+            @Param("now") OffsetDateTime now);
+
+    /**
+     * Count shards of a run that are not finished yet
+     */
+    long countByRunKeyAndStatusNot(String runKey, String status);
+
+    /**
+     * Remove leases of old runs
+     */
+    @Modifying
+    @Query("DELETE FROM ReplanEvaluationLease l WHERE l.updatedAt < :before")
+    int deleteByUpdatedAtBefore(@Param("before") OffsetDateTime before);
+}
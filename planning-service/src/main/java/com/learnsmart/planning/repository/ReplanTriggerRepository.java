@@ -3,8 +3,11 @@ package com.learnsmart.planning.repository;
 import com.learnsmart.planning.model.ReplanTrigger;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -33,4 +36,70 @@ public interface ReplanTriggerRepository extends JpaRepository<ReplanTrigger, UU
      * Find all pending triggers for a plan
      */
     List<ReplanTrigger> findByPlanIdAndStatusOrderByDetectedAtDesc(UUID planId, String status);
+
+    /**
+     * Progress and inactivity inputs of a plan, computed in SQL. The user's
+     * last activity itself comes from tracking-service.
+     */
+    interface PlanTriggerSnapshot {
+        UUID getPlanId();
+
+        Long getTotalActivities();
+
+        Long getCompletedActivities();
+
+        Double getExpectedProgress(); // null when the plan has no valid date range
+
+        Double getActualProgress(); // null when the plan has no activities
+
+        String getUserId();
+
+        Long getDaysSincePlanStart(); // caps inactivity for users with no tracked activity since
+
+        String getPlanStartDate();
+
+        Long getDaysSincePlanUpdate(); // inactivity when tracking-service cannot answer
+
+        String getPlanUpdateDate();
+
+        Integer getRecentProgressTrigger(); // 1 if a PROGRESS_DEVIATION trigger exists after :since
+
+        Integer getRecentInactivityTrigger(); // 1 if an INACTIVITY trigger exists after :since
+    }
+
+    /**
+     * Set-based trigger inputs for a batch of active plans: activity counts
+     * come from the plan's progress counters and the latest trigger of each
+     * type is looked up per plan through a lateral join
+     */
+    @Query(value = "SELECT p.id AS planId, "
+            + "CAST(p.total_activities AS BIGINT) AS totalActivities, "
+            + "CAST(p.completed_activities AS BIGINT) AS completedActivities, "
+            + "CASE WHEN p.end_date > p.start_date AND CURRENT_DATE >= p.start_date "
+            + "  THEN CAST(LEAST(100.0, (CURRENT_DATE - p.start_date) * 100.0 / (p.end_date - p.start_date)) AS DOUBLE PRECISION) "
+            + "END AS expectedProgress, "
+            + "CASE WHEN p.total_activities > 0 "
+            + "  THEN CAST(p.completed_activities * 100.0 / p.total_activities AS DOUBLE PRECISION) END AS actualProgress, "
+            + "p.user_id AS userId, "
+            + "CAST(FLOOR(EXTRACT(EPOCH FROM (CAST(:now AS TIMESTAMPTZ) - p.created_at)) / 86400) AS BIGINT) AS daysSincePlanStart, "
+            + "TO_CHAR(p.created_at, 'YYYY-MM-DD') AS planStartDate, "
+            + "CAST(FLOOR(EXTRACT(EPOCH FROM (CAST(:now AS TIMESTAMPTZ) - COALESCE(p.updated_at, p.created_at))) / 86400) AS BIGINT) AS daysSincePlanUpdate, "
+            + "TO_CHAR(COALESCE(p.updated_at, p.created_at), 'YYYY-MM-DD') AS planUpdateDate, "
+            + "CASE WHEN lp.detected_at > CAST(:since AS TIMESTAMPTZ) THEN 1 ELSE 0 END AS recentProgressTrigger, "
+            + "CASE WHEN li.detected_at > CAST(:since AS TIMESTAMPTZ) THEN 1 ELSE 0 END AS recentInactivityTrigger "
+            + "FROM learning_plans p "
+            + "LEFT JOIN LATERAL ("
+            + "  SELECT t.detected_at FROM replan_triggers t "
+            + "  WHERE t.plan_id = p.id AND t.trigger_type = 'PROGRESS_DEVIATION' "
+            + "  ORDER BY t.detected_at DESC LIMIT 1"
+            + ") lp ON TRUE "
+            + "LEFT JOIN LATERAL ("
+            + "  SELECT t.detected_at FROM replan_triggers t "
+            + "  WHERE t.plan_id = p.id AND t.trigger_type = 'INACTIVITY' "
+            + "  ORDER BY t.detected_at DESC LIMIT 1"
+            + ") li ON TRUE "
+            + "WHERE p.id IN (:planIds) AND p.status = 'active'", nativeQuery = true)
+    List<PlanTriggerSnapshot> findTriggerSnapshots(@Param("planIds") List<UUID> planIds,
+            @Param("now") OffsetDateTime now,
+            @Param("since") OffsetDateTime since);
 }
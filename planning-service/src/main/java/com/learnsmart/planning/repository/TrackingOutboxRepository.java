@@ -0,0 +1,49 @@
+package com.learnsmart.planning.repository;
+
+import com.learnsmart.planning.model.TrackingOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TrackingOutboxRepository extends JpaRepository<TrackingOutboxEvent, Long> {
+
+    /**
+     * Unsent events that are due, oldest first. An event is held back while
+     * an older event of the same plan is still waiting for a retry, so
+     * tracking-service receives each plan's events in order.
+     */
+    @Query("SELECT e FROM TrackingOutboxEvent e "
+            + "WHERE e.sentAt IS NULL AND e.nextAttemptAt <= :now "
+            + "AND NOT EXISTS (SELECT 1 FROM TrackingOutboxEvent o "
+            + "WHERE o.planId = e.planId AND o.sentAt IS NULL AND o.id < e.id AND o.nextAttemptAt > :now) "
+            + "ORDER BY e.id")
+    List<TrackingOutboxEvent> findDue(@Param("now") OffsetDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE TrackingOutboxEvent e SET e.sentAt = :now, e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("now") OffsetDateTime now);
+
+    /**
+     * Transaction-scoped lock that lets a single replica relay at a time.
+     * Returns false immediately if another replica holds it.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryRelayLock(@Param("key") long key);
+
+    long countBySentAtIsNull();
+
+    /**
+     * Remove delivered events past their retention
+     */
+    @Modifying
+    @Query("DELETE FROM TrackingOutboxEvent e WHERE e.sentAt < :before")
+    int deleteSentBefore(@Param("before") OffsetDateTime before);
+}
@@ -0,0 +1,107 @@
+package com.learnsmart.planning.scheduler;
+
+import com.learnsmart.planning.repository.PlanReplanHistoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Retention of replan history payloads.
+ *
+ * Every plan keeps the full request/response payloads of its newest replans;
+ * older entries have them replaced by a short summary, so the history stays
+ * complete (reason, trigger, timestamps) without accumulating AI JSON
+ * forever.
+ */
+@Component
+@Slf4j
+public class ReplanHistoryRetentionJob {
+
+    static final int SUMMARY_MAX_LENGTH = 500;
+
+    private static final String PRUNE_SQL = "UPDATE plan_replans_history SET payload_summary = ?, "
+            + "request_payload = NULL, response_payload = NULL, payloads_pruned_at = ? WHERE id = ?";
+
+    private final PlanReplanHistoryRepository historyRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${planning.replan-history.keep-full-payloads:5}")
+    private int keepFullPayloads;
+
+    @Value("${planning.replan-history.retention-batch-size:200}")
+    private int batchSize;
+
+    public ReplanHistoryRetentionJob(PlanReplanHistoryRepository historyRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager) {
+        this.historyRepository = historyRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${planning.replan-history.retention-cron:0 45 3 * * *}")
+    public void pruneOldPayloads() {
+        int total = 0;
+        while (true) {
+            Integer pruned = transactionTemplate.execute(status -> pruneBatch());
+            total += pruned != null ? pruned : 0;
+            if (pruned == null || pruned < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Summarized payloads of {} replan history entries", total);
+        }
+    }
+
+    /**
+     * Summarizes one batch of entries beyond the retained ones; returns how
+     * many were pruned
+     */
+    int pruneBatch() {
+        List<UUID> ids = historyRepository.findIdsBeyondNewest(Math.max(0, keepFullPayloads),
+                PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (PlanReplanHistoryRepository.ReplanHistoryView entry : historyRepository.findViewsByIdIn(ids)) {
+            rows.add(new Object[] {
+                    summarize(entry.getRequestPayload(), entry.getResponsePayload()), now, entry.getId() });
+        }
+        jdbcTemplate.batchUpdate(PRUNE_SQL, rows);
+        return ids.size();
+    }
+
+    /**
+     * Short, human-readable stand-in for a pair of payloads
+     */
+    static String summarize(String requestPayload, String responsePayload) {
+        String summary = "request: " + abbreviate(requestPayload, 120)
+                + " | response: " + abbreviate(responsePayload, 320);
+        return summary.length() <= SUMMARY_MAX_LENGTH ? summary : summary.substring(0, SUMMARY_MAX_LENGTH);
+    }
+
+    private static String abbreviate(String payload, int maxLength) {
+        if (payload == null) {
+            return "-";
+        }
+        String flat = payload.replaceAll("\\s+", " ").trim();
+        if (flat.length() <= maxLength) {
+            return flat;
+        }
+        return flat.substring(0, maxLength - 3) + "... (" + payload.length() + " chars)";
+    }
+}
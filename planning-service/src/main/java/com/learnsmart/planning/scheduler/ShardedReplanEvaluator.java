@@ -0,0 +1,269 @@
+package com.learnsmart.planning.scheduler;
+
+import com.learnsmart.planning.model.ReplanEvaluationLease;
+import com.learnsmart.planning.model.UuidV7Generator;
+import com.learnsmart.planning.repository.LearningPlanRepository;
+import com.learnsmart.planning.repository.ReplanEvaluationLeaseRepository;
+import com.learnsmart.planning.service.ReplanTriggerService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigInteger;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evaluates active plans for replan triggers, cooperatively across replicas.
+ *
+ * The plan ID space is split into fixed shards registered per run in
+ * {@code replan_evaluation_leases}. Each replica claims shards with
+ * {@code FOR UPDATE SKIP LOCKED} from several virtual-thread workers, walks
+ * each shard with keyset paging and evaluates every batch with one set-based
+ * query ({@link ReplanTriggerService#evaluateBatch}). Progress is checkpointed
+ * per batch so an abandoned shard is resumed, not restarted, once its lease
+ * expires.
+ *
+ * Every checkpoint also renews the lease, so a shard may run for any length
+ * of time as long as each batch finishes within {@code lease-minutes}. A
+ * batch that takes longer lets another replica claim the shard and evaluate
+ * that batch again. Once the first evaluation has committed, the repeat
+ * finds the recent triggers it stored and adds none; if both are still
+ * running, a plan may get a duplicate trigger. Either way the slower replica
+ * stops at its next checkpoint.
+ */
+@Component
+@Slf4j
+public class ShardedReplanEvaluator {
+
+    static final String STATUS_CLAIMED = "CLAIMED";
+    static final String STATUS_DONE = "DONE";
+
+    private static final String PLAN_STATUS_ACTIVE = "active";
+
+    private final LearningPlanRepository planRepository;
+    private final ReplanEvaluationLeaseRepository leaseRepository;
+    private final ReplanTriggerService triggerService;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner;
+
+    private final Counter plansEvaluated;
+    private final Counter triggersCreated;
+    private final Counter suggestionsCreated;
+    private final Counter evaluationErrors;
+    private final Timer shardTimer;
+    private final AtomicLong lastRunPlans = new AtomicLong();
+    private final AtomicLong lastRunThroughput = new AtomicLong();
+
+    @Value("${planning.replan-job.shards:64}")
+    private int shardCount;
+
+    @Value("${planning.replan-job.batch-size:100}")
+    private int batchSize;
+
+    @Value("${planning.replan-job.parallelism:4}")
+    private int parallelism;
+
+    @Value("${planning.replan-job.lease-minutes:10}")
+    private long leaseMinutes;
+
+    @Value("${planning.replan-job.retention-days:7}")
+    private long retentionDays;
+
+    public ShardedReplanEvaluator(LearningPlanRepository planRepository,
+            ReplanEvaluationLeaseRepository leaseRepository,
+            ReplanTriggerService triggerService,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.planRepository = planRepository;
+        this.leaseRepository = leaseRepository;
+        this.triggerService = triggerService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.owner = System.getenv().getOrDefault("HOSTNAME", "planning-service")
+                + "-" + UUID.randomUUID().toString().substring(0, 8);
+
+        this.plansEvaluated = meterRegistry.counter("planning.replan.plans.evaluated");
+        this.triggersCreated = meterRegistry.counter("planning.replan.triggers.created");
+        this.suggestionsCreated = meterRegistry.counter("planning.replan.suggestions.created");
+        this.evaluationErrors = meterRegistry.counter("planning.replan.evaluation.errors");
+        this.shardTimer = meterRegistry.timer("planning.replan.shard.duration");
+        meterRegistry.gauge("planning.replan.last-run.plans", lastRunPlans);
+        meterRegistry.gauge("planning.replan.last-run.plans-per-second", lastRunThroughput);
+    }
+
+    /**
+     * Totals of the shards processed by this replica in one run
+     */
+    public record RunSummary(int shards, int plans, int triggers, int suggestions, int errors) {
+        RunSummary plus(RunSummary other) {
+            return new RunSummary(shards + other.shards, plans + other.plans, triggers + other.triggers,
+                    suggestions + other.suggestions, errors + other.errors);
+        }
+    }
+
+    /**
+     * Registers the shards of a run (idempotent across replicas) and keeps
+     * claiming and evaluating shards until none is left.
+     */
+    public RunSummary evaluate(String runKey) {
+        long startedAt = System.nanoTime();
+        registerShards(runKey);
+
+        RunSummary summary = new RunSummary(0, 0, 0, 0, 0);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<RunSummary>> workers = new ArrayList<>();
+            for (int i = 0; i < Math.max(1, parallelism); i++) {
+                workers.add(executor.submit(() -> runWorker(runKey)));
+            }
+            for (Future<RunSummary> worker : workers) {
+                try {
+                    summary = summary.plus(worker.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    log.error("Replan worker failed: {}", e.getCause().getMessage());
+                }
+            }
+        }
+
+        double seconds = Math.max(0.001, (System.nanoTime() - startedAt) / 1_000_000_000.0);
+        lastRunPlans.set(summary.plans());
+        lastRunThroughput.set(Math.round(summary.plans() / seconds));
+        log.info("Replan run {} finished on {}: shards={}, plans={}, triggers={}, suggestions={}, errors={}, {} plans/s",
+                runKey, owner, summary.shards(), summary.plans(), summary.triggers(), summary.suggestions(),
+                summary.errors(), lastRunThroughput.get());
+        return summary;
+    }
+
+    /**
+     * Lower bounds of {@code shards} equal-width ranges over the 128-bit UUID
+     * space, in the unsigned order PostgreSQL uses to compare UUIDs.
+     */
+    static List<UUID> shardLowerBounds(int shards) {
+        List<UUID> bounds = new ArrayList<>(shards);
+        BigInteger space = BigInteger.ONE.shiftLeft(128);
+        for (int i = 0; i < shards; i++) {
+            BigInteger lower = space.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(shards));
+            bounds.add(new UUID(lower.shiftRight(64).longValue(), lower.longValue()));
+        }
+        return bounds;
+    }
+
+    private void registerShards(String runKey) {
+        List<UUID> lowerBounds = shardLowerBounds(Math.max(1, shardCount));
+        OffsetDateTime now = OffsetDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            leaseRepository.deleteByUpdatedAtBefore(now.minusDays(retentionDays));
+            for (int i = 0; i < lowerBounds.size(); i++) {
+                UUID upper = i + 1 < lowerBounds.size() ? lowerBounds.get(i + 1) : null;
+                leaseRepository.insertShardIfAbsent(UuidV7Generator.next(), runKey, i, lowerBounds.get(i), upper, now);
+            }
+        });
+    }
+
+    private ReplanEvaluationLease claimNextShard(String runKey) {
+        return transactionTemplate.execute(status -> leaseRepository
+                .lockNextAvailable(runKey, OffsetDateTime.now())
+                .map(lease -> {
+                    lease.setStatus(STATUS_CLAIMED);
+                    lease.setOwner(owner);
+                    lease.setLeaseExpiresAt(OffsetDateTime.now().plusMinutes(leaseMinutes));
+                    return leaseRepository.save(lease);
+                })
+                .orElse(null));
+    }
+
+    private RunSummary runWorker(String runKey) {
+        RunSummary summary = new RunSummary(0, 0, 0, 0, 0);
+        ReplanEvaluationLease lease;
+        while ((lease = claimNextShard(runKey)) != null) {
+            ReplanEvaluationLease claimed = lease;
+            summary = summary.plus(shardTimer.record(() -> processShard(claimed)));
+            log.info("Replan run {}: shard {} done by {}", runKey, claimed.getShardIndex(), owner);
+        }
+        return summary;
+    }
+
+    private RunSummary processShard(ReplanEvaluationLease lease) {
+        UUID after = lease.getLastPlanId() != null ? lease.getLastPlanId() : lease.getLowerBound();
+        int plans = 0;
+        int triggers = 0;
+        int suggestions = 0;
+        int errors = 0;
+
+        List<UUID> batch;
+        do {
+            PageRequest limit = PageRequest.of(0, batchSize);
+            batch = lease.getUpperBound() != null
+                    ? planRepository.findIdsByStatusInRange(PLAN_STATUS_ACTIVE, after, lease.getUpperBound(), limit)
+                    : planRepository.findIdsByStatusAfter(PLAN_STATUS_ACTIVE, after, limit);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            int batchTriggers = 0;
+            try {
+                ReplanTriggerService.BatchEvaluation result = triggerService.evaluateBatch(batch);
+                batchTriggers = result.triggers();
+                plans += result.plans();
+                triggers += result.triggers();
+                suggestions += result.suggestions();
+                plansEvaluated.increment(result.plans());
+                triggersCreated.increment(result.triggers());
+                suggestionsCreated.increment(result.suggestions());
+            } catch (Exception e) {
+                // Skip the batch rather than retrying it forever; the next run picks it up
+                errors += batch.size();
+                evaluationErrors.increment(batch.size());
+                log.error("Error evaluating batch after plan {}: {}", after, e.getMessage());
+            }
+            after = batch.get(batch.size() - 1);
+
+            if (!checkpoint(lease.getId(), after, batch.size(), batchTriggers)) {
+                log.warn("Lease for shard {} was taken over, stopping", lease.getShardIndex());
+                return new RunSummary(0, plans, triggers, suggestions, errors);
+            }
+        } while (batch.size() == batchSize);
+
+        complete(lease.getId());
+        return new RunSummary(1, plans, triggers, suggestions, errors);
+    }
+
+    private boolean checkpoint(UUID leaseId, UUID lastPlanId, int plans, int triggers) {
+        Boolean owned = transactionTemplate.execute(status -> leaseRepository.findById(leaseId)
+                .filter(lease -> owner.equals(lease.getOwner()) && STATUS_CLAIMED.equals(lease.getStatus()))
+                .map(lease -> {
+                    lease.setLastPlanId(lastPlanId);
+                    lease.setPlansEvaluated(lease.getPlansEvaluated() + plans);
+                    lease.setTriggersCreated(lease.getTriggersCreated() + triggers);
+                    lease.setLeaseExpiresAt(OffsetDateTime.now().plusMinutes(leaseMinutes));
+                    leaseRepository.save(lease);
+                    return true;
+                })
+                .orElse(false));
+        return Boolean.TRUE.equals(owned);
+    }
+
+    private void complete(UUID leaseId) {
+        transactionTemplate.executeWithoutResult(status -> leaseRepository.findById(leaseId)
+                .filter(lease -> owner.equals(lease.getOwner()))
+                .ifPresent(lease -> {
+                    lease.setStatus(STATUS_DONE);
+                    lease.setLeaseExpiresAt(null);
+                    leaseRepository.save(lease);
+                }));
+    }
+}
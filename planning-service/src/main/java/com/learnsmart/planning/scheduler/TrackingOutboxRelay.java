@@ -0,0 +1,287 @@
+package com.learnsmart.planning.scheduler;
+
+import com.learnsmart.planning.model.TrackingOutboxEvent;
+import com.learnsmart.planning.repository.TrackingOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.core.OAuth2AuthorizationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Delivers {@code tracking_outbox} rows to tracking-service.
+ *
+ * Each run sends due events in batches through POST /events/batch,
+ * authenticated as the planning-service account (scheduled runs have no user
+ * token). Delivery is at-least-once: a failed batch is kept and retried with
+ * capped exponential backoff, nothing is dropped. Events tracking-service
+ * rejects as invalid are marked sent with the rejection reason so they cannot
+ * block the rest of their plan.
+ *
+ * A batch is claimed in a short transaction under a PostgreSQL advisory lock
+ * (its rows are pushed {@code claim-seconds} into the future, which also holds
+ * back later events of the same plans), then sent without a transaction or
+ * lock open, then its outcome is recorded. A replica that dies mid-send
+ * leaves the claim to expire, after which the batch is sent again.
+ *
+ * A 401/403 (or no token from Keycloak) is a configuration problem, not an
+ * outage: it is reported as an error, the batch is released without counting
+ * an attempt, and relaying pauses for {@code auth-failure-pause-seconds}
+ * instead of backing off event by event.
+ */
+@Component
+@Slf4j
+public class TrackingOutboxRelay {
+
+    // Arbitrary key of the advisory lock guarding the relay
+    private static final long RELAY_LOCK_KEY = 0x7472_6163_6b00_0001L;
+
+    private final TrackingOutboxRepository outboxRepository;
+    private final RestTemplate restTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter eventsSent;
+    private final Counter eventsRejected;
+    private final Counter deliveryFailures;
+    private final Counter authFailures;
+
+    // Relaying is paused until then after tracking-service refused our credentials
+    private volatile OffsetDateTime pausedUntil;
+
+    @Value("${planning.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${tracking-service.url:http://tracking-service}")
+    private String trackingServiceUrl;
+
+    @Value("${planning.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${planning.outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${planning.outbox.initial-backoff-seconds:5}")
+    private long initialBackoffSeconds;
+
+    @Value("${planning.outbox.max-backoff-seconds:600}")
+    private long maxBackoffSeconds;
+
+    @Value("${planning.outbox.retention-hours:72}")
+    private long retentionHours;
+
+    // Must exceed the service RestTemplate's connect + read timeout
+    @Value("${planning.outbox.claim-seconds:120}")
+    private long claimSeconds = 120;
+
+    @Value("${planning.outbox.auth-failure-pause-seconds:300}")
+    private long authFailurePauseSeconds = 300;
+
+    public TrackingOutboxRelay(TrackingOutboxRepository outboxRepository,
+            @Qualifier("serviceRestTemplate") RestTemplate restTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.restTemplate = restTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.eventsSent = meterRegistry.counter("planning.outbox.events.sent");
+        this.eventsRejected = meterRegistry.counter("planning.outbox.events.rejected");
+        this.deliveryFailures = meterRegistry.counter("planning.outbox.delivery.failures");
+        this.authFailures = meterRegistry.counter("planning.outbox.auth.failures");
+        meterRegistry.gauge("planning.outbox.pending", outboxRepository, TrackingOutboxRepository::countBySentAtIsNull);
+    }
+
+    /**
+     * Response of tracking-service POST /events/batch
+     */
+    record BatchResult(int accepted, List<Rejected> rejected) {
+    }
+
+    record Rejected(int index, String message) {
+    }
+
+    @Scheduled(fixedDelayString = "${planning.outbox.relay-interval-ms:2000}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+        OffsetDateTime paused = pausedUntil;
+        if (paused != null && OffsetDateTime.now().isBefore(paused)) {
+            return;
+        }
+        for (int i = 0; i < Math.max(1, maxBatchesPerRun); i++) {
+            if (relayBatch() < batchSize || pausedUntil != null) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Claims, sends and records one batch of due events; returns how many
+     * events were picked up, or 0 if another replica holds the claim lock
+     */
+    int relayBatch() {
+        List<TrackingOutboxEvent> claimed = transactionTemplate.execute(status -> claimBatch());
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+        deliver(claimed);
+        return claimed.size();
+    }
+
+    private List<TrackingOutboxEvent> claimBatch() {
+        if (!outboxRepository.tryRelayLock(RELAY_LOCK_KEY)) {
+            return List.of();
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        List<TrackingOutboxEvent> due = outboxRepository.findDue(now, PageRequest.of(0, batchSize));
+        for (TrackingOutboxEvent event : due) {
+            event.setNextAttemptAt(now.plusSeconds(claimSeconds));
+        }
+        return due;
+    }
+
+    private void deliver(List<TrackingOutboxEvent> due) {
+        List<TrackingOutboxEvent> changed = new ArrayList<>();
+        List<Long> sentIds = new ArrayList<>();
+        BatchResult result;
+        try {
+            result = send(due);
+            pausedUntil = null;
+        } catch (Exception e) {
+            OffsetDateTime now = OffsetDateTime.now();
+            if (isAuthFailure(e)) {
+                // Retrying cannot help until the credentials are fixed; release the claim untouched
+                authFailures.increment();
+                pausedUntil = now.plusSeconds(authFailurePauseSeconds);
+                for (TrackingOutboxEvent event : due) {
+                    event.setNextAttemptAt(now);
+                    event.setLastError(truncate("Not authorized: " + e.getMessage()));
+                }
+                log.error("Tracking-service refused the planning-service credentials, relaying paused for {}s "
+                        + "with {} events pending: {}", authFailurePauseSeconds,
+                        outboxRepository.countBySentAtIsNull(), e.getMessage());
+            } else {
+                // Keep the whole batch; it is retried together so per-plan order holds
+                deliveryFailures.increment();
+                for (TrackingOutboxEvent event : due) {
+                    event.setAttempts(event.getAttempts() + 1);
+                    event.setNextAttemptAt(now.plusSeconds(backoffSeconds(event.getAttempts())));
+                    event.setLastError(truncate(e.getMessage()));
+                }
+                log.warn("Relaying {} outbox events to tracking-service failed: {}", due.size(), e.getMessage());
+            }
+            transactionTemplate.executeWithoutResult(status -> outboxRepository.saveAll(due));
+            return;
+        }
+
+        OffsetDateTime now = OffsetDateTime.now();
+        Set<Integer> rejectedIndexes = new HashSet<>();
+        if (result != null && result.rejected() != null) {
+            for (Rejected rejected : result.rejected()) {
+                TrackingOutboxEvent event = due.get(rejected.index());
+                event.setLastError(truncate("Rejected: " + rejected.message()));
+                event.setSentAt(now);
+                event.setAttempts(event.getAttempts() + 1);
+                rejectedIndexes.add(rejected.index());
+                changed.add(event);
+                log.warn("Tracking rejected outbox event {}: {}", event.getId(), rejected.message());
+            }
+        }
+        for (int i = 0; i < due.size(); i++) {
+            if (!rejectedIndexes.contains(i)) {
+                sentIds.add(due.get(i).getId());
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!changed.isEmpty()) {
+                outboxRepository.saveAll(changed);
+            }
+            if (!sentIds.isEmpty()) {
+                outboxRepository.markSent(sentIds, now);
+            }
+        });
+        eventsSent.increment(sentIds.size());
+        eventsRejected.increment(rejectedIndexes.size());
+    }
+
+    private static boolean isAuthFailure(Exception e) {
+        if (e instanceof OAuth2AuthorizationException) {
+            return true;
+        }
+        return e instanceof HttpClientErrorException http
+                && (http.getStatusCode().isSameCodeAs(HttpStatus.UNAUTHORIZED)
+                        || http.getStatusCode().isSameCodeAs(HttpStatus.FORBIDDEN));
+    }
+
+    /**
+     * Delay before the next attempt after {@code attempts} failed ones
+     */
+    long backoffSeconds(int attempts) {
+        long delay = initialBackoffSeconds << Math.min(Math.max(0, attempts - 1), 20);
+        return Math.min(delay, maxBackoffSeconds);
+    }
+
+    @Scheduled(cron = "${planning.outbox.cleanup-cron:0 30 * * * *}")
+    public void purgeSent() {
+        if (!enabled) {
+            return;
+        }
+        Integer deleted = transactionTemplate.execute(status -> outboxRepository
+                .deleteSentBefore(OffsetDateTime.now().minusHours(retentionHours)));
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} delivered outbox events", deleted);
+        }
+    }
+
+    private BatchResult send(List<TrackingOutboxEvent> events) {
+        List<Map<String, Object>> body = new ArrayList<>(events.size());
+        for (TrackingOutboxEvent event : events) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("userId", event.getUserId());
+            item.put("eventType", event.getEventType());
+            item.put("entityType", event.getEntityType());
+            item.put("entityId", event.getEntityId());
+            item.put("occurredAt", event.getOccurredAt());
+            item.put("payload", event.getPayload());
+            body.add(item);
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<BatchResult> response = restTemplate.exchange(trackingServiceUrl + "/events/batch",
+                HttpMethod.POST, new HttpEntity<>(body, headers), new ParameterizedTypeReference<BatchResult>() {
+                });
+        return response.getBody();
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
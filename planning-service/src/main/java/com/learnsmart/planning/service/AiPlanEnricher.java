@@ -0,0 +1,48 @@
+package com.learnsmart.planning.service;
+
+import com.learnsmart.planning.event.PlanEnrichmentRequestedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the AI plan generation for locally built plans off the request path.
+ *
+ * The work is submitted after the creating transaction commits, with the
+ * caller's security context, so the AI and profile calls still forward the
+ * user's token. A failure only leaves the local plan in place.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AiPlanEnricher {
+
+    private final LearningPlanService planService;
+
+    private final ExecutorService executor = new DelegatingSecurityContextExecutorService(
+            Executors.newVirtualThreadPerTaskExecutor());
+
+    @TransactionalEventListener
+    public void onEnrichmentRequested(PlanEnrichmentRequestedEvent event) {
+        executor.submit(() -> enrich(event));
+    }
+
+    void enrich(PlanEnrichmentRequestedEvent event) {
+        try {
+            planService.enrichWithAi(event.planId());
+        } catch (Exception e) {
+            log.warn("AI enrichment of plan {} failed, keeping the local plan: {}", event.planId(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
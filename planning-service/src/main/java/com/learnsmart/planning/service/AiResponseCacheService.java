@@ -0,0 +1,280 @@
+package com.learnsmart.planning.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learnsmart.planning.dto.ExternalDtos;
+import com.learnsmart.planning.model.AiResponseCacheEntry;
+import com.learnsmart.planning.model.LearningPlan;
+import com.learnsmart.planning.model.PlanActivity;
+import com.learnsmart.planning.model.PlanModule;
+import com.learnsmart.planning.repository.AiResponseCacheRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Memoizes AI-service responses for plan generation and replanning.
+ *
+ * Requests are reduced to a canonical key (goal target skill, domain, level,
+ * hours per week and catalog version for new plans; the plan structure for
+ * replans). The learner's own goal id is only used when the goal carries no
+ * target skill, so learners with equivalent goals share an entry.
+ * and the raw AI JSON is kept in a size-bounded, access-ordered LRU in front
+ * of the shared {@code ai_response_cache} table. Every hit is deserialized
+ * again, so callers receive a fresh template they can map into entities.
+ */
+@Service
+@Slf4j
+public class AiResponseCacheService {
+
+    public static final String OPERATION_PLAN = "PLAN";
+    public static final String OPERATION_REPLAN = "REPLAN";
+
+    private final AiResponseCacheRepository cacheRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate cacheTransaction;
+
+    @Value("${planning.ai-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${planning.ai-cache.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${planning.ai-cache.max-entries:500}")
+    private int maxEntries;
+
+    private final Map<String, LocalEntry> localCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, LocalEntry> eldest) {
+                    return size() > maxEntries;
+                }
+            });
+
+    public AiResponseCacheService(AiResponseCacheRepository cacheRepository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager) {
+        this.cacheRepository = cacheRepository;
+        this.objectMapper = objectMapper;
+        // Cache writes must never roll back (or be rolled back by) the caller's
+        // plan transaction, so they run in their own short transaction.
+        this.cacheTransaction = new TransactionTemplate(transactionManager);
+        this.cacheTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Returns the cached response for the key, or calls the generator and
+     * stores its result. Null responses and plans without modules are not
+     * cached.
+     */
+    public <T> T getOrGenerate(String cacheKey, Class<T> responseType, Supplier<T> generator) {
+        if (!enabled || cacheKey == null) {
+            return generator.get();
+        }
+
+        String payload = lookup(cacheKey);
+        if (payload != null) {
+            try {
+                T cached = objectMapper.readValue(payload, responseType);
+                log.debug("AI cache hit for {}", cacheKey);
+                return cached;
+            } catch (Exception e) {
+                log.warn("Discarding unreadable AI cache entry {}: {}", cacheKey, e.getMessage());
+                localCache.remove(cacheKey);
+            }
+        }
+
+        T response = generator.get();
+        if (isCacheable(response)) {
+            store(cacheKey, response);
+        }
+        return response;
+    }
+
+    /**
+     * Canonical key for a plan generation request: goal target skill, domain,
+     * level, hours per week and the version of the content catalog sent to the
+     * AI.
+     */
+    public String planKey(ExternalDtos.GeneratePlanRequest request, BigDecimal hoursPerWeek) {
+        Map<String, Object> goal = request.getGoals() != null && !request.getGoals().isEmpty()
+                ? request.getGoals().get(0)
+                : Map.of();
+        Map<String, Object> profile = request.getProfile() != null ? request.getProfile() : Map.of();
+
+        Object level = goal.get("level") != null ? goal.get("level") : profile.get("level");
+
+        StringBuilder canonical = new StringBuilder()
+                .append("goal=").append(goalTarget(goal.get("skillId"), goal.get("goalId")))
+                .append("|domain=").append(normalize(goal.get("domain")))
+                .append("|level=").append(normalize(level))
+                .append("|hours=").append(normalize(hoursPerWeek))
+                .append("|catalog=").append(catalogVersion(request.getContentCatalog()));
+
+        return OPERATION_PLAN + ":" + sha256(canonical.toString());
+    }
+
+    /**
+     * Canonical key for a replan request: goal target, hours per week and the current
+     * module/activity structure with its progress. Identifiers and timestamps
+     * are left out so that structurally identical plans share an entry.
+     */
+    public String replanKey(LearningPlan plan) {
+        StringBuilder canonical = new StringBuilder()
+                .append("goal=").append(goalTarget(plan.getGoalSkillId(), plan.getGoalId()))
+                .append("|domain=").append(normalize(plan.getGoalDomainId()))
+                .append("|level=").append(normalize(plan.getGoalLevel()))
+                .append("|hours=").append(normalize(plan.getHoursPerWeek()));
+
+        if (plan.getModules() != null) {
+            for (PlanModule module : plan.getModules()) {
+                canonical.append("|m:").append(module.getPosition())
+                        .append(':').append(normalize(module.getTitle()))
+                        .append(':').append(normalize(module.getStatus()));
+                if (module.getActivities() != null) {
+                    for (PlanActivity activity : module.getActivities()) {
+                        canonical.append("|a:").append(normalize(activity.getActivityType()))
+                                .append(':').append(normalize(activity.getContentRef()))
+                                .append(':').append(normalize(activity.getStatus()));
+                    }
+                }
+            }
+        }
+
+        return OPERATION_REPLAN + ":" + sha256(canonical.toString());
+    }
+
+    /**
+     * Removes expired entries from the shared table (hourly by default)
+     */
+    @Scheduled(fixedDelayString = "${planning.ai-cache.cleanup-interval-ms:3600000}")
+    public void purgeExpired() {
+        OffsetDateTime now = OffsetDateTime.now();
+        synchronized (localCache) {
+            localCache.values().removeIf(entry -> entry.expiresAt().isBefore(now));
+        }
+        try {
+            Integer removed = cacheTransaction.execute(status -> cacheRepository.deleteExpired(now));
+            if (removed != null && removed > 0) {
+                log.info("Purged {} expired AI cache entries", removed);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to purge AI cache: {}", e.getMessage());
+        }
+    }
+
+    private static String goalTarget(Object skillId, Object goalId) {
+        String skill = normalize(skillId);
+        return skill.isEmpty() ? "goal:" + normalize(goalId) : "skill:" + skill;
+    }
+
+    private String lookup(String cacheKey) {
+        OffsetDateTime now = OffsetDateTime.now();
+
+        LocalEntry local = localCache.get(cacheKey);
+        if (local != null) {
+            if (local.expiresAt().isAfter(now)) {
+                return local.payload();
+            }
+            localCache.remove(cacheKey);
+        }
+
+        try {
+            return cacheTransaction.execute(status -> cacheRepository
+                    .findByCacheKeyAndExpiresAtAfter(cacheKey, now)
+                    .map(entry -> {
+                        cacheRepository.incrementHitCount(cacheKey);
+                        localCache.put(cacheKey, new LocalEntry(entry.getPayload(), entry.getExpiresAt()));
+                        return entry.getPayload();
+                    })
+                    .orElse(null));
+        } catch (Exception e) {
+            // Graceful degradation: a cache failure only costs an AI call
+            log.warn("AI cache lookup failed for {}: {}", cacheKey, e.getMessage());
+            return null;
+        }
+    }
+
+    private void store(String cacheKey, Object response) {
+        try {
+            String payload = objectMapper.writeValueAsString(response);
+            OffsetDateTime expiresAt = OffsetDateTime.now().plusMinutes(ttlMinutes);
+            localCache.put(cacheKey, new LocalEntry(payload, expiresAt));
+
+            cacheTransaction.executeWithoutResult(status -> {
+                AiResponseCacheEntry entry = cacheRepository.findById(cacheKey)
+                        .orElseGet(AiResponseCacheEntry::new);
+                entry.setCacheKey(cacheKey);
+                entry.setOperation(cacheKey.substring(0, cacheKey.indexOf(':')));
+                entry.setPayload(payload);
+                entry.setExpiresAt(expiresAt);
+                cacheRepository.save(entry);
+            });
+        } catch (Exception e) {
+            // Another instance may have stored the same key concurrently
+            log.warn("Failed to store AI cache entry {}: {}", cacheKey, e.getMessage());
+        }
+    }
+
+    private boolean isCacheable(Object response) {
+        ExternalDtos.PlanDraft draft = null;
+        if (response instanceof ExternalDtos.GeneratePlanResponse planResponse) {
+            draft = planResponse.getPlan();
+        } else if (response instanceof ExternalDtos.ReplanResponse replanResponse) {
+            draft = replanResponse.getPlan();
+        }
+        return draft != null && draft.getModules() != null && !draft.getModules().isEmpty();
+    }
+
+    private String catalogVersion(List<Map<String, Object>> catalog) {
+        if (catalog == null || catalog.isEmpty()) {
+            return "empty";
+        }
+        String ids = catalog.stream()
+                .map(item -> item.get("id"))
+                .filter(Objects::nonNull)
+                .map(Object::toString)
+                .sorted()
+                .reduce(new StringBuilder(), (sb, id) -> sb.append(id).append(','), StringBuilder::append)
+                .toString();
+        return sha256(ids);
+    }
+
+    private static String normalize(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.stripTrailingZeros().toPlainString();
+        }
+        return value.toString().trim().toLowerCase();
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record LocalEntry(String payload, OffsetDateTime expiresAt) {
+    }
+}
@@ -0,0 +1,95 @@
+package com.learnsmart.planning.service;
+
+import com.learnsmart.planning.event.PlanCompletionCandidateEvent;
+import com.learnsmart.planning.repository.LearningPlanRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process queue of plans that may have been completed.
+ *
+ * Module and activity updates only enqueue the plan; certificates are issued
+ * in batches by a scheduled drain, so the completion check no longer runs
+ * inside the user's request. A plan signalled several times before a drain is
+ * checked once. A nightly sweep enqueues complete plans that still lack a
+ * certificate (signals lost on restart, plans completed before this queue).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CertificateIssuanceQueue {
+
+    private final CertificateService certificateService;
+    private final LearningPlanRepository planRepository;
+
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+
+    @Value("${planning.certificates.batch-size:100}")
+    private int batchSize;
+
+    @Value("${planning.certificates.sweep-limit:1000}")
+    private int sweepLimit;
+
+    /**
+     * Called after the publishing transaction commits, so issuance sees the
+     * new counters
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCompletionCandidate(PlanCompletionCandidateEvent event) {
+        if (event.planId() != null) {
+            pending.add(event.planId());
+        }
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Issue certificates for the queued plans, one batch at a time
+     */
+    @Scheduled(fixedDelayString = "${planning.certificates.issue-interval-ms:2000}")
+    public void drain() {
+        while (!pending.isEmpty()) {
+            List<UUID> batch = new ArrayList<>(batchSize);
+            Iterator<UUID> it = pending.iterator();
+            while (it.hasNext() && batch.size() < batchSize) {
+                batch.add(it.next());
+                it.remove();
+            }
+            try {
+                int issued = certificateService.issueCertificates(batch).size();
+                log.debug("Certificate issuance: candidates={}, issued={}", batch.size(), issued);
+            } catch (Exception e) {
+                // Re-checked on the next drain; plans that got a certificate meanwhile are skipped
+                pending.addAll(batch);
+                log.error("Certificate issuance failed for {} plans: {}", batch.size(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Enqueue complete plans without a certificate
+     */
+    @Scheduled(cron = "${planning.certificates.sweep-cron:0 15 4 * * *}")
+    public void sweep() {
+        List<UUID> planIds = planRepository.findCompletedIdsWithoutCertificate(PageRequest.of(0, sweepLimit));
+        if (!planIds.isEmpty()) {
+            log.info("Certificate sweep queued {} complete plans without a certificate", planIds.size());
+            pending.addAll(planIds);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.learnsmart.planning.service;
+
+import com.learnsmart.planning.model.Certificate;
+import com.learnsmart.planning.repository.CertificateRepository;
+import com.learnsmart.planning.repository.LearningPlanRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Certificate issuance and the per-user certificates listing.
+ *
+ * Issuance works on batches of candidate plans: one query selects the plans
+ * whose counters say they are complete and that have no certificate, the
+ * certificates are inserted together and the plans marked completed with one
+ * update. Listings are cached per user for a short time; issuing a
+ * certificate evicts its user once the transaction commits.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CertificateService {
+
+    private final LearningPlanRepository planRepository;
+    private final CertificateRepository certificateRepository;
+
+    private final Map<UUID, CachedCertificates> cache = new ConcurrentHashMap<>();
+
+    @Value("${planning.certificates.cache-seconds:300}")
+    private long cacheSeconds;
+
+    @Value("${planning.certificates.cache-max-entries:10000}")
+    private int maxEntries;
+
+    private record CachedCertificates(List<Certificate> certificates, long expiresAt) {
+    }
+
+    /**
+     * Issues certificates for the given plans that are complete and do not
+     * have one yet; returns the new certificates
+     */
+    @Transactional
+    public List<Certificate> issueCertificates(Collection<UUID> planIds) {
+        if (planIds == null || planIds.isEmpty()) {
+            return List.of();
+        }
+        List<LearningPlanRepository.CompletedPlanView> plans = planRepository
+                .findCompletedWithoutCertificate(planIds);
+        if (plans.isEmpty()) {
+            return List.of();
+        }
+
+        List<Certificate> certificates = new ArrayList<>(plans.size());
+        for (LearningPlanRepository.CompletedPlanView plan : plans) {
+            UUID userId = parseUuid(plan.getUserId());
+            if (userId == null) {
+                log.warn("Not issuing a certificate for plan {}: user id {} is not a UUID", plan.getId(),
+                        plan.getUserId());
+                continue;
+            }
+            Certificate cert = new Certificate();
+            cert.setUserId(userId);
+            cert.setPlanId(plan.getId());
+            cert.setTitle("Certificate of Completion: "
+                    + (plan.getGoalId() != null ? plan.getGoalId() : "Learning Plan"));
+            cert.setDescription("Awarded for successfully completing the learning plan.");
+            certificates.add(cert);
+        }
+        List<Certificate> saved = certificateRepository.saveAll(certificates);
+        planRepository.markCompleted(plans.stream().map(LearningPlanRepository.CompletedPlanView::getId).toList());
+
+        Set<UUID> users = new HashSet<>();
+        saved.forEach(cert -> users.add(cert.getUserId()));
+        evictAfterCommit(users);
+        return saved;
+    }
+
+    /**
+     * Certificates of a user, served from the cache while fresh
+     */
+    public List<Certificate> getCertificates(UUID userId) {
+        long now = System.nanoTime();
+        CachedCertificates cached = cache.get(userId);
+        if (cached != null && cached.expiresAt() - now > 0) {
+            return cached.certificates();
+        }
+        List<Certificate> certificates = List.copyOf(certificateRepository.findByUserId(userId));
+        evictExpired(now);
+        cache.put(userId, new CachedCertificates(certificates, now + TimeUnit.SECONDS.toNanos(cacheSeconds)));
+        return certificates;
+    }
+
+    private void evictAfterCommit(Set<UUID> users) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            users.forEach(cache::remove);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                users.forEach(cache::remove);
+            }
+        });
+    }
+
+    private void evictExpired(long now) {
+        if (cache.size() < maxEntries) {
+            return;
+        }
+        cache.entrySet().removeIf(entry -> entry.getValue().expiresAt() - now <= 0);
+        if (cache.size() >= maxEntries) {
+            cache.clear();
+        }
+    }
+
+    private static UUID parseUuid(String value) {
+        try {
+            return value != null ? UUID.fromString(value) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.learnsmart.planning.service;
+
+import com.learnsmart.planning.client.Clients;
+import com.learnsmart.planning.dto.ExternalDtos;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pre-generated diagnostic questions per (domain, level).
+ *
+ * Requests are served from the pool: the questions are drawn at random and
+ * removed, so two tests never share a question from the same batch. When a
+ * pool drops below the low-water mark it is refilled from the AI service in
+ * the background; only a request that finds too few questions still waits
+ * for the AI service. Pools are created on first use (or from the preload
+ * list) and kept topped up by a scheduled job; a pool that is not preloaded
+ * and has served no request within the idle TTL is dropped instead.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DiagnosticTestPool {
+
+    static final String DEFAULT_LEVEL = "BEGINNER";
+
+    // Stop a refill early if the AI service keeps returning questions already in the pool
+    private static final int MAX_CALLS_PER_REFILL = 5;
+
+    private final Clients.AiClient aiClient;
+
+    private final Map<PoolKey, Pool> pools = new ConcurrentHashMap<>();
+    private final ExecutorService refillExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${planning.diagnostic-pool.enabled:true}")
+    private boolean enabled;
+
+    @Value("${planning.diagnostic-pool.target-size:60}")
+    private int targetSize;
+
+    @Value("${planning.diagnostic-pool.low-water-mark:20}")
+    private int lowWaterMark;
+
+    @Value("${planning.diagnostic-pool.refill-batch:20}")
+    private int refillBatch;
+
+    // Domain ids come from clients; bound how many pools they can create
+    @Value("${planning.diagnostic-pool.max-pools:200}")
+    private int maxPools;
+
+    // Pools created on demand are dropped after this long without a request
+    @Value("${planning.diagnostic-pool.idle-ttl-minutes:30}")
+    private long idleTtlMinutes;
+
+    // domainId:LEVEL pairs warmed at startup
+    @Value("${planning.diagnostic-pool.preload:}")
+    private List<String> preload;
+
+    record PoolKey(String domainId, String level) {
+    }
+
+    /**
+     * Questions of one (domain, level); guarded by its own monitor
+     */
+    static final class Pool {
+        private final List<Map<String, Object>> questions = new ArrayList<>();
+        private final Set<String> stems = new HashSet<>();
+        private final AtomicBoolean refilling = new AtomicBoolean();
+        private final boolean preloaded;
+        private volatile long lastUsedAt = System.currentTimeMillis();
+
+        Pool() {
+            this(false);
+        }
+
+        Pool(boolean preloaded) {
+            this.preloaded = preloaded;
+        }
+
+        boolean isIdle(long now, long idleTtlMillis) {
+            return !preloaded && now - lastUsedAt > idleTtlMillis;
+        }
+
+        synchronized int size() {
+            return questions.size();
+        }
+
+        /**
+         * Removes n random questions; null (and nothing removed) if the pool
+         * holds fewer
+         */
+        synchronized List<Map<String, Object>> take(int n) {
+            if (questions.size() < n) {
+                return null;
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            List<Map<String, Object>> taken = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                // Swap-remove keeps each draw O(1)
+                int index = random.nextInt(questions.size());
+                int last = questions.size() - 1;
+                Map<String, Object> question = questions.get(index);
+                questions.set(index, questions.get(last));
+                questions.remove(last);
+                stems.remove(stemOf(question));
+                taken.add(question);
+            }
+            return taken;
+        }
+
+        /**
+         * Adds the questions not already pooled, up to the capacity; returns
+         * how many were added
+         */
+        synchronized int addAll(List<Map<String, Object>> batch, int capacity) {
+            int added = 0;
+            for (Map<String, Object> question : batch) {
+                if (questions.size() >= capacity) {
+                    break;
+                }
+                String stem = stemOf(question);
+                if (question != null && (stem == null || stems.add(stem))) {
+                    questions.add(question);
+                    added++;
+                }
+            }
+            return added;
+        }
+
+        private static String stemOf(Map<String, Object> question) {
+            Object stem = question != null ? question.get("stem") : null;
+            return stem != null ? stem.toString() : null;
+        }
+    }
+
+    @PostConstruct
+    void registerPreloadedPools() {
+        if (!enabled || preload == null) {
+            return;
+        }
+        for (String entry : preload) {
+            String[] parts = entry.trim().split(":", 2);
+            if (!parts[0].isEmpty()) {
+                pools.computeIfAbsent(key(parts[0], parts.length > 1 ? parts[1] : null), k -> new Pool(true));
+            }
+        }
+    }
+
+    /**
+     * nQuestions random questions for the domain and level, from the pool when
+     * it holds enough
+     */
+    public List<Map<String, Object>> take(String domainId, String level, int nQuestions) {
+        if (!enabled || nQuestions <= 0 || nQuestions > targetSize) {
+            return generate(domainId, normalizeLevel(level), nQuestions);
+        }
+
+        PoolKey key = key(domainId, level);
+        Pool pool = pools.get(key);
+        if (pool == null) {
+            if (pools.size() >= maxPools) {
+                return generate(key.domainId(), key.level(), nQuestions);
+            }
+            pool = pools.computeIfAbsent(key, k -> new Pool());
+        }
+        pool.lastUsedAt = System.currentTimeMillis();
+        List<Map<String, Object>> questions = pool.take(nQuestions);
+        if (pool.size() < lowWaterMark) {
+            scheduleRefill(key, pool);
+        }
+        return questions != null ? questions : generate(key.domainId(), key.level(), nQuestions);
+    }
+
+    /**
+     * Drops idle on-demand pools and refills the remaining ones that are below
+     * their target size
+     */
+    @Scheduled(fixedDelayString = "${planning.diagnostic-pool.top-up-interval-ms:60000}")
+    public void topUp() {
+        topUp(System.currentTimeMillis());
+    }
+
+    void topUp(long now) {
+        if (!enabled) {
+            return;
+        }
+        long idleTtlMillis = idleTtlMinutes * 60_000L;
+        int before = pools.size();
+        pools.values().removeIf(pool -> pool.isIdle(now, idleTtlMillis));
+        if (pools.size() < before) {
+            log.debug("Dropped {} idle diagnostic pools", before - pools.size());
+        }
+        pools.forEach((key, pool) -> {
+            if (pool.size() < targetSize) {
+                scheduleRefill(key, pool);
+            }
+        });
+    }
+
+    int size(String domainId, String level) {
+        Pool pool = pools.get(key(domainId, level));
+        return pool != null ? pool.size() : 0;
+    }
+
+    private void scheduleRefill(PoolKey key, Pool pool) {
+        // At most one refill per pool at a time
+        if (!pool.refilling.compareAndSet(false, true)) {
+            return;
+        }
+        refillExecutor.submit(() -> {
+            try {
+                refill(key, pool);
+            } finally {
+                pool.refilling.set(false);
+            }
+        });
+    }
+
+    void refill(PoolKey key, Pool pool) {
+        try {
+            for (int call = 0; call < MAX_CALLS_PER_REFILL && pool.size() < targetSize; call++) {
+                int wanted = Math.min(refillBatch, targetSize - pool.size());
+                List<Map<String, Object>> batch = generate(key.domainId(), key.level(), wanted);
+                if (batch == null || pool.addAll(batch, targetSize) == 0) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Refill of diagnostic pool {}/{} failed: {}", key.domainId(), key.level(), e.getMessage());
+        }
+    }
+
+    private List<Map<String, Object>> generate(String domainId, String level, int nQuestions) {
+        ExternalDtos.GenerateDiagnosticTestRequest request = ExternalDtos.GenerateDiagnosticTestRequest.builder()
+                .domainId(domainId)
+                .level(level)
+                .nQuestions(nQuestions)
+                .build();
+        ExternalDtos.GenerateDiagnosticTestResponse response = aiClient.generateDiagnosticTest(request);
+        return response != null ? response.getQuestions() : null;
+    }
+
+    private static PoolKey key(String domainId, String level) {
+        return new PoolKey(domainId, normalizeLevel(level));
+    }
+
+    private static String normalizeLevel(String level) {
+        return level == null || level.isBlank() ? DEFAULT_LEVEL : level.trim().toUpperCase(Locale.ROOT);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refillExecutor.shutdown();
+    }
+}
@@ -8,12 +8,30 @@ import java.util.List;
 public interface LearningPlanService {
     LearningPlan createPlan(LearningPlan plan);
 
+    /**
+     * Applies an AI-generated plan to a plan built locally; the structure is
+     * only replaced while none of its activities has been started
+     */
+    void enrichWithAi(UUID planId);
+
     LearningPlan findById(UUID id);
 
+    com.learnsmart.planning.dto.PlanDtos.PlanDetailResponse getPlanDetail(UUID id, boolean includeReplans,
+            boolean includeRawPlan);
+
+    /**
+     * ETag of the plan's read endpoints (plan, modules, activities); empty if
+     * the plan does not exist
+     */
+    java.util.Optional<String> findPlanEtag(UUID id);
+
     Page<LearningPlan> findAll(String status, int page, int size);
 
     Page<LearningPlan> findByUser(String userId, String status, int page, int size);
 
+    Page<com.learnsmart.planning.dto.PlanDtos.PlanSummaryResponse> findSummaries(String userId, String status,
+            int page, int size);
+
     LearningPlan updatePlan(UUID id, LearningPlan planUpdates);
 
     // Replan logic will be separate or here? Let's keep it here for now.
@@ -23,5 +41,9 @@ public interface LearningPlanService {
 
     List<com.learnsmart.planning.model.Certificate> getCertificates(UUID userId);
 
+    /**
+     * Issues the plan's certificate now if it is complete; module and activity
+     * updates leave this to {@link CertificateIssuanceQueue}
+     */
     void checkCompletion(UUID planId);
 }
@@ -3,8 +3,12 @@ package com.learnsmart.planning.service;
 import com.learnsmart.planning.model.*;
 import com.learnsmart.planning.repository.*;
 import com.learnsmart.planning.client.SkillPrerequisiteClient;
+import com.learnsmart.planning.dto.PlanDtos;
 import com.learnsmart.planning.dto.PrerequisiteDtos;
+import com.learnsmart.planning.event.PlanEnrichmentRequestedEvent;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
@@ -15,111 +19,67 @@ import java.util.ArrayList;
 import java.math.BigDecimal;
 import java.util.stream.Collectors;
 import java.util.Map;
+import java.util.LinkedHashMap;
 import java.util.Objects;
 import com.learnsmart.planning.client.Clients;
 import com.learnsmart.planning.dto.ExternalDtos;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class LearningPlanServiceImpl implements LearningPlanService {
 
     private final LearningPlanRepository planRepository;
     private final PlanReplanHistoryRepository replanRepository;
-    private final CertificateRepository certificateRepository;
+    private final CertificateService certificateService;
     private final Clients.ProfileClient profileClient;
     private final Clients.ContentClient contentClient;
     private final Clients.AiClient aiClient;
     private final ReplanTriggerService triggerService;
     private final ObjectMapper objectMapper; // For JSON serialization
+    private final AiResponseCacheService aiResponseCache;
+    private final ReplanDiffService replanDiffService;
 
     // US-111: Prerequisite Validation
     private final SkillPrerequisiteClient skillPrerequisiteClient;
     private final PrerequisiteValidationService prerequisiteValidator;
 
+    private final LocalPlanBuilder localPlanBuilder;
+    private final DiagnosticTestPool diagnosticTestPool;
+    private final org.springframework.context.ApplicationEventPublisher eventPublisher;
+
+    static final String PLAN_BUILDER_AI = "ai";
+    static final String PLAN_BUILDER_LOCAL = "local";
+
+    // ai: AI only; fallback: AI, then the local builder if AI fails; local: local builder, AI enrichment after
+    @Value("${planning.plan-builder.mode:local}")
+    private String planBuilderMode;
+
+    @Value("${planning.plan-builder.ai-enrichment:true}")
+    private boolean aiEnrichment;
+
     @Override
     @Transactional
     public LearningPlan createPlan(LearningPlan plan) {
+        boolean enrichLater = false;
 
-        // Only generate AI plan if modules are empty
+        // Only generate a plan if modules are empty
         if (plan.getModules() == null || plan.getModules().isEmpty()) {
-            try {
-                // 1. Fetch Profile
-                ExternalDtos.UserProfile profile = profileClient.getProfile(plan.getUserId().toString());
-                if (profile == null)
-                    throw new RuntimeException("Profile not found for user: " + plan.getUserId());
-
-                // 2. Fetch Content Catalog
-                List<ExternalDtos.ContentItemDto> catalog = contentClient.getContentItems(100);
-
-                // 3. Prepare AI Request
-                ExternalDtos.GeneratePlanRequest aiRequest = new ExternalDtos.GeneratePlanRequest();
-                aiRequest.setUserId(profile.getUserId() != null ? profile.getUserId() : plan.getUserId());
-
-                // Convert Profile POJO to Map for AI flexibility
-                Map<String, Object> profileMap = objectMapper.convertValue(profile,
-                        new TypeReference<Map<String, Object>>() {
-                        });
-                aiRequest.setProfile(profileMap);
-
-                // Goals
-                aiRequest.setGoals(List.of(Map.of(
-                        "goalId", plan.getGoalId() != null ? plan.getGoalId() : "general-learning",
-                        "title", "Custom Plan",
-                        "domain", "backend" // Heuristic default
-                )));
-
-                // Convert Content Catalog to Map List
-                List<Map<String, Object>> catalogMap = catalog.stream()
-                        .map(item -> objectMapper.<Map<String, Object>>convertValue(item,
-                                new TypeReference<Map<String, Object>>() {
-                                }))
-                        .collect(Collectors.toList());
-                aiRequest.setContentCatalog(catalogMap);
-
-                // 4. Call AI Service
-                ExternalDtos.GeneratePlanResponse aiResponse = aiClient.generatePlan(aiRequest);
-
-                // 5. Map Response to Entities
-                if (aiResponse != null && aiResponse.getPlan() != null) {
-                    List<PlanModule> modules = new ArrayList<>();
-                    int modIdx = 1;
-
-                    for (ExternalDtos.ModuleDraft modDraft : aiResponse.getPlan().getModules()) {
-                        PlanModule module = new PlanModule();
-                        module.setPlan(plan);
-                        module.setPosition(modIdx++);
-                        module.setTitle(modDraft.getTitle());
-                        module.setDescription(modDraft.getDescription());
-                        module.setEstimatedHours(new BigDecimal("1.0")); // Default
-
-                        List<PlanActivity> activities = new ArrayList<>();
-                        int actIdx = 1;
-                        for (ExternalDtos.ActivityDraft actDraft : modDraft.getActivities()) {
-                            PlanActivity activity = new PlanActivity();
-                            activity.setModule(module);
-                            activity.setPosition(actIdx++);
-                            activity.setActivityType(actDraft.getType());
-                            String ref = actDraft.getContentRef();
-                            if (ref == null || ref.isBlank()) {
-                                ref = "manual:" + UUID.randomUUID();
-                            }
-                            activity.setContentRef(ref);
-                            activity.setEstimatedMinutes(20); // Default
-                            activities.add(activity);
-                        }
-                        module.setActivities(activities);
-                        modules.add(module);
-                    }
-                    plan.setModules(modules);
-                    plan.setRawPlanAi(objectMapper.writeValueAsString(aiResponse));
+            if (PLAN_BUILDER_LOCAL.equals(planBuilderMode)) {
+                // Local first; the AI plan is applied asynchronously once the plan is saved
+                buildLocally(plan);
+                enrichLater = aiEnrichment && hasModules(plan);
+                if (!hasModules(plan)) {
+                    generateWithAi(plan);
+                }
+            } else {
+                generateWithAi(plan);
+                if (!hasModules(plan) && !PLAN_BUILDER_AI.equals(planBuilderMode)) {
+                    buildLocally(plan);
                 }
-
-            } catch (Exception e) {
-                // Fallback or Log Error
-                System.err.println("Error generating AI Plan: " + e.getMessage());
-                e.printStackTrace();
             }
         } else {
             // If modules are provided manually, verify links
@@ -184,7 +144,165 @@ public class LearningPlanServiceImpl implements LearningPlanService {
             }
         }
 
-        return planRepository.save(plan);
+        plan.recountProgress();
+        LearningPlan saved = planRepository.save(plan);
+        if (enrichLater) {
+            eventPublisher.publishEvent(new PlanEnrichmentRequestedEvent(saved.getId()));
+        }
+        return saved;
+    }
+
+    private static boolean hasModules(LearningPlan plan) {
+        return plan.getModules() != null && !plan.getModules().isEmpty();
+    }
+
+    /**
+     * Generate modules with the AI service; leaves the plan without modules
+     * if the AI service fails
+     */
+    private void generateWithAi(LearningPlan plan) {
+        try {
+            ExternalDtos.GeneratePlanResponse aiResponse = requestAiPlan(plan);
+
+            // Map Response to Entities
+            if (aiResponse != null && aiResponse.getPlan() != null) {
+                List<PlanModule> modules = new ArrayList<>();
+                int modIdx = 1;
+
+                for (ExternalDtos.ModuleDraft modDraft : aiResponse.getPlan().getModules()) {
+                    PlanModule module = new PlanModule();
+                    module.setPlan(plan);
+                    module.setPosition(modIdx++);
+                    module.setTitle(modDraft.getTitle());
+                    module.setDescription(modDraft.getDescription());
+                    module.setEstimatedHours(new BigDecimal("1.0")); // Default
+
+                    List<PlanActivity> activities = new ArrayList<>();
+                    int actIdx = 1;
+                    for (ExternalDtos.ActivityDraft actDraft : modDraft.getActivities()) {
+                        PlanActivity activity = new PlanActivity();
+                        activity.setModule(module);
+                        activity.setPosition(actIdx++);
+                        activity.setActivityType(actDraft.getType());
+                        String ref = actDraft.getContentRef();
+                        if (ref == null || ref.isBlank()) {
+                            ref = "manual:" + UUID.randomUUID();
+                        }
+                        activity.setContentRef(ref);
+                        activity.setEstimatedMinutes(20); // Default
+                        activities.add(activity);
+                    }
+                    module.setActivities(activities);
+                    modules.add(module);
+                }
+                plan.setModules(modules);
+                plan.setRawPlanAi(objectMapper.writeValueAsString(aiResponse));
+            }
+
+        } catch (Exception e) {
+            log.warn("Error generating AI plan for goal {}", plan.getGoalId(), e);
+        }
+    }
+
+    private ExternalDtos.GeneratePlanResponse requestAiPlan(LearningPlan plan) {
+        // 1. Fetch Profile
+        ExternalDtos.UserProfile profile = profileClient.getProfile(plan.getUserId().toString());
+        if (profile == null)
+            throw new RuntimeException("Profile not found for user: " + plan.getUserId());
+
+        // 2. Fetch Content Catalog
+        List<ExternalDtos.ContentItemDto> catalog = contentClient.getContentItems(100);
+
+        // 3. Prepare AI Request
+        ExternalDtos.GeneratePlanRequest aiRequest = new ExternalDtos.GeneratePlanRequest();
+        aiRequest.setUserId(profile.getUserId() != null ? profile.getUserId() : plan.getUserId());
+
+        // Convert Profile POJO to Map for AI flexibility
+        Map<String, Object> profileMap = objectMapper.convertValue(profile,
+                new TypeReference<Map<String, Object>>() {
+                });
+        aiRequest.setProfile(profileMap);
+
+        // Goals (target skill, domain and level drive the cache key, not the per-user goal id)
+        Map<String, Object> goal = new LinkedHashMap<>();
+        goal.put("goalId", plan.getGoalId() != null ? plan.getGoalId() : "general-learning");
+        goal.put("title", "Custom Plan");
+        goal.put("domain", plan.getGoalDomainId() != null ? plan.getGoalDomainId() : "backend");
+        if (plan.getGoalSkillId() != null) {
+            goal.put("skillId", plan.getGoalSkillId());
+        }
+        if (plan.getGoalLevel() != null) {
+            goal.put("level", plan.getGoalLevel());
+        }
+        aiRequest.setGoals(List.of(goal));
+
+        // Convert Content Catalog to Map List
+        List<Map<String, Object>> catalogMap = catalog.stream()
+                .map(item -> objectMapper.<Map<String, Object>>convertValue(item,
+                        new TypeReference<Map<String, Object>>() {
+                        }))
+                .collect(Collectors.toList());
+        aiRequest.setContentCatalog(catalogMap);
+
+        // 4. Call AI Service (memoized: equivalent requests reuse a cached plan template)
+        String cacheKey = aiResponseCache.planKey(aiRequest, plan.getHoursPerWeek());
+        return aiResponseCache.getOrGenerate(cacheKey,
+                ExternalDtos.GeneratePlanResponse.class, () -> aiClient.generatePlan(aiRequest));
+    }
+
+    /**
+     * Build modules in-process from the learning path of the plan's goal target
+     * skill (sent with the create request); leaves the plan without modules if
+     * the plan has no target skill or content-service fails
+     */
+    private void buildLocally(LearningPlan plan) {
+        try {
+            if (plan.getGoalSkillId() == null || plan.getGoalSkillId().isBlank()) {
+                log.info("Local plan builder: goal {} has no target skill", plan.getGoalId());
+                return;
+            }
+            UUID goalSkill = UUID.fromString(plan.getGoalSkillId().trim());
+
+            ExternalDtos.LearningPath path = contentClient.getLearningPath(goalSkill);
+            List<PlanModule> modules = localPlanBuilder.build(plan, path);
+            if (!modules.isEmpty()) {
+                plan.setModules(modules);
+                plan.setGeneratedBy(LocalPlanBuilder.GENERATED_BY);
+            }
+        } catch (Exception e) {
+            log.warn("Error building local plan for goal {}: {}", plan.getGoalId(), e.getMessage());
+        }
+    }
+
+    @Override
+    @Transactional
+    public void enrichWithAi(UUID planId) {
+        LearningPlan plan = findById(planId);
+        ExternalDtos.GeneratePlanResponse aiResponse = requestAiPlan(plan);
+        if (aiResponse == null || aiResponse.getPlan() == null || aiResponse.getPlan().getModules() == null) {
+            return;
+        }
+
+        // Restructure only while the learner has not started; afterwards the AI plan is kept for replans
+        boolean untouched = plan.getModules().stream()
+                .flatMap(m -> m.getActivities().stream())
+                .allMatch(a -> "pending".equals(a.getStatus()));
+        if (untouched) {
+            ReplanDiffService.PlanDiff diff = replanDiffService.diff(plan, aiResponse.getPlan().getModules());
+            replanDiffService.apply(planId, diff);
+            plan = findById(planId);
+            plan.setTotalModules(diff.totalModules());
+            plan.setCompletedModules(diff.completedModules());
+            plan.setTotalActivities(diff.totalActivities());
+            plan.setCompletedActivities(diff.completedActivities());
+            plan.setGeneratedBy("ai");
+        }
+        try {
+            plan.setRawPlanAi(objectMapper.writeValueAsString(aiResponse));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize AI plan", e);
+        }
+        planRepository.save(plan);
     }
 
     @Override
@@ -193,6 +311,88 @@ public class LearningPlanServiceImpl implements LearningPlanService {
                 .orElseThrow(() -> new RuntimeException("Plan not found: " + id));
     }
 
+    @Override
+    public java.util.Optional<String> findPlanEtag(UUID id) {
+        return planRepository.findRevisionById(id)
+                .map(rev -> "\"" + rev.getVersion() + "." + rev.getRevision() + "\"");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PlanDtos.PlanDetailResponse getPlanDetail(UUID id, boolean includeReplans, boolean includeRawPlan) {
+        List<LearningPlanRepository.PlanTreeRow> rows = planRepository.findPlanTree(id);
+        if (rows.isEmpty()) {
+            throw new RuntimeException("Plan not found: " + id);
+        }
+
+        LearningPlanRepository.PlanTreeRow first = rows.get(0);
+        PlanDtos.PlanDetailResponse detail = new PlanDtos.PlanDetailResponse();
+        detail.setId(first.getPlanId());
+        detail.setUserId(first.getUserId());
+        detail.setGoalId(first.getGoalId());
+        detail.setStatus(first.getPlanStatus());
+        detail.setStartDate(first.getStartDate());
+        detail.setEndDate(first.getEndDate());
+        detail.setHoursPerWeek(first.getHoursPerWeek());
+        detail.setGeneratedBy(first.getGeneratedBy());
+        detail.setCreatedAt(first.getPlanCreatedAt());
+        detail.setUpdatedAt(first.getPlanUpdatedAt());
+
+        // Rows are ordered by module then activity position
+        Map<UUID, PlanDtos.PlanDetailModule> modules = new LinkedHashMap<>();
+        for (LearningPlanRepository.PlanTreeRow row : rows) {
+            if (row.getModuleId() == null) {
+                continue;
+            }
+            PlanDtos.PlanDetailModule module = modules.computeIfAbsent(row.getModuleId(), moduleId -> {
+                PlanDtos.PlanDetailModule m = new PlanDtos.PlanDetailModule();
+                m.setId(moduleId);
+                m.setPosition(row.getModulePosition());
+                m.setTitle(row.getModuleTitle());
+                m.setDescription(row.getModuleDescription());
+                m.setEstimatedHours(row.getModuleEstimatedHours());
+                m.setStatus(row.getModuleStatus());
+                m.setTargetSkills(row.getModuleTargetSkills());
+                return m;
+            });
+            if (row.getActivityId() != null) {
+                PlanDtos.PlanDetailActivity activity = new PlanDtos.PlanDetailActivity();
+                activity.setId(row.getActivityId());
+                activity.setPosition(row.getActivityPosition());
+                activity.setActivityType(row.getActivityType());
+                activity.setStatus(row.getActivityStatus());
+                activity.setContentRef(row.getContentRef());
+                activity.setEstimatedMinutes(row.getEstimatedMinutes());
+                activity.setOverrideEstimatedMinutes(row.getOverrideEstimatedMinutes());
+                activity.setStartedAt(row.getStartedAt());
+                activity.setCompletedAt(row.getCompletedAt());
+                activity.setActualMinutesSpent(row.getActualMinutesSpent());
+                module.getActivities().add(activity);
+            }
+        }
+        detail.setModules(new ArrayList<>(modules.values()));
+
+        if (includeRawPlan) {
+            detail.setRawPlanAi(planRepository.findRawPlanAiById(id).orElse(null));
+        }
+        if (includeReplans) {
+            detail.setReplans(replanRepository.findViewsByPlanId(id).stream()
+                    .map(history -> {
+                        PlanDtos.ReplanHistoryResponse res = new PlanDtos.ReplanHistoryResponse();
+                        res.setId(history.getId());
+                        res.setReason(history.getReason());
+                        res.setRequestPayload(history.getRequestPayload());
+                        res.setResponsePayload(history.getResponsePayload());
+                        res.setPayloadSummary(history.getPayloadSummary());
+                        res.setTriggerId(history.getTriggerId());
+                        res.setCreatedAt(history.getCreatedAt());
+                        return res;
+                    })
+                    .collect(Collectors.toList()));
+        }
+        return detail;
+    }
+
     @Override
     public Page<LearningPlan> findAll(String status, int page, int size) {
         PageRequest pr = PageRequest.of(page, size);
@@ -211,6 +411,36 @@ public class LearningPlanServiceImpl implements LearningPlanService {
         return planRepository.findByUserId(userId, pr);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<PlanDtos.PlanSummaryResponse> findSummaries(String userId, String status, int page, int size) {
+        return planRepository.findSummaries(userId, status, PageRequest.of(page, size))
+                .map(view -> {
+                    PlanDtos.PlanSummaryResponse res = new PlanDtos.PlanSummaryResponse();
+                    res.setId(view.getId());
+                    res.setUserId(view.getUserId());
+                    res.setGoalId(view.getGoalId());
+                    res.setStatus(view.getStatus());
+                    res.setStartDate(view.getStartDate());
+                    res.setEndDate(view.getEndDate());
+                    res.setHoursPerWeek(view.getHoursPerWeek());
+                    res.setGeneratedBy(view.getGeneratedBy());
+                    res.setCreatedAt(view.getCreatedAt());
+                    res.setUpdatedAt(view.getUpdatedAt());
+                    res.setTotalModules(orZero(view.getTotalModules()));
+                    res.setCompletedModules(orZero(view.getCompletedModules()));
+                    res.setTotalActivities(orZero(view.getTotalActivities()));
+                    res.setCompletedActivities(orZero(view.getCompletedActivities()));
+                    res.setProgressPercentage(res.getTotalActivities() == 0 ? 0.0
+                            : res.getCompletedActivities() * 100.0 / res.getTotalActivities());
+                    return res;
+                });
+    }
+
+    private static long orZero(Integer value) {
+        return value != null ? value : 0L;
+    }
+
     @Override
     @Transactional
     public LearningPlan updatePlan(UUID id, LearningPlan planUpdates) {
@@ -248,46 +478,22 @@ public class LearningPlanServiceImpl implements LearningPlanService {
                     .updatedSkillState(new ArrayList<>()) // Placeholder
                     .build();
 
-            // 2. Call AI Service
-            ExternalDtos.ReplanResponse response = aiClient.replan(request);
+            // 2. Call AI Service (memoized on the current plan structure)
+            ExternalDtos.ReplanResponse response = aiResponseCache.getOrGenerate(
+                    aiResponseCache.replanKey(existing), ExternalDtos.ReplanResponse.class,
+                    () -> aiClient.replan(request));
 
-            // 3. Apply Changes
+            // 3. Apply only the changes between the current plan and the draft
             if (response != null && response.getPlan() != null) {
-                // Completely replace modules with the new optimized path
-                List<PlanModule> newModules = new ArrayList<>();
-                int modIdx = 1;
-
-                for (ExternalDtos.ModuleDraft modDraft : response.getPlan().getModules()) {
-                    PlanModule module = new PlanModule();
-                    module.setPlan(existing);
-                    module.setPosition(modIdx++);
-                    module.setTitle(modDraft.getTitle());
-                    module.setDescription(modDraft.getDescription());
-                    module.setEstimatedHours(new BigDecimal("1.0")); // Default or parse from draft
-
-                    List<PlanActivity> activities = new ArrayList<>();
-                    int actIdx = 1;
-                    if (modDraft.getActivities() != null) {
-                        for (ExternalDtos.ActivityDraft actDraft : modDraft.getActivities()) {
-                            PlanActivity activity = new PlanActivity();
-                            activity.setModule(module);
-                            activity.setPosition(actIdx++);
-                            activity.setActivityType(actDraft.getType());
-                            String ref = actDraft.getContentRef();
-                            if (ref == null || ref.isBlank()) {
-                                ref = "sys:" + UUID.randomUUID().toString().substring(0, 8);
-                            }
-                            activity.setContentRef(ref);
-                            activity.setEstimatedMinutes(20);
-                            activities.add(activity);
-                        }
-                    }
-                    module.setActivities(activities);
-                    newModules.add(module);
-                }
-
-                existing.getModules().clear();
-                existing.getModules().addAll(newModules);
+                ReplanDiffService.PlanDiff diff = replanDiffService.diff(existing, response.getPlan().getModules());
+                replanDiffService.apply(id, diff);
+                log.debug("Replan diff for plan {}: {} rows changed", id, diff.changedRows());
+
+                existing = findById(id);
+                existing.setTotalModules(diff.totalModules());
+                existing.setCompletedModules(diff.completedModules());
+                existing.setTotalActivities(diff.totalActivities());
+                existing.setCompletedActivities(diff.completedActivities());
                 existing.setRawPlanAi(objectMapper.writeValueAsString(response));
             }
 
@@ -322,41 +528,16 @@ public class LearningPlanServiceImpl implements LearningPlanService {
 
     @Override
     public List<Map<String, Object>> generateDiagnosticTest(String domain, String level, int nQuestions) {
-        ExternalDtos.GenerateDiagnosticTestRequest request = ExternalDtos.GenerateDiagnosticTestRequest.builder()
-                .domainId(domain)
-                .level(level)
-                .nQuestions(nQuestions)
-                .build();
-        ExternalDtos.GenerateDiagnosticTestResponse response = aiClient.generateDiagnosticTest(request);
-        return response.getQuestions();
+        return diagnosticTestPool.take(domain, level, nQuestions);
     }
 
     @Override
     public List<Certificate> getCertificates(UUID userId) {
-        return certificateRepository.findByUserId(userId);
+        return certificateService.getCertificates(userId);
     }
 
     @Override
-    @Transactional
     public void checkCompletion(UUID planId) {
-        if (certificateRepository.existsByPlanId(planId))
-            return;
-
-        LearningPlan plan = findById(planId);
-        boolean allModulesCompleted = plan.getModules().stream()
-                .allMatch(m -> "completed".equalsIgnoreCase(m.getStatus()));
-
-        if (allModulesCompleted) {
-            Certificate cert = new Certificate();
-            cert.setUserId(UUID.fromString(plan.getUserId()));
-            cert.setPlanId(plan.getId());
-            cert.setTitle(
-                    "Certificate of Completion: " + (plan.getGoalId() != null ? plan.getGoalId() : "Learning Plan"));
-            cert.setDescription("Awarded for successfully completing the learning plan.");
-            certificateRepository.save(cert);
-
-            plan.setStatus("completed");
-            planRepository.save(plan);
-        }
+        certificateService.issueCertificates(List.of(planId));
     }
 }
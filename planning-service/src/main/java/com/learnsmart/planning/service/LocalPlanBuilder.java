@@ -0,0 +1,199 @@
+package com.learnsmart.planning.service;
+
+import com.learnsmart.planning.dto.ExternalDtos;
+import com.learnsmart.planning.model.LearningPlan;
+import com.learnsmart.planning.model.PlanActivity;
+import com.learnsmart.planning.model.PlanModule;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+/**
+ * Builds plan modules in-process from a content-service learning path,
+ * without the AI service.
+ *
+ * Skills are walked in prerequisite order (foundations first, the goal skill
+ * last); every skill's content items become the activities of its module,
+ * lessons before practice before quizzes. A skill with more content than one
+ * week of {@code hoursPerWeek} is split over several modules. The result is
+ * deterministic for a given learning path and weekly budget.
+ */
+@Service
+@RequiredArgsConstructor
+public class LocalPlanBuilder {
+
+    public static final String GENERATED_BY = "local";
+
+    static final int DEFAULT_ACTIVITY_MINUTES = 20;
+    static final BigDecimal DEFAULT_HOURS_PER_WEEK = new BigDecimal("5");
+
+    // Lessons, then practice, then quizzes; easier first
+    private static final Comparator<ExternalDtos.LearningPathItem> ACTIVITY_ORDER = Comparator
+            .comparingInt((ExternalDtos.LearningPathItem item) -> typeRank(item.getType()))
+            .thenComparing(ExternalDtos.LearningPathItem::getDifficulty,
+                    Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(ExternalDtos.LearningPathItem::getTitle, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(ExternalDtos.LearningPathItem::getId);
+
+    private final PrerequisiteValidationService prerequisiteValidator;
+
+    /**
+     * Modules for the plan, linked to it; empty if the path has no content
+     */
+    public List<PlanModule> build(LearningPlan plan, ExternalDtos.LearningPath path) {
+        if (path == null || path.getSkills() == null || path.getItems() == null || path.getItems().isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<UUID> skillOrder = orderSkills(path);
+        Map<UUID, Integer> rank = new HashMap<>(skillOrder.size() * 2);
+        for (int i = 0; i < skillOrder.size(); i++) {
+            rank.put(skillOrder.get(i), i);
+        }
+
+        // Each item is taught with the last of its skills, when all of their prerequisites are done
+        Map<UUID, List<ExternalDtos.LearningPathItem>> itemsBySkill = new HashMap<>();
+        for (ExternalDtos.LearningPathItem item : path.getItems()) {
+            UUID skill = null;
+            for (UUID candidate : item.getSkillIds() != null ? item.getSkillIds() : List.<UUID>of()) {
+                Integer candidateRank = rank.get(candidate);
+                if (candidateRank != null && (skill == null || candidateRank > rank.get(skill))) {
+                    skill = candidate;
+                }
+            }
+            if (skill != null) {
+                itemsBySkill.computeIfAbsent(skill, s -> new ArrayList<>()).add(item);
+            }
+        }
+
+        Map<UUID, ExternalDtos.LearningPathSkill> skills = new HashMap<>();
+        for (ExternalDtos.LearningPathSkill skill : path.getSkills()) {
+            skills.put(skill.getId(), skill);
+        }
+
+        int weeklyMinutes = weeklyMinutes(plan.getHoursPerWeek());
+        List<PlanModule> modules = new ArrayList<>();
+        int totalMinutes = 0;
+        for (UUID skillId : skillOrder) {
+            List<ExternalDtos.LearningPathItem> items = itemsBySkill.get(skillId);
+            if (items == null) {
+                continue;
+            }
+            items.sort(ACTIVITY_ORDER);
+
+            ExternalDtos.LearningPathSkill skill = skills.get(skillId);
+            List<List<ExternalDtos.LearningPathItem>> parts = splitByBudget(items, weeklyMinutes);
+            for (int part = 0; part < parts.size(); part++) {
+                PlanModule module = toModule(plan, skill, parts.get(part), part, parts.size(), modules.size() + 1);
+                totalMinutes += module.getActivities().stream().mapToInt(PlanActivity::getEstimatedMinutes).sum();
+                modules.add(module);
+            }
+        }
+
+        if (plan.getEndDate() == null && plan.getStartDate() != null && totalMinutes > 0) {
+            plan.setEndDate(plan.getStartDate().plusWeeks((totalMinutes + weeklyMinutes - 1) / weeklyMinutes));
+        }
+        return modules;
+    }
+
+    /**
+     * Prerequisites first. The path lists skills outward from the goal, so it
+     * is reversed to make the deepest foundations win ties; skills on a
+     * prerequisite cycle go last, in that same order.
+     */
+    private List<UUID> orderSkills(ExternalDtos.LearningPath path) {
+        List<UUID> input = new ArrayList<>(path.getSkills().size());
+        Map<UUID, List<UUID>> graph = new HashMap<>();
+        for (ExternalDtos.LearningPathSkill skill : path.getSkills()) {
+            input.add(skill.getId());
+            graph.put(skill.getId(), skill.getPrerequisiteIds() != null ? skill.getPrerequisiteIds() : List.of());
+        }
+        Collections.reverse(input);
+
+        List<UUID> order = new ArrayList<>(prerequisiteValidator.orderSkills(input, graph).order());
+        if (order.size() < input.size()) {
+            Set<UUID> placed = new HashSet<>(order);
+            input.stream().filter(id -> !placed.contains(id)).forEach(order::add);
+        }
+        return order;
+    }
+
+    private static List<List<ExternalDtos.LearningPathItem>> splitByBudget(List<ExternalDtos.LearningPathItem> items,
+            int weeklyMinutes) {
+        List<List<ExternalDtos.LearningPathItem>> parts = new ArrayList<>();
+        List<ExternalDtos.LearningPathItem> current = new ArrayList<>();
+        int minutes = 0;
+        for (ExternalDtos.LearningPathItem item : items) {
+            int itemMinutes = minutesOf(item);
+            if (!current.isEmpty() && minutes + itemMinutes > weeklyMinutes) {
+                parts.add(current);
+                current = new ArrayList<>();
+                minutes = 0;
+            }
+            current.add(item);
+            minutes += itemMinutes;
+        }
+        parts.add(current);
+        return parts;
+    }
+
+    private static PlanModule toModule(LearningPlan plan, ExternalDtos.LearningPathSkill skill,
+            List<ExternalDtos.LearningPathItem> items, int part, int parts, int position) {
+        String name = skill != null && skill.getName() != null ? skill.getName() : "Skill";
+
+        PlanModule module = new PlanModule();
+        module.setPlan(plan);
+        module.setPosition(position);
+        module.setTitle(parts > 1 ? name + " (part " + (part + 1) + ")" : name);
+        module.setDescription(skill != null && skill.getLevel() != null
+                ? name + " (" + skill.getLevel() + ")"
+                : name);
+        module.setTargetSkills(skill != null ? new ArrayList<>(List.of(skill.getId().toString())) : new ArrayList<>());
+
+        List<PlanActivity> activities = new ArrayList<>(items.size());
+        int minutes = 0;
+        for (ExternalDtos.LearningPathItem item : items) {
+            PlanActivity activity = new PlanActivity();
+            activity.setModule(module);
+            activity.setPosition(activities.size() + 1);
+            activity.setActivityType(item.getType() != null ? item.getType() : "lesson");
+            activity.setContentRef(item.getId().toString());
+            activity.setEstimatedMinutes(minutesOf(item));
+            activities.add(activity);
+            minutes += activity.getEstimatedMinutes();
+        }
+        module.setActivities(activities);
+        module.setEstimatedHours(BigDecimal.valueOf(minutes).divide(BigDecimal.valueOf(60), 2, RoundingMode.HALF_UP));
+        return module;
+    }
+
+    private static int weeklyMinutes(BigDecimal hoursPerWeek) {
+        BigDecimal hours = hoursPerWeek != null && hoursPerWeek.signum() > 0 ? hoursPerWeek : DEFAULT_HOURS_PER_WEEK;
+        return Math.max(1, hours.multiply(BigDecimal.valueOf(60)).intValue());
+    }
+
+    private static int minutesOf(ExternalDtos.LearningPathItem item) {
+        Integer minutes = item.getEstimatedMinutes();
+        return minutes != null && minutes > 0 ? minutes : DEFAULT_ACTIVITY_MINUTES;
+    }
+
+    private static int typeRank(String type) {
+        if (type == null) {
+            return 1;
+        }
+        switch (type.toLowerCase(Locale.ROOT)) {
+            case "lesson":
+            case "reading":
+            case "video":
+                return 0;
+            case "quiz":
+            case "assessment":
+                return 2;
+            default:
+                return 1;
+        }
+    }
+}
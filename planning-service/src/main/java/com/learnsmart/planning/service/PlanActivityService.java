@@ -1,5 +1,6 @@
 package com.learnsmart.planning.service;
 
+import com.learnsmart.planning.dto.PlanDtos;
 import com.learnsmart.planning.model.PlanActivity;
 import java.util.UUID;
 import java.util.List;
@@ -9,5 +10,10 @@ public interface PlanActivityService {
 
     PlanActivity updateActivityStatus(UUID planId, UUID activityId, String status, Integer overrideMinutes);
 
+    /**
+     * Apply several activity status changes of one plan in one transaction
+     */
+    List<PlanActivity> updateActivityStatuses(UUID planId, List<PlanDtos.ActivityStatusChange> changes);
+
     PlanActivity findById(UUID activityId);
 }
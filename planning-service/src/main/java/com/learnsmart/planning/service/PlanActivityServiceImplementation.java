@@ -1,22 +1,29 @@
 package com.learnsmart.planning.service;
 
+import com.learnsmart.planning.dto.PlanDtos;
+import com.learnsmart.planning.event.PlanCompletionCandidateEvent;
+import com.learnsmart.planning.event.PlanProgressChangedEvent;
 import com.learnsmart.planning.model.PlanActivity;
 import com.learnsmart.planning.model.PlanModule;
 import com.learnsmart.planning.model.LearningPlan;
+import com.learnsmart.planning.model.TrackingOutboxEvent;
 import com.learnsmart.planning.repository.PlanActivityRepository;
 import com.learnsmart.planning.repository.PlanModuleRepository;
 import com.learnsmart.planning.repository.LearningPlanRepository;
+import com.learnsmart.planning.repository.TrackingOutboxRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 import java.util.List;
-import java.util.Map;
 import java.time.OffsetDateTime;
 
 @Service
@@ -26,9 +33,12 @@ public class PlanActivityServiceImplementation implements PlanActivityService {
     private final PlanActivityRepository activityRepository;
     private final PlanModuleRepository moduleRepository;
     private final LearningPlanRepository planRepository;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final ApplicationEventPublisher eventPublisher;
+    private final TrackingOutboxRepository outboxRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
 
-    private static final String TRACKING_SERVICE_URL = "http://localhost:8765/events";
+    static final int MAX_BULK_UPDATES = 500;
 
     @Override
     public List<PlanActivity> getActivitiesByModule(UUID moduleId) {
@@ -46,7 +56,8 @@ public class PlanActivityServiceImplementation implements PlanActivityService {
         }
 
         // Validate status transition
-        validateStatusTransition(activity.getStatus(), status);
+        String previousStatus = activity.getStatus();
+        validateStatusTransition(previousStatus, status);
 
         activity.setStatus(status);
         if (overrideMinutes != null) {
@@ -54,18 +65,133 @@ public class PlanActivityServiceImplementation implements PlanActivityService {
         }
 
         PlanActivity saved = activityRepository.save(activity);
+        planRepository.bumpRevision(planId);
 
         // US-110: Emit tracking event when activity is completed
         if ("completed".equals(status)) {
             emitActivityCompletedEvent(saved);
 
-            // Check and update module/plan completion status
-            updateModuleCompletionStatus(activity.getModule());
+            // Update progress counters and module/plan completion status
+            if (!"completed".equals(previousStatus)) {
+                recordActivityCompleted(activity.getModule());
+                if (activity.getModule().getPlan().allModulesCompleted()) {
+                    eventPublisher.publishEvent(new PlanCompletionCandidateEvent(planId));
+                }
+            }
         }
 
+        // Re-evaluate replan triggers for this plan once the update commits
+        eventPublisher.publishEvent(new PlanProgressChangedEvent(planId, PlanProgressChangedEvent.SOURCE_ACTIVITY));
+
         return saved;
     }
 
+    @Override
+    @Transactional
+    public List<PlanActivity> updateActivityStatuses(UUID planId, List<PlanDtos.ActivityStatusChange> changes) {
+        if (changes == null || changes.isEmpty()) {
+            return List.of();
+        }
+        if (changes.size() > MAX_BULK_UPDATES) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_UPDATES + " activity updates per request");
+        }
+
+        // Last change per activity wins
+        Map<UUID, PlanDtos.ActivityStatusChange> byActivity = new LinkedHashMap<>();
+        for (PlanDtos.ActivityStatusChange change : changes) {
+            if (change.getActivityId() == null || change.getStatus() == null) {
+                throw new IllegalArgumentException("activityId and status are required");
+            }
+            byActivity.put(change.getActivityId(), change);
+        }
+
+        // One query for all activities with their module and plan
+        Map<UUID, PlanActivity> activities = new LinkedHashMap<>();
+        for (PlanActivity activity : activityRepository.findByPlanIdAndIdIn(planId, byActivity.keySet())) {
+            activities.put(activity.getId(), activity);
+        }
+        for (UUID activityId : byActivity.keySet()) {
+            if (!activities.containsKey(activityId)) {
+                throw new RuntimeException("Activity not found in plan: " + activityId);
+            }
+        }
+
+        // Validate everything before writing anything
+        byActivity.forEach((activityId, change) -> validateStatusTransition(
+                activities.get(activityId).getStatus(), change.getStatus()));
+
+        // Work on detached copies so the batched SQL below is the only write
+        List<PlanActivity> updated = new ArrayList<>();
+        List<Object[]> activityRows = new ArrayList<>();
+        List<PlanActivity> newlyCompleted = new ArrayList<>();
+        Map<UUID, Integer> completedPerModule = new LinkedHashMap<>();
+        for (Map.Entry<UUID, PlanDtos.ActivityStatusChange> entry : byActivity.entrySet()) {
+            PlanActivity activity = activities.get(entry.getKey());
+            PlanDtos.ActivityStatusChange change = entry.getValue();
+            String previousStatus = activity.getStatus();
+            entityManager.detach(activity);
+
+            activity.setStatus(change.getStatus());
+            if (change.getOverrideEstimatedMinutes() != null) {
+                activity.setOverrideEstimatedMinutes(change.getOverrideEstimatedMinutes());
+            }
+            activity.preUpdate(); // status timestamps, as for single updates
+
+            activityRows.add(new Object[] { activity.getStatus(), activity.getOverrideEstimatedMinutes(),
+                    activity.getStartedAt(), activity.getCompletedAt(), activity.getActualMinutesSpent(),
+                    activity.getUpdatedAt(), activity.getId(), previousStatus });
+            if ("completed".equals(change.getStatus()) && !"completed".equals(previousStatus)) {
+                newlyCompleted.add(activity);
+                completedPerModule.merge(activity.getModule().getId(), 1, Integer::sum);
+            }
+            updated.add(activity);
+        }
+
+        // Guarded on the previous status: a concurrent change fails the whole request
+        int[] counts = jdbcTemplate.batchUpdate("UPDATE plan_activities SET status = ?, "
+                + "override_estimated_minutes = ?, started_at = ?, completed_at = ?, actual_minutes_spent = ?, "
+                + "updated_at = ? WHERE id = ? AND status = ?", activityRows);
+        for (int count : counts) {
+            if (count == 0) {
+                throw new ObjectOptimisticLockingFailureException(PlanActivity.class, planId);
+            }
+        }
+
+        if (!newlyCompleted.isEmpty()) {
+            rollUpCompletions(planId, completedPerModule, newlyCompleted.size());
+            emitActivityCompletedEvents(newlyCompleted);
+            // The counters are only known to the database here; issuance re-checks them
+            eventPublisher.publishEvent(new PlanCompletionCandidateEvent(planId));
+        }
+        // Plain SQL like the rest of this path: a JPQL update would flush the detached copies' owners
+        jdbcTemplate.update("UPDATE learning_plans SET revision = revision + 1 WHERE id = ?", planId);
+
+        eventPublisher.publishEvent(new PlanProgressChangedEvent(planId, PlanProgressChangedEvent.SOURCE_ACTIVITY));
+        return updated;
+    }
+
+    /**
+     * Adds the new completions to the module and plan counters and completes
+     * modules and the plan whose counters are full, with one statement per
+     * level. Versions are bumped so concurrent single updates retry.
+     */
+    private void rollUpCompletions(UUID planId, Map<UUID, Integer> completedPerModule, int completedActivities) {
+        OffsetDateTime now = OffsetDateTime.now();
+        jdbcTemplate.batchUpdate("UPDATE plan_modules SET completed_activities = completed_activities + ?, "
+                + "status = CASE WHEN completed_activities + ? >= total_activities THEN 'completed' ELSE status END, "
+                + "version = version + 1, updated_at = ? WHERE id = ?",
+                completedPerModule.entrySet().stream()
+                        .map(e -> new Object[] { e.getValue(), e.getValue(), now, e.getKey() })
+                        .toList());
+
+        jdbcTemplate.update("UPDATE learning_plans SET completed_activities = completed_activities + ?, "
+                + "completed_modules = (SELECT COUNT(*) FROM plan_modules WHERE plan_id = ? AND status = 'completed'), "
+                + "version = version + 1, updated_at = ? WHERE id = ?",
+                completedActivities, planId, now, planId);
+        jdbcTemplate.update("UPDATE learning_plans SET status = 'completed' "
+                + "WHERE id = ? AND status <> 'completed' AND completed_modules >= total_modules", planId);
+    }
+
     @Override
     public PlanActivity findById(UUID activityId) {
         return activityRepository.findById(activityId)
@@ -84,70 +210,68 @@ public class PlanActivityServiceImplementation implements PlanActivityService {
     }
 
     /**
-     * Emits ACTIVITY_COMPLETED event to tracking-service (US-110)
+     * Queues an ACTIVITY_COMPLETE event for tracking-service (US-110). The
+     * outbox row commits or rolls back with the status change and is
+     * delivered by {@link com.learnsmart.planning.scheduler.TrackingOutboxRelay}.
      */
     private void emitActivityCompletedEvent(PlanActivity activity) {
-        try {
-            Map<String, Object> event = Map.of(
-                    "userId", activity.getModule().getPlan().getUserId(),
-                    "eventType", "ACTIVITY_COMPLETE",
-                    "entityType", "PLAN_ACTIVITY",
-                    "entityId", activity.getId().toString(),
-                    "payload", String.format(
-                            "{\"activityId\":\"%s\",\"planId\":\"%s\",\"completedAt\":\"%s\",\"actualMinutesSpent\":%d}",
-                            activity.getId(),
-                            activity.getModule().getPlan().getId(),
-                            activity.getCompletedAt() != null ? activity.getCompletedAt().toString()
-                                    : OffsetDateTime.now().toString(),
-                            activity.getActualMinutesSpent() != null ? activity.getActualMinutesSpent() : 0));
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<Map<String, Object>> request = new HttpEntity<>(event, headers);
-
-            restTemplate.postForEntity(TRACKING_SERVICE_URL, request, Void.class);
-        } catch (Exception e) {
-            // Graceful degradation: log error but don't fail the transaction
-            System.err.println("Failed to emit tracking event: " + e.getMessage());
-        }
+        outboxRepository.save(toCompletedEvent(activity));
     }
 
     /**
-     * Updates module and plan completion status if all activities/modules are
-     * completed (US-110)
+     * Queues the ACTIVITY_COMPLETE events of a bulk update with one batched
+     * insert; the relay delivers them together in one tracking call
      */
-    private void updateModuleCompletionStatus(PlanModule module) {
-        // Check if all activities in module are completed
-        List<PlanActivity> activities = activityRepository.findByModuleIdOrderByPositionAsc(module.getId());
-        boolean allActivitiesCompleted = activities.stream()
-                .allMatch(a -> "completed".equals(a.getStatus()));
+    private void emitActivityCompletedEvents(List<PlanActivity> activities) {
+        jdbcTemplate.batchUpdate("INSERT INTO tracking_outbox (plan_id, user_id, event_type, entity_type, entity_id, "
+                + "payload, occurred_at, created_at, attempts, next_attempt_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, ?)",
+                activities.stream().map(this::toCompletedEvent).map(e -> new Object[] { e.getPlanId(), e.getUserId(),
+                        e.getEventType(), e.getEntityType(), e.getEntityId(), e.getPayload(), e.getOccurredAt(),
+                        e.getOccurredAt(), e.getOccurredAt() }).toList());
+    }
 
-        if (allActivitiesCompleted && !"completed".equals(module.getStatus())) {
-            module.setStatus("completed");
-            moduleRepository.save(module);
+    private TrackingOutboxEvent toCompletedEvent(PlanActivity activity) {
+        LearningPlan plan = activity.getModule().getPlan();
+        OffsetDateTime completedAt = activity.getCompletedAt() != null ? activity.getCompletedAt()
+                : OffsetDateTime.now();
 
-            // Check if all modules in plan are completed
-            updatePlanCompletionStatus(module.getPlan());
-        }
+        TrackingOutboxEvent event = new TrackingOutboxEvent();
+        event.setPlanId(plan.getId());
+        event.setUserId(plan.getUserId());
+        event.setEventType("ACTIVITY_COMPLETE");
+        event.setEntityType("PLAN_ACTIVITY");
+        event.setEntityId(activity.getId());
+        event.setOccurredAt(completedAt);
+        event.setPayload(String.format(
+                "{\"activityId\":\"%s\",\"planId\":\"%s\",\"completedAt\":\"%s\",\"actualMinutesSpent\":%d}",
+                activity.getId(),
+                plan.getId(),
+                completedAt,
+                activity.getActualMinutesSpent() != null ? activity.getActualMinutesSpent() : 0));
+        return event;
     }
 
     /**
-     * Updates plan completion status if all modules are completed (US-110)
+     * Counts a newly completed activity on its module and plan and completes
+     * them when their counters are full (US-110). Both rows are versioned, so
+     * concurrent completions on the same plan fail with an optimistic locking
+     * error instead of losing an increment.
      */
-    private void updatePlanCompletionStatus(LearningPlan plan) {
-        List<PlanModule> modules = plan.getModules();
+    private void recordActivityCompleted(PlanModule module) {
+        LearningPlan plan = module.getPlan();
+        module.setCompletedActivities(module.getCompletedActivities() + 1);
+        plan.setCompletedActivities(plan.getCompletedActivities() + 1);
 
-        // Null-safety check
-        if (modules == null || modules.isEmpty()) {
-            return;
-        }
-
-        boolean allModulesCompleted = modules.stream()
-                .allMatch(m -> "completed".equals(m.getStatus()));
+        if (module.allActivitiesCompleted() && !"completed".equals(module.getStatus())) {
+            module.setStatus("completed");
+            plan.setCompletedModules(plan.getCompletedModules() + 1);
 
-        if (allModulesCompleted && !"completed".equals(plan.getStatus())) {
-            plan.setStatus("completed");
-            planRepository.save(plan);
+            if (plan.allModulesCompleted() && !"completed".equals(plan.getStatus())) {
+                plan.setStatus("completed");
+            }
         }
+
+        moduleRepository.save(module);
+        planRepository.save(plan);
     }
 }
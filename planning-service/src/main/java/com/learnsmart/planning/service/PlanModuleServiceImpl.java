@@ -1,8 +1,10 @@
 package com.learnsmart.planning.service;
 
+import com.learnsmart.planning.event.PlanCompletionCandidateEvent;
 import com.learnsmart.planning.model.PlanModule;
 import com.learnsmart.planning.repository.PlanModuleRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.UUID;
@@ -13,8 +15,9 @@ import java.util.List;
 public class PlanModuleServiceImpl implements PlanModuleService {
 
     private final PlanModuleRepository moduleRepository;
-    private final LearningPlanService planService;
+    private final ApplicationEventPublisher eventPublisher;
     private final com.learnsmart.planning.repository.PlanActivityRepository activityRepository;
+    private final com.learnsmart.planning.repository.LearningPlanRepository planRepository;
 
     @Override
     public List<PlanModule> getModulesByPlan(UUID planId) {
@@ -28,11 +31,20 @@ public class PlanModuleServiceImpl implements PlanModuleService {
         if (!module.getPlan().getId().equals(planId)) {
             throw new RuntimeException("Module does not belong to plan");
         }
+        boolean wasCompleted = "completed".equals(module.getStatus());
+        boolean isCompleted = "completed".equals(status);
+        if (wasCompleted != isCompleted) {
+            com.learnsmart.planning.model.LearningPlan plan = module.getPlan();
+            plan.setCompletedModules(plan.getCompletedModules() + (isCompleted ? 1 : -1));
+        }
         module.setStatus(status);
         PlanModule saved = moduleRepository.save(module);
+        planRepository.bumpRevision(planId);
 
-        // Trigger completion check
-        planService.checkCompletion(planId);
+        // Certificate issuance runs after commit, batched with other plans
+        if (isCompleted && module.getPlan().allModulesCompleted()) {
+            eventPublisher.publishEvent(new PlanCompletionCandidateEvent(planId));
+        }
 
         return saved;
     }
@@ -54,6 +66,11 @@ public class PlanModuleServiceImpl implements PlanModuleService {
         activity.setEstimatedMinutes(request.getEstimatedMinutes());
         activity.setStatus("pending");
 
+        module.setTotalActivities(module.getTotalActivities() + 1);
+        module.getPlan().setTotalActivities(module.getPlan().getTotalActivities() + 1);
+        moduleRepository.save(module);
+        planRepository.bumpRevision(planId);
+
         return activityRepository.save(activity);
     }
 
@@ -17,8 +17,15 @@ import java.util.*;
 @Slf4j
 public class PrerequisiteValidationService {
 
+    /**
+     * Skills in prerequisite order, and every prerequisite cycle among them
+     */
+    public record SkillOrder(List<UUID> order, List<List<UUID>> cycles) {
+    }
+
     /**
      * Validates that all prerequisites appear before dependent skills in the plan.
+     * A prerequisite taught in the same module counts as satisfied.
      *
      * @param plan       the learning plan to validate
      * @param skillGraph map of skill ID to list of prerequisite IDs
@@ -35,40 +42,39 @@ public class PrerequisiteValidationService {
             return violations;
         }
 
-        // Build skill → module index map
-        Map<UUID, Integer> skillToModuleIndex = buildSkillToModuleMap(plan);
-        log.info("US-111: Validating plan for skills: {}", skillToModuleIndex.keySet());
-
-        // Validate each skill's prerequisites
-        for (Map.Entry<UUID, Integer> entry : skillToModuleIndex.entrySet()) {
-            UUID skillId = entry.getKey();
-            int moduleIndex = entry.getValue();
-
-            List<UUID> prerequisites = skillGraph.getOrDefault(skillId, Collections.emptyList());
-            log.info("US-111: Skill {} (module {}) has prerequisites: {}", skillId, moduleIndex, prerequisites);
-
-            for (UUID prerequisiteId : prerequisites) {
-                Integer prerequisiteIndex = skillToModuleIndex.get(prerequisiteId);
-
-                // Check if prerequisite appears after the skill (violation)
-                if (prerequisiteIndex != null && prerequisiteIndex >= moduleIndex) {
-                    PrerequisiteDtos.PrerequisiteViolation violation = PrerequisiteDtos.PrerequisiteViolation.builder()
-                            .skillId(skillId.toString())
-                            .skillName("Skill-" + skillId) // Could be enriched with actual name
-                            .moduleIndex(moduleIndex)
-                            .prerequisiteSkillId(prerequisiteId.toString())
-                            .prerequisiteSkillName("Skill-" + prerequisiteId)
-                            .prerequisiteModuleIndex(prerequisiteIndex)
-                            .message(String.format(
-                                    "Skill %s in module %d requires prerequisite %s which appears in module %d",
-                                    skillId, moduleIndex, prerequisiteId, prerequisiteIndex))
-                            .build();
-
-                    violations.add(violation);
-                    log.warn("Prerequisite violation: {}", violation.getMessage());
+        // First module teaching each skill
+        Map<UUID, Integer> skillToModuleIndex = buildSkillToModuleMap(plan.getModules());
+        log.info("US-111: Validating plan with {} skills", skillToModuleIndex.size());
+
+        List<PlanModule> modules = plan.getModules();
+        for (int moduleIndex = 0; moduleIndex < modules.size(); moduleIndex++) {
+            for (UUID skillId : extractSkillIds(modules.get(moduleIndex))) {
+                List<UUID> prerequisites = skillGraph.getOrDefault(skillId, Collections.emptyList());
+
+                for (UUID prerequisiteId : prerequisites) {
+                    Integer prerequisiteIndex = skillToModuleIndex.get(prerequisiteId);
+
+                    // Check if prerequisite appears after the skill (violation)
+                    if (prerequisiteIndex != null && prerequisiteIndex > moduleIndex) {
+                        PrerequisiteDtos.PrerequisiteViolation violation = PrerequisiteDtos.PrerequisiteViolation
+                                .builder()
+                                .skillId(skillId.toString())
+                                .skillName("Skill-" + skillId) // Could be enriched with actual name
+                                .moduleIndex(moduleIndex)
+                                .prerequisiteSkillId(prerequisiteId.toString())
+                                .prerequisiteSkillName("Skill-" + prerequisiteId)
+                                .prerequisiteModuleIndex(prerequisiteIndex)
+                                .message(String.format(
+                                        "Skill %s in module %d requires prerequisite %s which appears in module %d",
+                                        skillId, moduleIndex, prerequisiteId, prerequisiteIndex))
+                                .build();
+
+                        violations.add(violation);
+                        log.warn("Prerequisite violation: {}", violation.getMessage());
+                    }
+                    // Note: Missing prerequisites (not in plan) are not violations
+                    // User may already know them
                 }
-                // Note: Missing prerequisites (not in plan) are not violations
-                // User may already know them
             }
         }
 
@@ -78,12 +84,14 @@ public class PrerequisiteValidationService {
 
     /**
      * Attempts to re-order modules to satisfy prerequisite constraints.
-     * Uses topological sort to determine valid ordering.
+     * A module must follow every module that first teaches one of its
+     * skills' prerequisites; otherwise modules keep their current order.
      *
      * @param plan       the learning plan to reorder
      * @param skillGraph map of skill ID to list of prerequisite IDs
      * @return reordered plan
-     * @throws IllegalStateException if cyclic dependencies detected or reordering
+     * @throws IllegalStateException if cyclic dependencies detected (all
+     *                               cycles are listed) or reordering
      *                               impossible
      */
     public LearningPlan reorderForPrerequisites(
@@ -94,36 +102,42 @@ public class PrerequisiteValidationService {
             return plan;
         }
 
-        // Extract all skills from plan
-        List<UUID> skillsInPlan = extractSkillIds(plan);
+        List<PlanModule> modules = plan.getModules();
+        Map<UUID, Integer> skillToModuleIndex = buildSkillToModuleMap(modules);
 
-        // Filter skill graph to only include skills in the plan
-        Map<UUID, List<UUID>> filteredGraph = new HashMap<>();
-        for (UUID skillId : skillsInPlan) {
-            List<UUID> prerequisites = skillGraph.getOrDefault(skillId, Collections.emptyList())
-                    .stream()
-                    .filter(skillsInPlan::contains) // Only prerequisites that are in the plan
-                    .toList();
-            filteredGraph.put(skillId, prerequisites);
+        // Skill-level cycles make any ordering impossible
+        SkillOrder skillOrder = orderSkills(skillToModuleIndex.keySet(), skillGraph);
+        if (!skillOrder.cycles().isEmpty()) {
+            throw new IllegalStateException("Cyclic prerequisites among skills: " + skillOrder.cycles());
         }
 
-        // Topological sort
-        List<UUID> sortedSkills = topologicalSort(filteredGraph);
+        // Module graph: the module first teaching a prerequisite precedes the dependent module
+        EdgeList edges = new EdgeList();
+        for (int moduleIndex = 0; moduleIndex < modules.size(); moduleIndex++) {
+            for (UUID skillId : extractSkillIds(modules.get(moduleIndex))) {
+                for (UUID prerequisiteId : skillGraph.getOrDefault(skillId, Collections.emptyList())) {
+                    Integer prerequisiteModule = skillToModuleIndex.get(prerequisiteId);
+                    if (prerequisiteModule != null && prerequisiteModule != moduleIndex) {
+                        edges.add(prerequisiteModule, moduleIndex);
+                    }
+                }
+            }
+        }
 
-        // Build skill → sorted index map
-        Map<UUID, Integer> skillToSortedIndex = new HashMap<>();
-        for (int i = 0; i < sortedSkills.size(); i++) {
-            skillToSortedIndex.put(sortedSkills.get(i), i);
+        TopologicalSorter.Result result = TopologicalSorter.sort(modules.size(), edges.before, edges.after,
+                edges.size);
+        if (!result.isAcyclic()) {
+            // Possible without skill cycles when modules bundle skills from both sides of a dependency
+            List<List<String>> moduleCycles = result.cycles().stream()
+                    .map(cycle -> Arrays.stream(cycle).mapToObj(i -> modules.get(i).getTitle()).toList())
+                    .toList();
+            throw new IllegalStateException("Modules cannot be ordered, cyclic module dependencies: " + moduleCycles);
         }
 
-        // Reorder modules based on topological sort
-        List<PlanModule> reorderedModules = new ArrayList<>(plan.getModules());
-        reorderedModules.sort((m1, m2) -> {
-            // Get the earliest skill index for each module
-            int m1MinIndex = getMinSkillIndex(m1, skillToSortedIndex);
-            int m2MinIndex = getMinSkillIndex(m2, skillToSortedIndex);
-            return Integer.compare(m1MinIndex, m2MinIndex);
-        });
+        List<PlanModule> reorderedModules = new ArrayList<>(modules.size());
+        for (int moduleIndex : result.order()) {
+            reorderedModules.add(modules.get(moduleIndex));
+        }
 
         // Update module positions
         for (int i = 0; i < reorderedModules.size(); i++) {
@@ -137,118 +151,91 @@ public class PrerequisiteValidationService {
     }
 
     /**
-     * Builds a map of skill ID to module index (0-based).
+     * Orders skills so that prerequisites come first, keeping the given order
+     * where the graph allows it. Prerequisites outside {@code skills} are
+     * ignored. Instead of failing on the first cycle, all cycles are
+     * returned.
+     *
+     * @param skills     skills to order
+     * @param skillGraph map of skill ID to list of prerequisite IDs
      */
-    private Map<UUID, Integer> buildSkillToModuleMap(LearningPlan plan) {
-        Map<UUID, Integer> skillToModule = new HashMap<>();
+    public SkillOrder orderSkills(Collection<UUID> skills, Map<UUID, List<UUID>> skillGraph) {
+        UUID[] ids = skills.toArray(new UUID[0]);
+        Map<UUID, Integer> indexOf = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            indexOf.putIfAbsent(ids[i], i);
+        }
 
-        List<PlanModule> modules = plan.getModules();
-        for (int i = 0; i < modules.size(); i++) {
-            PlanModule module = modules.get(i);
-
-            // Extract skill IDs from module (simplified - assumes module title contains
-            // skill reference)
-            // In a real implementation, you'd extract from activities or module metadata
-            UUID skillId = extractSkillIdFromModule(module);
-            if (skillId != null) {
-                skillToModule.put(skillId, i);
+        EdgeList edges = new EdgeList();
+        for (int i = 0; i < ids.length; i++) {
+            for (UUID prerequisiteId : skillGraph.getOrDefault(ids[i], Collections.emptyList())) {
+                Integer prerequisite = indexOf.get(prerequisiteId);
+                if (prerequisite != null) {
+                    edges.add(prerequisite, i);
+                }
             }
         }
 
-        return skillToModule;
+        TopologicalSorter.Result result = TopologicalSorter.sort(ids.length, edges.before, edges.after, edges.size);
+        List<UUID> order = new ArrayList<>(result.order().length);
+        for (int i : result.order()) {
+            order.add(ids[i]);
+        }
+        List<List<UUID>> cycles = new ArrayList<>(result.cycles().size());
+        for (int[] cycle : result.cycles()) {
+            cycles.add(Arrays.stream(cycle).mapToObj(i -> ids[i]).toList());
+        }
+        return new SkillOrder(order, cycles);
     }
 
     /**
-     * Extracts all skill IDs from the plan.
+     * Builds a map of skill ID to the first module (0-based) teaching it.
      */
-    private List<UUID> extractSkillIds(LearningPlan plan) {
-        return plan.getModules().stream()
-                .map(this::extractSkillIdFromModule)
-                .filter(Objects::nonNull)
-                .distinct()
-                .toList();
+    private Map<UUID, Integer> buildSkillToModuleMap(List<PlanModule> modules) {
+        Map<UUID, Integer> skillToModule = new LinkedHashMap<>();
+        for (int i = 0; i < modules.size(); i++) {
+            for (UUID skillId : extractSkillIds(modules.get(i))) {
+                skillToModule.putIfAbsent(skillId, i);
+            }
+        }
+        return skillToModule;
     }
 
     /**
-     * Extracts skill ID from module.
-     * Uses the targetSkills field which contains skill codes/IDs.
+     * Extracts the skill IDs of a module from its targetSkills; references
+     * that are not UUIDs are skipped.
      */
-    private UUID extractSkillIdFromModule(PlanModule module) {
-        if (module.getTargetSkills() != null && !module.getTargetSkills().isEmpty()) {
-            // Get first target skill
-            String skillRef = module.getTargetSkills().get(0);
-
-            // Try to parse as UUID
+    private List<UUID> extractSkillIds(PlanModule module) {
+        if (module.getTargetSkills() == null || module.getTargetSkills().isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<UUID> skillIds = new ArrayList<>(module.getTargetSkills().size());
+        for (String skillRef : module.getTargetSkills()) {
             try {
-                return UUID.fromString(skillRef);
+                skillIds.add(UUID.fromString(skillRef));
             } catch (IllegalArgumentException e) {
                 log.debug("Skill reference '{}' is not a UUID, skipping", skillRef);
-                return null;
             }
         }
-        return null;
-    }
-
-    /**
-     * Gets the minimum skill index for a module (earliest prerequisite).
-     */
-    private int getMinSkillIndex(PlanModule module, Map<UUID, Integer> skillToSortedIndex) {
-        UUID skillId = extractSkillIdFromModule(module);
-        if (skillId != null && skillToSortedIndex.containsKey(skillId)) {
-            return skillToSortedIndex.get(skillId);
-        }
-        return Integer.MAX_VALUE; // No skill found, put at end
+        return skillIds;
     }
 
     /**
-     * Performs topological sort on skill graph.
-     *
-     * @param graph map of skill ID to prerequisite IDs
-     * @return list of skills in topological order
-     * @throws IllegalStateException if cyclic dependency detected
+     * Growable pair of int arrays holding graph edges
      */
-    private List<UUID> topologicalSort(Map<UUID, List<UUID>> graph) {
-        List<UUID> sorted = new ArrayList<>();
-        Set<UUID> visited = new HashSet<>();
-        Set<UUID> visiting = new HashSet<>();
-
-        for (UUID skill : graph.keySet()) {
-            if (!visited.contains(skill)) {
-                topologicalSortDFS(skill, graph, visited, visiting, sorted);
+    private static final class EdgeList {
+        int[] before = new int[16];
+        int[] after = new int[16];
+        int size;
+
+        void add(int from, int to) {
+            if (size == before.length) {
+                before = Arrays.copyOf(before, size * 2);
+                after = Arrays.copyOf(after, size * 2);
             }
+            before[size] = from;
+            after[size] = to;
+            size++;
         }
-
-        // Result is already in topological order (B before A if A -> B)
-        return sorted;
-    }
-
-    /**
-     * DFS helper for topological sort.
-     */
-    private void topologicalSortDFS(
-            UUID skill,
-            Map<UUID, List<UUID>> graph,
-            Set<UUID> visited,
-            Set<UUID> visiting,
-            List<UUID> sorted) {
-
-        if (visiting.contains(skill)) {
-            throw new IllegalStateException("Cyclic dependency detected involving skill: " + skill);
-        }
-
-        if (visited.contains(skill)) {
-            return;
-        }
-
-        visiting.add(skill);
-
-        List<UUID> prerequisites = graph.getOrDefault(skill, Collections.emptyList());
-        for (UUID prerequisite : prerequisites) {
-            topologicalSortDFS(prerequisite, graph, visited, visiting, sorted);
-        }
-
-        visiting.remove(skill);
-        visited.add(skill);
-        sorted.add(skill);
     }
 }
@@ -0,0 +1,336 @@
+package com.learnsmart.planning.service;
+
+import com.learnsmart.planning.dto.ExternalDtos;
+import com.learnsmart.planning.model.LearningPlan;
+import com.learnsmart.planning.model.PlanActivity;
+import com.learnsmart.planning.model.PlanModule;
+import com.learnsmart.planning.model.UuidV7Generator;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.*;
+
+/**
+ * Applies an AI replan draft to an existing plan as a diff.
+ *
+ * Draft modules are matched to existing modules by title and draft
+ * activities to existing activities by contentRef (also across modules), so
+ * matched rows keep their IDs, status and timestamps. Only the inserts,
+ * updates, moves and deletes needed to reach the draft are executed, each
+ * kind as one JDBC batch. Completed activities are never deleted: if the
+ * draft drops them they stay at the end of their module, and a dropped
+ * module that still holds completed activities is kept after the draft
+ * modules.
+ *
+ * Changed positions are first written negated and flipped back by one
+ * statement per table, so reorders never collide on the (plan_id, position)
+ * and (module_id, position) unique constraints.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReplanDiffService {
+
+    private static final String STATUS_COMPLETED = "completed";
+    private static final String STATUS_IN_PROGRESS = "in_progress";
+    private static final String STATUS_PENDING = "pending";
+
+    private static final BigDecimal DEFAULT_MODULE_HOURS = new BigDecimal("1.0");
+    private static final int DEFAULT_ACTIVITY_MINUTES = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    public record ModuleRow(UUID id, int position, String title, String description, String status,
+            int totalActivities, int completedActivities) {
+    }
+
+    public record ActivityRow(UUID id, UUID moduleId, int position, String activityType, String contentRef) {
+    }
+
+    /**
+     * Statements needed to turn the current plan into the draft, plus the
+     * plan-level counters of the result
+     */
+    public record PlanDiff(
+            List<ModuleRow> moduleInserts,
+            List<ModuleRow> moduleUpdates,
+            List<UUID> moduleDeletes,
+            List<ActivityRow> activityInserts,
+            List<ActivityRow> activityUpdates,
+            List<UUID> activityDeletes,
+            int totalModules,
+            int completedModules,
+            int totalActivities,
+            int completedActivities) {
+
+        public boolean isEmpty() {
+            return moduleInserts.isEmpty() && moduleUpdates.isEmpty() && moduleDeletes.isEmpty()
+                    && activityInserts.isEmpty() && activityUpdates.isEmpty() && activityDeletes.isEmpty();
+        }
+
+        public int changedRows() {
+            return moduleInserts.size() + moduleUpdates.size() + moduleDeletes.size()
+                    + activityInserts.size() + activityUpdates.size() + activityDeletes.size();
+        }
+    }
+
+    // Target state of one module while the diff is built
+    private static final class TargetModule {
+        final PlanModule existing;
+        final UUID id;
+        String title;
+        String description;
+        final List<PlanActivity> matched = new ArrayList<>(); // null entries are new activities
+        final List<ExternalDtos.ActivityDraft> drafts = new ArrayList<>();
+
+        TargetModule(PlanModule existing, String title, String description) {
+            this.existing = existing;
+            this.id = existing != null ? existing.getId() : UuidV7Generator.next();
+            this.title = title;
+            this.description = description;
+        }
+    }
+
+    /**
+     * Compute the diff between the loaded plan (modules and activities) and
+     * the draft modules. Does not touch the database.
+     */
+    public PlanDiff diff(LearningPlan plan, List<ExternalDtos.ModuleDraft> draftModules) {
+        List<PlanModule> currentModules = new ArrayList<>(plan.getModules() != null ? plan.getModules() : List.of());
+        currentModules.sort(Comparator.comparing(PlanModule::getPosition));
+
+        Map<String, Deque<PlanModule>> modulesByTitle = new HashMap<>();
+        Map<String, Deque<PlanActivity>> activitiesByRef = new HashMap<>();
+        for (PlanModule module : currentModules) {
+            modulesByTitle.computeIfAbsent(normalize(module.getTitle()), k -> new ArrayDeque<>()).add(module);
+            for (PlanActivity activity : sortedActivities(module)) {
+                activitiesByRef.computeIfAbsent(activity.getContentRef(), k -> new ArrayDeque<>()).add(activity);
+            }
+        }
+
+        // 1. Match draft modules and activities
+        List<TargetModule> targets = new ArrayList<>();
+        Set<UUID> claimedModules = new HashSet<>();
+        Set<UUID> claimedActivities = new HashSet<>();
+        for (ExternalDtos.ModuleDraft draft : draftModules != null ? draftModules : List.<ExternalDtos.ModuleDraft>of()) {
+            Deque<PlanModule> candidates = modulesByTitle.get(normalize(draft.getTitle()));
+            PlanModule match = candidates != null ? candidates.poll() : null;
+            TargetModule target = new TargetModule(match, draft.getTitle(),
+                    draft.getDescription() != null || match == null ? draft.getDescription() : match.getDescription());
+            if (match != null) {
+                claimedModules.add(match.getId());
+            }
+
+            if (draft.getActivities() != null) {
+                for (ExternalDtos.ActivityDraft activityDraft : draft.getActivities()) {
+                    String ref = activityDraft.getContentRef();
+                    Deque<PlanActivity> refCandidates = ref != null && !ref.isBlank() ? activitiesByRef.get(ref) : null;
+                    PlanActivity matchedActivity = refCandidates != null ? refCandidates.poll() : null;
+                    if (matchedActivity != null) {
+                        claimedActivities.add(matchedActivity.getId());
+                    }
+                    target.matched.add(matchedActivity);
+                    target.drafts.add(activityDraft);
+                }
+            }
+            targets.add(target);
+        }
+
+        // 2. Keep completed activities the draft dropped; delete the other leftovers
+        List<UUID> activityDeletes = new ArrayList<>();
+        Map<UUID, TargetModule> targetsById = new HashMap<>();
+        targets.forEach(t -> targetsById.put(t.id, t));
+        for (PlanModule module : currentModules) {
+            List<PlanActivity> keptCompleted = new ArrayList<>();
+            for (PlanActivity activity : sortedActivities(module)) {
+                if (claimedActivities.contains(activity.getId())) {
+                    continue;
+                }
+                if (STATUS_COMPLETED.equals(activity.getStatus())) {
+                    keptCompleted.add(activity);
+                } else {
+                    activityDeletes.add(activity.getId());
+                }
+            }
+            if (keptCompleted.isEmpty()) {
+                continue;
+            }
+            TargetModule target = targetsById.get(module.getId());
+            if (target == null) {
+                target = new TargetModule(module, module.getTitle(), module.getDescription());
+                targets.add(target);
+                targetsById.put(module.getId(), target);
+                claimedModules.add(module.getId());
+            }
+            for (PlanActivity activity : keptCompleted) {
+                target.matched.add(activity);
+                target.drafts.add(null);
+            }
+        }
+
+        List<UUID> moduleDeletes = currentModules.stream()
+                .map(PlanModule::getId)
+                .filter(moduleId -> !claimedModules.contains(moduleId))
+                .toList();
+
+        // 3. Emit rows whose target differs from the current state
+        List<ModuleRow> moduleInserts = new ArrayList<>();
+        List<ModuleRow> moduleUpdates = new ArrayList<>();
+        List<ActivityRow> activityInserts = new ArrayList<>();
+        List<ActivityRow> activityUpdates = new ArrayList<>();
+        int completedModules = 0;
+        int totalActivities = 0;
+        int completedActivities = 0;
+
+        for (int m = 0; m < targets.size(); m++) {
+            TargetModule target = targets.get(m);
+            int modulePosition = m + 1;
+            int completed = 0;
+
+            for (int a = 0; a < target.matched.size(); a++) {
+                PlanActivity activity = target.matched.get(a);
+                ExternalDtos.ActivityDraft draft = target.drafts.get(a);
+                int position = a + 1;
+                if (activity == null) {
+                    String ref = draft.getContentRef();
+                    if (ref == null || ref.isBlank()) {
+                        ref = "sys:" + UUID.randomUUID().toString().substring(0, 8);
+                    }
+                    activityInserts.add(new ActivityRow(UuidV7Generator.next(), target.id, position, draft.getType(), ref));
+                    continue;
+                }
+
+                if (STATUS_COMPLETED.equals(activity.getStatus())) {
+                    completed++;
+                }
+                String type = draft != null && draft.getType() != null ? draft.getType() : activity.getActivityType();
+                if (!target.id.equals(activity.getModule().getId()) || position != activity.getPosition()
+                        || !Objects.equals(type, activity.getActivityType())) {
+                    activityUpdates.add(new ActivityRow(activity.getId(), target.id, position, type,
+                            activity.getContentRef()));
+                }
+            }
+
+            int total = target.matched.size();
+            String status = moduleStatus(target.existing, total, completed);
+            ModuleRow row = new ModuleRow(target.id, modulePosition, target.title, target.description, status,
+                    total, completed);
+            if (target.existing == null) {
+                moduleInserts.add(row);
+            } else if (moduleChanged(target.existing, row)) {
+                moduleUpdates.add(row);
+            }
+
+            totalActivities += total;
+            completedActivities += completed;
+            if (STATUS_COMPLETED.equals(status)) {
+                completedModules++;
+            }
+        }
+
+        return new PlanDiff(moduleInserts, moduleUpdates, moduleDeletes, activityInserts, activityUpdates,
+                activityDeletes, targets.size(), completedModules, totalActivities, completedActivities);
+    }
+
+    /**
+     * Execute a diff with batched statements. Pending JPA changes are flushed
+     * first and the persistence context is cleared afterwards, so callers
+     * must reload the plan.
+     */
+    @Transactional
+    public void apply(UUID planId, PlanDiff diff) {
+        entityManager.flush();
+        OffsetDateTime now = OffsetDateTime.now();
+
+        if (!diff.activityDeletes().isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM plan_activities WHERE id = ?",
+                    diff.activityDeletes().stream().map(id -> new Object[] { id }).toList());
+        }
+        if (!diff.moduleUpdates().isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE plan_modules SET position = ?, title = ?, description = ?, status = ?, "
+                    + "total_activities = ?, completed_activities = ?, version = version + 1, updated_at = ? "
+                    + "WHERE id = ?",
+                    diff.moduleUpdates().stream().map(m -> new Object[] { -m.position(), m.title(), m.description(),
+                            m.status(), m.totalActivities(), m.completedActivities(), now, m.id() }).toList());
+        }
+        if (!diff.moduleInserts().isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO plan_modules (id, plan_id, position, title, description, "
+                    + "estimated_hours, status, total_activities, completed_activities, version, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?)",
+                    diff.moduleInserts().stream().map(m -> new Object[] { m.id(), planId, -m.position(), m.title(),
+                            m.description(), DEFAULT_MODULE_HOURS, m.status(), m.totalActivities(),
+                            m.completedActivities(), now, now }).toList());
+        }
+        if (!diff.activityUpdates().isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE plan_activities SET module_id = ?, position = ?, activity_type = ?, "
+                    + "updated_at = ? WHERE id = ?",
+                    diff.activityUpdates().stream().map(a -> new Object[] { a.moduleId(), -a.position(),
+                            a.activityType(), now, a.id() }).toList());
+        }
+        if (!diff.activityInserts().isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO plan_activities (id, module_id, position, activity_type, status, "
+                    + "content_ref, estimated_minutes, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    diff.activityInserts().stream().map(a -> new Object[] { a.id(), a.moduleId(), -a.position(),
+                            a.activityType(), STATUS_PENDING, a.contentRef(), DEFAULT_ACTIVITY_MINUTES, now, now })
+                            .toList());
+        }
+        if (!diff.moduleDeletes().isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM plan_modules WHERE id = ?",
+                    diff.moduleDeletes().stream().map(id -> new Object[] { id }).toList());
+        }
+
+        // Flip the negated positions back
+        if (!diff.moduleUpdates().isEmpty() || !diff.moduleInserts().isEmpty()) {
+            jdbcTemplate.update("UPDATE plan_modules SET position = -position WHERE plan_id = ? AND position < 0",
+                    planId);
+        }
+        if (!diff.activityUpdates().isEmpty() || !diff.activityInserts().isEmpty()) {
+            jdbcTemplate.update("UPDATE plan_activities SET position = -position WHERE position < 0 "
+                    + "AND module_id IN (SELECT id FROM plan_modules WHERE plan_id = ?)", planId);
+        }
+        jdbcTemplate.update("UPDATE learning_plans SET revision = revision + 1 WHERE id = ?", planId);
+
+        entityManager.clear();
+    }
+
+    private static String moduleStatus(PlanModule existing, int total, int completed) {
+        if (total > 0 && completed >= total) {
+            return STATUS_COMPLETED;
+        }
+        if (existing == null) {
+            return STATUS_PENDING;
+        }
+        // A completed module that received new activities is open again
+        if (STATUS_COMPLETED.equals(existing.getStatus())) {
+            return completed > 0 ? STATUS_IN_PROGRESS : STATUS_PENDING;
+        }
+        return existing.getStatus();
+    }
+
+    private static boolean moduleChanged(PlanModule existing, ModuleRow row) {
+        return existing.getPosition() != row.position()
+                || !Objects.equals(existing.getTitle(), row.title())
+                || !Objects.equals(existing.getDescription(), row.description())
+                || !Objects.equals(existing.getStatus(), row.status())
+                || existing.getTotalActivities() != row.totalActivities()
+                || existing.getCompletedActivities() != row.completedActivities();
+    }
+
+    private static List<PlanActivity> sortedActivities(PlanModule module) {
+        if (module.getActivities() == null) {
+            return List.of();
+        }
+        List<PlanActivity> activities = new ArrayList<>(module.getActivities());
+        activities.sort(Comparator.comparing(PlanActivity::getPosition));
+        return activities;
+    }
+
+    private static String normalize(String title) {
+        return title == null ? "" : title.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,122 @@
+package com.learnsmart.planning.service;
+
+import com.learnsmart.planning.event.PlanProgressChangedEvent;
+import com.learnsmart.planning.repository.LearningPlanRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process queue for incremental replan trigger evaluation.
+ *
+ * Plans are enqueued when their progress inputs change and evaluated in
+ * batches once they have been quiet for the debounce window (or have waited
+ * for the maximum delay), so a burst of activity updates on one plan costs a
+ * single evaluation. The nightly job remains as a safety net for plans that
+ * produce no events at all.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReplanEvaluationQueue {
+
+    private final ReplanTriggerService triggerService;
+    private final LearningPlanRepository planRepository;
+
+    private final Map<UUID, Pending> pending = new ConcurrentHashMap<>();
+
+    @Value("${planning.replan-events.debounce-seconds:60}")
+    private long debounceSeconds;
+
+    @Value("${planning.replan-events.max-delay-seconds:600}")
+    private long maxDelaySeconds;
+
+    @Value("${planning.replan-events.batch-size:100}")
+    private int batchSize;
+
+    private record Pending(long firstSignalAt, long dueAt) {
+    }
+
+    /**
+     * Called after the publishing transaction commits, so evaluation sees the
+     * new state
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPlanProgressChanged(PlanProgressChangedEvent event) {
+        enqueue(event.planId());
+    }
+
+    /**
+     * Enqueue (or re-arm the debounce of) a plan
+     */
+    public void enqueue(UUID planId) {
+        if (planId == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long debounce = TimeUnit.SECONDS.toNanos(debounceSeconds);
+        long maxDelay = TimeUnit.SECONDS.toNanos(maxDelaySeconds);
+        pending.merge(planId, new Pending(now, now + debounce),
+                (current, next) -> new Pending(current.firstSignalAt(),
+                        Math.min(now + debounce, current.firstSignalAt() + maxDelay)));
+    }
+
+    /**
+     * Enqueue every active plan of a user (signals that are not plan-specific)
+     */
+    public int enqueueUser(String userId) {
+        List<UUID> planIds = planRepository.findIdsByUserIdAndStatus(userId, "active");
+        planIds.forEach(this::enqueue);
+        return planIds.size();
+    }
+
+    /**
+     * Enqueue one plan if it belongs to the user; returns false otherwise
+     */
+    public boolean enqueueUserPlan(String userId, UUID planId) {
+        if (!planRepository.existsByIdAndUserId(planId, userId)) {
+            return false;
+        }
+        enqueue(planId);
+        return true;
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Evaluate plans whose debounce window has elapsed
+     */
+    @Scheduled(fixedDelayString = "${planning.replan-events.drain-interval-ms:5000}")
+    public void drain() {
+        long now = System.nanoTime();
+        List<UUID> due = new ArrayList<>();
+        for (Map.Entry<UUID, Pending> entry : pending.entrySet()) {
+            // remove(key, value) fails if the plan was re-signalled meanwhile; it then stays queued
+            if (entry.getValue().dueAt() - now <= 0 && pending.remove(entry.getKey(), entry.getValue())) {
+                due.add(entry.getKey());
+            }
+        }
+
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<UUID> batch = due.subList(from, Math.min(due.size(), from + batchSize));
+            try {
+                ReplanTriggerService.BatchEvaluation result = triggerService.evaluateBatch(batch);
+                log.debug("Incremental replan evaluation: plans={}, triggers={}", result.plans(), result.triggers());
+            } catch (Exception e) {
+                log.error("Incremental replan evaluation failed for {} plans: {}", batch.size(), e.getMessage());
+            }
+        }
+    }
+}
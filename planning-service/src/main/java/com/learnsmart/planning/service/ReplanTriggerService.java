@@ -1,16 +1,16 @@
 package com.learnsmart.planning.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learnsmart.planning.client.TrackingActivityClient;
 import com.learnsmart.planning.model.LearningPlan;
-import com.learnsmart.planning.model.PlanActivity;
-import com.learnsmart.planning.model.PlanModule;
 import com.learnsmart.planning.model.ReplanTrigger;
+import com.learnsmart.planning.model.UuidV7Generator;
 import com.learnsmart.planning.repository.PlanActivityRepository;
 import com.learnsmart.planning.repository.ReplanTriggerRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
@@ -18,7 +18,11 @@ import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -26,8 +30,9 @@ public class ReplanTriggerService {
 
     private final ReplanTriggerRepository triggerRepository;
     private final PlanActivityRepository activityRepository;
-    private final RestTemplate restTemplate;
+    private final TrackingActivityClient trackingClient;
     private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
 
     // Trigger type constants
     private static final String TRIGGER_PROGRESS_DEVIATION = "PROGRESS_DEVIATION";
@@ -40,8 +45,12 @@ public class ReplanTriggerService {
     private static final String SEVERITY_MEDIUM = "MEDIUM";
     private static final String SEVERITY_HIGH = "HIGH";
 
-    // Tracking service URL (should be externalized to config)
-    private static final String TRACKING_SERVICE_URL = "http://tracking-service:8080";
+    // Window in which a trigger of the same type is not raised again
+    private static final int DUPLICATE_WINDOW_DAYS = 7;
+
+    private static final String INSERT_TRIGGER_SQL = "INSERT INTO replan_triggers "
+            + "(id, plan_id, trigger_type, trigger_reason, severity, detected_at, evaluated_at, status, metadata) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
     /**
      * Evaluate all trigger conditions for a plan
@@ -71,6 +80,87 @@ public class ReplanTriggerService {
         return triggers;
     }
 
+    /**
+     * Result of a set-based evaluation batch
+     */
+    public record BatchEvaluation(int plans, int triggers, int suggestions) {
+    }
+
+    /**
+     * Set-based evaluation of progress deviation and inactivity for a batch of
+     * plans: one aggregate query computes the inputs for every plan (including
+     * the duplicate-trigger check) and the resulting triggers are written with
+     * one JDBC batch insert. HIGH severity triggers are stored directly as
+     * SUGGESTED, as {@link #createTriggerSuggestion} would do.
+     */
+    @Transactional
+    public BatchEvaluation evaluateBatch(List<UUID> planIds) {
+        if (planIds == null || planIds.isEmpty()) {
+            return new BatchEvaluation(0, 0, 0);
+        }
+
+        OffsetDateTime now = OffsetDateTime.now();
+        List<ReplanTriggerRepository.PlanTriggerSnapshot> snapshots = triggerRepository.findTriggerSnapshots(
+                planIds, now, now.minusDays(DUPLICATE_WINDOW_DAYS));
+
+        // One tracking-service lookup for the whole batch
+        Map<String, Optional<OffsetDateTime>> lastActivity = trackingClient.getLastActivity(snapshots.stream()
+                .filter(snapshot -> !isSet(snapshot.getRecentInactivityTrigger()))
+                .map(ReplanTriggerRepository.PlanTriggerSnapshot::getUserId)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+
+        List<Object[]> rows = new ArrayList<>();
+        for (ReplanTriggerRepository.PlanTriggerSnapshot snapshot : snapshots) {
+            // Progress deviation
+            if (snapshot.getExpectedProgress() != null && snapshot.getActualProgress() != null
+                    && !isSet(snapshot.getRecentProgressTrigger())) {
+                double expected = snapshot.getExpectedProgress();
+                double actual = snapshot.getActualProgress();
+                double deviation = Math.abs(expected - actual);
+                String severity = progressSeverity(deviation);
+                if (severity != null) {
+                    rows.add(triggerRow(snapshot.getPlanId(), TRIGGER_PROGRESS_DEVIATION,
+                            progressReason(expected, actual, deviation), severity,
+                            progressMetadata(expected, actual, deviation, snapshot.getTotalActivities(),
+                                    snapshot.getCompletedActivities()),
+                            now));
+                }
+            }
+
+            // Inactivity; the plan's own last update stands in when tracking-service could not resolve the user
+            Optional<OffsetDateTime> userLastActivity = lastActivity.get(snapshot.getUserId());
+            if (snapshot.getDaysSincePlanStart() != null && !isSet(snapshot.getRecentInactivityTrigger())) {
+                long days;
+                String lastActivityDate;
+                if (userLastActivity != null) {
+                    days = daysSinceActivity(userLastActivity, snapshot.getDaysSincePlanStart(), now);
+                    lastActivityDate = userLastActivity
+                            .map(last -> last.toLocalDate().toString())
+                            .orElse(snapshot.getPlanStartDate());
+                } else {
+                    days = snapshot.getDaysSincePlanUpdate() != null ? snapshot.getDaysSincePlanUpdate()
+                            : snapshot.getDaysSincePlanStart();
+                    lastActivityDate = snapshot.getPlanUpdateDate() != null ? snapshot.getPlanUpdateDate()
+                            : snapshot.getPlanStartDate();
+                }
+                String severity = inactivitySeverity(days);
+                if (severity != null) {
+                    rows.add(triggerRow(snapshot.getPlanId(), TRIGGER_INACTIVITY,
+                            inactivityReason(days, lastActivityDate), severity,
+                            inactivityMetadata(days, lastActivityDate),
+                            now));
+                }
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TRIGGER_SQL, rows);
+        }
+        int suggestions = (int) rows.stream().filter(row -> "SUGGESTED".equals(row[7])).count();
+
+        return new BatchEvaluation(snapshots.size(), rows.size(), suggestions);
+    }
+
     /**
      * Evaluate progress deviation trigger
      * Compares expected progress vs actual progress
@@ -100,61 +190,33 @@ public class ReplanTriggerService {
 
         double expectedProgress = Math.min(100.0, (elapsedDays * 100.0) / totalDays);
 
-        // Calculate actual progress
-        List<PlanActivity> allActivities = new ArrayList<>();
-        if (plan.getModules() != null) {
-            for (PlanModule module : plan.getModules()) {
-                if (module.getActivities() != null) {
-                    allActivities.addAll(module.getActivities());
-                }
-            }
-        }
-
-        if (allActivities.isEmpty()) {
+        // Calculate actual progress from the plan's counters
+        if (plan.getTotalActivities() == 0) {
             return null; // No activities to track
         }
 
-        long completedCount = allActivities.stream()
-                .filter(a -> "completed".equals(a.getStatus()))
-                .count();
-
-        double actualProgress = (completedCount * 100.0) / allActivities.size();
+        long completedCount = plan.getCompletedActivities();
+        double actualProgress = (completedCount * 100.0) / plan.getTotalActivities();
 
         // Calculate deviation
         double deviation = Math.abs(expectedProgress - actualProgress);
 
         // Determine if trigger should be created
-        String severity = null;
-        if (deviation > 50) {
-            severity = SEVERITY_HIGH;
-        } else if (deviation > 30) {
-            severity = SEVERITY_MEDIUM;
-        } else if (deviation > 15) {
-            severity = SEVERITY_LOW;
-        }
+        String severity = progressSeverity(deviation);
 
         if (severity == null) {
             return null; // Deviation not significant enough
         }
 
         // Check if similar trigger already exists recently
-        if (hasSimilarRecentTrigger(plan.getId(), TRIGGER_PROGRESS_DEVIATION, 7)) {
+        if (hasSimilarRecentTrigger(plan.getId(), TRIGGER_PROGRESS_DEVIATION, DUPLICATE_WINDOW_DAYS)) {
             return null; // Don't create duplicate triggers
         }
 
         // Create trigger
-        String reason = String.format(
-                "Progress deviation detected: Expected %.1f%%, Actual %.1f%%, Deviation %.1f%%",
-                expectedProgress, actualProgress, deviation);
-
-        Map<String, Object> metadata = new HashMap<>();
-        metadata.put("expectedProgress", expectedProgress);
-        metadata.put("actualProgress", actualProgress);
-        metadata.put("deviation", deviation);
-        metadata.put("totalActivities", allActivities.size());
-        metadata.put("completedActivities", completedCount);
-
-        return createTrigger(plan, TRIGGER_PROGRESS_DEVIATION, reason, severity, metadata);
+        return createTrigger(plan, TRIGGER_PROGRESS_DEVIATION,
+                progressReason(expectedProgress, actualProgress, deviation), severity,
+                progressMetadata(expectedProgress, actualProgress, deviation, plan.getTotalActivities(), completedCount));
     }
 
     /**
@@ -170,47 +232,40 @@ public class ReplanTriggerService {
 
         try {
             // Query tracking service for last activity
-            String url = String.format("%s/tracking/users/%s/events?limit=1&orderBy=timestamp DESC",
-                    TRACKING_SERVICE_URL, plan.getUserId());
-
-            // For MVP, we'll use a simpler approach: check last updated timestamp
-            // In production, this should query the tracking service
-            OffsetDateTime lastActivity = plan.getUpdatedAt();
-
+            Optional<OffsetDateTime> trackedActivity = trackingClient
+                    .getLastActivity(List.of(plan.getUserId()))
+                    .get(plan.getUserId());
+            OffsetDateTime lastActivity;
+            if (trackedActivity == null) {
+                // Tracking service unavailable: fall back to the plan's last update
+                lastActivity = plan.getUpdatedAt() != null ? plan.getUpdatedAt() : plan.getCreatedAt();
+            } else {
+                // Activity before the plan was created does not count against it
+                lastActivity = trackedActivity
+                        .filter(last -> plan.getCreatedAt() == null || last.isAfter(plan.getCreatedAt()))
+                        .orElse(plan.getCreatedAt());
+            }
             if (lastActivity == null) {
-                lastActivity = plan.getCreatedAt();
+                return null;
             }
 
             long daysSinceActivity = ChronoUnit.DAYS.between(lastActivity, OffsetDateTime.now());
 
             // Determine severity
-            String severity = null;
-            if (daysSinceActivity > 14) {
-                severity = SEVERITY_HIGH;
-            } else if (daysSinceActivity > 7) {
-                severity = SEVERITY_MEDIUM;
-            } else if (daysSinceActivity > 3) {
-                severity = SEVERITY_LOW;
-            }
+            String severity = inactivitySeverity(daysSinceActivity);
 
             if (severity == null) {
                 return null; // Not inactive enough
             }
 
             // Check for recent similar trigger
-            if (hasSimilarRecentTrigger(plan.getId(), TRIGGER_INACTIVITY, 7)) {
+            if (hasSimilarRecentTrigger(plan.getId(), TRIGGER_INACTIVITY, DUPLICATE_WINDOW_DAYS)) {
                 return null;
             }
 
-            String reason = String.format(
-                    "User inactive for %d days. Last activity: %s",
-                    daysSinceActivity, lastActivity.toLocalDate());
-
-            Map<String, Object> metadata = new HashMap<>();
-            metadata.put("daysSinceActivity", daysSinceActivity);
-            metadata.put("lastActivity", lastActivity.toString());
-
-            return createTrigger(plan, TRIGGER_INACTIVITY, reason, severity, metadata);
+            return createTrigger(plan, TRIGGER_INACTIVITY,
+                    inactivityReason(daysSinceActivity, lastActivity.toLocalDate().toString()), severity,
+                    inactivityMetadata(daysSinceActivity, lastActivity.toString()));
 
         } catch (Exception e) {
             // Graceful degradation if tracking service unavailable
@@ -244,6 +299,90 @@ public class ReplanTriggerService {
         System.out.println("Replan suggestion created for plan: " + trigger.getPlan().getId());
     }
 
+    /**
+     * Helper: Severity for a progress deviation (percentage points)
+     */
+    static String progressSeverity(double deviation) {
+        if (deviation > 50) {
+            return SEVERITY_HIGH;
+        } else if (deviation > 30) {
+            return SEVERITY_MEDIUM;
+        } else if (deviation > 15) {
+            return SEVERITY_LOW;
+        }
+        return null;
+    }
+
+    /**
+     * Helper: Severity for a number of days without activity
+     */
+    static String inactivitySeverity(long daysSinceActivity) {
+        if (daysSinceActivity > 14) {
+            return SEVERITY_HIGH;
+        } else if (daysSinceActivity > 7) {
+            return SEVERITY_MEDIUM;
+        } else if (daysSinceActivity > 3) {
+            return SEVERITY_LOW;
+        }
+        return null;
+    }
+
+    /**
+     * Helper: Days without activity, counted from the plan start when the
+     * user has no tracked activity since then
+     */
+    static long daysSinceActivity(Optional<OffsetDateTime> lastActivity, long daysSincePlanStart,
+            OffsetDateTime now) {
+        return lastActivity
+                .map(last -> Math.min(ChronoUnit.DAYS.between(last, now), daysSincePlanStart))
+                .orElse(daysSincePlanStart);
+    }
+
+    private static String progressReason(double expectedProgress, double actualProgress, double deviation) {
+        return String.format(
+                "Progress deviation detected: Expected %.1f%%, Actual %.1f%%, Deviation %.1f%%",
+                expectedProgress, actualProgress, deviation);
+    }
+
+    private static Map<String, Object> progressMetadata(double expectedProgress, double actualProgress,
+            double deviation, long totalActivities, long completedActivities) {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("expectedProgress", expectedProgress);
+        metadata.put("actualProgress", actualProgress);
+        metadata.put("deviation", deviation);
+        metadata.put("totalActivities", totalActivities);
+        metadata.put("completedActivities", completedActivities);
+        return metadata;
+    }
+
+    private static String inactivityReason(long daysSinceActivity, String lastActivityDate) {
+        return String.format("User inactive for %d days. Last activity: %s", daysSinceActivity, lastActivityDate);
+    }
+
+    private static Map<String, Object> inactivityMetadata(long daysSinceActivity, String lastActivity) {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("daysSinceActivity", daysSinceActivity);
+        metadata.put("lastActivity", lastActivity);
+        return metadata;
+    }
+
+    private Object[] triggerRow(UUID planId, String triggerType, String reason, String severity,
+            Map<String, Object> metadata, OffsetDateTime now) {
+        boolean suggest = SEVERITY_HIGH.equals(severity);
+        String metadataJson;
+        try {
+            metadataJson = objectMapper.writeValueAsString(metadata);
+        } catch (Exception e) {
+            metadataJson = null;
+        }
+        return new Object[] { UuidV7Generator.next(), planId, triggerType, reason, severity, now,
+                suggest ? now : null, suggest ? "SUGGESTED" : "PENDING", metadataJson };
+    }
+
+    private static boolean isSet(Integer flag) {
+        return flag != null && flag > 0;
+    }
+
     /**
      * Helper: Create and save a trigger
      */
@@ -0,0 +1,211 @@
+package com.learnsmart.planning.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Iterative topological ordering over an int-indexed graph (Kahn's
+ * algorithm), used for skill prerequisite and module ordering.
+ *
+ * Nodes are 0..n-1 and edges are stored in compressed sparse row form, so a
+ * 10k+ node graph costs a handful of int arrays and no recursion. Among the
+ * nodes that are ready, the lowest index is emitted first, which keeps the
+ * input order wherever the constraints allow it. If the graph is cyclic the
+ * nodes that could not be ordered are split into strongly connected
+ * components (iterative Tarjan) and every component that forms a cycle is
+ * reported.
+ */
+public final class TopologicalSorter {
+
+    private TopologicalSorter() {
+    }
+
+    /**
+     * @param order  nodes in topological order; only the orderable nodes if
+     *               the graph has cycles
+     * @param cycles node sets of each cycle (strongly connected component),
+     *               ascending, empty for a DAG
+     */
+    public record Result(int[] order, List<int[]> cycles) {
+        public boolean isAcyclic() {
+            return cycles.isEmpty();
+        }
+    }
+
+    /**
+     * Sort a graph whose edge {@code e} requires {@code before[e]} to come
+     * before {@code after[e]}.
+     */
+    public static Result sort(int nodeCount, int[] before, int[] after, int edgeCount) {
+        // Compressed sparse row adjacency: targets[offsets[n]..offsets[n + 1]) follow n
+        int[] offsets = new int[nodeCount + 1];
+        int[] indegree = new int[nodeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            offsets[before[e] + 1]++;
+            indegree[after[e]]++;
+        }
+        for (int n = 0; n < nodeCount; n++) {
+            offsets[n + 1] += offsets[n];
+        }
+        int[] targets = new int[edgeCount];
+        int[] fill = Arrays.copyOf(offsets, nodeCount);
+        for (int e = 0; e < edgeCount; e++) {
+            targets[fill[before[e]]++] = after[e];
+        }
+
+        IntMinHeap ready = new IntMinHeap(nodeCount);
+        for (int n = 0; n < nodeCount; n++) {
+            if (indegree[n] == 0) {
+                ready.push(n);
+            }
+        }
+
+        int[] order = new int[nodeCount];
+        int emitted = 0;
+        while (!ready.isEmpty()) {
+            int node = ready.pop();
+            order[emitted++] = node;
+            for (int k = offsets[node]; k < offsets[node + 1]; k++) {
+                if (--indegree[targets[k]] == 0) {
+                    ready.push(targets[k]);
+                }
+            }
+        }
+
+        if (emitted == nodeCount) {
+            return new Result(order, List.of());
+        }
+        // Nodes left with a positive indegree are on a cycle or behind one
+        return new Result(Arrays.copyOf(order, emitted), findCycles(nodeCount, offsets, targets, indegree));
+    }
+
+    private static List<int[]> findCycles(int nodeCount, int[] offsets, int[] targets, int[] remaining) {
+        int[] index = new int[nodeCount];
+        Arrays.fill(index, -1);
+        int[] low = new int[nodeCount];
+        boolean[] onStack = new boolean[nodeCount];
+        int[] componentStack = new int[nodeCount];
+        int[] callStack = new int[nodeCount];
+        int[] edgePosition = new int[nodeCount];
+        int componentTop = 0;
+        int counter = 0;
+        List<int[]> cycles = new ArrayList<>();
+
+        for (int start = 0; start < nodeCount; start++) {
+            if (remaining[start] == 0 || index[start] != -1) {
+                continue;
+            }
+            int callTop = 0;
+            index[start] = low[start] = counter++;
+            componentStack[componentTop++] = start;
+            onStack[start] = true;
+            edgePosition[start] = offsets[start];
+            callStack[callTop++] = start;
+
+            while (callTop > 0) {
+                int node = callStack[callTop - 1];
+                if (edgePosition[node] < offsets[node + 1]) {
+                    int next = targets[edgePosition[node]++];
+                    if (remaining[next] == 0) {
+                        continue;
+                    }
+                    if (index[next] == -1) {
+                        index[next] = low[next] = counter++;
+                        componentStack[componentTop++] = next;
+                        onStack[next] = true;
+                        edgePosition[next] = offsets[next];
+                        callStack[callTop++] = next;
+                    } else if (onStack[next]) {
+                        low[node] = Math.min(low[node], index[next]);
+                    }
+                    continue;
+                }
+
+                callTop--;
+                if (callTop > 0) {
+                    int parent = callStack[callTop - 1];
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+                if (low[node] == index[node]) {
+                    int size = 0;
+                    int member;
+                    do {
+                        member = componentStack[--componentTop];
+                        onStack[member] = false;
+                        size++;
+                    } while (member != node);
+                    if (size > 1 || hasSelfLoop(node, offsets, targets)) {
+                        int[] cycle = Arrays.copyOfRange(componentStack, componentTop, componentTop + size);
+                        Arrays.sort(cycle);
+                        cycles.add(cycle);
+                    }
+                }
+            }
+        }
+
+        cycles.sort(Comparator.comparingInt(cycle -> cycle[0]));
+        return cycles;
+    }
+
+    private static boolean hasSelfLoop(int node, int[] offsets, int[] targets) {
+        for (int k = offsets[node]; k < offsets[node + 1]; k++) {
+            if (targets[k] == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Binary min-heap of node indexes
+     */
+    private static final class IntMinHeap {
+        private final int[] heap;
+        private int size;
+
+        IntMinHeap(int capacity) {
+            heap = new int[Math.max(1, capacity)];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(int value) {
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] <= value) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = value;
+        }
+
+        int pop() {
+            int top = heap[0];
+            int last = heap[--size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (heap[child] >= last) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = last;
+            return top;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+-- Transactional outbox for events relayed to tracking-service
+-- Migration: V10__create_tracking_outbox_table.sql
+
+CREATE TABLE tracking_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    plan_id UUID NOT NULL,
+    user_id VARCHAR(50) NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    entity_type VARCHAR(50),
+    entity_id UUID,
+    payload TEXT,
+    occurred_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    sent_at TIMESTAMP WITH TIME ZONE,
+    last_error VARCHAR(500)
+);
+
+-- Per-plan ordering check of the relay
+CREATE INDEX idx_outbox_plan_id ON tracking_outbox(plan_id, id);
+
+-- Only undelivered rows are scanned by the relay
+CREATE INDEX idx_outbox_pending ON tracking_outbox(next_attempt_at, id) WHERE sent_at IS NULL;
+
+-- Comments for documentation
+COMMENT ON TABLE tracking_outbox IS 'Tracking events written with the plan change that produced them, relayed at least once';
+COMMENT ON COLUMN tracking_outbox.next_attempt_at IS 'Earliest next delivery attempt (exponential backoff after failures)';
+COMMENT ON COLUMN tracking_outbox.last_error IS 'Last delivery error, or the reason tracking-service rejected the event';
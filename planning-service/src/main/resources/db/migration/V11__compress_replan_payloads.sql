@@ -0,0 +1,16 @@
+-- AI payloads stored deflate-compressed as BYTEA, plus summaries for pruned history
+-- Migration: V11__compress_replan_payloads.sql
+
+-- Existing values are converted byte for byte (UTF-8); the application reads
+-- them as legacy uncompressed payloads and compresses on the next write
+ALTER TABLE learning_plans
+    ALTER COLUMN raw_plan_ai TYPE BYTEA USING convert_to(raw_plan_ai, 'UTF8');
+
+ALTER TABLE plan_replans_history
+    ALTER COLUMN request_payload TYPE BYTEA USING convert_to(request_payload, 'UTF8'),
+    ALTER COLUMN response_payload TYPE BYTEA USING convert_to(response_payload, 'UTF8'),
+    ADD COLUMN payload_summary VARCHAR(500),
+    ADD COLUMN payloads_pruned_at TIMESTAMPTZ;
+
+-- Serves the per-plan "newest N" window of the retention job and the history listing
+CREATE INDEX IF NOT EXISTS idx_replans_plan_created ON plan_replans_history(plan_id, created_at DESC);
@@ -0,0 +1,6 @@
+-- Plan revision, bumped on every module/activity write; with version it forms
+-- the ETag of GET /plans/{id}, /plans/{id}/modules and /plans/{id}/activities
+-- Migration: V12__add_plan_revision.sql
+
+ALTER TABLE learning_plans
+    ADD COLUMN revision BIGINT NOT NULL DEFAULT 0;
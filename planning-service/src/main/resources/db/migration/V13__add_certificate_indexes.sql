@@ -0,0 +1,11 @@
+-- One certificate per plan (issuance is batched and may race across
+-- replicas) and an index for the per-user certificates listing
+-- Migration: V13__add_certificate_indexes.sql
+
+DELETE FROM certificates c
+USING certificates older
+WHERE older.plan_id = c.plan_id
+  AND (older.issued_at, older.id) < (c.issued_at, c.id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_certificates_plan_id ON certificates (plan_id);
+CREATE INDEX IF NOT EXISTS idx_certificates_user_id ON certificates (user_id);
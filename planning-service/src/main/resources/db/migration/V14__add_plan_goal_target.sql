@@ -0,0 +1,8 @@
+-- Goal target (skill, domain, level) carried on the plan; AI plan responses are
+-- cached on it so learners with equivalent goals share an entry
+-- Migration: V14__add_plan_goal_target.sql
+
+ALTER TABLE learning_plans
+    ADD COLUMN goal_skill_id VARCHAR(50),
+    ADD COLUMN goal_domain_id VARCHAR(50),
+    ADD COLUMN goal_level VARCHAR(20);
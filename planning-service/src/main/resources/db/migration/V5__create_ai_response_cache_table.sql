@@ -0,0 +1,21 @@
+-- AI response memoization shared across planning-service instances
+-- Migration: V5__create_ai_response_cache_table.sql
+
+CREATE TABLE ai_response_cache (
+    cache_key VARCHAR(80) PRIMARY KEY,
+    operation VARCHAR(20) NOT NULL,
+    payload TEXT NOT NULL,
+    hit_count BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+
+    CONSTRAINT chk_ai_cache_operation CHECK (operation IN ('PLAN', 'REPLAN'))
+);
+
+-- Index for expiry lookups and periodic purge
+CREATE INDEX idx_ai_cache_expires ON ai_response_cache(expires_at);
+
+-- Comments for documentation
+COMMENT ON TABLE ai_response_cache IS 'Memoized AI plan/replan responses keyed by a canonical request hash';
+COMMENT ON COLUMN ai_response_cache.cache_key IS 'Operation prefix plus SHA-256 of the normalized request';
+COMMENT ON COLUMN ai_response_cache.payload IS 'Raw AI JSON, reused as a template for new plans';
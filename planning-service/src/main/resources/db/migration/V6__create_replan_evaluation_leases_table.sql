@@ -0,0 +1,31 @@
+-- Sharded replan evaluation: work units claimed by replicas through row leases
+-- Migration: V6__create_replan_evaluation_leases_table.sql
+
+CREATE TABLE replan_evaluation_leases (
+    id UUID PRIMARY KEY,
+    run_key VARCHAR(20) NOT NULL,
+    shard_index INT NOT NULL,
+    lower_bound UUID NOT NULL,
+    upper_bound UUID,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    owner VARCHAR(100),
+    lease_expires_at TIMESTAMP WITH TIME ZONE,
+    last_plan_id UUID,
+    plans_evaluated INT NOT NULL DEFAULT 0,
+    triggers_created INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+
+    CONSTRAINT uq_lease_run_shard UNIQUE (run_key, shard_index),
+    CONSTRAINT chk_lease_status CHECK (status IN ('PENDING', 'CLAIMED', 'DONE'))
+);
+
+CREATE INDEX idx_lease_run_status ON replan_evaluation_leases(run_key, status);
+
+-- Keyset iteration over active plan IDs
+CREATE INDEX idx_plans_status_id ON learning_plans(status, id);
+
+-- Comments for documentation
+COMMENT ON TABLE replan_evaluation_leases IS 'Shards of a daily replan evaluation run, claimed with FOR UPDATE SKIP LOCKED';
+COMMENT ON COLUMN replan_evaluation_leases.lower_bound IS 'Exclusive lower plan ID of the shard';
+COMMENT ON COLUMN replan_evaluation_leases.upper_bound IS 'Inclusive upper plan ID of the shard, NULL for the last shard';
+COMMENT ON COLUMN replan_evaluation_leases.last_plan_id IS 'Keyset checkpoint used to resume an expired lease';
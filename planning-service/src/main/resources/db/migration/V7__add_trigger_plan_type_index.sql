@@ -0,0 +1,4 @@
+-- Set-based trigger evaluation: latest trigger per (plan, type) via lateral join
+-- Migration: V7__add_trigger_plan_type_index.sql
+
+CREATE INDEX idx_trigger_plan_type_detected ON replan_triggers(plan_id, trigger_type, detected_at DESC);
@@ -0,0 +1,4 @@
+-- Projection-based plan listing: a user's plans, newest first
+-- Migration: V8__add_plans_user_created_index.sql
+
+CREATE INDEX idx_plans_user_created ON learning_plans(user_id, created_at DESC);
@@ -0,0 +1,41 @@
+-- Denormalized progress counters with optimistic locking versions
+-- Migration: V9__add_plan_progress_counters.sql
+
+ALTER TABLE plan_modules
+    ADD COLUMN total_activities INT NOT NULL DEFAULT 0,
+    ADD COLUMN completed_activities INT NOT NULL DEFAULT 0,
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE learning_plans
+    ADD COLUMN total_activities INT NOT NULL DEFAULT 0,
+    ADD COLUMN completed_activities INT NOT NULL DEFAULT 0,
+    ADD COLUMN total_modules INT NOT NULL DEFAULT 0,
+    ADD COLUMN completed_modules INT NOT NULL DEFAULT 0,
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Backfill from existing rows
+UPDATE plan_modules m SET
+    total_activities = a.total,
+    completed_activities = a.completed
+FROM (
+    SELECT module_id, COUNT(*) AS total,
+           COUNT(*) FILTER (WHERE status = 'completed') AS completed
+    FROM plan_activities
+    GROUP BY module_id
+) a
+WHERE a.module_id = m.id;
+
+UPDATE learning_plans p SET
+    total_activities = m.total_activities,
+    completed_activities = m.completed_activities,
+    total_modules = m.total_modules,
+    completed_modules = m.completed_modules
+FROM (
+    SELECT plan_id, SUM(total_activities) AS total_activities,
+           SUM(completed_activities) AS completed_activities,
+           COUNT(*) AS total_modules,
+           COUNT(*) FILTER (WHERE status = 'completed') AS completed_modules
+    FROM plan_modules
+    GROUP BY plan_id
+) m
+WHERE m.plan_id = p.id;
@@ -4,17 +4,29 @@ DROP TABLE IF EXISTS plan_activities;
 DROP TABLE IF EXISTS plan_modules;
 DROP TABLE IF EXISTS certificates;
 DROP TABLE IF EXISTS learning_plans;
+DROP TABLE IF EXISTS ai_response_cache;
+DROP TABLE IF EXISTS replan_evaluation_leases;
+DROP TABLE IF EXISTS tracking_outbox;
 
 CREATE TABLE IF NOT EXISTS learning_plans (
     id              UUID PRIMARY KEY,
     user_id         VARCHAR(50) NOT NULL,
     goal_id         VARCHAR(50),
+    goal_skill_id   VARCHAR(50),
+    goal_domain_id  VARCHAR(50),
+    goal_level      VARCHAR(20),
     status          VARCHAR(20) NOT NULL DEFAULT 'active',
     start_date      DATE NOT NULL DEFAULT CURRENT_DATE,
     end_date        DATE,
     hours_per_week  NUMERIC(4,1),
     generated_by    VARCHAR(20) NOT NULL DEFAULT 'ai',
-    raw_plan_ai     TEXT,
+    raw_plan_ai     BYTEA,
+    total_activities     INT NOT NULL DEFAULT 0,
+    completed_activities INT NOT NULL DEFAULT 0,
+    total_modules        INT NOT NULL DEFAULT 0,
+    completed_modules    INT NOT NULL DEFAULT 0,
+    version         BIGINT NOT NULL DEFAULT 0,
+    revision        BIGINT NOT NULL DEFAULT 0,
     created_at      TIMESTAMPTZ NOT NULL DEFAULT now(),
     updated_at      TIMESTAMPTZ NOT NULL DEFAULT now()
 );
@@ -28,6 +40,9 @@ CREATE TABLE IF NOT EXISTS plan_modules (
     estimated_hours NUMERIC(5,2),
     status          VARCHAR(20) NOT NULL DEFAULT 'pending',
     target_skills   TEXT,
+    total_activities     INT NOT NULL DEFAULT 0,
+    completed_activities INT NOT NULL DEFAULT 0,
+    version         BIGINT NOT NULL DEFAULT 0,
     created_at      TIMESTAMPTZ NOT NULL DEFAULT now(),
     updated_at      TIMESTAMPTZ NOT NULL DEFAULT now(),
     UNIQUE (plan_id, position)
@@ -66,11 +81,68 @@ CREATE TABLE IF NOT EXISTS plan_replans_history (
     id              UUID PRIMARY KEY,
     plan_id         UUID NOT NULL REFERENCES learning_plans(id) ON DELETE CASCADE,
     reason          TEXT,
-    request_payload TEXT,
-    response_payload TEXT,
+    request_payload BYTEA,
+    response_payload BYTEA,
+    payload_summary VARCHAR(500),
+    payloads_pruned_at TIMESTAMPTZ,
     trigger_id      UUID REFERENCES replan_triggers(id),
     created_at      TIMESTAMPTZ NOT NULL DEFAULT now()
 );
 
 CREATE INDEX IF NOT EXISTS idx_trigger_plan_status ON replan_triggers(plan_id, status);
 CREATE INDEX IF NOT EXISTS idx_trigger_status_detected ON replan_triggers(status, detected_at DESC);
+
+CREATE TABLE IF NOT EXISTS ai_response_cache (
+    cache_key       VARCHAR(80) PRIMARY KEY,
+    operation       VARCHAR(20) NOT NULL,
+    payload         TEXT NOT NULL,
+    hit_count       BIGINT NOT NULL DEFAULT 0,
+    created_at      TIMESTAMPTZ NOT NULL DEFAULT now(),
+    expires_at      TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_ai_cache_expires ON ai_response_cache(expires_at);
+
+CREATE INDEX IF NOT EXISTS idx_plans_status_id ON learning_plans(status, id);
+CREATE INDEX IF NOT EXISTS idx_plans_user_created ON learning_plans(user_id, created_at DESC);
+
+CREATE TABLE IF NOT EXISTS replan_evaluation_leases (
+    id               UUID PRIMARY KEY,
+    run_key          VARCHAR(20) NOT NULL,
+    shard_index      INT NOT NULL,
+    lower_bound      UUID NOT NULL,
+    upper_bound      UUID,
+    status           VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    owner            VARCHAR(100),
+    lease_expires_at TIMESTAMPTZ,
+    last_plan_id     UUID,
+    plans_evaluated  INT NOT NULL DEFAULT 0,
+    triggers_created INT NOT NULL DEFAULT 0,
+    updated_at       TIMESTAMPTZ NOT NULL DEFAULT now(),
+    UNIQUE (run_key, shard_index)
+);
+
+CREATE INDEX IF NOT EXISTS idx_lease_run_status ON replan_evaluation_leases(run_key, status);
+
+CREATE INDEX IF NOT EXISTS idx_trigger_plan_type_detected ON replan_triggers(plan_id, trigger_type, detected_at DESC);
+
+CREATE TABLE IF NOT EXISTS tracking_outbox (
+    id              BIGSERIAL PRIMARY KEY,
+    plan_id         UUID NOT NULL,
+    user_id         VARCHAR(50) NOT NULL,
+    event_type      VARCHAR(50) NOT NULL,
+    entity_type     VARCHAR(50),
+    entity_id       UUID,
+    payload         TEXT,
+    occurred_at     TIMESTAMPTZ NOT NULL,
+    created_at      TIMESTAMPTZ NOT NULL DEFAULT now(),
+    attempts        INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    sent_at         TIMESTAMPTZ,
+    last_error      VARCHAR(500)
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_plan_id ON tracking_outbox(plan_id, id);
+CREATE INDEX IF NOT EXISTS idx_outbox_pending ON tracking_outbox(next_attempt_at, id) WHERE sent_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_replans_plan_created ON plan_replans_history(plan_id, created_at DESC);
@@ -0,0 +1,94 @@
+package com.learnsmart.planning;
+
+import com.learnsmart.planning.dto.PlanDtos;
+import com.learnsmart.planning.model.*;
+import com.learnsmart.planning.repository.LearningPlanRepository;
+import com.learnsmart.planning.repository.TrackingOutboxRepository;
+import com.learnsmart.planning.service.PlanActivityService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class BulkActivityUpdateIntegrationTests {
+
+    @Autowired
+    private PlanActivityService activityService;
+
+    @Autowired
+    private LearningPlanRepository planRepository;
+
+    @Autowired
+    private TrackingOutboxRepository outboxRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void testUpdateActivityStatuses_RollsUpOnce() {
+        LearningPlan plan = savePlan();
+        List<PlanDtos.ActivityStatusChange> changes = new ArrayList<>();
+        // Complete module 1 entirely and one activity of module 2
+        for (PlanActivity activity : plan.getModules().get(0).getActivities()) {
+            changes.add(change(activity.getId(), "completed"));
+        }
+        changes.add(change(plan.getModules().get(1).getActivities().get(0).getId(), "completed"));
+        changes.add(change(plan.getModules().get(1).getActivities().get(1).getId(), "in_progress"));
+
+        List<PlanActivity> updated = activityService.updateActivityStatuses(plan.getId(), changes);
+        entityManager.clear();
+
+        assertEquals(4, updated.size());
+        LearningPlan reloaded = planRepository.findById(plan.getId()).orElseThrow();
+        assertEquals(3, reloaded.getCompletedActivities());
+        assertEquals(1, reloaded.getCompletedModules());
+        assertEquals("active", reloaded.getStatus());
+        PlanModule first = reloaded.getModules().stream().filter(m -> m.getPosition() == 1).findFirst().orElseThrow();
+        assertEquals("completed", first.getStatus());
+        assertEquals(2, first.getCompletedActivities());
+        assertTrue(first.getActivities().stream().allMatch(a -> a.getCompletedAt() != null));
+        assertEquals(3, outboxRepository.countBySentAtIsNull());
+    }
+
+    private LearningPlan savePlan() {
+        LearningPlan plan = new LearningPlan();
+        plan.setUserId(UUID.randomUUID().toString());
+        plan.setModules(new ArrayList<>());
+        for (int m = 1; m <= 2; m++) {
+            PlanModule module = new PlanModule();
+            module.setPlan(plan);
+            module.setPosition(m);
+            module.setTitle("Module " + m);
+            module.setActivities(new ArrayList<>());
+            for (int a = 1; a <= 2; a++) {
+                PlanActivity activity = new PlanActivity();
+                activity.setModule(module);
+                activity.setPosition(a);
+                activity.setActivityType("lesson");
+                activity.setContentRef("content-" + m + "-" + a);
+                module.getActivities().add(activity);
+            }
+            plan.getModules().add(module);
+        }
+        plan.recountProgress();
+        return planRepository.saveAndFlush(plan);
+    }
+
+    private PlanDtos.ActivityStatusChange change(UUID activityId, String status) {
+        PlanDtos.ActivityStatusChange change = new PlanDtos.ActivityStatusChange();
+        change.setActivityId(activityId);
+        change.setStatus(status);
+        return change;
+    }
+}
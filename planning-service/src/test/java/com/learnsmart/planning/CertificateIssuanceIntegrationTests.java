@@ -0,0 +1,84 @@
+package com.learnsmart.planning;
+
+import com.learnsmart.planning.model.*;
+import com.learnsmart.planning.repository.LearningPlanRepository;
+import com.learnsmart.planning.service.CertificateService;
+import com.learnsmart.planning.service.PlanModuleService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class CertificateIssuanceIntegrationTests {
+
+    @Autowired
+    private CertificateService certificateService;
+
+    @Autowired
+    private PlanModuleService moduleService;
+
+    @Autowired
+    private LearningPlanRepository planRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void testIssueCertificates_OnlyCompletePlansOnce() {
+        LearningPlan complete = savePlan(2);
+        LearningPlan incomplete = savePlan(2);
+        for (PlanModule module : complete.getModules()) {
+            moduleService.updateModuleStatus(complete.getId(), module.getId(), "completed");
+        }
+        moduleService.updateModuleStatus(incomplete.getId(), incomplete.getModules().get(0).getId(), "completed");
+        entityManager.flush();
+
+        assertTrue(planRepository.findCompletedIdsWithoutCertificate(PageRequest.of(0, 100))
+                .contains(complete.getId()));
+
+        List<Certificate> issued = certificateService.issueCertificates(List.of(complete.getId(), incomplete.getId()));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(1, issued.size());
+        assertEquals(complete.getId(), issued.get(0).getPlanId());
+        assertEquals("completed", planRepository.findById(complete.getId()).orElseThrow().getStatus());
+        assertEquals("active", planRepository.findById(incomplete.getId()).orElseThrow().getStatus());
+        assertFalse(planRepository.findCompletedIdsWithoutCertificate(PageRequest.of(0, 100))
+                .contains(complete.getId()));
+
+        // Signalled again: nothing new
+        assertTrue(certificateService.issueCertificates(List.of(complete.getId())).isEmpty());
+        assertEquals(1, certificateService.getCertificates(UUID.fromString(complete.getUserId())).size());
+    }
+
+    private LearningPlan savePlan(int modules) {
+        LearningPlan plan = new LearningPlan();
+        plan.setUserId(UUID.randomUUID().toString());
+        plan.setModules(new ArrayList<>());
+        for (int m = 1; m <= modules; m++) {
+            PlanModule module = new PlanModule();
+            module.setPlan(plan);
+            module.setPosition(m);
+            module.setTitle("Module " + m);
+            module.setActivities(new ArrayList<>());
+            plan.getModules().add(module);
+        }
+        plan.recountProgress();
+        planRepository.saveAndFlush(plan);
+        entityManager.clear();
+        return plan;
+    }
+}
@@ -0,0 +1,109 @@
+package com.learnsmart.planning;
+
+import com.learnsmart.planning.dto.PlanDtos;
+import com.learnsmart.planning.model.*;
+import com.learnsmart.planning.repository.LearningPlanRepository;
+import com.learnsmart.planning.service.LearningPlanService;
+import com.learnsmart.planning.service.PlanActivityService;
+import com.learnsmart.planning.service.PlanModuleService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class PlanEtagIntegrationTests {
+
+    @Autowired
+    private LearningPlanService planService;
+
+    @Autowired
+    private PlanModuleService moduleService;
+
+    @Autowired
+    private PlanActivityService activityService;
+
+    @Autowired
+    private LearningPlanRepository planRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void testFindPlanEtag_ChangesOnEveryWrite() {
+        LearningPlan plan = savePlan();
+        PlanModule module = plan.getModules().get(0);
+        List<String> etags = new ArrayList<>();
+        etags.add(etag(plan));
+
+        // Reads leave it alone
+        planService.getPlanDetail(plan.getId(), true, true);
+        assertEquals(etags.get(0), etag(plan));
+
+        // A status change that does not touch the plan row
+        activityService.updateActivityStatus(plan.getId(), module.getActivities().get(0).getId(), "in_progress", 30);
+        etags.add(etag(plan));
+
+        PlanDtos.ActivityStatusChange change = new PlanDtos.ActivityStatusChange();
+        change.setActivityId(module.getActivities().get(1).getId());
+        change.setStatus("in_progress");
+        activityService.updateActivityStatuses(plan.getId(), List.of(change));
+        entityManager.clear(); // the bulk path leaves detached copies behind, as a finished request would
+        etags.add(etag(plan));
+
+        moduleService.updateModuleStatus(plan.getId(), module.getId(), "in_progress");
+        etags.add(etag(plan));
+
+        PlanDtos.CreateActivityRequest request = new PlanDtos.CreateActivityRequest();
+        request.setPosition(3);
+        request.setActivityType("practice");
+        request.setContentRef("content-extra");
+        moduleService.addActivity(plan.getId(), module.getId(), request);
+        etags.add(etag(plan));
+
+        assertEquals(etags.size(), etags.stream().distinct().count(), "every write changes the ETag: " + etags);
+    }
+
+    @Test
+    void testFindPlanEtag_UnknownPlan() {
+        assertTrue(planService.findPlanEtag(UUID.randomUUID()).isEmpty());
+    }
+
+    private String etag(LearningPlan plan) {
+        return planService.findPlanEtag(plan.getId()).orElseThrow();
+    }
+
+    private LearningPlan savePlan() {
+        LearningPlan plan = new LearningPlan();
+        plan.setUserId(UUID.randomUUID().toString());
+        plan.setModules(new ArrayList<>());
+        PlanModule module = new PlanModule();
+        module.setPlan(plan);
+        module.setPosition(1);
+        module.setTitle("Module 1");
+        module.setActivities(new ArrayList<>());
+        for (int a = 1; a <= 2; a++) {
+            PlanActivity activity = new PlanActivity();
+            activity.setModule(module);
+            activity.setPosition(a);
+            activity.setActivityType("lesson");
+            activity.setContentRef("content-" + a);
+            module.getActivities().add(activity);
+        }
+        plan.getModules().add(module);
+        plan.recountProgress();
+        planRepository.saveAndFlush(plan);
+        entityManager.clear();
+        return plan;
+    }
+}
@@ -0,0 +1,99 @@
+package com.learnsmart.planning;
+
+import com.learnsmart.planning.model.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Statement count of a 50-module plan insert (plan, modules and activities
+ * cascaded from one save) with JDBC batching disabled versus the configured
+ * batch size.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class PlanInsertBatchingIntegrationTests {
+
+    private static final int MODULES = 50;
+    private static final int ACTIVITIES_PER_MODULE = 8;
+    private static final int ROWS = 1 + MODULES + MODULES * ACTIVITIES_PER_MODULE;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void fiftyModulePlanInsertIsBatched() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        insertPlan(1);
+        long unbatchedStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        insertPlan(null);
+        long batchedStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(ROWS, unbatchedStatements);
+        // One batch per entity type and 50 rows
+        assertTrue(batchedStatements <= 1 + 1 + (MODULES * ACTIVITIES_PER_MODULE) / 50,
+                "batched inserts used " + batchedStatements + " statements");
+    }
+
+    /**
+     * Persist one plan; {@code batchSize} null uses the configured batch size
+     */
+    private void insertPlan(Integer batchSize) {
+        LearningPlan plan = buildPlan();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            session.setJdbcBatchSize(batchSize);
+            entityManager.persist(plan);
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private LearningPlan buildPlan() {
+        LearningPlan plan = new LearningPlan();
+        plan.setUserId(UUID.randomUUID().toString());
+        plan.setModules(new ArrayList<>());
+        for (int m = 1; m <= MODULES; m++) {
+            PlanModule module = new PlanModule();
+            module.setPlan(plan);
+            module.setPosition(m);
+            module.setTitle("Module " + m);
+            module.setActivities(new ArrayList<>());
+            for (int a = 1; a <= ACTIVITIES_PER_MODULE; a++) {
+                PlanActivity activity = new PlanActivity();
+                activity.setModule(module);
+                activity.setPosition(a);
+                activity.setActivityType("lesson");
+                activity.setContentRef("content-" + m + "-" + a);
+                module.getActivities().add(activity);
+            }
+            plan.getModules().add(module);
+        }
+        plan.recountProgress();
+        return plan;
+    }
+}
@@ -0,0 +1,141 @@
+package com.learnsmart.planning;
+
+import com.learnsmart.planning.dto.PlanDtos;
+import com.learnsmart.planning.model.*;
+import com.learnsmart.planning.repository.LearningPlanRepository;
+import com.learnsmart.planning.repository.PlanReplanHistoryRepository;
+import com.learnsmart.planning.service.LearningPlanService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class PlanReadModelIntegrationTests {
+
+    @Autowired
+    private LearningPlanService planService;
+
+    @Autowired
+    private LearningPlanRepository planRepository;
+
+    @Autowired
+    private PlanReplanHistoryRepository replanRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void testGetPlanDetail_SingleStatement() {
+        LearningPlan plan = savePlan(5, 4);
+
+        statistics.clear();
+        PlanDtos.PlanDetailResponse detail = planService.getPlanDetail(plan.getId(), false, false);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(5, detail.getModules().size());
+        assertEquals(1, detail.getModules().get(0).getPosition());
+        assertEquals(List.of("skill-1"), detail.getModules().get(0).getTargetSkills());
+        assertEquals(4, detail.getModules().get(4).getActivities().size());
+        assertEquals(4, detail.getModules().get(4).getActivities().get(3).getPosition());
+        assertNull(detail.getRawPlanAi());
+        assertNull(detail.getReplans());
+    }
+
+    @Test
+    void testGetPlanDetail_WithIncludes() {
+        LearningPlan plan = savePlan(2, 1);
+        PlanReplanHistory history = new PlanReplanHistory();
+        history.setPlan(plan);
+        history.setReason("Too hard");
+        replanRepository.save(history);
+
+        statistics.clear();
+        PlanDtos.PlanDetailResponse detail = planService.getPlanDetail(plan.getId(), true, true);
+
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals("{\"raw\": true}", detail.getRawPlanAi());
+        assertEquals(1, detail.getReplans().size());
+        assertEquals("Too hard", detail.getReplans().get(0).getReason());
+    }
+
+    @Test
+    void testGetPlanDetail_PlanWithoutModules() {
+        LearningPlan plan = savePlan(0, 0);
+
+        PlanDtos.PlanDetailResponse detail = planService.getPlanDetail(plan.getId(), false, false);
+
+        assertEquals(plan.getId(), detail.getId());
+        assertTrue(detail.getModules().isEmpty());
+        assertThrows(RuntimeException.class, () -> planService.getPlanDetail(UUID.randomUUID(), false, false));
+    }
+
+    @Test
+    void testFindSummaries_CountsWithoutLoadingPlans() {
+        LearningPlan plan = savePlan(3, 2);
+        PlanModule module = plan.getModules().get(0);
+        module.setStatus("completed");
+        module.getActivities().forEach(activity -> activity.setStatus("completed"));
+        plan.recountProgress();
+        planRepository.save(plan);
+
+        statistics.clear();
+        Page<PlanDtos.PlanSummaryResponse> page = planService.findSummaries(plan.getUserId(), null, 0, 20);
+
+        assertEquals(1, page.getTotalElements());
+        PlanDtos.PlanSummaryResponse summary = page.getContent().get(0);
+        assertEquals(plan.getId(), summary.getId());
+        assertEquals(3, summary.getTotalModules());
+        assertEquals(1, summary.getCompletedModules());
+        assertEquals(6, summary.getTotalActivities());
+        assertEquals(2, summary.getCompletedActivities());
+        assertEquals(100.0 / 3, summary.getProgressPercentage(), 0.001);
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    private LearningPlan savePlan(int moduleCount, int activitiesPerModule) {
+        LearningPlan plan = new LearningPlan();
+        plan.setUserId(UUID.randomUUID().toString());
+        plan.setRawPlanAi("{\"raw\": true}");
+        plan.setModules(new ArrayList<>());
+        for (int m = 1; m <= moduleCount; m++) {
+            PlanModule module = new PlanModule();
+            module.setPlan(plan);
+            module.setPosition(m);
+            module.setTitle("Module " + m);
+            module.setTargetSkills(List.of("skill-" + m));
+            module.setActivities(new ArrayList<>());
+            for (int a = 1; a <= activitiesPerModule; a++) {
+                PlanActivity activity = new PlanActivity();
+                activity.setModule(module);
+                activity.setPosition(a);
+                activity.setActivityType("lesson");
+                activity.setContentRef("content-" + m + "-" + a);
+                module.getActivities().add(activity);
+            }
+            plan.getModules().add(module);
+        }
+        plan.recountProgress();
+        return planRepository.save(plan);
+    }
+}
@@ -0,0 +1,107 @@
+package com.learnsmart.planning;
+
+import com.learnsmart.planning.dto.ExternalDtos;
+import com.learnsmart.planning.model.*;
+import com.learnsmart.planning.repository.LearningPlanRepository;
+import com.learnsmart.planning.service.ReplanDiffService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ReplanDiffIntegrationTests {
+
+    @Autowired
+    private ReplanDiffService diffService;
+
+    @Autowired
+    private LearningPlanRepository planRepository;
+
+    @Test
+    void testApply_ReordersWithoutLosingCompletedState() {
+        LearningPlan plan = savePlan();
+        PlanActivity completed = plan.getModules().get(0).getActivities().get(0);
+        UUID firstModuleId = plan.getModules().get(0).getId();
+
+        // Swap the modules, move content-1-2 into module 2 and drop module 3
+        List<ExternalDtos.ModuleDraft> draft = List.of(
+                moduleDraft("Module 2", "content-2-1", "content-1-2", "content-new"),
+                moduleDraft("Module 1", "content-1-1"));
+
+        ReplanDiffService.PlanDiff diff = diffService.diff(plan, draft);
+        diffService.apply(plan.getId(), diff);
+
+        LearningPlan reloaded = planRepository.findById(plan.getId()).orElseThrow();
+        List<PlanModule> modules = sorted(reloaded);
+        assertEquals(2, modules.size());
+        assertEquals("Module 2", modules.get(0).getTitle());
+        assertEquals(firstModuleId, modules.get(1).getId());
+        assertEquals(List.of("content-2-1", "content-1-2", "content-new"), refs(modules.get(0)));
+        assertEquals(List.of("content-1-1"), refs(modules.get(1)));
+
+        PlanActivity kept = modules.get(1).getActivities().get(0);
+        assertEquals(completed.getId(), kept.getId());
+        assertEquals("completed", kept.getStatus());
+        assertEquals("completed", modules.get(1).getStatus());
+        assertEquals(3, modules.get(0).getTotalActivities());
+        assertEquals(4, diff.totalActivities());
+        assertEquals(1, diff.completedModules());
+    }
+
+    private LearningPlan savePlan() {
+        LearningPlan plan = new LearningPlan();
+        plan.setUserId(UUID.randomUUID().toString());
+        plan.setModules(new ArrayList<>());
+        for (int m = 1; m <= 3; m++) {
+            PlanModule module = new PlanModule();
+            module.setPlan(plan);
+            module.setPosition(m);
+            module.setTitle("Module " + m);
+            module.setActivities(new ArrayList<>());
+            for (int a = 1; a <= 2; a++) {
+                PlanActivity activity = new PlanActivity();
+                activity.setModule(module);
+                activity.setPosition(a);
+                activity.setActivityType("lesson");
+                activity.setContentRef("content-" + m + "-" + a);
+                module.getActivities().add(activity);
+            }
+            plan.getModules().add(module);
+        }
+        plan.getModules().get(0).getActivities().get(0).setStatus("completed");
+        plan.recountProgress();
+        return planRepository.saveAndFlush(plan);
+    }
+
+    private ExternalDtos.ModuleDraft moduleDraft(String title, String... contentRefs) {
+        List<ExternalDtos.ActivityDraft> activities = new ArrayList<>();
+        for (String ref : contentRefs) {
+            activities.add(new ExternalDtos.ActivityDraft("lesson", ref));
+        }
+        return new ExternalDtos.ModuleDraft(title, null, activities);
+    }
+
+    private List<PlanModule> sorted(LearningPlan plan) {
+        List<PlanModule> modules = new ArrayList<>(plan.getModules());
+        modules.sort(Comparator.comparing(PlanModule::getPosition));
+        return modules;
+    }
+
+    private List<String> refs(PlanModule module) {
+        return module.getActivities().stream()
+                .sorted(Comparator.comparing(PlanActivity::getPosition))
+                .map(PlanActivity::getContentRef)
+                .toList();
+    }
+}
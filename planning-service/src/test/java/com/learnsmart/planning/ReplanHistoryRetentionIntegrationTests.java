@@ -0,0 +1,118 @@
+package com.learnsmart.planning;
+
+import com.learnsmart.planning.model.LearningPlan;
+import com.learnsmart.planning.model.PlanReplanHistory;
+import com.learnsmart.planning.repository.LearningPlanRepository;
+import com.learnsmart.planning.repository.PlanReplanHistoryRepository;
+import com.learnsmart.planning.scheduler.ReplanHistoryRetentionJob;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "planning.replan-history.keep-full-payloads=2")
+@ActiveProfiles("test")
+@Transactional
+class ReplanHistoryRetentionIntegrationTests {
+
+    private static final String LARGE_PAYLOAD = "{\"modules\": [" + "{\"title\": \"Module\"},".repeat(100) + "{}]}";
+
+    @Autowired
+    private ReplanHistoryRetentionJob retentionJob;
+
+    @Autowired
+    private LearningPlanRepository planRepository;
+
+    @Autowired
+    private PlanReplanHistoryRepository replanRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void testPayloads_CompressedAndLazy() {
+        LearningPlan plan = savePlan();
+        saveHistory(plan, 1);
+        entityManager.flush();
+        entityManager.clear();
+
+        Integer storedBytes = jdbcTemplate.queryForObject(
+                "SELECT LENGTH(raw_plan_ai) FROM learning_plans WHERE id = ?", Integer.class, plan.getId());
+        assertTrue(storedBytes < LARGE_PAYLOAD.length() / 5);
+
+        LearningPlan loaded = planRepository.findById(plan.getId()).orElseThrow();
+        assertFalse(Hibernate.isPropertyInitialized(loaded, "rawPlanAi"));
+        assertEquals(LARGE_PAYLOAD, loaded.getRawPlanAi());
+
+        PlanReplanHistory history = replanRepository.findByPlanIdOrderByCreatedAtDesc(plan.getId()).get(0);
+        assertFalse(Hibernate.isPropertyInitialized(history, "requestPayload"));
+        assertFalse(Hibernate.isPropertyInitialized(history, "responsePayload"));
+        assertEquals(LARGE_PAYLOAD, history.getResponsePayload());
+    }
+
+    @Test
+    void testPruneOldPayloads_KeepsNewestPerPlan() {
+        LearningPlan plan = savePlan();
+        LearningPlan other = savePlan();
+        for (int i = 0; i < 4; i++) {
+            saveHistory(plan, i);
+        }
+        saveHistory(other, 0);
+        entityManager.flush();
+        entityManager.clear();
+
+        retentionJob.pruneOldPayloads();
+        entityManager.clear();
+
+        List<PlanReplanHistoryRepository.ReplanHistoryView> history = replanRepository.findViewsByPlanId(plan.getId());
+        assertEquals(4, history.size());
+        // Newest two keep their payloads
+        assertEquals(LARGE_PAYLOAD, history.get(0).getResponsePayload());
+        assertNull(history.get(0).getPayloadSummary());
+        assertEquals(LARGE_PAYLOAD, history.get(1).getResponsePayload());
+        // Older ones keep a summary only
+        for (PlanReplanHistoryRepository.ReplanHistoryView pruned : history.subList(2, 4)) {
+            assertNull(pruned.getRequestPayload());
+            assertNull(pruned.getResponsePayload());
+            assertTrue(pruned.getPayloadSummary().startsWith("request: constraints | response: {\"modules\""));
+            assertTrue(pruned.getPayloadSummary().length() <= 500);
+            assertEquals("reason-" + (3 - history.indexOf(pruned)), pruned.getReason());
+        }
+        assertEquals(LARGE_PAYLOAD, replanRepository.findViewsByPlanId(other.getId()).get(0).getResponsePayload());
+
+        // A second run has nothing left to prune
+        retentionJob.pruneOldPayloads();
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM plan_replans_history WHERE payloads_pruned_at IS NOT NULL", Integer.class));
+    }
+
+    private LearningPlan savePlan() {
+        LearningPlan plan = new LearningPlan();
+        plan.setUserId(UUID.randomUUID().toString());
+        plan.setRawPlanAi(LARGE_PAYLOAD);
+        return planRepository.save(plan);
+    }
+
+    private void saveHistory(LearningPlan plan, int index) {
+        PlanReplanHistory history = new PlanReplanHistory();
+        history.setPlan(plan);
+        history.setReason("reason-" + index);
+        history.setRequestPayload("constraints");
+        history.setResponsePayload(LARGE_PAYLOAD);
+        history.setCreatedAt(OffsetDateTime.now().minusDays(10 - index));
+        replanRepository.save(history);
+    }
+}
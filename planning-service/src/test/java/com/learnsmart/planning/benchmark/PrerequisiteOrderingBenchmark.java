@@ -0,0 +1,88 @@
+package com.learnsmart.planning.benchmark;
+
+import com.learnsmart.planning.service.PrerequisiteValidationService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Skill ordering on synthetic prerequisite graphs.
+ *
+ * Each skill gets up to {@code maxPrerequisites} prerequisites among the
+ * skills generated before it (a random DAG), presented in shuffled order.
+ * The cyclic variant closes one back edge per 1000 skills.
+ *
+ * Run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.learnsmart.planning.benchmark.PrerequisiteOrderingBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrerequisiteOrderingBenchmark {
+
+    @Param({ "10000", "100000" })
+    private int skills;
+
+    @Param({ "4" })
+    private int maxPrerequisites;
+
+    private final PrerequisiteValidationService validationService = new PrerequisiteValidationService();
+
+    private List<UUID> skillIds;
+    private Map<UUID, List<UUID>> acyclicGraph;
+    private Map<UUID, List<UUID>> cyclicGraph;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<UUID> generated = new ArrayList<>(skills);
+        acyclicGraph = new HashMap<>(skills * 2);
+        for (int i = 0; i < skills; i++) {
+            UUID skill = new UUID(random.nextLong(), random.nextLong());
+            int prerequisites = i == 0 ? 0 : random.nextInt(maxPrerequisites + 1);
+            List<UUID> edges = new ArrayList<>(prerequisites);
+            for (int p = 0; p < prerequisites; p++) {
+                edges.add(generated.get(random.nextInt(i)));
+            }
+            acyclicGraph.put(skill, edges);
+            generated.add(skill);
+        }
+
+        cyclicGraph = new HashMap<>(acyclicGraph);
+        for (int i = 1000; i < skills; i += 1000) {
+            // An early skill now requires a later one that (transitively) may require it
+            List<UUID> edges = new ArrayList<>(cyclicGraph.get(generated.get(i - 1000)));
+            edges.add(generated.get(i));
+            cyclicGraph.put(generated.get(i - 1000), edges);
+        }
+
+        skillIds = new ArrayList<>(generated);
+        Collections.shuffle(skillIds, random);
+    }
+
+    @Benchmark
+    public PrerequisiteValidationService.SkillOrder orderAcyclic() {
+        return validationService.orderSkills(skillIds, acyclicGraph);
+    }
+
+    @Benchmark
+    public PrerequisiteValidationService.SkillOrder orderWithCycles() {
+        return validationService.orderSkills(skillIds, cyclicGraph);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PrerequisiteOrderingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,72 @@
+package com.learnsmart.planning.client;
+
+import com.learnsmart.planning.dto.ExternalDtos;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TrackingActivityClientTest {
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    @InjectMocks
+    private TrackingActivityClient client;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(client, "trackingServiceUrl", "http://tracking-service");
+        ReflectionTestUtils.setField(client, "cacheSeconds", 300L);
+        ReflectionTestUtils.setField(client, "maxEntries", 1000);
+    }
+
+    @Test
+    void testGetLastActivity_OneCallPerBatchThenCached() {
+        String active = UUID.randomUUID().toString();
+        String silent = UUID.randomUUID().toString();
+        OffsetDateTime last = OffsetDateTime.now().minusDays(3);
+        when(restTemplate.postForObject(eq("http://tracking-service/analytics/users/last-activity"), any(),
+                eq(ExternalDtos.LastActivityResponse[].class)))
+                .thenReturn(new ExternalDtos.LastActivityResponse[] {
+                        new ExternalDtos.LastActivityResponse(UUID.fromString(active), last) });
+
+        Map<String, Optional<OffsetDateTime>> first = client.getLastActivity(List.of(active, silent, "not-a-uuid"));
+        Map<String, Optional<OffsetDateTime>> second = client.getLastActivity(List.of(active, silent));
+
+        assertEquals(Optional.of(last), first.get(active));
+        assertEquals(Optional.empty(), first.get(silent));
+        assertEquals(Optional.empty(), first.get("not-a-uuid"));
+        assertEquals(first.get(active), second.get(active));
+        verify(restTemplate, times(1)).postForObject(anyString(), any(), any());
+    }
+
+    @Test
+    void testGetLastActivity_UnavailableUsersAreAbsent() {
+        String userId = UUID.randomUUID().toString();
+        when(restTemplate.postForObject(anyString(), any(), eq(ExternalDtos.LastActivityResponse[].class)))
+                .thenThrow(new ResourceAccessException("connection refused"));
+
+        Map<String, Optional<OffsetDateTime>> result = client.getLastActivity(List.of(userId));
+
+        assertFalse(result.containsKey(userId));
+    }
+}
@@ -17,6 +17,7 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -26,6 +27,9 @@ class LearningPlanControllerTest {
     @Mock
     private LearningPlanService planService;
 
+    @Mock
+    private com.learnsmart.planning.service.ReplanEvaluationQueue evaluationQueue;
+
     @InjectMocks
     private LearningPlanController controller;
 
@@ -46,15 +50,56 @@ class LearningPlanControllerTest {
     @Test
     void testGetPlan() {
         UUID id = UUID.randomUUID();
-        LearningPlan plan = new LearningPlan();
+        com.learnsmart.planning.dto.PlanDtos.PlanDetailResponse plan = new com.learnsmart.planning.dto.PlanDtos.PlanDetailResponse();
+        plan.setId(id);
+        when(planService.getPlanDetail(id, true, false)).thenReturn(plan);
+
+        ResponseEntity<com.learnsmart.planning.dto.PlanDtos.PlanDetailResponse> response = controller.getPlan(id,
+                java.util.List.of("replans"), getRequest(null));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(id, response.getBody().getId());
+    }
+
+    @Test
+    void testGetPlan_NotModified() {
+        UUID id = UUID.randomUUID();
+        when(planService.findPlanEtag(id)).thenReturn(java.util.Optional.of("\"3.7\""));
+
+        ResponseEntity<com.learnsmart.planning.dto.PlanDtos.PlanDetailResponse> response = controller.getPlan(id,
+                null, getRequest("\"3.7\""));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"3.7\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+        verify(planService, never()).getPlanDetail(any(), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    void testGetPlan_StaleEtag() {
+        UUID id = UUID.randomUUID();
+        com.learnsmart.planning.dto.PlanDtos.PlanDetailResponse plan = new com.learnsmart.planning.dto.PlanDtos.PlanDetailResponse();
         plan.setId(id);
-        when(planService.findById(id)).thenReturn(plan);
+        when(planService.findPlanEtag(id)).thenReturn(java.util.Optional.of("\"3.8\""));
+        when(planService.getPlanDetail(id, false, false)).thenReturn(plan);
+
+        ResponseEntity<com.learnsmart.planning.dto.PlanDtos.PlanDetailResponse> response = controller.getPlan(id,
+                null, getRequest("\"3.7\""));
 
-        ResponseEntity<LearningPlan> response = controller.getPlan(id);
         assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"3.8\"", response.getHeaders().getETag());
         assertEquals(id, response.getBody().getId());
     }
 
+    private static org.springframework.web.context.request.WebRequest getRequest(String ifNoneMatch) {
+        org.springframework.mock.web.MockHttpServletRequest request = new org.springframework.mock.web.MockHttpServletRequest(
+                "GET", "/plans");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return new org.springframework.web.context.request.ServletWebRequest(request,
+                new org.springframework.mock.web.MockHttpServletResponse());
+    }
+
     @Test
     void testGetPlans_All() {
         Page<LearningPlan> page = new PageImpl<>(Collections.emptyList());
@@ -105,4 +150,68 @@ class LearningPlanControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
     }
+
+    @Test
+    void testSignalReplan_User() {
+        com.learnsmart.planning.dto.PlanDtos.ReplanSignalRequest request = new com.learnsmart.planning.dto.PlanDtos.ReplanSignalRequest();
+        request.setUserId("user1");
+        request.setType("MASTERY_CHANGE");
+        when(evaluationQueue.enqueueUser("user1")).thenReturn(2);
+
+        ResponseEntity<com.learnsmart.planning.dto.PlanDtos.ReplanSignalResponse> response = controller
+                .signalReplan(request, token("user1"));
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(2, response.getBody().getPlansQueued());
+    }
+
+    @Test
+    void testSignalReplan_OtherUserForbidden() {
+        com.learnsmart.planning.dto.PlanDtos.ReplanSignalRequest request = new com.learnsmart.planning.dto.PlanDtos.ReplanSignalRequest();
+        request.setUserId("user2");
+
+        ResponseEntity<com.learnsmart.planning.dto.PlanDtos.ReplanSignalResponse> response = controller
+                .signalReplan(request, token("user1"));
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verifyNoInteractions(evaluationQueue);
+    }
+
+    @Test
+    void testSignalReplan_PlanOfOtherUserForbidden() {
+        UUID planId = UUID.randomUUID();
+        com.learnsmart.planning.dto.PlanDtos.ReplanSignalRequest request = new com.learnsmart.planning.dto.PlanDtos.ReplanSignalRequest();
+        request.setPlanId(planId);
+        when(evaluationQueue.enqueueUserPlan("user1", planId)).thenReturn(false);
+
+        ResponseEntity<com.learnsmart.planning.dto.PlanDtos.ReplanSignalResponse> response = controller
+                .signalReplan(request, token("user1"));
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verify(evaluationQueue, never()).enqueue(any());
+    }
+
+    @Test
+    void testSignalReplan_ServiceAccountAnyUser() {
+        com.learnsmart.planning.dto.PlanDtos.ReplanSignalRequest request = new com.learnsmart.planning.dto.PlanDtos.ReplanSignalRequest();
+        request.setUserId("user2");
+        when(evaluationQueue.enqueueUser("user2")).thenReturn(1);
+
+        ResponseEntity<com.learnsmart.planning.dto.PlanDtos.ReplanSignalResponse> response = controller
+                .signalReplan(request, token("service-account-tracking", "ROLE_SERVICE"));
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(1, response.getBody().getPlansQueued());
+    }
+
+    private static org.springframework.security.core.Authentication token(String subject, String... roles) {
+        return new org.springframework.security.authentication.TestingAuthenticationToken(subject, null, roles);
+    }
+
+    @Test
+    void testGetPlanSummaries() {
+        Page<com.learnsmart.planning.dto.PlanDtos.PlanSummaryResponse> page = new PageImpl<>(Collections.emptyList());
+        when(planService.findSummaries("user1", "active", 0, 20)).thenReturn(page);
+
+        ResponseEntity<Page<com.learnsmart.planning.dto.PlanDtos.PlanSummaryResponse>> response = controller
+                .getPlanSummaries("user1", "active", 0, 20);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(page, response.getBody());
+    }
 }
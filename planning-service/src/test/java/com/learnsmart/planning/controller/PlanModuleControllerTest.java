@@ -4,6 +4,7 @@ import com.learnsmart.planning.dto.PlanDtos;
 import com.learnsmart.planning.model.LearningPlan;
 import com.learnsmart.planning.model.PlanActivity;
 import com.learnsmart.planning.model.PlanModule;
+import com.learnsmart.planning.service.LearningPlanService;
 import com.learnsmart.planning.service.PlanActivityService;
 import com.learnsmart.planning.service.PlanModuleService;
 import org.junit.jupiter.api.Test;
@@ -13,9 +14,14 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,6 +36,8 @@ class PlanModuleControllerTest {
     private PlanModuleService moduleService;
     @Mock
     private PlanActivityService activityService;
+    @Mock
+    private LearningPlanService planService;
 
     @InjectMocks
     private PlanModuleController controller;
@@ -39,11 +47,37 @@ class PlanModuleControllerTest {
         UUID planId = UUID.randomUUID();
         when(moduleService.getModulesByPlan(planId)).thenReturn(Collections.emptyList());
 
-        ResponseEntity<List<PlanDtos.ModuleResponse>> response = controller.getPlanModules(planId);
+        ResponseEntity<List<PlanDtos.ModuleResponse>> response = controller.getPlanModules(planId, getRequest(null));
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().isEmpty());
     }
 
+    @Test
+    void testGetPlanModules_NotModified() {
+        UUID planId = UUID.randomUUID();
+        when(planService.findPlanEtag(planId)).thenReturn(Optional.of("\"1.4\""));
+
+        ResponseEntity<List<PlanDtos.ModuleResponse>> response = controller.getPlanModules(planId,
+                getRequest("\"1.4\""));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        verifyNoInteractions(moduleService);
+    }
+
+    @Test
+    void testGetPlanActivities_EtagHeader() {
+        UUID planId = UUID.randomUUID();
+        when(planService.findPlanEtag(planId)).thenReturn(Optional.of("\"1.5\""));
+        when(moduleService.getModulesByPlan(planId)).thenReturn(Collections.emptyList());
+
+        ResponseEntity<List<PlanDtos.ActivityResponse>> response = controller.getPlanActivities(planId, null,
+                getRequest("\"1.4\""));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"1.5\"", response.getHeaders().getETag());
+        assertEquals("no-cache, private", response.getHeaders().getCacheControl());
+    }
+
     @Test
     void testUpdateModule() {
         UUID planId = UUID.randomUUID();
@@ -76,7 +110,7 @@ class PlanModuleControllerTest {
 
         when(activityService.getActivitiesByModule(moduleId)).thenReturn(Collections.emptyList());
 
-        ResponseEntity<List<PlanDtos.ActivityResponse>> response = controller.getPlanActivities(planId, moduleId);
+        ResponseEntity<List<PlanDtos.ActivityResponse>> response = controller.getPlanActivities(planId, moduleId, getRequest(null));
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().isEmpty());
         verify(activityService).getActivitiesByModule(moduleId);
@@ -91,7 +125,7 @@ class PlanModuleControllerTest {
 
         when(moduleService.getModulesByPlan(planId)).thenReturn(List.of(module));
 
-        ResponseEntity<List<PlanDtos.ActivityResponse>> response = controller.getPlanActivities(planId, null);
+        ResponseEntity<List<PlanDtos.ActivityResponse>> response = controller.getPlanActivities(planId, null, getRequest(null));
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertTrue(response.getBody().isEmpty());
         verify(moduleService).getModulesByPlan(planId);
@@ -120,4 +154,34 @@ class PlanModuleControllerTest {
         assertEquals("completed", response.getBody().getStatus());
         assertEquals("lesson", response.getBody().getActivityType());
     }
+
+    @Test
+    void testUpdateActivity_RetriesOptimisticLockConflict() {
+        UUID planId = UUID.randomUUID();
+        UUID activityId = UUID.randomUUID();
+
+        PlanActivity activity = new PlanActivity();
+        activity.setId(activityId);
+        activity.setModule(new PlanModule());
+        activity.setStatus("completed");
+
+        PlanDtos.UpdateActivityRequest request = new PlanDtos.UpdateActivityRequest();
+        request.setStatus("completed");
+
+        when(activityService.updateActivityStatus(planId, activityId, "completed", null))
+                .thenThrow(new org.springframework.orm.ObjectOptimisticLockingFailureException(LearningPlan.class, planId))
+                .thenReturn(activity);
+
+        ResponseEntity<PlanDtos.ActivityResponse> response = controller.updateActivity(planId, activityId, request);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(activityService, times(2)).updateActivityStatus(planId, activityId, "completed", null);
+    }
+
+    private static WebRequest getRequest(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/plans");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
 }
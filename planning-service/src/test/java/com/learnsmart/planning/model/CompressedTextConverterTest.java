@@ -0,0 +1,57 @@
+package com.learnsmart.planning.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedTextConverterTest {
+
+    private final CompressedTextConverter converter = new CompressedTextConverter();
+
+    @Test
+    void testRoundTrip_CompressesLargePayloads() {
+        StringBuilder json = new StringBuilder("{\"modules\": [");
+        for (int i = 0; i < 200; i++) {
+            json.append("{\"title\": \"Module ").append(i).append("\", \"activities\": [\"lesson\", \"quiz\"]},");
+        }
+        json.append("{}], \"summary\": \"ünïcödé\"}");
+
+        byte[] stored = converter.convertToDatabaseColumn(json.toString());
+
+        assertEquals(CompressedTextConverter.DEFLATE, stored[0]);
+        assertTrue(stored.length < json.length() / 5);
+        assertEquals(json.toString(), converter.convertToEntityAttribute(stored));
+    }
+
+    @Test
+    void testRoundTrip_SmallPayloadsStoredRaw() {
+        byte[] stored = converter.convertToDatabaseColumn("Replan triggered");
+
+        assertEquals(CompressedTextConverter.RAW, stored[0]);
+        assertEquals("Replan triggered".length() + 1, stored.length);
+        assertEquals("Replan triggered", converter.convertToEntityAttribute(stored));
+        assertEquals("", converter.convertToEntityAttribute(converter.convertToDatabaseColumn("")));
+    }
+
+    @Test
+    void testConvertToEntityAttribute_ReadsLegacyText() {
+        byte[] legacy = "{\"mock\": \"plan\"}".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals("{\"mock\": \"plan\"}", converter.convertToEntityAttribute(legacy));
+    }
+
+    @Test
+    void testNulls() {
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+
+    @Test
+    void testConvertToEntityAttribute_CorruptPayload() {
+        byte[] corrupt = { CompressedTextConverter.DEFLATE, 1, 2, 3 };
+
+        assertThrows(IllegalStateException.class, () -> converter.convertToEntityAttribute(corrupt));
+    }
+}
@@ -0,0 +1,63 @@
+package com.learnsmart.planning.scheduler;
+
+import com.learnsmart.planning.repository.PlanReplanHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplanHistoryRetentionJobTest {
+
+    @Mock
+    private PlanReplanHistoryRepository historyRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ReplanHistoryRetentionJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new ReplanHistoryRetentionJob(historyRepository, jdbcTemplate, transactionManager);
+        ReflectionTestUtils.setField(job, "keepFullPayloads", 5);
+        ReflectionTestUtils.setField(job, "batchSize", 200);
+    }
+
+    @Test
+    void testSummarize_FlattensAndTruncates() {
+        String response = "{\n  \"changes\": \"" + "x".repeat(1000) + "\"\n}";
+
+        String summary = ReplanHistoryRetentionJob.summarize("Less time   on weekends", response);
+
+        assertTrue(summary.startsWith("request: Less time on weekends | response: { \"changes\": \"xxx"));
+        assertTrue(summary.endsWith("... (" + response.length() + " chars)"));
+        assertTrue(summary.length() <= ReplanHistoryRetentionJob.SUMMARY_MAX_LENGTH);
+        assertEquals("request: - | response: done", ReplanHistoryRetentionJob.summarize(null, "done"));
+    }
+
+    @Test
+    void testPruneBatch_NothingBeyondRetention() {
+        when(historyRepository.findIdsBeyondNewest(anyInt(), any())).thenReturn(List.of());
+
+        assertEquals(0, job.pruneBatch());
+        verify(historyRepository, never()).findViewsByIdIn(anyList());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+}
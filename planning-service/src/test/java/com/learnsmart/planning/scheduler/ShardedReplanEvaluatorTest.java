@@ -0,0 +1,141 @@
+package com.learnsmart.planning.scheduler;
+
+import com.learnsmart.planning.model.ReplanEvaluationLease;
+import com.learnsmart.planning.repository.LearningPlanRepository;
+import com.learnsmart.planning.repository.ReplanEvaluationLeaseRepository;
+import com.learnsmart.planning.service.ReplanTriggerService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShardedReplanEvaluatorTest {
+
+    @Mock
+    private LearningPlanRepository planRepository;
+
+    @Mock
+    private ReplanEvaluationLeaseRepository leaseRepository;
+
+    @Mock
+    private ReplanTriggerService triggerService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ShardedReplanEvaluator evaluator;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        evaluator = new ShardedReplanEvaluator(planRepository, leaseRepository, triggerService,
+                transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(evaluator, "shardCount", 2);
+        ReflectionTestUtils.setField(evaluator, "batchSize", 2);
+        ReflectionTestUtils.setField(evaluator, "parallelism", 4);
+        ReflectionTestUtils.setField(evaluator, "leaseMinutes", 10L);
+        ReflectionTestUtils.setField(evaluator, "retentionDays", 7L);
+    }
+
+    @Test
+    void testShardLowerBounds_CoverUuidSpaceInOrder() {
+        List<UUID> bounds = ShardedReplanEvaluator.shardLowerBounds(4);
+
+        assertEquals(4, bounds.size());
+        assertEquals(UUID.fromString("00000000-0000-0000-0000-000000000000"), bounds.get(0));
+        assertEquals(UUID.fromString("40000000-0000-0000-0000-000000000000"), bounds.get(1));
+        assertEquals(UUID.fromString("80000000-0000-0000-0000-000000000000"), bounds.get(2));
+        assertEquals(UUID.fromString("c0000000-0000-0000-0000-000000000000"), bounds.get(3));
+    }
+
+    @Test
+    void testEvaluate_ClaimsShardsAndWalksKeyset() {
+        ReplanEvaluationLease lease = new ReplanEvaluationLease();
+        lease.setId(UUID.randomUUID());
+        lease.setShardIndex(1);
+        lease.setLowerBound(UUID.fromString("80000000-0000-0000-0000-000000000000"));
+        lease.setStatus("PENDING");
+
+        when(leaseRepository.lockNextAvailable(eq("2025-01-31"), any()))
+                .thenReturn(Optional.of(lease))
+                .thenReturn(Optional.empty());
+        when(leaseRepository.save(any(ReplanEvaluationLease.class))).thenAnswer(i -> i.getArgument(0));
+        when(leaseRepository.findById(lease.getId())).thenReturn(Optional.of(lease));
+
+        UUID first = UUID.fromString("90000000-0000-0000-0000-000000000001");
+        UUID second = UUID.fromString("90000000-0000-0000-0000-000000000002");
+        UUID third = UUID.fromString("90000000-0000-0000-0000-000000000003");
+        when(planRepository.findIdsByStatusAfter(eq("active"), eq(lease.getLowerBound()), any()))
+                .thenReturn(List.of(first, second));
+        when(planRepository.findIdsByStatusAfter(eq("active"), eq(second), any()))
+                .thenReturn(List.of(third));
+
+        when(triggerService.evaluateBatch(List.of(first, second)))
+                .thenReturn(new ReplanTriggerService.BatchEvaluation(2, 1, 1));
+        when(triggerService.evaluateBatch(List.of(third)))
+                .thenReturn(new ReplanTriggerService.BatchEvaluation(1, 0, 0));
+
+        ShardedReplanEvaluator.RunSummary summary = evaluator.evaluate("2025-01-31");
+
+        assertEquals(1, summary.shards());
+        assertEquals(3, summary.plans());
+        assertEquals(1, summary.triggers());
+        assertEquals(1, summary.suggestions());
+        assertEquals(0, summary.errors());
+        assertEquals(ShardedReplanEvaluator.STATUS_DONE, lease.getStatus());
+        assertEquals(third, lease.getLastPlanId());
+        assertEquals(3, lease.getPlansEvaluated());
+        assertEquals(1, lease.getTriggersCreated());
+        assertEquals(3.0, meterRegistry.counter("planning.replan.plans.evaluated").count());
+
+        verify(leaseRepository, times(2)).insertShardIfAbsent(any(), eq("2025-01-31"), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    void testEvaluate_StopsWhenLeaseTakenOver() {
+        ReplanEvaluationLease lease = new ReplanEvaluationLease();
+        lease.setId(UUID.randomUUID());
+        lease.setShardIndex(0);
+        lease.setLowerBound(UUID.fromString("00000000-0000-0000-0000-000000000000"));
+        lease.setUpperBound(UUID.fromString("80000000-0000-0000-0000-000000000000"));
+
+        ReplanEvaluationLease stolen = new ReplanEvaluationLease();
+        stolen.setId(lease.getId());
+        stolen.setOwner("other-replica");
+        stolen.setStatus(ShardedReplanEvaluator.STATUS_CLAIMED);
+
+        when(leaseRepository.lockNextAvailable(eq("2025-01-31"), any()))
+                .thenReturn(Optional.of(lease))
+                .thenReturn(Optional.empty());
+        when(leaseRepository.save(any(ReplanEvaluationLease.class))).thenAnswer(i -> i.getArgument(0));
+        when(leaseRepository.findById(lease.getId())).thenReturn(Optional.of(stolen));
+
+        UUID planId = UUID.fromString("10000000-0000-0000-0000-000000000001");
+        when(planRepository.findIdsByStatusInRange(eq("active"), eq(lease.getLowerBound()),
+                eq(lease.getUpperBound()), any())).thenReturn(List.of(planId, planId));
+        when(triggerService.evaluateBatch(any())).thenReturn(new ReplanTriggerService.BatchEvaluation(1, 0, 0));
+
+        ShardedReplanEvaluator.RunSummary summary = evaluator.evaluate("2025-01-31");
+
+        assertEquals(0, summary.shards());
+        assertEquals("other-replica", stolen.getOwner());
+        assertNull(stolen.getLastPlanId());
+        verify(planRepository, times(1)).findIdsByStatusInRange(any(), any(), any(), any());
+    }
+}
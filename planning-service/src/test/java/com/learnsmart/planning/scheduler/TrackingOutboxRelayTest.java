@@ -0,0 +1,207 @@
+package com.learnsmart.planning.scheduler;
+
+import com.learnsmart.planning.config.RestTemplateConfig;
+import com.learnsmart.planning.model.TrackingOutboxEvent;
+import com.learnsmart.planning.repository.TrackingOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@ExtendWith(MockitoExtension.class)
+class TrackingOutboxRelayTest {
+
+    @Mock
+    private TrackingOutboxRepository outboxRepository;
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TrackingOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new TrackingOutboxRelay(outboxRepository, restTemplate, transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(relay, "trackingServiceUrl", "http://tracking-service");
+        ReflectionTestUtils.setField(relay, "batchSize", 100);
+        ReflectionTestUtils.setField(relay, "initialBackoffSeconds", 5L);
+        ReflectionTestUtils.setField(relay, "maxBackoffSeconds", 600L);
+        ReflectionTestUtils.setField(relay, "enabled", true);
+    }
+
+    @Test
+    void testRelayBatch_MarksDeliveredAndRejected() {
+        TrackingOutboxEvent first = event(1L);
+        TrackingOutboxEvent second = event(2L);
+        when(outboxRepository.tryRelayLock(anyLong())).thenReturn(true);
+        when(outboxRepository.findDue(any(), any())).thenReturn(List.of(first, second));
+        when(restTemplate.exchange(eq("http://tracking-service/events/batch"), eq(HttpMethod.POST),
+                any(HttpEntity.class), any(ParameterizedTypeReference.class)))
+                .thenReturn(ResponseEntity.ok(new TrackingOutboxRelay.BatchResult(1,
+                        List.of(new TrackingOutboxRelay.Rejected(1, "Missing required field")))));
+
+        assertEquals(2, relay.relayBatch());
+
+        verify(outboxRepository).markSent(eq(List.of(1L)), any());
+        assertNotNull(second.getSentAt());
+        assertTrue(second.getLastError().contains("Missing required field"));
+    }
+
+    @Test
+    void testRelayBatch_KeepsBatchWithBackoffOnFailure() {
+        TrackingOutboxEvent first = event(1L);
+        first.setAttempts(2);
+        when(outboxRepository.tryRelayLock(anyLong())).thenReturn(true);
+        when(outboxRepository.findDue(any(), any())).thenReturn(List.of(first));
+        when(restTemplate.exchange(any(String.class), eq(HttpMethod.POST), any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        relay.relayBatch();
+
+        assertNull(first.getSentAt());
+        assertEquals(3, first.getAttempts());
+        assertTrue(first.getNextAttemptAt().isAfter(OffsetDateTime.now().plusSeconds(15)));
+        verify(outboxRepository, never()).markSent(any(), any());
+    }
+
+    @Test
+    void testRelayBatch_SendsServiceAccountToken() {
+        OAuth2AuthorizedClientManager clientManager = mock(OAuth2AuthorizedClientManager.class);
+        ClientRegistration registration = ClientRegistration
+                .withRegistrationId(RestTemplateConfig.SERVICE_REGISTRATION_ID)
+                .clientId("planning-service")
+                .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                .tokenUri("http://keycloak/token")
+                .build();
+        when(clientManager.authorize(any())).thenReturn(new OAuth2AuthorizedClient(registration, "planning-service",
+                new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "service-token", Instant.now(),
+                        Instant.now().plusSeconds(300))));
+        RestTemplate serviceRestTemplate = new RestTemplateConfig().serviceRestTemplate(new RestTemplateBuilder(),
+                clientManager);
+        MockRestServiceServer server = MockRestServiceServer.bindTo(serviceRestTemplate).build();
+        server.expect(requestTo("http://tracking-service/events/batch"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(header(HttpHeaders.AUTHORIZATION, "Bearer service-token"))
+                .andRespond(withSuccess("{\"accepted\": 1, \"rejected\": []}", MediaType.APPLICATION_JSON));
+
+        relay = new TrackingOutboxRelay(outboxRepository, serviceRestTemplate, transactionManager,
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(relay, "trackingServiceUrl", "http://tracking-service");
+        ReflectionTestUtils.setField(relay, "batchSize", 100);
+        when(outboxRepository.tryRelayLock(anyLong())).thenReturn(true);
+        when(outboxRepository.findDue(any(), any())).thenReturn(List.of(event(1L)));
+
+        assertEquals(1, relay.relayBatch());
+
+        server.verify();
+        verify(outboxRepository).markSent(eq(List.of(1L)), any());
+    }
+
+    @Test
+    void testRelayBatch_AuthFailurePausesWithoutBackoff() {
+        TrackingOutboxEvent first = event(1L);
+        first.setAttempts(2);
+        when(outboxRepository.tryRelayLock(anyLong())).thenReturn(true);
+        when(outboxRepository.findDue(any(), any())).thenReturn(List.of(first));
+        when(restTemplate.exchange(any(String.class), eq(HttpMethod.POST), any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.UNAUTHORIZED, "Unauthorized", null, null,
+                        null));
+
+        relay.relayBatch();
+
+        // Released right away and not counted as an attempt, but the relay stops until the pause is over
+        assertNull(first.getSentAt());
+        assertEquals(2, first.getAttempts());
+        assertFalse(first.getNextAttemptAt().isAfter(OffsetDateTime.now()));
+        assertTrue(first.getLastError().startsWith("Not authorized"));
+        verify(outboxRepository).saveAll(List.of(first));
+
+        relay.relay();
+        verify(outboxRepository, times(1)).findDue(any(), any());
+    }
+
+    @Test
+    void testRelayBatch_ClaimsBatchBeforeSending() {
+        TrackingOutboxEvent first = event(1L);
+        when(outboxRepository.tryRelayLock(anyLong())).thenReturn(true);
+        when(outboxRepository.findDue(any(), any())).thenReturn(List.of(first));
+        when(restTemplate.exchange(any(String.class), eq(HttpMethod.POST), any(HttpEntity.class),
+                any(ParameterizedTypeReference.class))).thenAnswer(i -> {
+                    // Sent after the claim committed: the event is not due again meanwhile
+                    assertTrue(first.getNextAttemptAt().isAfter(OffsetDateTime.now().plusSeconds(60)));
+                    return ResponseEntity.ok(new TrackingOutboxRelay.BatchResult(1, List.of()));
+                });
+
+        relay.relayBatch();
+
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void testRelayBatch_SkipsWhenAnotherReplicaRelays() {
+        when(outboxRepository.tryRelayLock(anyLong())).thenReturn(false);
+
+        assertEquals(0, relay.relayBatch());
+
+        verify(outboxRepository, never()).findDue(any(), any());
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    void testBackoffSeconds_Capped() {
+        assertEquals(5, relay.backoffSeconds(1));
+        assertEquals(40, relay.backoffSeconds(4));
+        assertEquals(600, relay.backoffSeconds(30));
+    }
+
+    private TrackingOutboxEvent event(Long id) {
+        TrackingOutboxEvent event = new TrackingOutboxEvent();
+        event.setId(id);
+        event.setPlanId(UUID.randomUUID());
+        event.setUserId(UUID.randomUUID().toString());
+        event.setEventType("ACTIVITY_COMPLETE");
+        event.setAttempts(0);
+        return event;
+    }
+}
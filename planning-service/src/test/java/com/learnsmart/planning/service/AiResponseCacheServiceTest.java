@@ -0,0 +1,145 @@
+package com.learnsmart.planning.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learnsmart.planning.dto.ExternalDtos;
+import com.learnsmart.planning.model.AiResponseCacheEntry;
+import com.learnsmart.planning.repository.AiResponseCacheRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AiResponseCacheServiceTest {
+
+    @Mock
+    private AiResponseCacheRepository cacheRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AiResponseCacheService cacheService;
+
+    @BeforeEach
+    void setUp() {
+        cacheService = new AiResponseCacheService(cacheRepository, new ObjectMapper(), transactionManager);
+        ReflectionTestUtils.setField(cacheService, "enabled", true);
+        ReflectionTestUtils.setField(cacheService, "ttlMinutes", 60L);
+        ReflectionTestUtils.setField(cacheService, "maxEntries", 10);
+    }
+
+    @Test
+    void testPlanKey_IgnoresUserAndCatalogOrder() {
+        ExternalDtos.GeneratePlanRequest first = request("user-1", List.of("c-1", "c-2"));
+        ExternalDtos.GeneratePlanRequest second = request("user-2", List.of("c-2", "c-1"));
+
+        assertEquals(cacheService.planKey(first, new BigDecimal("5.0")),
+                cacheService.planKey(second, new BigDecimal("5")));
+        assertNotEquals(cacheService.planKey(first, new BigDecimal("5")),
+                cacheService.planKey(first, new BigDecimal("8")));
+        assertTrue(cacheService.planKey(first, null).startsWith(AiResponseCacheService.OPERATION_PLAN + ":"));
+    }
+
+    @Test
+    void testPlanKey_UsersWithEquivalentGoalsShareEntry() {
+        String firstKey = cacheService.planKey(goalRequest("user-1", "goal-of-user-1", "skill-java", "intermediate"),
+                BigDecimal.TEN);
+        String secondKey = cacheService.planKey(goalRequest("user-2", "goal-of-user-2", "skill-java", "intermediate"),
+                BigDecimal.TEN);
+        assertEquals(firstKey, secondKey);
+        assertNotEquals(firstKey, cacheService.planKey(
+                goalRequest("user-2", "goal-of-user-2", "skill-sql", "intermediate"), BigDecimal.TEN));
+        assertNotEquals(firstKey, cacheService.planKey(
+                goalRequest("user-2", "goal-of-user-2", "skill-java", "advanced"), BigDecimal.TEN));
+
+        when(cacheRepository.findByCacheKeyAndExpiresAtAfter(eq(firstKey), any())).thenReturn(Optional.empty());
+        when(cacheRepository.findById(firstKey)).thenReturn(Optional.empty());
+
+        AtomicInteger aiCalls = new AtomicInteger();
+        cacheService.getOrGenerate(firstKey, ExternalDtos.GeneratePlanResponse.class, () -> {
+            aiCalls.incrementAndGet();
+            return response("Java Basics");
+        });
+        ExternalDtos.GeneratePlanResponse shared = cacheService.getOrGenerate(secondKey,
+                ExternalDtos.GeneratePlanResponse.class, () -> {
+                    aiCalls.incrementAndGet();
+                    return response("Other");
+                });
+
+        assertEquals(1, aiCalls.get());
+        assertEquals("Java Basics", shared.getPlan().getModules().get(0).getTitle());
+    }
+
+    @Test
+    void testGetOrGenerate_MissStoresAndHitSkipsGenerator() {
+        String key = cacheService.planKey(request("user-1", List.of("c-1")), BigDecimal.TEN);
+        when(cacheRepository.findByCacheKeyAndExpiresAtAfter(eq(key), any())).thenReturn(Optional.empty());
+        when(cacheRepository.findById(key)).thenReturn(Optional.empty());
+
+        AtomicInteger aiCalls = new AtomicInteger();
+        ExternalDtos.GeneratePlanResponse first = cacheService.getOrGenerate(key,
+                ExternalDtos.GeneratePlanResponse.class, () -> {
+                    aiCalls.incrementAndGet();
+                    return response("Module 1");
+                });
+        ExternalDtos.GeneratePlanResponse second = cacheService.getOrGenerate(key,
+                ExternalDtos.GeneratePlanResponse.class, () -> {
+                    aiCalls.incrementAndGet();
+                    return response("Other");
+                });
+
+        assertEquals(1, aiCalls.get());
+        assertEquals("Module 1", second.getPlan().getModules().get(0).getTitle());
+        assertNotSame(first, second);
+        verify(cacheRepository).save(any(AiResponseCacheEntry.class));
+    }
+
+    @Test
+    void testGetOrGenerate_EmptyPlanIsNotCached() {
+        String key = AiResponseCacheService.OPERATION_PLAN + ":empty";
+        when(cacheRepository.findByCacheKeyAndExpiresAtAfter(eq(key), any())).thenReturn(Optional.empty());
+
+        cacheService.getOrGenerate(key, ExternalDtos.GeneratePlanResponse.class,
+                ExternalDtos.GeneratePlanResponse::new);
+
+        verify(cacheRepository, never()).save(any());
+    }
+
+    private ExternalDtos.GeneratePlanRequest request(String userId, List<String> catalogIds) {
+        return ExternalDtos.GeneratePlanRequest.builder()
+                .userId(userId)
+                .profile(Map.of("userId", userId))
+                .goals(List.of(Map.of("goalId", "goal-1", "domain", "backend")))
+                .contentCatalog(catalogIds.stream().map(id -> Map.<String, Object>of("id", id)).toList())
+                .build();
+    }
+
+    private ExternalDtos.GeneratePlanRequest goalRequest(String userId, String goalId, String skillId, String level) {
+        return ExternalDtos.GeneratePlanRequest.builder()
+                .userId(userId)
+                .profile(Map.of("userId", userId))
+                .goals(List.of(Map.of("goalId", goalId, "skillId", skillId, "domain", "backend", "level", level)))
+                .contentCatalog(List.of(Map.<String, Object>of("id", "c-1")))
+                .build();
+    }
+
+    private ExternalDtos.GeneratePlanResponse response(String moduleTitle) {
+        ExternalDtos.ModuleDraft module = new ExternalDtos.ModuleDraft(moduleTitle, "desc",
+                List.of(new ExternalDtos.ActivityDraft("lesson", "content-1")));
+        return new ExternalDtos.GeneratePlanResponse(new ExternalDtos.PlanDraft("draft-1", List.of(module)));
+    }
+}
@@ -0,0 +1,77 @@
+package com.learnsmart.planning.service;
+
+import com.learnsmart.planning.event.PlanCompletionCandidateEvent;
+import com.learnsmart.planning.repository.LearningPlanRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CertificateIssuanceQueueTest {
+
+    @Mock
+    private CertificateService certificateService;
+
+    @Mock
+    private LearningPlanRepository planRepository;
+
+    @InjectMocks
+    private CertificateIssuanceQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(queue, "batchSize", 2);
+        ReflectionTestUtils.setField(queue, "sweepLimit", 1000);
+    }
+
+    @Test
+    void testDrain_CoalescesAndIssuesInBatches() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+        queue.onCompletionCandidate(new PlanCompletionCandidateEvent(a));
+        queue.onCompletionCandidate(new PlanCompletionCandidateEvent(a));
+        queue.onCompletionCandidate(new PlanCompletionCandidateEvent(b));
+        queue.onCompletionCandidate(new PlanCompletionCandidateEvent(c));
+        assertEquals(3, queue.pendingCount());
+
+        when(certificateService.issueCertificates(anyCollection())).thenReturn(List.of());
+        queue.drain();
+
+        assertEquals(0, queue.pendingCount());
+        verify(certificateService, times(2)).issueCertificates(anyCollection());
+    }
+
+    @Test
+    void testDrain_FailedBatchStaysQueued() {
+        UUID planId = UUID.randomUUID();
+        queue.onCompletionCandidate(new PlanCompletionCandidateEvent(planId));
+        when(certificateService.issueCertificates(List.of(planId))).thenThrow(new RuntimeException("db down"));
+
+        queue.drain();
+
+        assertEquals(1, queue.pendingCount());
+    }
+
+    @Test
+    void testSweep_QueuesCompletePlansWithoutCertificate() {
+        UUID planId = UUID.randomUUID();
+        when(planRepository.findCompletedIdsWithoutCertificate(any())).thenReturn(List.of(planId));
+
+        queue.sweep();
+
+        assertEquals(1, queue.pendingCount());
+    }
+}
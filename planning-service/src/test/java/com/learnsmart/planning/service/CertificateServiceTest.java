@@ -0,0 +1,80 @@
+package com.learnsmart.planning.service;
+
+import com.learnsmart.planning.model.Certificate;
+import com.learnsmart.planning.repository.CertificateRepository;
+import com.learnsmart.planning.repository.LearningPlanRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CertificateServiceTest {
+
+    @Mock
+    private LearningPlanRepository planRepository;
+
+    @Mock
+    private CertificateRepository certificateRepository;
+
+    @InjectMocks
+    private CertificateService certificateService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(certificateService, "cacheSeconds", 300L);
+        ReflectionTestUtils.setField(certificateService, "maxEntries", 100);
+    }
+
+    @Test
+    void testGetCertificates_CachedPerUser() {
+        UUID userId = UUID.randomUUID();
+        when(certificateRepository.findByUserId(userId)).thenReturn(List.of(new Certificate()));
+
+        certificateService.getCertificates(userId);
+        certificateService.getCertificates(userId);
+
+        verify(certificateRepository, times(1)).findByUserId(userId);
+    }
+
+    @Test
+    void testIssueCertificates_EvictsTheUser() {
+        UUID userId = UUID.randomUUID();
+        UUID planId = UUID.randomUUID();
+        when(certificateRepository.findByUserId(userId)).thenReturn(List.of());
+        certificateService.getCertificates(userId);
+
+        LearningPlanRepository.CompletedPlanView plan = mock(LearningPlanRepository.CompletedPlanView.class);
+        when(plan.getId()).thenReturn(planId);
+        when(plan.getUserId()).thenReturn(userId.toString());
+        when(planRepository.findCompletedWithoutCertificate(List.of(planId))).thenReturn(List.of(plan));
+        when(certificateRepository.saveAll(anyList())).thenAnswer(i -> i.getArgument(0));
+
+        List<Certificate> issued = certificateService.issueCertificates(List.of(planId));
+
+        assertEquals(1, issued.size());
+        assertEquals("Certificate of Completion: Learning Plan", issued.get(0).getTitle());
+        verify(planRepository).markCompleted(List.of(planId));
+        certificateService.getCertificates(userId);
+        verify(certificateRepository, times(2)).findByUserId(userId);
+    }
+
+    @Test
+    void testIssueCertificates_NothingComplete() {
+        UUID planId = UUID.randomUUID();
+        when(planRepository.findCompletedWithoutCertificate(List.of(planId))).thenReturn(List.of());
+
+        assertTrue(certificateService.issueCertificates(List.of(planId)).isEmpty());
+        verify(certificateRepository, never()).saveAll(anyList());
+    }
+}
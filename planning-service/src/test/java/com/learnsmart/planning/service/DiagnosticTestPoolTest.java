@@ -0,0 +1,159 @@
+package com.learnsmart.planning.service;
+
+import com.learnsmart.planning.client.Clients;
+import com.learnsmart.planning.dto.ExternalDtos;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DiagnosticTestPoolTest {
+
+    private static final String DOMAIN = "11111111-1111-1111-1111-111111111111";
+
+    @Mock
+    private Clients.AiClient aiClient;
+
+    private DiagnosticTestPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new DiagnosticTestPool(aiClient);
+        ReflectionTestUtils.setField(pool, "enabled", true);
+        ReflectionTestUtils.setField(pool, "targetSize", 10);
+        ReflectionTestUtils.setField(pool, "lowWaterMark", 0);
+        ReflectionTestUtils.setField(pool, "refillBatch", 10);
+        ReflectionTestUtils.setField(pool, "maxPools", 200);
+    }
+
+    @Test
+    void testTake_ServesFromPoolWithoutRepeats() {
+        when(aiClient.generateDiagnosticTest(any())).thenReturn(response(questions("Q", 10)));
+        pool.refill(new DiagnosticTestPool.PoolKey(DOMAIN, "BEGINNER"), poolFor(DOMAIN, "beginner"));
+        clearInvocations(aiClient);
+
+        List<Map<String, Object>> first = pool.take(DOMAIN, "beginner", 5);
+        List<Map<String, Object>> second = pool.take(DOMAIN, "BEGINNER", 5);
+
+        Set<Object> stems = new HashSet<>();
+        first.forEach(q -> stems.add(q.get("stem")));
+        second.forEach(q -> stems.add(q.get("stem")));
+        assertEquals(10, stems.size());
+        assertEquals(0, pool.size(DOMAIN, "BEGINNER"));
+        verifyNoInteractions(aiClient);
+    }
+
+    @Test
+    void testTake_EmptyPoolFallsBackToAi() {
+        when(aiClient.generateDiagnosticTest(argThat(r -> r.getNQuestions() == 3)))
+                .thenReturn(response(questions("Live", 3)));
+
+        List<Map<String, Object>> questions = pool.take(DOMAIN, null, 3);
+
+        assertEquals(3, questions.size());
+        verify(aiClient).generateDiagnosticTest(argThat(r -> "BEGINNER".equals(r.getLevel())));
+    }
+
+    @Test
+    void testTake_BelowLowWaterMarkRefillsInBackground() {
+        ReflectionTestUtils.setField(pool, "lowWaterMark", 5);
+        // The refill and the live request run concurrently; tell them apart by size
+        when(aiClient.generateDiagnosticTest(argThat(r -> r != null && r.getNQuestions() == 2)))
+                .thenReturn(response(questions("Live", 2)));
+        when(aiClient.generateDiagnosticTest(argThat(r -> r != null && r.getNQuestions() == 10)))
+                .thenReturn(response(questions("Pooled", 10)));
+
+        pool.take(DOMAIN, "ADVANCED", 2);
+
+        verify(aiClient, timeout(2000).times(2)).generateDiagnosticTest(any());
+        await(() -> pool.size(DOMAIN, "ADVANCED") == 10);
+    }
+
+    @Test
+    void testRefill_SkipsDuplicatesAndStopsWhenNothingNew() {
+        when(aiClient.generateDiagnosticTest(any())).thenReturn(response(questions("Same", 4)));
+
+        pool.refill(new DiagnosticTestPool.PoolKey(DOMAIN, "BEGINNER"), poolFor(DOMAIN, "BEGINNER"));
+
+        assertEquals(4, pool.size(DOMAIN, "BEGINNER"));
+        // Second call added nothing new, so the refill gave up
+        verify(aiClient, times(2)).generateDiagnosticTest(any());
+    }
+
+    @Test
+    void testTake_LargerThanPoolGoesToAi() {
+        when(aiClient.generateDiagnosticTest(argThat(r -> r.getNQuestions() == 50)))
+                .thenReturn(response(questions("Big", 50)));
+
+        assertEquals(50, pool.take(DOMAIN, "BEGINNER", 50).size());
+        assertEquals(0, pool.size(DOMAIN, "BEGINNER"));
+    }
+
+    @Test
+    void testTopUp_DropsIdlePoolsAndRefillsPreloadedOnes() {
+        String preloadedDomain = "22222222-2222-2222-2222-222222222222";
+        ReflectionTestUtils.setField(pool, "idleTtlMinutes", 30L);
+        ReflectionTestUtils.setField(pool, "preload", List.of(preloadedDomain + ":intermediate"));
+        pool.registerPreloadedPools();
+        poolFor(DOMAIN, "BEGINNER");
+        when(aiClient.generateDiagnosticTest(any())).thenReturn(response(questions("Pooled", 10)));
+
+        pool.topUp(System.currentTimeMillis() + 31 * 60_000L);
+
+        await(() -> pool.size(preloadedDomain, "INTERMEDIATE") == 10);
+        assertFalse(pools().containsKey(new DiagnosticTestPool.PoolKey(DOMAIN, "BEGINNER")));
+        verify(aiClient).generateDiagnosticTest(argThat(r -> preloadedDomain.equals(r.getDomainId())));
+        verify(aiClient, never()).generateDiagnosticTest(argThat(r -> DOMAIN.equals(r.getDomainId())));
+    }
+
+    @Test
+    void testTopUp_RefillsRecentlyUsedPools() {
+        ReflectionTestUtils.setField(pool, "idleTtlMinutes", 30L);
+        poolFor(DOMAIN, "BEGINNER");
+        when(aiClient.generateDiagnosticTest(any())).thenReturn(response(questions("Pooled", 10)));
+
+        pool.topUp(System.currentTimeMillis() + 60_000L);
+
+        await(() -> pool.size(DOMAIN, "BEGINNER") == 10);
+    }
+
+    private DiagnosticTestPool.Pool poolFor(String domainId, String level) {
+        // Creates the pool (without drawing anything) the way a first request would
+        return pools().computeIfAbsent(new DiagnosticTestPool.PoolKey(domainId, level.toUpperCase()),
+                k -> new DiagnosticTestPool.Pool());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<DiagnosticTestPool.PoolKey, DiagnosticTestPool.Pool> pools() {
+        return (Map<DiagnosticTestPool.PoolKey, DiagnosticTestPool.Pool>) ReflectionTestUtils.getField(pool, "pools");
+    }
+
+    private static void await(java.util.function.BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static ExternalDtos.GenerateDiagnosticTestResponse response(List<Map<String, Object>> questions) {
+        return new ExternalDtos.GenerateDiagnosticTestResponse(questions);
+    }
+
+    private static List<Map<String, Object>> questions(String prefix, int n) {
+        return IntStream.range(0, n)
+                .<Map<String, Object>>mapToObj(i -> new HashMap<>(Map.of("stem", prefix + " " + i)))
+                .toList();
+    }
+}
@@ -3,6 +3,7 @@ package com.learnsmart.planning.service;
 import com.learnsmart.planning.client.Clients;
 import com.learnsmart.planning.dto.ExternalDtos;
 import com.learnsmart.planning.model.LearningPlan;
+import com.learnsmart.planning.model.PlanModule;
 import com.learnsmart.planning.model.PlanReplanHistory;
 import com.learnsmart.planning.repository.LearningPlanRepository;
 import com.learnsmart.planning.repository.PlanReplanHistoryRepository;
@@ -14,8 +15,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -41,6 +44,14 @@ class LearningPlanServiceImplTest {
     private Clients.AiClient aiClient;
     @Mock
     private com.fasterxml.jackson.databind.ObjectMapper objectMapper;
+    @Mock
+    private AiResponseCacheService aiResponseCache;
+    @Mock
+    private LocalPlanBuilder localPlanBuilder;
+    @Mock
+    private DiagnosticTestPool diagnosticTestPool;
+    @Mock
+    private org.springframework.context.ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private LearningPlanServiceImpl planService;
@@ -96,6 +107,8 @@ class LearningPlanServiceImplTest {
         aiResponse.setPlan(planDraft);
 
         when(aiClient.generatePlan(any(ExternalDtos.GeneratePlanRequest.class))).thenReturn(aiResponse);
+        when(aiResponseCache.getOrGenerate(any(), eq(ExternalDtos.GeneratePlanResponse.class), any()))
+                .thenAnswer(i -> i.<java.util.function.Supplier<?>>getArgument(2).get());
         when(planRepository.save(any(LearningPlan.class))).thenAnswer(i -> {
             LearningPlan p = i.getArgument(0);
             p.setId(UUID.randomUUID());
@@ -132,6 +145,58 @@ class LearningPlanServiceImplTest {
         verify(planRepository).save(plan);
     }
 
+    @Test
+    void testCreatePlan_AIGenerationFailure_FallsBackToLocalBuilder() {
+        UUID userId = UUID.randomUUID();
+        UUID goalId = UUID.randomUUID();
+        UUID skillId = UUID.randomUUID();
+        LearningPlan plan = new LearningPlan();
+        plan.setUserId(userId.toString());
+        plan.setGoalId(goalId.toString());
+        plan.setGoalSkillId(skillId.toString());
+
+        ExternalDtos.LearningPath path = new ExternalDtos.LearningPath();
+        PlanModule module = new PlanModule();
+        module.setTitle("Local module");
+
+        when(profileClient.getProfile(userId.toString())).thenThrow(new RuntimeException("AI path down"));
+        when(contentClient.getLearningPath(skillId)).thenReturn(path);
+        when(localPlanBuilder.build(plan, path)).thenReturn(new ArrayList<>(List.of(module)));
+        when(planRepository.save(any(LearningPlan.class))).thenAnswer(i -> i.getArgument(0));
+
+        LearningPlan result = planService.createPlan(plan);
+
+        assertEquals(List.of(module), result.getModules());
+        assertEquals(LocalPlanBuilder.GENERATED_BY, result.getGeneratedBy());
+        assertEquals(1, result.getTotalModules());
+        verify(eventPublisher, never()).publishEvent(any());
+        verify(profileClient, never()).getMyGoals();
+    }
+
+    @Test
+    void testCreatePlan_LocalMode_UsesPlanGoalSkillWithoutProfileLookups() {
+        ReflectionTestUtils.setField(planService, "planBuilderMode", "local");
+        UUID skillId = UUID.randomUUID();
+        LearningPlan plan = new LearningPlan();
+        plan.setUserId(UUID.randomUUID().toString());
+        plan.setGoalId(UUID.randomUUID().toString());
+        plan.setGoalSkillId(skillId.toString());
+
+        ExternalDtos.LearningPath path = new ExternalDtos.LearningPath();
+        PlanModule module = new PlanModule();
+        module.setTitle("Local module");
+
+        when(contentClient.getLearningPath(skillId)).thenReturn(path);
+        when(localPlanBuilder.build(plan, path)).thenReturn(new ArrayList<>(List.of(module)));
+        when(planRepository.save(any(LearningPlan.class))).thenAnswer(i -> i.getArgument(0));
+
+        LearningPlan result = planService.createPlan(plan);
+
+        assertEquals(List.of(module), result.getModules());
+        assertEquals(LocalPlanBuilder.GENERATED_BY, result.getGeneratedBy());
+        verifyNoInteractions(profileClient, aiClient);
+    }
+
     @Test
     void testFindById_Found() {
         UUID id = UUID.randomUUID();
@@ -0,0 +1,119 @@
+package com.learnsmart.planning.service;
+
+import com.learnsmart.planning.dto.ExternalDtos;
+import com.learnsmart.planning.model.LearningPlan;
+import com.learnsmart.planning.model.PlanActivity;
+import com.learnsmart.planning.model.PlanModule;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalPlanBuilderTest {
+
+    private final LocalPlanBuilder builder = new LocalPlanBuilder(new PrerequisiteValidationService());
+
+    private final UUID basics = UUID.randomUUID();
+    private final UUID intermediate = UUID.randomUUID();
+    private final UUID goal = UUID.randomUUID();
+
+    @Test
+    void testBuild_OrdersModulesByPrerequisites() {
+        // Path lists the goal first, as content-service walks outward from it
+        ExternalDtos.LearningPath path = path(
+                List.of(skill(goal, "Goal", intermediate), skill(intermediate, "Intermediate", basics),
+                        skill(basics, "Basics")),
+                List.of(item("Goal quiz", "quiz", 30, goal), item("Goal lesson", "lesson", 30, goal),
+                        item("Intro", "lesson", 30, basics), item("Both", "practice", 30, basics, intermediate)));
+
+        List<PlanModule> modules = builder.build(plan(new BigDecimal("5")), path);
+
+        assertEquals(List.of("Basics", "Intermediate", "Goal"), modules.stream().map(PlanModule::getTitle).toList());
+        assertEquals(List.of(1, 2, 3), modules.stream().map(PlanModule::getPosition).toList());
+        // Shared item goes with its most advanced skill; lessons before quizzes
+        assertEquals(List.of("practice"), types(modules.get(1)));
+        assertEquals(List.of("lesson", "quiz"), types(modules.get(2)));
+        assertEquals(List.of(goal.toString()), modules.get(2).getTargetSkills());
+        assertEquals(new BigDecimal("1.00"), modules.get(2).getEstimatedHours());
+    }
+
+    @Test
+    void testBuild_SplitsSkillsByWeeklyBudget() {
+        ExternalDtos.LearningPath path = path(List.of(skill(goal, "Goal")),
+                List.of(item("A", "lesson", 40, goal), item("B", "lesson", 40, goal), item("C", "lesson", 40, goal)));
+        LearningPlan plan = plan(BigDecimal.ONE);
+
+        List<PlanModule> modules = builder.build(plan, path);
+
+        assertEquals(List.of("Goal (part 1)", "Goal (part 2)", "Goal (part 3)"),
+                modules.stream().map(PlanModule::getTitle).toList());
+        assertEquals(plan.getStartDate().plusWeeks(2), plan.getEndDate());
+    }
+
+    @Test
+    void testBuild_IsDeterministic() {
+        List<ExternalDtos.LearningPathItem> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            items.add(item("Item " + i, i % 2 == 0 ? "lesson" : "quiz", 15, i % 3 == 0 ? basics : goal));
+        }
+        List<ExternalDtos.LearningPathSkill> skills = List.of(skill(goal, "Goal", basics), skill(basics, "Basics"));
+
+        List<PlanModule> first = builder.build(plan(new BigDecimal("2")), path(skills, items));
+        Collections.reverse(items);
+        List<PlanModule> second = builder.build(plan(new BigDecimal("2")), path(skills, items));
+
+        assertEquals(refs(first), refs(second));
+    }
+
+    @Test
+    void testBuild_EmptyPathGivesNoModules() {
+        assertTrue(builder.build(plan(null), path(List.of(skill(goal, "Goal")), List.of())).isEmpty());
+        assertTrue(builder.build(plan(null), null).isEmpty());
+    }
+
+    private static LearningPlan plan(BigDecimal hoursPerWeek) {
+        LearningPlan plan = new LearningPlan();
+        plan.setStartDate(LocalDate.of(2026, 1, 5));
+        plan.setHoursPerWeek(hoursPerWeek);
+        return plan;
+    }
+
+    private static ExternalDtos.LearningPath path(List<ExternalDtos.LearningPathSkill> skills,
+            List<ExternalDtos.LearningPathItem> items) {
+        ExternalDtos.LearningPath path = new ExternalDtos.LearningPath();
+        path.setSkills(skills);
+        path.setItems(items);
+        return path;
+    }
+
+    private static ExternalDtos.LearningPathSkill skill(UUID id, String name, UUID... prerequisites) {
+        ExternalDtos.LearningPathSkill skill = new ExternalDtos.LearningPathSkill();
+        skill.setId(id);
+        skill.setName(name);
+        skill.setPrerequisiteIds(List.of(prerequisites));
+        return skill;
+    }
+
+    private static ExternalDtos.LearningPathItem item(String title, String type, int minutes, UUID... skills) {
+        ExternalDtos.LearningPathItem item = new ExternalDtos.LearningPathItem();
+        item.setId(UUID.nameUUIDFromBytes(title.getBytes()));
+        item.setTitle(title);
+        item.setType(type);
+        item.setEstimatedMinutes(minutes);
+        item.setSkillIds(List.of(skills));
+        return item;
+    }
+
+    private static List<String> types(PlanModule module) {
+        return module.getActivities().stream().map(PlanActivity::getActivityType).toList();
+    }
+
+    private static List<List<String>> refs(List<PlanModule> modules) {
+        return modules.stream()
+                .map(m -> m.getActivities().stream().map(PlanActivity::getContentRef).toList())
+                .toList();
+    }
+}
@@ -1,11 +1,13 @@
 package com.learnsmart.planning.service;
 
+import com.learnsmart.planning.dto.PlanDtos;
 import com.learnsmart.planning.model.LearningPlan;
 import com.learnsmart.planning.model.PlanActivity;
 import com.learnsmart.planning.model.PlanModule;
 import com.learnsmart.planning.repository.PlanActivityRepository;
 import com.learnsmart.planning.repository.PlanModuleRepository;
 import com.learnsmart.planning.repository.LearningPlanRepository;
+import com.learnsmart.planning.repository.TrackingOutboxRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -19,6 +21,10 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +39,18 @@ class PlanActivityServiceImplementationTest {
     @Mock
     private LearningPlanRepository planRepository;
 
+    @Mock
+    private org.springframework.context.ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TrackingOutboxRepository outboxRepository;
+
+    @Mock
+    private org.springframework.jdbc.core.JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private jakarta.persistence.EntityManager entityManager;
+
     @InjectMocks
     private PlanActivityServiceImplementation activityService;
 
@@ -55,10 +73,13 @@ class PlanActivityServiceImplementationTest {
         LearningPlan plan = new LearningPlan();
         plan.setId(planId);
         plan.setUserId(UUID.randomUUID().toString());
+        plan.setTotalModules(1);
+        plan.setTotalActivities(1);
 
         PlanModule module = new PlanModule();
         module.setId(moduleId);
         module.setPlan(plan);
+        module.setTotalActivities(1);
 
         PlanActivity activity = new PlanActivity();
         activity.setId(activityId);
@@ -67,11 +88,19 @@ class PlanActivityServiceImplementationTest {
 
         when(activityRepository.findById(activityId)).thenReturn(Optional.of(activity));
         when(activityRepository.save(any(PlanActivity.class))).thenAnswer(i -> i.getArgument(0));
-        when(activityRepository.findByModuleIdOrderByPositionAsc(moduleId)).thenReturn(List.of(activity));
 
         PlanActivity result = activityService.updateActivityStatus(planId, activityId, "completed", null);
         assertEquals("completed", result.getStatus());
+        assertEquals(1, module.getCompletedActivities());
+        assertEquals("completed", module.getStatus());
+        assertEquals(1, plan.getCompletedActivities());
+        assertEquals(1, plan.getCompletedModules());
+        assertEquals("completed", plan.getStatus());
         verify(activityRepository).save(activity);
+        verify(activityRepository, never()).findByModuleIdOrderByPositionAsc(any());
+        verify(eventPublisher).publishEvent(any(com.learnsmart.planning.event.PlanProgressChangedEvent.class));
+        verify(outboxRepository).save(argThat(event -> "ACTIVITY_COMPLETE".equals(event.getEventType())
+                && planId.equals(event.getPlanId()) && activityId.equals(event.getEntityId())));
     }
 
     @Test
@@ -83,10 +112,13 @@ class PlanActivityServiceImplementationTest {
         LearningPlan plan = new LearningPlan();
         plan.setId(planId);
         plan.setUserId(UUID.randomUUID().toString());
+        plan.setTotalModules(1);
+        plan.setTotalActivities(1);
 
         PlanModule module = new PlanModule();
         module.setId(moduleId);
         module.setPlan(plan);
+        module.setTotalActivities(1);
 
         PlanActivity activity = new PlanActivity();
         activity.setId(activityId);
@@ -94,7 +126,6 @@ class PlanActivityServiceImplementationTest {
 
         when(activityRepository.findById(activityId)).thenReturn(Optional.of(activity));
         when(activityRepository.save(any(PlanActivity.class))).thenAnswer(i -> i.getArgument(0));
-        when(activityRepository.findByModuleIdOrderByPositionAsc(moduleId)).thenReturn(List.of(activity));
 
         PlanActivity result = activityService.updateActivityStatus(planId, activityId, "completed", 45);
         assertEquals("completed", result.getStatus());
@@ -142,4 +173,91 @@ class PlanActivityServiceImplementationTest {
 
         assertThrows(RuntimeException.class, () -> activityService.findById(id));
     }
+
+    @Test
+    void testUpdateActivityStatus_ModuleNotYetComplete() {
+        UUID planId = UUID.randomUUID();
+        UUID activityId = UUID.randomUUID();
+
+        LearningPlan plan = new LearningPlan();
+        plan.setId(planId);
+        plan.setUserId(UUID.randomUUID().toString());
+        plan.setTotalModules(2);
+        plan.setTotalActivities(4);
+
+        PlanModule module = new PlanModule();
+        module.setId(UUID.randomUUID());
+        module.setPlan(plan);
+        module.setTotalActivities(2);
+
+        PlanActivity activity = new PlanActivity();
+        activity.setId(activityId);
+        activity.setModule(module);
+        activity.setStatus("in_progress");
+
+        when(activityRepository.findById(activityId)).thenReturn(Optional.of(activity));
+        when(activityRepository.save(any(PlanActivity.class))).thenAnswer(i -> i.getArgument(0));
+
+        activityService.updateActivityStatus(planId, activityId, "completed", null);
+
+        assertEquals(1, module.getCompletedActivities());
+        assertEquals("pending", module.getStatus());
+        assertEquals(1, plan.getCompletedActivities());
+        assertEquals(0, plan.getCompletedModules());
+        assertEquals("active", plan.getStatus());
+    }
+
+    @Test
+    void testUpdateActivityStatuses_BatchesWritesAndEvents() {
+        UUID planId = UUID.randomUUID();
+        LearningPlan plan = new LearningPlan();
+        plan.setId(planId);
+        plan.setUserId(UUID.randomUUID().toString());
+
+        PlanModule module = new PlanModule();
+        module.setId(UUID.randomUUID());
+        module.setPlan(plan);
+
+        PlanActivity first = activity(module, "pending");
+        PlanActivity second = activity(module, "in_progress");
+        when(activityRepository.findByPlanIdAndIdIn(eq(planId), any()))
+                .thenReturn(List.of(first, second));
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE plan_activities"), anyList())).thenReturn(new int[] { 1, 1 });
+
+        List<PlanActivity> result = activityService.updateActivityStatuses(planId,
+                List.of(change(first.getId(), "completed"), change(second.getId(), "completed")));
+
+        assertEquals(2, result.size());
+        assertNotNull(second.getCompletedAt());
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE plan_modules"), anyList());
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO tracking_outbox"),
+                argThat((List<Object[]> rows) -> rows.size() == 2));
+        verify(activityRepository, never()).save(any());
+        verify(eventPublisher, times(1)).publishEvent(any(com.learnsmart.planning.event.PlanProgressChangedEvent.class));
+    }
+
+    @Test
+    void testUpdateActivityStatuses_RejectsActivityOfOtherPlan() {
+        UUID planId = UUID.randomUUID();
+        when(activityRepository.findByPlanIdAndIdIn(eq(planId), any())).thenReturn(List.of());
+
+        assertThrows(RuntimeException.class, () -> activityService.updateActivityStatuses(planId,
+                List.of(change(UUID.randomUUID(), "completed"))));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private PlanActivity activity(PlanModule module, String status) {
+        PlanActivity activity = new PlanActivity();
+        activity.setId(UUID.randomUUID());
+        activity.setModule(module);
+        activity.setStatus(status);
+        return activity;
+    }
+
+    private PlanDtos.ActivityStatusChange change(UUID activityId, String status) {
+        PlanDtos.ActivityStatusChange change = new PlanDtos.ActivityStatusChange();
+        change.setActivityId(activityId);
+        change.setStatus(status);
+        return change;
+    }
 }
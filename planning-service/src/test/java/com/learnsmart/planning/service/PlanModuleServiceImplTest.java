@@ -1,13 +1,16 @@
 package com.learnsmart.planning.service;
 
+import com.learnsmart.planning.event.PlanCompletionCandidateEvent;
 import com.learnsmart.planning.model.LearningPlan;
 import com.learnsmart.planning.model.PlanModule;
+import com.learnsmart.planning.repository.LearningPlanRepository;
 import com.learnsmart.planning.repository.PlanModuleRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Collections;
 import java.util.List;
@@ -25,7 +28,10 @@ class PlanModuleServiceImplTest {
     private PlanModuleRepository moduleRepository;
 
     @Mock
-    private LearningPlanService planService;
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private LearningPlanRepository planRepository;
 
     @InjectMocks
     private PlanModuleServiceImpl moduleService;
@@ -59,6 +65,30 @@ class PlanModuleServiceImplTest {
         PlanModule result = moduleService.updateModuleStatus(planId, moduleId, "completed");
         assertEquals("completed", result.getStatus());
         verify(moduleRepository).save(module);
+        verify(eventPublisher).publishEvent(new PlanCompletionCandidateEvent(planId));
+    }
+
+    @Test
+    void testUpdateModuleStatus_IncompletePlanIsNotACandidate() {
+        UUID planId = UUID.randomUUID();
+        UUID moduleId = UUID.randomUUID();
+
+        LearningPlan plan = new LearningPlan();
+        plan.setId(planId);
+        plan.setTotalModules(2);
+
+        PlanModule module = new PlanModule();
+        module.setId(moduleId);
+        module.setPlan(plan);
+        module.setStatus("pending");
+
+        when(moduleRepository.findById(moduleId)).thenReturn(Optional.of(module));
+        when(moduleRepository.save(any(PlanModule.class))).thenAnswer(i -> i.getArgument(0));
+
+        moduleService.updateModuleStatus(planId, moduleId, "completed");
+
+        assertEquals(1, plan.getCompletedModules());
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
@@ -0,0 +1,105 @@
+package com.learnsmart.planning.service;
+
+import com.learnsmart.planning.model.LearningPlan;
+import com.learnsmart.planning.model.PlanModule;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrerequisiteValidationServiceTest {
+
+    private final PrerequisiteValidationService validationService = new PrerequisiteValidationService();
+
+    private final UUID a = UUID.randomUUID();
+    private final UUID b = UUID.randomUUID();
+    private final UUID c = UUID.randomUUID();
+    private final UUID d = UUID.randomUUID();
+
+    @Test
+    void testValidatePlan_ChecksEveryTargetSkill() {
+        // Module 0 teaches c and a; a is fine but c needs b from module 1
+        LearningPlan plan = plan(module("First", c, a), module("Second", b));
+        Map<UUID, List<UUID>> graph = Map.of(c, List.of(b), b, List.of(a));
+
+        var violations = validationService.validatePlan(plan, graph);
+
+        assertEquals(1, violations.size());
+        assertEquals(c.toString(), violations.get(0).getSkillId());
+        assertEquals(1, violations.get(0).getPrerequisiteModuleIndex());
+    }
+
+    @Test
+    void testReorder_MovesOnlyWhatTheConstraintsRequire() {
+        LearningPlan plan = plan(module("Needs C", a), module("Unrelated", d), module("Teaches C", c, b));
+        Map<UUID, List<UUID>> graph = Map.of(a, List.of(c));
+
+        validationService.reorderForPrerequisites(plan, graph);
+
+        assertEquals(List.of("Unrelated", "Teaches C", "Needs C"),
+                plan.getModules().stream().map(PlanModule::getTitle).toList());
+        assertEquals(List.of(1, 2, 3), plan.getModules().stream().map(PlanModule::getPosition).toList());
+    }
+
+    @Test
+    void testReorder_ReportsAllCycles() {
+        LearningPlan plan = plan(module("M1", a), module("M2", b), module("M3", c), module("M4", d));
+        Map<UUID, List<UUID>> graph = Map.of(a, List.of(b), b, List.of(a), c, List.of(d), d, List.of(c));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> validationService.reorderForPrerequisites(plan, graph));
+
+        assertTrue(e.getMessage().contains(a.toString()) && e.getMessage().contains(c.toString()));
+    }
+
+    @Test
+    void testOrderSkills_DeepChainWithoutRecursion() {
+        int size = 200_000;
+        List<UUID> skills = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            skills.add(UUID.randomUUID());
+        }
+        // skills[i] requires skills[i + 1]: the whole list must be reversed
+        Map<UUID, List<UUID>> graph = new HashMap<>();
+        for (int i = 0; i + 1 < size; i++) {
+            graph.put(skills.get(i), List.of(skills.get(i + 1)));
+        }
+
+        PrerequisiteValidationService.SkillOrder order = validationService.orderSkills(skills, graph);
+
+        assertTrue(order.cycles().isEmpty());
+        assertEquals(skills.get(size - 1), order.order().get(0));
+        assertEquals(skills.get(0), order.order().get(size - 1));
+    }
+
+    @Test
+    void testTopologicalSorter_CyclesAndSelfLoops() {
+        // 0 -> 1 -> 2 -> 0, 3 -> 3, 4 after the first cycle, 5 free
+        int[] before = { 0, 1, 2, 3, 2 };
+        int[] after = { 1, 2, 0, 3, 4 };
+
+        TopologicalSorter.Result result = TopologicalSorter.sort(6, before, after, before.length);
+
+        assertArrayEquals(new int[] { 5 }, result.order());
+        assertEquals(2, result.cycles().size());
+        assertArrayEquals(new int[] { 0, 1, 2 }, result.cycles().get(0));
+        assertArrayEquals(new int[] { 3 }, result.cycles().get(1));
+    }
+
+    private LearningPlan plan(PlanModule... modules) {
+        LearningPlan plan = new LearningPlan();
+        plan.setModules(new ArrayList<>(List.of(modules)));
+        for (int i = 0; i < modules.length; i++) {
+            modules[i].setPosition(i + 1);
+        }
+        return plan;
+    }
+
+    private PlanModule module(String title, UUID... skills) {
+        PlanModule module = new PlanModule();
+        module.setTitle(title);
+        module.setTargetSkills(Arrays.stream(skills).map(UUID::toString).toList());
+        return module;
+    }
+}
@@ -0,0 +1,143 @@
+package com.learnsmart.planning.service;
+
+import com.learnsmart.planning.dto.ExternalDtos;
+import com.learnsmart.planning.model.LearningPlan;
+import com.learnsmart.planning.model.PlanActivity;
+import com.learnsmart.planning.model.PlanModule;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplanDiffServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private ReplanDiffService diffService;
+
+    @BeforeEach
+    void setUp() {
+        diffService = new ReplanDiffService(jdbcTemplate, entityManager);
+    }
+
+    @Test
+    void testDiff_UnchangedPlanProducesNoStatements() {
+        LearningPlan plan = plan(module("Basics", 1, activity("a", 1, "completed"), activity("b", 2, "pending")));
+
+        ReplanDiffService.PlanDiff diff = diffService.diff(plan,
+                List.of(draft("Basics", "a", "b")));
+
+        assertTrue(diff.isEmpty());
+        assertEquals(1, diff.totalModules());
+        assertEquals(2, diff.totalActivities());
+        assertEquals(1, diff.completedActivities());
+    }
+
+    @Test
+    void testDiff_ReordersModulesAndMovesActivitiesByContentRef() {
+        PlanModule basics = module("Basics", 1, activity("a", 1, "completed"), activity("b", 2, "pending"));
+        PlanModule advanced = module("Advanced", 2, activity("c", 1, "pending"));
+        LearningPlan plan = plan(basics, advanced);
+
+        ReplanDiffService.PlanDiff diff = diffService.diff(plan,
+                List.of(draft(" advanced ", "c", "b"), draft("Basics", "a", "new")));
+
+        assertTrue(diff.moduleInserts().isEmpty());
+        assertTrue(diff.moduleDeletes().isEmpty());
+        assertTrue(diff.activityDeletes().isEmpty());
+        assertEquals(1, diff.activityInserts().size());
+        assertEquals("new", diff.activityInserts().get(0).contentRef());
+        assertEquals(basics.getId(), diff.activityInserts().get(0).moduleId());
+
+        // "b" keeps its row and moves to the first module
+        ReplanDiffService.ActivityRow moved = diff.activityUpdates().get(0);
+        assertEquals(basics.getActivities().get(1).getId(), moved.id());
+        assertEquals(advanced.getId(), moved.moduleId());
+        assertEquals(2, moved.position());
+
+        assertEquals(2, diff.moduleUpdates().size());
+        assertEquals(advanced.getId(), diff.moduleUpdates().get(0).id());
+        assertEquals(1, diff.moduleUpdates().get(0).position());
+    }
+
+    @Test
+    void testDiff_KeepsCompletedActivitiesTheDraftDrops() {
+        PlanModule basics = module("Basics", 1, activity("a", 1, "completed"), activity("b", 2, "pending"));
+        basics.setStatus("in_progress");
+        PlanModule legacy = module("Legacy", 2, activity("x", 1, "pending"));
+        LearningPlan plan = plan(basics, legacy);
+
+        ReplanDiffService.PlanDiff diff = diffService.diff(plan, List.of(draft("Fresh start", "z")));
+
+        assertEquals(1, diff.moduleInserts().size());
+        assertEquals(List.of(legacy.getId()), diff.moduleDeletes());
+        assertEquals(2, diff.activityDeletes().size());
+
+        // "Basics" survives behind the draft module with only its completed activity
+        ReplanDiffService.ModuleRow kept = diff.moduleUpdates().get(0);
+        assertEquals(basics.getId(), kept.id());
+        assertEquals(2, kept.position());
+        assertEquals("completed", kept.status());
+        assertEquals(1, kept.totalActivities());
+        assertEquals(2, diff.totalModules());
+        assertEquals(1, diff.completedModules());
+    }
+
+    private LearningPlan plan(PlanModule... modules) {
+        LearningPlan plan = new LearningPlan();
+        plan.setId(UUID.randomUUID());
+        plan.setModules(new ArrayList<>(List.of(modules)));
+        for (PlanModule module : modules) {
+            module.setPlan(plan);
+            module.recountProgress();
+        }
+        return plan;
+    }
+
+    private PlanModule module(String title, int position, PlanActivity... activities) {
+        PlanModule module = new PlanModule();
+        module.setId(UUID.randomUUID());
+        module.setTitle(title);
+        module.setPosition(position);
+        module.setActivities(new ArrayList<>(List.of(activities)));
+        for (PlanActivity activity : activities) {
+            activity.setModule(module);
+        }
+        return module;
+    }
+
+    private PlanActivity activity(String contentRef, int position, String status) {
+        PlanActivity activity = new PlanActivity();
+        activity.setId(UUID.randomUUID());
+        activity.setContentRef(contentRef);
+        activity.setPosition(position);
+        activity.setActivityType("lesson");
+        activity.setStatus(status);
+        return activity;
+    }
+
+    private ExternalDtos.ModuleDraft draft(String title, String... contentRefs) {
+        ExternalDtos.ModuleDraft draft = new ExternalDtos.ModuleDraft();
+        draft.setTitle(title);
+        List<ExternalDtos.ActivityDraft> activities = new ArrayList<>();
+        for (String ref : contentRefs) {
+            activities.add(new ExternalDtos.ActivityDraft("lesson", ref));
+        }
+        draft.setActivities(activities);
+        return draft;
+    }
+}
@@ -0,0 +1,74 @@
+package com.learnsmart.planning.service;
+
+import com.learnsmart.planning.event.PlanProgressChangedEvent;
+import com.learnsmart.planning.repository.LearningPlanRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplanEvaluationQueueTest {
+
+    @Mock
+    private ReplanTriggerService triggerService;
+
+    @Mock
+    private LearningPlanRepository planRepository;
+
+    @InjectMocks
+    private ReplanEvaluationQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(queue, "debounceSeconds", 0L);
+        ReflectionTestUtils.setField(queue, "maxDelaySeconds", 600L);
+        ReflectionTestUtils.setField(queue, "batchSize", 100);
+    }
+
+    @Test
+    void testDrain_CoalescesRepeatedSignals() {
+        UUID planId = UUID.randomUUID();
+        queue.onPlanProgressChanged(new PlanProgressChangedEvent(planId, PlanProgressChangedEvent.SOURCE_ACTIVITY));
+        queue.onPlanProgressChanged(new PlanProgressChangedEvent(planId, PlanProgressChangedEvent.SOURCE_ACTIVITY));
+        assertEquals(1, queue.pendingCount());
+
+        when(triggerService.evaluateBatch(List.of(planId)))
+                .thenReturn(new ReplanTriggerService.BatchEvaluation(1, 0, 0));
+        queue.drain();
+
+        assertEquals(0, queue.pendingCount());
+        verify(triggerService, times(1)).evaluateBatch(any());
+    }
+
+    @Test
+    void testDrain_WaitsForDebounce() {
+        ReflectionTestUtils.setField(queue, "debounceSeconds", 60L);
+        queue.enqueue(UUID.randomUUID());
+
+        queue.drain();
+
+        assertEquals(1, queue.pendingCount());
+        verifyNoInteractions(triggerService);
+    }
+
+    @Test
+    void testEnqueueUser_QueuesActivePlans() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(planRepository.findIdsByUserIdAndStatus("user1", "active")).thenReturn(List.of(first, second));
+
+        assertEquals(2, queue.enqueueUser("user1"));
+        assertEquals(2, queue.pendingCount());
+    }
+}
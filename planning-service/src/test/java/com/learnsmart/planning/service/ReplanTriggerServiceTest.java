@@ -0,0 +1,179 @@
+package com.learnsmart.planning.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learnsmart.planning.client.TrackingActivityClient;
+import com.learnsmart.planning.repository.PlanActivityRepository;
+import com.learnsmart.planning.repository.ReplanTriggerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplanTriggerServiceTest {
+
+    @Mock
+    private ReplanTriggerRepository triggerRepository;
+
+    @Mock
+    private PlanActivityRepository activityRepository;
+
+    @Mock
+    private TrackingActivityClient trackingClient;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ReplanTriggerService triggerService;
+
+    @BeforeEach
+    void setUp() {
+        triggerService = new ReplanTriggerService(triggerRepository, activityRepository, trackingClient,
+                new ObjectMapper(), jdbcTemplate);
+    }
+
+    @Test
+    void testEvaluateBatch_Empty() {
+        ReplanTriggerService.BatchEvaluation result = triggerService.evaluateBatch(List.of());
+
+        assertEquals(0, result.plans());
+        verifyNoInteractions(triggerRepository, jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testEvaluateBatch_BulkInsertsTriggers() {
+        UUID behind = UUID.randomUUID();
+        UUID onTrack = UUID.randomUUID();
+        UUID alreadyFlagged = UUID.randomUUID();
+
+        when(triggerRepository.findTriggerSnapshots(eq(List.of(behind, onTrack, alreadyFlagged)), any(), any()))
+                .thenReturn(List.of(
+                        snapshot(behind, 80.0, 10.0, 20L, 0),
+                        snapshot(onTrack, 50.0, 45.0, 1L, 0),
+                        snapshot(alreadyFlagged, 90.0, 0.0, 1L, 1)));
+        when(trackingClient.getLastActivity(any())).thenReturn(Map.of(
+                "user-" + behind, Optional.empty(),
+                "user-" + onTrack, Optional.of(OffsetDateTime.now().minusDays(1))));
+
+        ReplanTriggerService.BatchEvaluation result = triggerService
+                .evaluateBatch(List.of(behind, onTrack, alreadyFlagged));
+
+        assertEquals(3, result.plans());
+        assertEquals(2, result.triggers()); // deviation + inactivity for the plan that is behind
+        assertEquals(2, result.suggestions()); // both HIGH
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(trackingClient, times(1)).getLastActivity(any());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), rows.capture());
+        assertEquals(2, rows.getValue().size());
+        assertTrue(rows.getValue().stream().allMatch(row -> behind.equals(row[1])));
+        assertTrue(rows.getValue().stream().allMatch(row -> "SUGGESTED".equals(row[7])));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testEvaluateBatch_InactivityFromTrackedActivity() {
+        UUID recentlyActive = UUID.randomUUID();
+        UUID unknown = UUID.randomUUID();
+
+        // Both plans started 30 days ago, are on track and were last updated 10 days ago
+        when(triggerRepository.findTriggerSnapshots(any(), any(), any()))
+                .thenReturn(List.of(
+                        snapshot(recentlyActive, 50.0, 50.0, 30L, 0),
+                        snapshot(unknown, 50.0, 50.0, 30L, 0)));
+        // Tracking-service could not resolve the second user
+        when(trackingClient.getLastActivity(any())).thenReturn(Map.of(
+                "user-" + recentlyActive, Optional.of(OffsetDateTime.now().minusDays(2))));
+
+        ReplanTriggerService.BatchEvaluation result = triggerService
+                .evaluateBatch(List.of(recentlyActive, unknown));
+
+        // The unknown user is judged by the plan's last update instead of being skipped
+        assertEquals(2, result.plans());
+        assertEquals(1, result.triggers());
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture());
+        assertEquals(unknown, rows.getValue().get(0)[1]);
+        assertEquals("MEDIUM", rows.getValue().get(0)[4]);
+    }
+
+    @Test
+    void testDaysSinceActivity() {
+        OffsetDateTime now = OffsetDateTime.now();
+
+        assertEquals(5, ReplanTriggerService.daysSinceActivity(Optional.of(now.minusDays(5)), 30, now));
+        // Activity from before the plan started is capped at the plan age
+        assertEquals(10, ReplanTriggerService.daysSinceActivity(Optional.of(now.minusDays(40)), 10, now));
+        assertEquals(10, ReplanTriggerService.daysSinceActivity(Optional.empty(), 10, now));
+    }
+
+    private ReplanTriggerRepository.PlanTriggerSnapshot snapshot(UUID planId, Double expected, Double actual,
+            Long daysSincePlanStart, int recentProgressTrigger) {
+        return new ReplanTriggerRepository.PlanTriggerSnapshot() {
+            public UUID getPlanId() {
+                return planId;
+            }
+
+            public Long getTotalActivities() {
+                return 10L;
+            }
+
+            public Long getCompletedActivities() {
+                return Math.round(actual / 10);
+            }
+
+            public Double getExpectedProgress() {
+                return expected;
+            }
+
+            public Double getActualProgress() {
+                return actual;
+            }
+
+            public String getUserId() {
+                return "user-" + planId;
+            }
+
+            public Long getDaysSincePlanStart() {
+                return daysSincePlanStart;
+            }
+
+            public String getPlanStartDate() {
+                return "2025-01-01";
+            }
+
+            public Long getDaysSincePlanUpdate() {
+                return Math.min(daysSincePlanStart, 10L); // never before the plan started
+            }
+
+            public String getPlanUpdateDate() {
+                return "2025-01-21";
+            }
+
+            public Integer getRecentProgressTrigger() {
+                return recentProgressTrigger;
+            }
+
+            public Integer getRecentInactivityTrigger() {
+                return 0;
+            }
+        };
+    }
+}
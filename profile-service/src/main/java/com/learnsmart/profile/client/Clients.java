@@ -13,11 +13,9 @@ public interface Clients {
 
     @FeignClient(name = "planning-service")
     public interface PlanningClient {
-        @GetMapping("/plans")
-        Map<String, Object> getPlans(@RequestParam("userId") String userId);
-
-        @GetMapping("/plans/{planId}/modules")
-        List<Map<String, Object>> getModules(@PathVariable("planId") UUID planId);
+        // Summary rows (no modules, no AI payload) with completion counts, newest first
+        @GetMapping("/plans/summaries")
+        Map<String, Object> getPlanSummaries(@RequestParam("userId") String userId, @RequestParam("size") int size);
     }
 
     @FeignClient(name = "assessment-service")
@@ -23,7 +23,7 @@ import java.util.UUID;
 public class UserAuditLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(name = "user_id", nullable = false)
@@ -74,7 +74,7 @@ public class UserGoal {
     @PrePersist
     protected void onCreate() {
         if (id == null) {
-            id = UUID.randomUUID();
+            id = UuidV7Generator.next();
         }
         if (isActive == null) {
             isActive = true;
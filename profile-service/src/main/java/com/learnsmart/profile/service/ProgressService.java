@@ -40,7 +40,7 @@ public class ProgressService {
         try {
             // Using authUserId for planning-service as it usually identifies the user
             // globally or we use external ID
-            Map<String, Object> plans = planningClient.getPlans(profile.getUserId().toString());
+            Map<String, Object> plans = planningClient.getPlanSummaries(profile.getUserId().toString(), 1);
             List<Map<String, Object>> planList = (List<Map<String, Object>>) plans.get("content");
             if (planList != null && !planList.isEmpty()) {
                 Map<String, Object> latestPlan = planList.get(0);
@@ -51,16 +51,12 @@ public class ProgressService {
                 pp.setGoalId(latestPlan.get("goalId") != null ? latestPlan.get("goalId").toString() : null);
                 pp.setStatus(latestPlan.get("status").toString());
 
-                // Fetch modules to calculate progress
-                List<Map<String, Object>> modules = planningClient.getModules(planId);
-                if (modules != null) {
-                    pp.setTotalModules(modules.size());
-                    long completed = modules.stream()
-                            .filter(m -> "COMPLETED".equalsIgnoreCase(String.valueOf(m.get("status"))))
-                            .count();
-                    pp.setCompletedModules((int) completed);
-                    pp.setOverallPercentage(modules.isEmpty() ? 0.0 : (completed * 100.0 / modules.size()));
-                }
+                // Module counts are precomputed by planning-service
+                int total = ((Number) latestPlan.getOrDefault("totalModules", 0)).intValue();
+                int completed = ((Number) latestPlan.getOrDefault("completedModules", 0)).intValue();
+                pp.setTotalModules(total);
+                pp.setCompletedModules(completed);
+                pp.setOverallPercentage(total == 0 ? 0.0 : (completed * 100.0 / total));
                 res.setCurrentPlan(pp);
             }
         } catch (Exception e) {
@@ -6,6 +6,8 @@ ADMIN_USER="${ADMIN_USER:-admin}"
 ADMIN_PASS="${ADMIN_PASS:-admin}"
 REALM="${REALM:-learnsmart}"
 CLIENT_ID="${CLIENT_ID:-learnsmart-frontend}"
+PLANNING_CLIENT_ID="${PLANNING_SERVICE_CLIENT_ID:-planning-service}"
+PLANNING_CLIENT_SECRET="${PLANNING_SERVICE_CLIENT_SECRET:-planning-service-secret}"
 
 echo "Waiting for Keycloak to be ready..."
 until curl -s "$KEYCLOAK_URL/realms/master" > /dev/null; do
@@ -91,4 +93,53 @@ curl -s -X POST "$KEYCLOAK_URL/admin/realms/$REALM/users/$USER_ID/role-mappings/
      -H "Content-Type: application/json" \
      -d "[{\"id\": \"$ROLE_ID\", \"name\": \"ADMIN\"}]"
 
+# Service account used by planning-service for scheduled calls to other services
+# (outbox relay, last-activity lookups); the 'service' role lets it signal any user's replans
+echo "Creating service role..."
+curl -s -X POST "$KEYCLOAK_URL/admin/realms/$REALM/roles" \
+     -H "Authorization: Bearer $TOKEN" \
+     -H "Content-Type: application/json" \
+     -d "{\"name\": \"service\"}" || echo "Role might already exist"
+
+PLANNING_CLIENT_JSON="{
+       \"clientId\": \"$PLANNING_CLIENT_ID\",
+       \"enabled\": true,
+       \"publicClient\": false,
+       \"clientAuthenticatorType\": \"client-secret\",
+       \"secret\": \"$PLANNING_CLIENT_SECRET\",
+       \"serviceAccountsEnabled\": true,
+       \"standardFlowEnabled\": false,
+       \"directAccessGrantsEnabled\": false
+     }"
+
+echo "Creating client $PLANNING_CLIENT_ID..."
+curl -s -X POST "$KEYCLOAK_URL/admin/realms/$REALM/clients" \
+     -H "Authorization: Bearer $TOKEN" \
+     -H "Content-Type: application/json" \
+     -d "$PLANNING_CLIENT_JSON" || echo "Client might already exist"
+
+echo "Getting client ID for $PLANNING_CLIENT_ID..."
+PLANNING_CLIENT_UUID=$(curl -s -X GET "$KEYCLOAK_URL/admin/realms/$REALM/clients?clientId=$PLANNING_CLIENT_ID" \
+     -H "Authorization: Bearer $TOKEN" | jq -r '.[0].id')
+
+echo "Ensuring confidential settings and secret for $PLANNING_CLIENT_ID..."
+curl -s -X PUT "$KEYCLOAK_URL/admin/realms/$REALM/clients/$PLANNING_CLIENT_UUID" \
+     -H "Authorization: Bearer $TOKEN" \
+     -H "Content-Type: application/json" \
+     -d "$PLANNING_CLIENT_JSON"
+
+echo "Getting service account user of $PLANNING_CLIENT_ID..."
+SERVICE_USER_ID=$(curl -s -X GET "$KEYCLOAK_URL/admin/realms/$REALM/clients/$PLANNING_CLIENT_UUID/service-account-user" \
+     -H "Authorization: Bearer $TOKEN" | jq -r '.id')
+
+echo "Getting role ID for service..."
+SERVICE_ROLE_ID=$(curl -s -X GET "$KEYCLOAK_URL/admin/realms/$REALM/roles/service" \
+     -H "Authorization: Bearer $TOKEN" | jq -r '.id')
+
+echo "Assigning service role to $PLANNING_CLIENT_ID service account..."
+curl -s -X POST "$KEYCLOAK_URL/admin/realms/$REALM/users/$SERVICE_USER_ID/role-mappings/realm" \
+     -H "Authorization: Bearer $TOKEN" \
+     -H "Content-Type: application/json" \
+     -d "[{\"id\": \"$SERVICE_ROLE_ID\", \"name\": \"service\"}]"
+
 echo "Keycloak setup complete."
@@ -1,6 +1,8 @@
 package com.learnsmart.tracking.controller;
 
 import com.learnsmart.tracking.dto.DailyActivityResponse;
+import com.learnsmart.tracking.dto.LastActivityRequest;
+import com.learnsmart.tracking.dto.LastActivityResponse;
 import com.learnsmart.tracking.dto.UserStatsResponse;
 import com.learnsmart.tracking.service.AnalyticsService;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +12,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -37,4 +40,22 @@ public class AnalyticsController {
 
         return ResponseEntity.ok(analyticsService.getActivity(userId, from, to));
     }
+
+    /**
+     * Last event time for a batch of users, for inactivity detection.
+     * Users without events are omitted from the response.
+     */
+    @PostMapping("/users/last-activity")
+    public ResponseEntity<?> getLastActivity(@RequestBody LastActivityRequest request) {
+        try {
+            List<LastActivityResponse> lastActivity = analyticsService.getLastActivity(request.userIds());
+            return ResponseEntity.ok(lastActivity);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(Map.of(
+                            "error", "Invalid last-activity request",
+                            "message", e.getMessage()));
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.learnsmart.tracking.controller;
 
+import com.learnsmart.tracking.dto.BatchEventResponse;
 import com.learnsmart.tracking.model.LearningEvent;
 import com.learnsmart.tracking.repository.LearningEventRepository;
 import com.learnsmart.tracking.service.TrackingService;
@@ -12,6 +13,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -43,6 +45,15 @@ public class TrackingController {
         }
     }
 
+    /**
+     * Creates several learning events in one call (used by service outbox
+     * relays). Invalid events are reported in the response, not stored.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchEventResponse> createEvents(@RequestBody List<LearningEvent> events) {
+        return ResponseEntity.accepted().body(trackingService.createEvents(events));
+    }
+
     @GetMapping
     public Page<LearningEvent> getEvents(
             @RequestParam(required = false) UUID userId,
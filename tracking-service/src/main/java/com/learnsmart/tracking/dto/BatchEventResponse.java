@@ -0,0 +1,13 @@
+package com.learnsmart.tracking.dto;
+
+import java.util.List;
+
+public record BatchEventResponse(
+        int accepted,
+        List<RejectedEvent> rejected) {
+
+    public record RejectedEvent(
+            int index,
+            String message) {
+    }
+}
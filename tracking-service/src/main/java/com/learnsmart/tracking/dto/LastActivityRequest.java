@@ -0,0 +1,8 @@
+package com.learnsmart.tracking.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record LastActivityRequest(
+        List<UUID> userIds) {
+}
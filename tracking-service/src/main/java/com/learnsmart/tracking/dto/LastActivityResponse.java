@@ -0,0 +1,9 @@
+package com.learnsmart.tracking.dto;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+public record LastActivityResponse(
+        UUID userId,
+        OffsetDateTime lastOccurredAt) {
+}
@@ -15,7 +15,7 @@ import java.time.OffsetDateTime;
 public class LearningEvent {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Column(name = "user_id", nullable = false)
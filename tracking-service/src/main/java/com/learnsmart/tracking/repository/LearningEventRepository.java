@@ -6,6 +6,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 import java.time.OffsetDateTime;
 
@@ -27,4 +29,22 @@ public interface LearningEventRepository extends JpaRepository<LearningEvent, UU
             @Param("from") OffsetDateTime from,
             @Param("to") OffsetDateTime to,
             Pageable pageable);
+
+    /**
+     * Last-activity projection of a user
+     */
+    interface UserLastActivity {
+        UUID getUserId();
+
+        OffsetDateTime getLastOccurredAt();
+    }
+
+    /**
+     * Last event time of many users in one aggregate, served by the
+     * (user_id, occurred_at) index. Users without events are not returned.
+     */
+    @Query("SELECT e.userId AS userId, MAX(e.occurredAt) AS lastOccurredAt FROM LearningEvent e " +
+            "WHERE e.userId IN :userIds AND e.deletedAt IS NULL " +
+            "GROUP BY e.userId")
+    List<UserLastActivity> findLastActivity(@Param("userIds") Collection<UUID> userIds);
 }
@@ -1,6 +1,7 @@
 package com.learnsmart.tracking.service;
 
 import com.learnsmart.tracking.dto.DailyActivityResponse;
+import com.learnsmart.tracking.dto.LastActivityResponse;
 import com.learnsmart.tracking.dto.UserStatsResponse;
 import com.learnsmart.tracking.model.LearningEvent;
 import com.learnsmart.tracking.repository.LearningEventRepository;
@@ -20,6 +21,9 @@ public class AnalyticsService {
 
     private final LearningEventRepository eventRepository;
 
+    // Upper bound of user IDs accepted by one last-activity lookup
+    public static final int MAX_LAST_ACTIVITY_USERS = 1000;
+
     public UserStatsResponse calculateStats(UUID userId) {
         // Get all events for the user (paginated to avoid memory issues)
         var events = eventRepository.findEvents(
@@ -81,6 +85,34 @@ public class AnalyticsService {
                 .toList();
     }
 
+    /**
+     * Last event time for many users in a single query (used by
+     * planning-service for inactivity detection).
+     *
+     * @throws IllegalArgumentException if more than
+     *                                  {@link #MAX_LAST_ACTIVITY_USERS} IDs
+     *                                  are requested
+     */
+    public List<LastActivityResponse> getLastActivity(List<UUID> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return List.of();
+        }
+        Set<UUID> distinct = userIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (distinct.size() > MAX_LAST_ACTIVITY_USERS) {
+            throw new IllegalArgumentException(
+                    "At most " + MAX_LAST_ACTIVITY_USERS + " userIds per request, got " + distinct.size());
+        }
+        if (distinct.isEmpty()) {
+            return List.of();
+        }
+
+        return eventRepository.findLastActivity(distinct).stream()
+                .map(row -> new LastActivityResponse(row.getUserId(), row.getLastOccurredAt()))
+                .toList();
+    }
+
     private double extractDurationSeconds(LearningEvent event) {
         if (event.getPayload() == null)
             return 0.0;
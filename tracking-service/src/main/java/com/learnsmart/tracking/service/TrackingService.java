@@ -1,5 +1,6 @@
 package com.learnsmart.tracking.service;
 
+import com.learnsmart.tracking.dto.BatchEventResponse;
 import com.learnsmart.tracking.model.LearningEvent;
 import com.learnsmart.tracking.repository.LearningEventRepository;
 import com.learnsmart.tracking.validator.EventPayloadValidator;
@@ -10,6 +11,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -35,6 +38,34 @@ public class TrackingService {
         return repository.save(event);
     }
 
+    /**
+     * Stores a batch of events (e.g. relayed from a service outbox) in one
+     * transaction. Events failing payload validation are reported by index
+     * and skipped so they cannot block the rest of the batch.
+     */
+    @Transactional
+    public BatchEventResponse createEvents(List<LearningEvent> events) {
+        List<LearningEvent> valid = new ArrayList<>();
+        List<BatchEventResponse.RejectedEvent> rejected = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            LearningEvent event = events.get(i);
+            try {
+                if (event.getUserId() == null || event.getEventType() == null) {
+                    throw new IllegalArgumentException("userId and eventType are required");
+                }
+                if (event.getPayload() != null && !event.getPayload().isBlank()) {
+                    payloadValidator.validate(event.getEventType(), event.getPayload());
+                }
+                valid.add(event);
+            } catch (IllegalArgumentException e) {
+                rejected.add(new BatchEventResponse.RejectedEvent(i, e.getMessage()));
+            }
+        }
+
+        repository.saveAll(valid);
+        return new BatchEventResponse(valid.size(), rejected);
+    }
+
     public Page<LearningEvent> listEvents(UUID userId, String eventType, String entityType, UUID entityId,
             OffsetDateTime from, OffsetDateTime to, Pageable pageable) {
         return repository.findEvents(userId, eventType, entityType, entityId, from, to, pageable);
@@ -15,6 +15,7 @@ CREATE TABLE IF NOT EXISTS learning_events_v2 (
     deleted_at      TIMESTAMPTZ
 );
 
-CREATE INDEX IF NOT EXISTS idx_learning_events_user_occurred ON learning_events_v2 (user_id, occurred_at DESC);
+-- Partial: every read path filters out soft-deleted events; also serves the batched last-activity MAX per user
+CREATE INDEX IF NOT EXISTS idx_learning_events_user_occurred ON learning_events_v2 (user_id, occurred_at DESC) WHERE deleted_at IS NULL;
 CREATE INDEX IF NOT EXISTS idx_learning_events_type_occurred ON learning_events_v2 (event_type, occurred_at DESC);
 CREATE INDEX IF NOT EXISTS idx_learning_events_entity ON learning_events_v2 (entity_type, entity_id);
@@ -10,6 +10,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -53,5 +54,12 @@ class TrackingServiceIntegrationTests {
         Page<LearningEvent> allUserEvents = repository.findEvents(
                 userId, null, null, null, null, null, PageRequest.of(0, 10));
         assertEquals(2, allUserEvents.getTotalElements());
+
+        // 5. Batched last activity: latest event per user, unknown users omitted
+        List<LearningEventRepository.UserLastActivity> lastActivity = repository
+                .findLastActivity(List.of(userId, UUID.randomUUID()));
+        assertEquals(1, lastActivity.size());
+        assertEquals(userId, lastActivity.get(0).getUserId());
+        assertTrue(lastActivity.get(0).getLastOccurredAt().isAfter(event2.getOccurredAt()));
     }
 }
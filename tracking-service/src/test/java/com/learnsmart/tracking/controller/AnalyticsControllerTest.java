@@ -1,6 +1,8 @@
 package com.learnsmart.tracking.controller;
 
 import com.learnsmart.tracking.dto.DailyActivityResponse;
+import com.learnsmart.tracking.dto.LastActivityRequest;
+import com.learnsmart.tracking.dto.LastActivityResponse;
 import com.learnsmart.tracking.dto.UserStatsResponse;
 import com.learnsmart.tracking.service.AnalyticsService;
 import org.junit.jupiter.api.Test;
@@ -12,6 +14,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
@@ -75,4 +78,25 @@ class AnalyticsControllerTest {
         assertTrue(response.getBody().isEmpty());
         verify(analyticsService).getActivity(eq(userId), any(LocalDate.class), any(LocalDate.class));
     }
+
+    @Test
+    void testGetLastActivity() {
+        UUID userId = UUID.randomUUID();
+        List<LastActivityResponse> lastActivity = List.of(new LastActivityResponse(userId, OffsetDateTime.now()));
+        when(analyticsService.getLastActivity(List.of(userId))).thenReturn(lastActivity);
+
+        ResponseEntity<?> response = controller.getLastActivity(new LastActivityRequest(List.of(userId)));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(lastActivity, response.getBody());
+    }
+
+    @Test
+    void testGetLastActivity_TooManyUsers() {
+        when(analyticsService.getLastActivity(any())).thenThrow(new IllegalArgumentException("too many"));
+
+        ResponseEntity<?> response = controller.getLastActivity(new LastActivityRequest(List.of(UUID.randomUUID())));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
 }
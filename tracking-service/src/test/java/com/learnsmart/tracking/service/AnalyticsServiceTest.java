@@ -1,6 +1,7 @@
 package com.learnsmart.tracking.service;
 
 import com.learnsmart.tracking.dto.DailyActivityResponse;
+import com.learnsmart.tracking.dto.LastActivityResponse;
 import com.learnsmart.tracking.dto.UserStatsResponse;
 import com.learnsmart.tracking.model.LearningEvent;
 import com.learnsmart.tracking.repository.LearningEventRepository;
@@ -194,4 +195,37 @@ class AnalyticsServiceTest {
 
         assertTrue(activity.isEmpty());
     }
+
+    @Test
+    void testGetLastActivity_SingleQuery() {
+        UUID userId = UUID.randomUUID();
+        OffsetDateTime last = OffsetDateTime.now().minusDays(2);
+        LearningEventRepository.UserLastActivity row = new LearningEventRepository.UserLastActivity() {
+            public UUID getUserId() {
+                return userId;
+            }
+
+            public OffsetDateTime getLastOccurredAt() {
+                return last;
+            }
+        };
+        when(eventRepository.findLastActivity(any())).thenReturn(List.of(row));
+
+        List<LastActivityResponse> result = analyticsService.getLastActivity(List.of(userId, userId, UUID.randomUUID()));
+
+        assertEquals(1, result.size());
+        assertEquals(last, result.get(0).lastOccurredAt());
+        verify(eventRepository, times(1)).findLastActivity(any());
+    }
+
+    @Test
+    void testGetLastActivity_TooManyUsers() {
+        List<UUID> userIds = new ArrayList<>();
+        for (int i = 0; i <= AnalyticsService.MAX_LAST_ACTIVITY_USERS; i++) {
+            userIds.add(UUID.randomUUID());
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> analyticsService.getLastActivity(userIds));
+        verifyNoInteractions(eventRepository);
+    }
 }
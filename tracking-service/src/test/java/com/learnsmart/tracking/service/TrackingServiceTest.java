@@ -1,5 +1,6 @@
 package com.learnsmart.tracking.service;
 
+import com.learnsmart.tracking.dto.BatchEventResponse;
 import com.learnsmart.tracking.model.LearningEvent;
 import com.learnsmart.tracking.repository.LearningEventRepository;
 import com.learnsmart.tracking.validator.EventPayloadValidator;
@@ -15,6 +16,7 @@ import org.springframework.data.domain.Pageable;
 
 import java.time.OffsetDateTime;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -82,4 +84,28 @@ class TrackingServiceTest {
         assertTrue(result.isEmpty());
         verify(repository).findEvents(userId, null, null, null, null, null, pageable);
     }
+
+    @Test
+    void testCreateEvents_SkipsInvalid() {
+        LearningEvent valid = new LearningEvent();
+        valid.setUserId(UUID.randomUUID());
+        valid.setEventType("ACTIVITY_COMPLETE");
+        valid.setPayload("{\"ok\":true}");
+
+        LearningEvent invalid = new LearningEvent();
+        invalid.setUserId(UUID.randomUUID());
+        invalid.setEventType("ACTIVITY_COMPLETE");
+        invalid.setPayload("{}");
+
+        doNothing().when(payloadValidator).validate("ACTIVITY_COMPLETE", "{\"ok\":true}");
+        doThrow(new IllegalArgumentException("Missing required field"))
+                .when(payloadValidator).validate("ACTIVITY_COMPLETE", "{}");
+
+        BatchEventResponse response = trackingService.createEvents(List.of(valid, invalid));
+
+        assertEquals(1, response.accepted());
+        assertEquals(1, response.rejected().size());
+        assertEquals(1, response.rejected().get(0).index());
+        verify(repository).saveAll(List.of(valid));
+    }
 }